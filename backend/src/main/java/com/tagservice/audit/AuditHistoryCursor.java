@@ -0,0 +1,52 @@
+package com.tagservice.audit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token of an organization history page.
+ * <p>
+ * The token carries the timestamp and ID of the page's last audit row; the next page continues
+ * with a keyset seek past that position, like {@link com.tagservice.search.SearchCursor}.
+ * Timestamps are kept in microseconds, the precision of {@code TIMESTAMPTZ}.
+ *
+ * @param createdAt the timestamp of the last audit row returned
+ * @param auditId   the ID of the last audit row returned
+ */
+public record AuditHistoryCursor(Instant createdAt, long auditId) {
+
+    private static final String PREFIX = "v1:";
+
+    /**
+     * Returns the token that continues after this position.
+     */
+    public String encode() {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, createdAt);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + micros + ":" + auditId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns the position a token continues after.
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode}
+     */
+    public static AuditHistoryCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = decoded.indexOf(':', PREFIX.length());
+            if (decoded.startsWith(PREFIX) && separator > 0) {
+                long micros = Long.parseLong(decoded.substring(PREFIX.length(), separator));
+                long auditId = Long.parseLong(decoded.substring(separator + 1));
+                if (auditId >= 0) {
+                    return new AuditHistoryCursor(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), auditId);
+                }
+            }
+        } catch (IllegalArgumentException | ArithmeticException ex) {
+            // Not Base64 or not numbers; NumberFormatException is an IllegalArgumentException
+        }
+        throw new IllegalArgumentException("Invalid cursor.");
+    }
+}
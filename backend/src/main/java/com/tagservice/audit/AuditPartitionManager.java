@@ -0,0 +1,310 @@
+package com.tagservice.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code organizations_audit} split into monthly partitions.
+ * <p>
+ * Every run, on startup and then every {@code tagservice.audit.partitions.interval}:
+ * <ol>
+ *   <li>creates the partitions of the current month and the next {@code months-ahead} months, so
+ *       audit rows never land in {@code organizations_audit_default};</li>
+ *   <li>gives every month that still has rows in the default partition (rows written before the
+ *       partitions existed) a partition of its own and moves the rows into it;</li>
+ *   <li>detaches, or detaches and drops, partitions older than {@code retention-months}.</li>
+ * </ol>
+ * Partitions are named {@code organizations_audit_yYYYYmMM} and cover one calendar month in UTC;
+ * partitions named otherwise are left alone. Each partition is created or retired in its own
+ * transaction, which locks the default partition against writes while rows are moved and, once
+ * its CHECK constraint excluding the new month is validated, against reads too. That validation
+ * scans the default partition, so the current and upcoming months are created first, keeping new
+ * rows out of it, and the months left in it after that. These
+ * transactions take an advisory lock first and skip partitions another node has already dealt
+ * with, so several nodes can run the manager.
+ * The database user must own {@code organizations_audit}.
+ */
+@Component
+@ConditionalOnProperty(name = "tagservice.audit.partitions.enabled", havingValue = "true")
+@Slf4j
+public class AuditPartitionManager implements SmartLifecycle {
+
+    static final String PARENT = "organizations_audit";
+    static final String DEFAULT_PARTITION = "organizations_audit_default";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("organizations_audit_y(\\d{4})m(\\d{2})");
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'organizations_audit'::regclass
+            """;
+
+    private static final String DEFAULT_MONTHS_SQL = """
+            SELECT DISTINCT to_char(created_at AT TIME ZONE 'UTC', 'YYYY-MM') FROM organizations_audit_default
+            WHERE created_at IS NOT NULL
+            """;
+
+    private static final String ADVISORY_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('organizations_audit_partitions'))";
+
+    private static final String IS_ATTACHED_SQL = """
+            SELECT EXISTS (SELECT 1 FROM pg_inherits
+                           WHERE inhparent = 'organizations_audit'::regclass AND inhrelid = to_regclass(?))
+            """;
+
+    /**
+     * What one run changes.
+     *
+     * @param create months to create partitions for: the current and upcoming months first, then
+     *               the months with rows in the default partition, oldest first
+     * @param retire months whose partitions are past retention, oldest first
+     */
+    record Plan(List<YearMonth> create, List<YearMonth> retire) {
+    }
+
+    /**
+     * What happens to partitions past retention.
+     */
+    public enum RetentionAction {
+        /** Detached and kept as standalone tables, e.g. for archiving. */
+        DETACH,
+        /** Detached and dropped. */
+        DROP
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final RetentionAction retentionAction;
+    private final long intervalMillis;
+    private final String lockTimeout;
+    private final Counter createdCounter;
+    private final Counter retiredCounter;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public AuditPartitionManager(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${tagservice.audit.partitions.months-ahead:3}") int monthsAhead,
+                                 @Value("${tagservice.audit.partitions.retention-months:24}") int retentionMonths,
+                                 @Value("${tagservice.audit.partitions.retention-action:DETACH}") RetentionAction retentionAction,
+                                 @Value("${tagservice.audit.partitions.interval:PT1H}") Duration interval,
+                                 @Value("${tagservice.audit.partitions.lock-timeout:PT5S}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+        this.intervalMillis = interval.toMillis();
+        this.lockTimeout = lockTimeout.toMillis() + "ms";
+        this.createdCounter = meterRegistry.counter("tagservice.audit.partitions.created");
+        this.retiredCounter = meterRegistry.counter("tagservice.audit.partitions.retired");
+    }
+
+    /**
+     * Runs one maintenance pass; failures are logged and retried on the next run.
+     */
+    public void maintain() {
+        try {
+            Plan plan = transactionTemplate.execute(status -> plan(YearMonth.now(ZoneOffset.UTC), listPartitions(),
+                    listDefaultMonths(), monthsAhead, retentionMonths));
+            // One transaction per partition, so that a failure only loses one month and no lock is
+            // held longer than one move
+            for (YearMonth month : plan.create()) {
+                transactionTemplate.executeWithoutResult(status -> createPartition(month));
+            }
+            for (YearMonth month : plan.retire()) {
+                transactionTemplate.executeWithoutResult(status -> retirePartition(month));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Maintaining audit partitions failed, retrying in {} ms", intervalMillis, ex);
+        }
+    }
+
+    private Set<YearMonth> listPartitions() {
+        Set<YearMonth> months = new TreeSet<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+            YearMonth month = parsePartitionName(name);
+            if (month != null) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    private Set<YearMonth> listDefaultMonths() {
+        Set<YearMonth> months = new TreeSet<>();
+        for (String month : jdbcTemplate.queryForList(DEFAULT_MONTHS_SQL, String.class)) {
+            // Rows without created_at belong to no month and stay in the default partition
+            if (month != null) {
+                months.add(YearMonth.parse(month));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Decides which partitions to create and which to retire.
+     *
+     * @param current         the current month (UTC)
+     * @param existing        months that already have a partition
+     * @param inDefault       months that have rows in the default partition
+     * @param monthsAhead     months after the current one to create in advance
+     * @param retentionMonths months before the current one to keep; 0 or less keeps everything
+     */
+    static Plan plan(YearMonth current, Set<YearMonth> existing, Set<YearMonth> inDefault,
+                     int monthsAhead, int retentionMonths) {
+        YearMonth oldestKept = retentionMonths > 0 ? current.minusMonths(retentionMonths) : null;
+        Set<YearMonth> create = new LinkedHashSet<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            create.add(current.plusMonths(i));
+        }
+        create.addAll(new TreeSet<>(inDefault));
+        create.removeAll(existing);
+
+        Set<YearMonth> retire = new TreeSet<>();
+        if (oldestKept != null) {
+            // Default rows past retention are moved into a partition first and retired with it
+            for (YearMonth month : existing) {
+                if (month.isBefore(oldestKept)) {
+                    retire.add(month);
+                }
+            }
+            for (YearMonth month : create) {
+                if (month.isBefore(oldestKept)) {
+                    retire.add(month);
+                }
+            }
+        }
+        return new Plan(new ArrayList<>(create), new ArrayList<>(retire));
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("%s_y%04dm%02d", PARENT, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Returns the month of a partition created by this manager, or null for any other table.
+     */
+    static YearMonth parsePartitionName(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int month = Integer.parseInt(matcher.group(2));
+        return month >= 1 && month <= 12 ? YearMonth.of(Integer.parseInt(matcher.group(1)), month) : null;
+    }
+
+    /**
+     * Creates the partition of one month as a standalone table, moves that month's rows out of the
+     * default partition into it and attaches it. Attaching has to prove that the new partition only
+     * holds rows of the month and the default partition none: a CHECK constraint matching the
+     * bounds on the new table, and one excluding them on the default partition, let it skip both
+     * scans. Validating the latter still scans the default partition once, under the lock. Both
+     * constraints are dropped again once the partition bounds take over.
+     */
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        String from = bound(month);
+        String to = bound(month.plusMonths(1));
+        String range = "created_at >= '" + from + "' AND created_at < '" + to + "'";
+
+        if (!lockAndCheck(name, false)) {
+            return;
+        }
+        jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + PARENT + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS,"
+                + " CONSTRAINT " + name + "_bounds CHECK (" + range + "))");
+        int moved = jdbcTemplate.update("INSERT INTO " + name + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range);
+        if (moved > 0) {
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + DEFAULT_PARTITION + " ADD CONSTRAINT " + name + "_excluded"
+                + " CHECK (NOT (" + range + ")) NOT VALID");
+        jdbcTemplate.execute("ALTER TABLE " + DEFAULT_PARTITION + " VALIDATE CONSTRAINT " + name + "_excluded");
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        jdbcTemplate.execute("ALTER TABLE " + name + " DROP CONSTRAINT " + name + "_bounds");
+        jdbcTemplate.execute("ALTER TABLE " + DEFAULT_PARTITION + " DROP CONSTRAINT " + name + "_excluded");
+        createdCounter.increment();
+        log.info("Created audit partition {} and moved {} rows into it from {}", name, moved, DEFAULT_PARTITION);
+    }
+
+    private void retirePartition(YearMonth month) {
+        String name = partitionName(month);
+        if (!lockAndCheck(name, true)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + name);
+        if (retentionAction == RetentionAction.DROP) {
+            jdbcTemplate.execute("DROP TABLE " + name);
+        }
+        retiredCounter.increment();
+        log.info("Audit partition {} is past the retention of {} months: {}", name, retentionMonths,
+                retentionAction == RetentionAction.DROP ? "dropped" : "detached");
+    }
+
+    /**
+     * Serializes partition changes across nodes for the current transaction and returns whether
+     * the partition is (still) attached as expected, i.e. whether another node got there first.
+     */
+    private boolean lockAndCheck(String name, boolean attached) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout + "'");
+        jdbcTemplate.execute(ADVISORY_LOCK_SQL);
+        return attached == Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_ATTACHED_SQL, Boolean.class, name));
+    }
+
+    private static String bound(YearMonth month) {
+        return LocalDate.of(month.getYear(), month.getMonth(), 1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-partition-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::maintain, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,187 @@
+package com.tagservice.bulkhead;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tagservice.context.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
+
+/**
+ * Limits how many pooled database connections each tenant, and all tenants together, may hold at
+ * once, so that one tenant's heavy queries cannot take the whole pool.
+ * <p>
+ * A connection for a tenant first takes one of its tenant's permits, whose number depends on the
+ * organization type ({@code tagservice.db.bulkhead.tenant-permits.<type>}, falling back to
+ * {@code tenant-permits.default}), and then one of the global permits. Tenants queue for global
+ * permits in arrival order, and each tenant can only queue as many waiters there as it has
+ * permits, so a busy tenant delays the others by at most its own share. The global permits should
+ * stay below the pool size: connections taken outside a tenant context, such as the organization
+ * lookups of tenant resolution, need no permit and use the remainder.
+ * <p>
+ * A connection that cannot get both permits within the acquire timeout fails with
+ * {@link TenantBulkheadFullException}. Wait times and rejections are exported per tenant under
+ * {@value #METRIC_PREFIX}; the meters of tenants without connections for a while are removed with
+ * their state.
+ */
+@Component
+@Slf4j
+public class TenantBulkhead {
+
+    public static final String METRIC_PREFIX = "tagservice.db.bulkhead";
+
+    private static final String TENANT_PERMITS_PROPERTY = "tagservice.db.bulkhead.tenant-permits.";
+
+    /**
+     * Permits and meters of one tenant.
+     */
+    private record Compartment(String type, Semaphore permits, Timer waitTimer, Counter rejections) {
+    }
+
+    /**
+     * The permits held for one connection; closing it more than once has no effect.
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private static final Permit NONE = new Permit(null, null);
+
+        private final Semaphore tenantPermits;
+        private final Semaphore globalPermits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore tenantPermits, Semaphore globalPermits) {
+            this.tenantPermits = tenantPermits;
+            this.globalPermits = globalPermits;
+        }
+
+        @Override
+        public void close() {
+            if (tenantPermits != null && released.compareAndSet(false, true)) {
+                globalPermits.release();
+                tenantPermits.release();
+            }
+        }
+    }
+
+    private final Semaphore globalPermits;
+    private final long acquireTimeoutNanos;
+    private final ToIntFunction<String> permitsByType;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Long, Compartment> compartments;
+
+    @Autowired
+    public TenantBulkhead(@Value("${tagservice.db.bulkhead.global-permits:8}") int globalPermits,
+                          @Value("${tagservice.db.bulkhead.acquire-timeout:PT2S}") Duration acquireTimeout,
+                          @Value("${tagservice.db.bulkhead.tenant-permits.default:2}") int defaultTenantPermits,
+                          @Value("${tagservice.db.bulkhead.idle-tenant-expiry:PT10M}") Duration idleTenantExpiry,
+                          Environment environment,
+                          MeterRegistry meterRegistry) {
+        this(globalPermits, acquireTimeout,
+                type -> environment.getProperty(TENANT_PERMITS_PROPERTY + type, Integer.class, defaultTenantPermits),
+                idleTenantExpiry, meterRegistry);
+        log.info("Tenant database bulkhead with {} global permits, {} per tenant by default",
+                globalPermits, defaultTenantPermits);
+    }
+
+    TenantBulkhead(int globalPermits, Duration acquireTimeout, ToIntFunction<String> permitsByType,
+                   Duration idleTenantExpiry, MeterRegistry meterRegistry) {
+        this.globalPermits = new Semaphore(globalPermits, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.permitsByType = permitsByType;
+        this.meterRegistry = meterRegistry;
+        // A compartment still holding permits when it expires is only replaced by a fresh one; the
+        // held permits are returned to the old semaphore. Meters are kept while a newer compartment
+        // of the same tenant and type shares them.
+        this.compartments = Caffeine.newBuilder()
+                .expireAfterAccess(idleTenantExpiry)
+                .executor(Runnable::run)
+                .<Long, Compartment>removalListener((tenantId, compartment, cause) -> removeMeters(tenantId, compartment))
+                .build();
+        Gauge.builder(METRIC_PREFIX + ".global.available", this.globalPermits, Semaphore::availablePermits)
+                .description("Global permits not held by any tenant")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a tenant permit and a global permit for one connection of {@code tenant}, waiting up to
+     * the acquire timeout; without a tenant no permit is needed.
+     *
+     * @throws TenantBulkheadFullException if the permits could not be taken in time
+     */
+    public Permit acquire(TenantContext tenant) throws SQLException {
+        if (tenant == null) {
+            return Permit.NONE;
+        }
+        Compartment compartment = compartment(tenant);
+        long start = System.nanoTime();
+        try {
+            if (!compartment.permits().tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                compartment.rejections().increment();
+                throw new TenantBulkheadFullException(tenant.organizationId(),
+                        "Organization " + tenant.organizationId() + " is using all of its database connections");
+            }
+            long remaining = acquireTimeoutNanos - (System.nanoTime() - start);
+            if (!globalPermits.tryAcquire(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                compartment.permits().release();
+                compartment.rejections().increment();
+                throw new TenantBulkheadFullException(tenant.organizationId(),
+                        "All database connections for tenants are in use");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", ex);
+        } finally {
+            compartment.waitTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new Permit(compartment.permits(), globalPermits);
+    }
+
+    /**
+     * Returns the compartment of a tenant, replacing it when the tenant's type has changed.
+     */
+    private Compartment compartment(TenantContext tenant) {
+        return compartments.asMap().compute(tenant.organizationId(), (tenantId, current) ->
+                current != null && Objects.equals(current.type(), tenant.organizationType())
+                        ? current
+                        : newCompartment(tenant));
+    }
+
+    private void removeMeters(Long tenantId, Compartment compartment) {
+        Compartment live = tenantId != null ? compartments.asMap().get(tenantId) : null;
+        if (compartment != null && (live == null || live.waitTimer() != compartment.waitTimer())) {
+            meterRegistry.remove(compartment.waitTimer());
+            meterRegistry.remove(compartment.rejections());
+        }
+    }
+
+    private Compartment newCompartment(TenantContext tenant) {
+        String type = tenant.organizationType() != null ? tenant.organizationType() : "default";
+        Tags tags = Tags.of("tenant", tenant.organizationIdAsString(), "type", type);
+        return new Compartment(tenant.organizationType(),
+                new Semaphore(permitsByType.applyAsInt(type)),
+                Timer.builder(METRIC_PREFIX + ".wait")
+                        .description("Time spent waiting for a tenant's database connection permits")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Counter.builder(METRIC_PREFIX + ".rejections")
+                        .description("Connections refused because the tenant or all tenants were at their limit")
+                        .tags(tags)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,82 @@
+package com.tagservice.bulkhead;
+
+import com.tagservice.context.OrganizationContext;
+import com.tagservice.context.TenantContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Data source that takes {@link TenantBulkhead} permits for the tenant of the current request
+ * before handing out a pooled connection, and returns them when the connection is closed.
+ */
+public class TenantBulkheadDataSource extends DelegatingDataSource {
+
+    private final Supplier<TenantBulkhead> bulkhead;
+
+    /**
+     * @param bulkhead supplies the bulkhead on first use, so that wrapping the data source does not
+     *                 create the bulkhead and its meter registry before the data source exists
+     */
+    public TenantBulkheadDataSource(DataSource target, Supplier<TenantBulkhead> bulkhead) {
+        super(target);
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guard(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guard(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private Connection guard(ConnectionSupplier target) throws SQLException {
+        TenantContext tenant = OrganizationContext.current();
+        if (tenant == null) {
+            return target.get();
+        }
+        TenantBulkhead.Permit permit = bulkhead.get().acquire(tenant);
+        Connection connection;
+        try {
+            connection = target.get();
+        } catch (SQLException | RuntimeException ex) {
+            permit.close();
+            throw ex;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            try {
+                                connection.close();
+                            } finally {
+                                permit.close();
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException ex) {
+                                throw ex.getTargetException();
+                            }
+                    }
+                });
+    }
+}
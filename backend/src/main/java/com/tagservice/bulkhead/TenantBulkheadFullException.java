@@ -0,0 +1,22 @@
+package com.tagservice.bulkhead;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown when a tenant could not get a database connection within the acquire timeout because
+ * it, or all tenants together, already use as many connections as the {@link TenantBulkhead}
+ * allows.
+ */
+public class TenantBulkheadFullException extends SQLTransientConnectionException {
+
+    private final long organizationId;
+
+    public TenantBulkheadFullException(long organizationId, String reason) {
+        super(reason);
+        this.organizationId = organizationId;
+    }
+
+    public long getOrganizationId() {
+        return organizationId;
+    }
+}
@@ -0,0 +1,98 @@
+package com.tagservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tagservice.dto.error.OrganizationDto;
+import com.tagservice.event.OrganizationChangedEvent;
+import com.tagservice.invalidation.InvalidationEvent;
+import com.tagservice.invalidation.InvalidationSubscriber;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, in-process cache of active (non-soft-deleted) organizations keyed by ID.
+ * <p>
+ * Only active organizations are cached; lookups that fail (not found or deleted) are
+ * never stored. Entries expire after a fixed TTL and are invalidated explicitly once
+ * a change to the organization has been committed. Hit, miss and eviction counts are
+ * exported to Micrometer under the {@value #CACHE_NAME} cache name.
+ * <p>
+ * Changes made on other nodes arrive through
+ * {@link com.tagservice.invalidation.PostgresInvalidationListener}.
+ */
+@Component
+@Slf4j
+public class ActiveOrganizationCache implements InvalidationSubscriber {
+
+    public static final String CACHE_NAME = "organizations.active";
+
+    private final Cache<Long, OrganizationDto> cache;
+
+    public ActiveOrganizationCache(@Value("${tagservice.organization-cache.max-size:10000}") long maximumSize,
+                                   @Value("${tagservice.organization-cache.ttl:PT5M}") Duration ttl,
+                                   MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached organization, loading it with the given function on a miss.
+     * Exceptions thrown by the loader propagate to the caller and nothing is cached.
+     *
+     * @param id     the organization ID
+     * @param loader loads the active organization from the backing store
+     * @return the active organization
+     */
+    public OrganizationDto get(Long id, Function<Long, OrganizationDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Removes a single organization from the cache.
+     *
+     * @param id the organization ID
+     */
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Removes every cached organization.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalidates the changed organization once the change is committed, or immediately
+     * when the change happened outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChanged(OrganizationChangedEvent event) {
+        log.debug("Invalidating cached organization {} after {}", event.organizationId(), event.changeType());
+        invalidate(event.organizationId());
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.isFor(InvalidationEvent.ORGANIZATIONS)) {
+            invalidate(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        invalidateAll();
+    }
+}
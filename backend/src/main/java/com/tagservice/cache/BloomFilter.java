@@ -0,0 +1,133 @@
+package com.tagservice.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over {@code long} keys.
+ * <p>
+ * Bits live in an {@link AtomicLongArray}, so {@link #put(long)} and {@link #mightContain(long)}
+ * are lock-free and safe to call concurrently. The {@code k} probe positions are derived from
+ * one 64-bit mixed hash by double hashing.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+
+    private BloomFilter(long bitCount, int hashFunctions, long expectedInsertions) {
+        int wordCount = (int) Math.max(1, (bitCount + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashFunctions = hashFunctions;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Creates a filter sized for the given number of keys at the given false-positive probability.
+     *
+     * @param expectedInsertions the number of keys the filter is sized for
+     * @param falsePositiveProbability the target false-positive probability, between 0 and 1
+     * @return an empty filter
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("falsePositiveProbability must be between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2));
+        if (bits > (long) Integer.MAX_VALUE * 64) {
+            throw new IllegalArgumentException("Bloom filter would exceed the maximum size");
+        }
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * ln2));
+        return new BloomFilter(bits, hashes, expectedInsertions);
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @return true if a bit was set, so the key was definitely not added before; false if the
+     * key may have been added already
+     */
+    public boolean put(long key) {
+        long hash = mix(key);
+        long hash1 = hash;
+        long hash2 = hash >>> 32 | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashFunctions; i++) {
+            changed |= setBit(Math.floorMod(hash1 + i * hash2, bitCount));
+        }
+        return changed;
+    }
+
+    /**
+     * @return false if the key was definitely never added, true if it may have been
+     */
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        long hash1 = hash;
+        long hash2 = hash >>> 32 | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            if (!getBit(Math.floorMod(hash1 + i * hash2, bitCount))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The false-positive probability implied by the fraction of bits currently set.
+     */
+    public double currentFalsePositiveProbability() {
+        long setBits = 0;
+        for (int i = 0; i < words.length(); i++) {
+            setBits += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) setBits / bitCount, hashFunctions);
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    private boolean getBit(long index) {
+        return (words.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer, spreads sequential IDs over the whole bit range.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
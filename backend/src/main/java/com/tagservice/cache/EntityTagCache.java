@@ -0,0 +1,241 @@
+package com.tagservice.cache;
+
+import com.tagservice.event.TagsChangedEvent;
+import com.tagservice.invalidation.InvalidationEvent;
+import com.tagservice.invalidation.InvalidationSubscriber;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of each entity's tags and tag version, keyed by tenant, entity type and entity ID.
+ * <p>
+ * Tag sets are stored in a compact binary form ({@link TagSetCodec}) in direct memory, split over
+ * lock-striped {@link OffHeapTagSegment segments}, so a large working set adds almost nothing to
+ * the heap the garbage collector has to trace. When a segment is full its least recently used
+ * entries are evicted. Off-heap bytes are accounted per tenant, and no tenant may hold more than
+ * a configured share of the cache: a tenant at its share evicts its own least recently used
+ * entries, in whichever segment they are, to make room for a new one.
+ * <p>
+ * Entries are invalidated once a tag change has been committed; changes made on other nodes
+ * arrive through {@link com.tagservice.invalidation.PostgresInvalidationListener}.
+ */
+@Component
+@Slf4j
+public class EntityTagCache implements InvalidationSubscriber {
+
+    private static final String METRIC_PREFIX = "tagservice.entity-tag-cache";
+
+    private final boolean enabled;
+    private final OffHeapTagSegment[] segments;
+    private final TenantMemoryUsage tenantMemoryUsage;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public EntityTagCache(@Value("${tagservice.entity-tag-cache.enabled:true}") boolean enabled,
+                          @Value("${tagservice.entity-tag-cache.capacity:64MB}") DataSize capacity,
+                          @Value("${tagservice.entity-tag-cache.block-size:128}") int blockSize,
+                          @Value("${tagservice.entity-tag-cache.segments:16}") int segmentCount,
+                          @Value("${tagservice.entity-tag-cache.max-tenant-share:0.25}") double maxTenantShare,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        long capacityBytes = enabled ? capacity.toBytes() : 0;
+        this.tenantMemoryUsage = new TenantMemoryUsage((long) (capacityBytes * maxTenantShare));
+        int blocksPerSegment = (int) Math.min(capacityBytes / segmentCount / blockSize, Integer.MAX_VALUE / blockSize);
+        this.segments = new OffHeapTagSegment[enabled ? segmentCount : 0];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new OffHeapTagSegment(blocksPerSegment, blockSize, tenantMemoryUsage);
+        }
+        registerMetrics(meterRegistry);
+        log.info("Entity tag cache {} with {} bytes off-heap in {} segments", enabled ? "enabled" : "disabled",
+                capacityBytes, segments.length);
+    }
+
+    /**
+     * Returns the cached tags of an entity, loading and caching them on a miss.
+     *
+     * @param key    the entity
+     * @param loader loads the entity's tags from the backing store
+     * @return the entity's tags
+     */
+    public EntityTags get(EntityTagKey key, Supplier<EntityTags> loader) {
+        EntityTags cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long token = readToken(key);
+        EntityTags tags = loader.get();
+        put(key, tags, token);
+        return tags;
+    }
+
+    /**
+     * Returns the cached tags of an entity, or null if they are not cached.
+     */
+    public EntityTags getIfPresent(EntityTagKey key) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] data = segmentFor(key).get(key);
+        if (data == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return TagSetCodec.decode(data);
+    }
+
+    /**
+     * Returns the token to pass to {@link #put} for data loaded from now on. Must be read before
+     * the data is loaded.
+     */
+    public long readToken(EntityTagKey key) {
+        return enabled ? segmentFor(key).epoch() : 0;
+    }
+
+    /**
+     * Caches an entity's tags unless the entity may have changed since {@code token} was read.
+     *
+     * @param key   the entity
+     * @param tags  the tags and version loaded after reading {@code token}
+     * @param token the value of {@link #readToken} before loading
+     */
+    public void put(EntityTagKey key, EntityTags tags, long token) {
+        if (!enabled) {
+            return;
+        }
+        OffHeapTagSegment segment = segmentFor(key);
+        byte[] data = TagSetCodec.encode(tags);
+        while (segment.put(key, data, token) == OffHeapTagSegment.PutResult.TENANT_FULL) {
+            if (!evictOldestOf(key.tenantId())) {
+                // Only possible while another thread holds the tenant's memory for a moment
+                tenantMemoryUsage.recordRejection();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evicts the tenant's least recently used entry of all segments. Segments are locked one at a
+     * time, so under concurrent use the choice is approximate.
+     *
+     * @return false if the tenant has no entries
+     */
+    private boolean evictOldestOf(long tenantId) {
+        OffHeapTagSegment oldest = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (OffHeapTagSegment segment : segments) {
+            long access = segment.oldestAccessOf(tenantId);
+            if (access < oldestAccess) {
+                oldest = segment;
+                oldestAccess = access;
+            }
+        }
+        return oldest != null && oldest.evictOldestOf(tenantId);
+    }
+
+    public void invalidate(EntityTagKey key) {
+        if (enabled) {
+            segmentFor(key).invalidate(key);
+        }
+    }
+
+    public void invalidateTenant(long tenantId) {
+        for (OffHeapTagSegment segment : segments) {
+            segment.invalidateTenant(tenantId);
+        }
+    }
+
+    public void invalidateAll() {
+        for (OffHeapTagSegment segment : segments) {
+            segment.invalidateAll();
+        }
+    }
+
+    /**
+     * Off-heap bytes currently held for one tenant.
+     */
+    public long getTenantMemoryUsage(long tenantId) {
+        return tenantMemoryUsage.usage(tenantId);
+    }
+
+    /**
+     * Off-heap bytes currently held per tenant, for tenants that hold any.
+     */
+    public Map<Long, Long> getTenantMemoryUsage() {
+        return tenantMemoryUsage.snapshot();
+    }
+
+    /**
+     * Invalidates the changed entity (or the whole tenant) once the change is committed, or
+     * immediately when the change happened outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(TagsChangedEvent event) {
+        if (event.isTenantWide()) {
+            invalidateTenant(event.tenantId());
+        } else {
+            invalidate(new EntityTagKey(event.tenantId(), event.entityType(), event.entityId()));
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.isFor(InvalidationEvent.TAGS)) {
+            onTagsChanged(new TagsChangedEvent(event.organizationId(), event.entityType(), event.entityId()));
+        } else if (event.isFor(InvalidationEvent.ORGANIZATIONS) && "DELETE".equals(event.operation())) {
+            invalidateTenant(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        invalidateAll();
+    }
+
+    private OffHeapTagSegment segmentFor(EntityTagKey key) {
+        int hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".hits", hits, LongAdder::sum)
+                .description("Entity tag lookups served from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + ".misses", misses, LongAdder::sum)
+                .description("Entity tag lookups that went to the database")
+                .register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", segments,
+                        s -> Arrays.stream(s).mapToLong(OffHeapTagSegment::evictionCount).sum())
+                .description("Entries evicted to make room for new ones")
+                .register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + ".tenant-limit-rejections", tenantMemoryUsage,
+                        TenantMemoryUsage::rejectionCount)
+                .description("Entries not cached because their tenant's memory limit left no room for them")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", segments,
+                        s -> Arrays.stream(s).mapToLong(OffHeapTagSegment::size).sum())
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".used-bytes", segments,
+                        s -> Arrays.stream(s).mapToLong(OffHeapTagSegment::usedBytes).sum())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".capacity-bytes", segments,
+                        s -> Arrays.stream(s).mapToLong(OffHeapTagSegment::capacityBytes).sum())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".tenants", tenantMemoryUsage, u -> u.snapshot().size())
+                .description("Tenants with at least one cached entity")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tagservice.cache;
+
+/**
+ * Key of one entity's tag set in {@link EntityTagCache}.
+ *
+ * @param tenantId   the owning tenant
+ * @param entityType the entity type
+ * @param entityId   the entity ID
+ */
+public record EntityTagKey(long tenantId, String entityType, String entityId) {
+}
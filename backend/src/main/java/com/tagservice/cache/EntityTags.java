@@ -0,0 +1,14 @@
+package com.tagservice.cache;
+
+import com.tagservice.dto.TagDto;
+
+import java.util.List;
+
+/**
+ * One entity's tags together with the version they were read at.
+ *
+ * @param version the entity's tag version, as exposed in the {@code ETag} header
+ * @param tags    the entity's tags, ordered by key
+ */
+public record EntityTags(long version, List<TagDto> tags) {
+}
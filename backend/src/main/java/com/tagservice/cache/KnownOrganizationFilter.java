@@ -0,0 +1,259 @@
+package com.tagservice.cache;
+
+import com.tagservice.event.OrganizationChangedEvent;
+import com.tagservice.invalidation.InvalidationEvent;
+import com.tagservice.invalidation.InvalidationSubscriber;
+import com.tagservice.replica.PrimaryReads;
+import com.tagservice.service.OrganizationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node negative cache of organization IDs backed by a {@link BloomFilter}.
+ * <p>
+ * The filter is built from all rows of {@code organizations} once the application is ready and
+ * every new organization is added to it once committed, both from local creates and from
+ * {@code INSERT} notifications of other nodes. An ID the filter has never seen is reported as
+ * definitely absent without a query. At most one such rejection per recheck interval is confirmed
+ * against the primary, so an ID the filter missed is noticed, added and counted as a false negative
+ * without letting a flood of unknown IDs reach the database. Until the first build completes, and
+ * while the filter is disabled, every ID is reported as possibly known.
+ * <p>
+ * The filter is rebuilt on a fixed interval, when it holds more IDs than it was sized for and after
+ * the invalidation listener reconnects, so that IDs whose notification was lost are picked up
+ * again. IDs added while a rebuild is running go into both the old and the new filter.
+ */
+@Component
+@Slf4j
+public class KnownOrganizationFilter implements InvalidationSubscriber, SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "tagservice.organization.bloom.";
+
+    private final OrganizationService organizationService;
+    private final boolean enabled;
+    private final long minimumExpectedInsertions;
+    private final double falsePositiveProbability;
+    private final Duration rebuildInterval;
+    private final long recheckIntervalNanos;
+    private final AtomicLong nextRecheckAt = new AtomicLong(System.nanoTime());
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong insertions = new AtomicLong();
+
+    private final Counter definitelyAbsentCounter;
+    private final Counter falsePositiveCounter;
+    private final Counter falseNegativeCounter;
+    private final Counter rebuildCounter;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter nextFilter;
+    private volatile ScheduledExecutorService rebuilder;
+
+    public KnownOrganizationFilter(OrganizationService organizationService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${tagservice.organization-bloom.enabled:true}") boolean enabled,
+                                   @Value("${tagservice.organization-bloom.expected-insertions:100000}") long expectedInsertions,
+                                   @Value("${tagservice.organization-bloom.false-positive-probability:0.01}") double falsePositiveProbability,
+                                   @Value("${tagservice.organization-bloom.rebuild-interval:PT1H}") Duration rebuildInterval,
+                                   @Value("${tagservice.organization-bloom.recheck-interval:PT1S}") Duration recheckInterval) {
+        this.organizationService = organizationService;
+        this.enabled = enabled;
+        this.minimumExpectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.rebuildInterval = rebuildInterval;
+        this.recheckIntervalNanos = recheckInterval.toNanos();
+        this.definitelyAbsentCounter = meterRegistry.counter(METRIC_PREFIX + "absent");
+        this.falsePositiveCounter = meterRegistry.counter(METRIC_PREFIX + "false-positives");
+        this.falseNegativeCounter = meterRegistry.counter(METRIC_PREFIX + "false-negatives");
+        this.rebuildCounter = meterRegistry.counter(METRIC_PREFIX + "rebuilds");
+        Gauge.builder(METRIC_PREFIX + "false-positive-rate", this, KnownOrganizationFilter::observedFalsePositiveRate)
+                .description("Share of unknown organization IDs that passed the filter")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "expected-false-positive-probability", this,
+                        KnownOrganizationFilter::expectedFalsePositiveProbability)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false if the filter has never seen the organization ID, true if it may exist
+     */
+    public boolean mightExist(long organizationId) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(organizationId);
+    }
+
+    /**
+     * Reports whether an organization ID can be rejected without a query. If a recheck is due, the
+     * rejected ID is confirmed against the primary first; an ID the filter missed is then added to
+     * it, counted as a false negative and reported as possibly known.
+     *
+     * @return true if the filter has never seen the ID
+     */
+    public boolean isDefinitelyAbsent(long organizationId) {
+        if (mightExist(organizationId)) {
+            return false;
+        }
+        if (recheckDue() && PrimaryReads.call(() -> organizationService.organizationExists(organizationId))) {
+            log.warn("Organization {} was missing from the Bloom filter, adding it", organizationId);
+            falseNegativeCounter.increment();
+            add(organizationId);
+            return false;
+        }
+        definitelyAbsentCounter.increment();
+        return true;
+    }
+
+    /**
+     * Records that an ID passed the filter but no organization was found for it.
+     */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    /**
+     * Adds a committed organization ID to the filter (and to a rebuild in progress). Only IDs that
+     * were definitely not in the filter yet count towards its capacity.
+     */
+    public void add(long organizationId) {
+        // The rebuild publishes its filter before clearing nextFilter, so reading them in this
+        // order never misses both
+        BloomFilter next = nextFilter;
+        if (next != null) {
+            next.put(organizationId);
+        }
+        BloomFilter current = filter;
+        if (current != null && current.put(organizationId)
+                && insertions.incrementAndGet() > current.expectedInsertions() && !rebuilding.get()) {
+            log.info("Organization Bloom filter exceeded its capacity of {}, rebuilding", current.expectedInsertions());
+            // Off the caller's thread, which is completing a transaction or handling a notification
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the {@code organizations} table. Concurrent calls are coalesced.
+     */
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long count = PrimaryReads.call(organizationService::countAllOrganizations);
+            BloomFilter next = BloomFilter.create(Math.max(minimumExpectedInsertions, count * 2),
+                    falsePositiveProbability);
+            nextFilter = next;
+            List<Long> organizationIds = PrimaryReads.call(organizationService::getAllOrganizationIds);
+            for (Long organizationId : organizationIds) {
+                next.put(organizationId);
+            }
+            insertions.set(organizationIds.size());
+            filter = next;
+            rebuildCounter.increment();
+            log.info("Built organization Bloom filter with {} IDs ({} bits, {} hash functions)",
+                    organizationIds.size(), next.bitCount(), next.hashFunctions());
+        } catch (RuntimeException e) {
+            log.error("Failed to build organization Bloom filter, keeping the previous one", e);
+        } finally {
+            nextFilter = null;
+            rebuilding.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Adds new organizations once they are committed, so that a rebuild which started before the
+     * commit and did not see the row cannot drop them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChanged(OrganizationChangedEvent event) {
+        if (event.changeType() == OrganizationChangedEvent.ChangeType.CREATED) {
+            add(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.isFor(InvalidationEvent.ORGANIZATIONS) && "INSERT".equals(event.operation())) {
+            add(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        rebuild();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "organization-bloom-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::rebuild, rebuildInterval.toMillis(), rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        rebuilder = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = rebuilder;
+        rebuilder = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rebuilder != null;
+    }
+
+    /**
+     * Claims the next recheck slot; a non-positive interval disables rechecks.
+     */
+    private boolean recheckDue() {
+        if (recheckIntervalNanos <= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long due = nextRecheckAt.get();
+        return now - due >= 0 && nextRecheckAt.compareAndSet(due, now + recheckIntervalNanos);
+    }
+
+    private double observedFalsePositiveRate() {
+        double falsePositives = falsePositiveCounter.count();
+        double negatives = falsePositives + definitelyAbsentCounter.count();
+        return negatives == 0 ? 0 : falsePositives / negatives;
+    }
+
+    private double expectedFalsePositiveProbability() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.currentFalsePositiveProbability();
+    }
+}
@@ -0,0 +1,226 @@
+package com.tagservice.cache;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One lock-striped segment of {@link EntityTagCache}.
+ * <p>
+ * Encoded tag sets live in a single direct {@link ByteBuffer} that is divided into fixed-size
+ * blocks; an entry occupies as many blocks as it needs, so freed memory is always reusable and
+ * the segment never fragments. Only the index (key to block numbers) is kept on the heap, in
+ * access order, so that the least recently used entries are evicted first when blocks run out.
+ * Each tenant's entries are also kept in their own access-ordered map, and entries remember when
+ * they were last used, so that {@link EntityTagCache} can find and evict a tenant's least recently
+ * used entry across segments in constant time per segment when the tenant is at its limit.
+ * <p>
+ * Every invalidation advances the segment's epoch. Loaders read the epoch before going to the
+ * database and {@link #put} refuses to store their result if it has moved since, so a load that
+ * raced with a write can never leave a stale entry behind.
+ */
+final class OffHeapTagSegment {
+
+    /**
+     * Outcome of {@link #put}.
+     */
+    enum PutResult {
+        STORED,
+        /** Not stored: the segment was invalidated in the meantime, or the entry is too large. */
+        SKIPPED,
+        /** Not stored: the tenant is at its limit and has to free memory first. */
+        TENANT_FULL
+    }
+
+    private static final class Entry {
+
+        private final int[] blocks;
+        private final int length;
+        private long lastAccessNanos = System.nanoTime();
+
+        private Entry(int[] blocks, int length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+    }
+
+    private final ByteBuffer memory;
+    private final int blockSize;
+    private final int[] freeBlocks;
+    private final TenantMemoryUsage tenantMemoryUsage;
+    private final LinkedHashMap<EntityTagKey, Entry> index = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, LinkedHashMap<EntityTagKey, Entry>> tenantIndexes = new HashMap<>();
+    private int freeCount;
+    private long epoch;
+    private long evictions;
+
+    OffHeapTagSegment(int blockCount, int blockSize, TenantMemoryUsage tenantMemoryUsage) {
+        this.memory = ByteBuffer.allocateDirect(Math.multiplyExact(blockCount, blockSize));
+        this.blockSize = blockSize;
+        this.freeBlocks = new int[blockCount];
+        this.tenantMemoryUsage = tenantMemoryUsage;
+        for (int i = 0; i < blockCount; i++) {
+            freeBlocks[i] = blockCount - 1 - i;
+        }
+        this.freeCount = blockCount;
+    }
+
+    /**
+     * Returns a copy of the encoded entry, or null if it is not cached.
+     */
+    synchronized byte[] get(EntityTagKey key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        tenantIndexes.get(key.tenantId()).get(key);
+        entry.lastAccessNanos = System.nanoTime();
+        byte[] data = new byte[entry.length];
+        int offset = 0;
+        for (int block : entry.blocks) {
+            int length = Math.min(blockSize, data.length - offset);
+            memory.get(block * blockSize, data, offset, length);
+            offset += length;
+        }
+        return data;
+    }
+
+    synchronized long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Stores an encoded entry, evicting least recently used entries as needed.
+     *
+     * @param expectedEpoch the epoch read before the data was loaded
+     * @return whether the entry was stored; if the tenant is at its limit, any previous entry of
+     *         the key has been removed
+     */
+    synchronized PutResult put(EntityTagKey key, byte[] data, long expectedEpoch) {
+        if (epoch != expectedEpoch) {
+            return PutResult.SKIPPED;
+        }
+        int blocksNeeded = Math.max(1, (data.length + blockSize - 1) / blockSize);
+        long bytesNeeded = (long) blocksNeeded * blockSize;
+        if (blocksNeeded > freeBlocks.length) {
+            return PutResult.SKIPPED;
+        }
+        if (!tenantMemoryUsage.withinLimit(bytesNeeded)) {
+            tenantMemoryUsage.recordRejection();
+            return PutResult.SKIPPED;
+        }
+        remove(key);
+        if (!tenantMemoryUsage.tryReserve(key.tenantId(), bytesNeeded)) {
+            return PutResult.TENANT_FULL;
+        }
+        while (freeCount < blocksNeeded) {
+            remove(index.keySet().iterator().next());
+            evictions++;
+        }
+
+        int[] blocks = new int[blocksNeeded];
+        int offset = 0;
+        for (int i = 0; i < blocksNeeded; i++) {
+            int block = freeBlocks[--freeCount];
+            int length = Math.min(blockSize, data.length - offset);
+            memory.put(block * blockSize, data, offset, length);
+            offset += length;
+            blocks[i] = block;
+        }
+        Entry entry = new Entry(blocks, data.length);
+        index.put(key, entry);
+        tenantIndexes.computeIfAbsent(key.tenantId(), id -> new LinkedHashMap<>(16, 0.75f, true)).put(key, entry);
+        return PutResult.STORED;
+    }
+
+    /**
+     * Returns when the tenant's least recently used entry in this segment was last used, in
+     * {@link System#nanoTime()} terms, or {@link Long#MAX_VALUE} if the tenant has no entries here.
+     */
+    synchronized long oldestAccessOf(long tenantId) {
+        LinkedHashMap<EntityTagKey, Entry> tenantIndex = tenantIndexes.get(tenantId);
+        return tenantIndex == null ? Long.MAX_VALUE : tenantIndex.values().iterator().next().lastAccessNanos;
+    }
+
+    /**
+     * Evicts the tenant's least recently used entry in this segment.
+     *
+     * @return false if the tenant has no entries here
+     */
+    synchronized boolean evictOldestOf(long tenantId) {
+        LinkedHashMap<EntityTagKey, Entry> tenantIndex = tenantIndexes.get(tenantId);
+        if (tenantIndex == null) {
+            return false;
+        }
+        remove(tenantIndex.keySet().iterator().next());
+        evictions++;
+        return true;
+    }
+
+    synchronized void invalidate(EntityTagKey key) {
+        epoch++;
+        remove(key);
+    }
+
+    synchronized void invalidateTenant(long tenantId) {
+        epoch++;
+        LinkedHashMap<EntityTagKey, Entry> tenantIndex = tenantIndexes.remove(tenantId);
+        if (tenantIndex == null) {
+            return;
+        }
+        for (Map.Entry<EntityTagKey, Entry> entry : tenantIndex.entrySet()) {
+            index.remove(entry.getKey());
+            release(entry.getKey(), entry.getValue());
+        }
+    }
+
+    synchronized void invalidateAll() {
+        epoch++;
+        index.forEach(this::release);
+        index.clear();
+        tenantIndexes.clear();
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized long usedBytes() {
+        return (long) (freeBlocks.length - freeCount) * blockSize;
+    }
+
+    synchronized long evictionCount() {
+        return evictions;
+    }
+
+    long capacityBytes() {
+        return (long) freeBlocks.length * blockSize;
+    }
+
+    /**
+     * Removes an entry from both indexes and frees its blocks.
+     */
+    private void remove(EntityTagKey key) {
+        Entry entry = index.remove(key);
+        if (entry == null) {
+            return;
+        }
+        LinkedHashMap<EntityTagKey, Entry> tenantIndex = tenantIndexes.get(key.tenantId());
+        tenantIndex.remove(key);
+        if (tenantIndex.isEmpty()) {
+            tenantIndexes.remove(key.tenantId());
+        }
+        release(key, entry);
+    }
+
+    private void release(EntityTagKey key, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        for (int block : entry.blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+        tenantMemoryUsage.release(key.tenantId(), (long) entry.blocks.length * blockSize);
+    }
+}
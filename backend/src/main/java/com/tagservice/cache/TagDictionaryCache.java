@@ -0,0 +1,124 @@
+package com.tagservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Bounded, in-process cache of the tag dictionaries ({@code tag_keys}, {@code tag_values} and
+ * {@code entities}) in both directions where needed.
+ * <p>
+ * Dictionary rows are never changed, and their IDs are never reused, so entries never need to be
+ * invalidated; they are only evicted by size. Entries are only added once the transaction that
+ * read or created them commits, so that a rolled-back insert never leaves an ID behind that does
+ * not exist. Hit, miss and eviction counts are exported to Micrometer under the
+ * {@code tag-dictionary.*} cache names.
+ */
+@Component
+public class TagDictionaryCache {
+
+    /**
+     * A key or value of one tenant.
+     */
+    public record TenantTerm(long tenantId, String term) {
+    }
+
+    /**
+     * Bidirectional cache of one dictionary.
+     *
+     * @param <T> the term type
+     * @param <I> the ID type
+     */
+    public static final class Terms<T, I> {
+
+        private final Cache<T, I> ids;
+        private final Cache<I, T> terms;
+
+        private Terms(long maximumSize, String name, MeterRegistry meterRegistry, boolean reverse) {
+            this.ids = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+            CaffeineCacheMetrics.monitor(meterRegistry, ids, name + ".ids");
+            if (reverse) {
+                this.terms = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+                CaffeineCacheMetrics.monitor(meterRegistry, terms, name + ".terms");
+            } else {
+                this.terms = null;
+            }
+        }
+
+        /**
+         * Returns the cached ID of a term, or null.
+         */
+        public I id(T term) {
+            return ids.getIfPresent(term);
+        }
+
+        /**
+         * Returns the cached term of an ID, or null.
+         */
+        public T term(I id) {
+            return terms != null ? terms.getIfPresent(id) : null;
+        }
+
+        /**
+         * Caches dictionary rows once the current transaction commits, or right away outside a
+         * transaction. Deferring covers rows the transaction created itself and would roll back
+         * with it.
+         */
+        public void putAfterCommit(Map<I, T> entries) {
+            if (entries.isEmpty()) {
+                return;
+            }
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                putAll(entries);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putAll(entries);
+                }
+            });
+        }
+
+        private void putAll(Map<I, T> entries) {
+            entries.forEach((id, term) -> {
+                ids.put(term, id);
+                if (terms != null) {
+                    terms.put(id, term);
+                }
+            });
+        }
+    }
+
+    private final Terms<TenantTerm, Integer> keys;
+    private final Terms<TenantTerm, Integer> values;
+    private final Terms<EntityTagKey, Long> entities;
+
+    public TagDictionaryCache(@Value("${tagservice.tag-dictionary.max-terms:1000000}") long maxTerms,
+                              @Value("${tagservice.tag-dictionary.max-entities:1000000}") long maxEntities,
+                              MeterRegistry meterRegistry) {
+        this.keys = new Terms<>(maxTerms, "tag-dictionary.keys", meterRegistry, true);
+        this.values = new Terms<>(maxTerms, "tag-dictionary.values", meterRegistry, true);
+        // Entities are only ever encoded; reads join the entities table instead
+        this.entities = new Terms<>(maxEntities, "tag-dictionary.entities", meterRegistry, false);
+    }
+
+    public Terms<TenantTerm, Integer> keys() {
+        return keys;
+    }
+
+    public Terms<TenantTerm, Integer> values() {
+        return values;
+    }
+
+    public Terms<EntityTagKey, Long> entities() {
+        return entities;
+    }
+}
@@ -0,0 +1,99 @@
+package com.tagservice.cache;
+
+import com.tagservice.dto.TagDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary form of an entity's versioned tag list, as stored by {@link EntityTagCache}.
+ * <p>
+ * Layout: version, tag count, then per tag the key length, key bytes, value length plus one (zero for a
+ * null value) and value bytes. Lengths are unsigned varints and strings are UTF-8, so a typical
+ * short tag costs only a few bytes beyond its text.
+ */
+final class TagSetCodec {
+
+    private TagSetCodec() {
+    }
+
+    static byte[] encode(EntityTags entityTags) {
+        List<TagDto> tags = entityTags.tags();
+        byte[] buffer = new byte[64];
+        int position = writeVarlong(buffer, 0, entityTags.version());
+        position = writeVarint(buffer, position, tags.size());
+        for (TagDto tag : tags) {
+            byte[] key = tag.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = tag.getValue() == null ? null : tag.getValue().getBytes(StandardCharsets.UTF_8);
+            int valueLength = value == null ? 0 : value.length;
+            buffer = ensureCapacity(buffer, position, 10 + key.length + valueLength);
+            position = writeVarint(buffer, position, key.length);
+            System.arraycopy(key, 0, buffer, position, key.length);
+            position += key.length;
+            position = writeVarint(buffer, position, value == null ? 0 : value.length + 1);
+            if (value != null) {
+                System.arraycopy(value, 0, buffer, position, value.length);
+                position += value.length;
+            }
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    static EntityTags decode(byte[] data) {
+        int[] position = {0};
+        long version = readVarlong(data, position);
+        int count = readVarint(data, position);
+        List<TagDto> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int keyLength = readVarint(data, position);
+            String key = new String(data, position[0], keyLength, StandardCharsets.UTF_8);
+            position[0] += keyLength;
+            int valueLength = readVarint(data, position) - 1;
+            String value = null;
+            if (valueLength >= 0) {
+                value = new String(data, position[0], valueLength, StandardCharsets.UTF_8);
+                position[0] += valueLength;
+            }
+            tags.add(new TagDto(key, value));
+        }
+        return new EntityTags(version, tags);
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int position, int needed) {
+        if (position + needed <= buffer.length) {
+            return buffer;
+        }
+        return Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + needed));
+    }
+
+    private static int writeVarint(byte[] buffer, int position, int value) {
+        return writeVarlong(buffer, position, value & 0xFFFFFFFFL);
+    }
+
+    private static int writeVarlong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarint(byte[] data, int[] position) {
+        return (int) readVarlong(data, position);
+    }
+
+    private static long readVarlong(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+package com.tagservice.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tenant accounting of the off-heap bytes held by {@link EntityTagCache}, with an upper bound
+ * per tenant so that one large tenant cannot evict everybody else's entries. A tenant at its
+ * bound makes room by evicting its own entries; only an entry larger than the bound is rejected.
+ */
+final class TenantMemoryUsage {
+
+    private final ConcurrentHashMap<Long, AtomicLong> bytesByTenant = new ConcurrentHashMap<>();
+    private final LongAdder rejections = new LongAdder();
+    private final long maxBytesPerTenant;
+
+    TenantMemoryUsage(long maxBytesPerTenant) {
+        this.maxBytesPerTenant = maxBytesPerTenant;
+    }
+
+    /**
+     * Returns whether an entry of this size fits into a tenant's limit at all.
+     */
+    boolean withinLimit(long bytes) {
+        return bytes <= maxBytesPerTenant;
+    }
+
+    /**
+     * Reserves memory for a tenant if that keeps it within its limit.
+     *
+     * @return false if the tenant would exceed its limit; nothing is reserved then
+     */
+    boolean tryReserve(long tenantId, long bytes) {
+        AtomicLong used = bytesByTenant.computeIfAbsent(tenantId, id -> new AtomicLong());
+        long current;
+        do {
+            current = used.get();
+            if (current + bytes > maxBytesPerTenant) {
+                return false;
+            }
+        } while (!used.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    /**
+     * Counts an entry that was not cached because it does not fit into its tenant's limit.
+     */
+    void recordRejection() {
+        rejections.increment();
+    }
+
+    void release(long tenantId, long bytes) {
+        AtomicLong used = bytesByTenant.get(tenantId);
+        if (used != null) {
+            used.addAndGet(-bytes);
+        }
+    }
+
+    long usage(long tenantId) {
+        AtomicLong used = bytesByTenant.get(tenantId);
+        return used == null ? 0 : used.get();
+    }
+
+    /**
+     * Returns the bytes held per tenant, leaving out tenants that currently hold nothing.
+     */
+    Map<Long, Long> snapshot() {
+        Map<Long, Long> snapshot = new HashMap<>();
+        bytesByTenant.forEach((tenantId, used) -> {
+            long bytes = used.get();
+            if (bytes > 0) {
+                snapshot.put(tenantId, bytes);
+            }
+        });
+        return snapshot;
+    }
+
+    long rejectionCount() {
+        return rejections.sum();
+    }
+}
@@ -1,13 +1,26 @@
 package com.tagservice.client;
 
+import com.tagservice.cache.ActiveOrganizationCache;
+import com.tagservice.cache.KnownOrganizationFilter;
+import com.tagservice.context.OrganizationContext;
 import com.tagservice.dto.error.OrganizationDto;
+import com.tagservice.enums.ApiErrorType;
+import com.tagservice.exception.ApiException;
 import com.tagservice.model.Organization;
+import com.tagservice.replica.PrimaryReads;
 import com.tagservice.request.OrganizationCreateRequest;
 import com.tagservice.response.OrganizationCreateResponse;
+import com.tagservice.response.OrganizationHistoryResponse;
+import com.tagservice.response.SearchResponse;
+import com.tagservice.service.OrganizationHistoryService;
 import com.tagservice.service.OrganizationService;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+
 /**
  * Client for organization-related operations.
  * <p>
@@ -20,13 +33,36 @@ public class OrganizationClient {
    
     
     private final OrganizationService organizationService;
+    private final OrganizationHistoryService organizationHistoryService;
+    private final ActiveOrganizationCache activeOrganizationCache;
+    private final KnownOrganizationFilter knownOrganizationFilter;
 
+    /**
+     * Returns an active organization, served from {@link ActiveOrganizationCache}
+     * when possible so the common existence check does not hit the database.
+     * IDs that {@link KnownOrganizationFilter} reports as definitely absent are rejected without
+     * touching the database.
+     *
+     * @throws EntityNotFoundException if no active organization exists
+     */
     public OrganizationDto getActiveOrganizationById(Long id) {
-        var org = organizationService.getOrganizationById(id);
-        return OrganizationDto.builder()
-                .id(org.getId())
-                .deletedAt(org.getDeletedAt())
-                .build();
+        if (knownOrganizationFilter.isDefinitelyAbsent(id)) {
+            throw new EntityNotFoundException("Organization not found with id: " + id);
+        }
+        return activeOrganizationCache.get(id, this::loadActiveOrganization);
+    }
+
+    private OrganizationDto loadActiveOrganization(Long id) {
+        OrganizationDto organization = PrimaryReads.call(() -> organizationService.getOrganizationStatus(id))
+                .orElse(null);
+        if (organization == null) {
+            // Only an ID with no row at all passed the filter wrongly; soft-deleted ones are in it
+            knownOrganizationFilter.recordFalsePositive();
+        }
+        if (organization == null || organization.getDeletedAt() != null) {
+            throw new EntityNotFoundException("Organization not found with id: " + id);
+        }
+        return organization;
     }
 
     /**
@@ -44,6 +80,27 @@ public class OrganizationClient {
                 .deletedAt(organization.getDeletedAt())
                 .build();
     }
-}
 
-  
\ No newline at end of file
+    /**
+     * Returns one page of the audited changes of the current tenant's organization in a time range.
+     * Other organizations' histories are reported as not found.
+     *
+     * @param to the end of the range (exclusive), or null for now
+     */
+    public OrganizationHistoryResponse getOrganizationHistory(Long id, Instant from, Instant to, String cursor,
+                                                              int limit) {
+        if (id != OrganizationContext.current().organizationId()) {
+            throw new ApiException(HttpServletResponse.SC_NOT_FOUND, ApiErrorType.ORGANIZATION_NOT_FOUND,
+                    "Organization not found with id: " + id);
+        }
+        OrganizationHistoryService.Page page = organizationHistoryService.getHistory(id, from,
+                to != null ? to : Instant.now(), cursor, limit);
+        return OrganizationHistoryResponse.builder()
+                .data(page.changes())
+                .meta(SearchResponse.Meta.builder()
+                        .limit(limit)
+                        .nextCursor(page.nextCursor())
+                        .build())
+                .build();
+    }
+}
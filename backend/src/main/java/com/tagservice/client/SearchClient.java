@@ -0,0 +1,70 @@
+package com.tagservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tagservice.context.OrganizationContext;
+import com.tagservice.response.SearchResponse;
+import com.tagservice.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Client for tag search.
+ * <p>
+ * This class acts as a facade over the service layer, resolving the current tenant
+ * for controller and other callers.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchClient {
+
+    private final SearchService searchService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Finds one page of the current tenant's entities that carry every tag of the query.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     */
+    public SearchResponse search(String query, String cursor, int limit) {
+        long tenantId = OrganizationContext.current().organizationId();
+        SearchService.Page page = searchService.search(tenantId, query, cursor, limit);
+        return SearchResponse.builder()
+                .data(page.results())
+                .meta(SearchResponse.Meta.builder()
+                        .limit(limit)
+                        .nextCursor(page.nextCursor())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Returns a body that writes every entity of the current tenant matching the query as NDJSON,
+     * one {@code {"entityType", "entityId"}} object per line.
+     * <p>
+     * The query is validated before the body is returned, so invalid queries still become regular
+     * error responses. The body runs on the application task executor, which carries the request
+     * context over from the request thread.
+     */
+    public StreamingResponseBody export(String query) {
+        long tenantId = OrganizationContext.current().organizationId();
+        SearchService.Export export = searchService.export(tenantId, query);
+        return output -> {
+            OutputStream out = new BufferedOutputStream(output);
+            export.run(entity -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(entity));
+                    out.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            out.flush();
+        };
+    }
+}
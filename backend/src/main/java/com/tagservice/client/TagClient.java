@@ -0,0 +1,160 @@
+package com.tagservice.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tagservice.cache.EntityTags;
+import com.tagservice.context.OrganizationContext;
+import com.tagservice.request.TagAddRequest;
+import com.tagservice.request.TagBatchGetRequest;
+import com.tagservice.response.EntityTagsResponse;
+import com.tagservice.response.TagAddResponse;
+import com.tagservice.response.TagBulkResponseLine;
+import com.tagservice.service.TagService;
+import com.tagservice.util.ETagUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client for tag-related operations.
+ * <p>
+ * This class acts as a facade over the service layer, resolving the current tenant
+ * and providing request/response mapping for controller and other callers.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TagClient {
+
+    private final TagService tagService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Attaches tags to an entity for the current tenant and returns the API response DTO.
+     *
+     * @param ifMatch the {@code If-Match} header, or null for an unconditional write
+     */
+    public TagAddResponse addTags(TagAddRequest request, String ifMatch) {
+        long tenantId = OrganizationContext.current().organizationId();
+        TagService.AddTagsResult result = tagService.addTags(tenantId, request, ETagUtils.ifMatch(ifMatch));
+        return TagAddResponse.builder()
+                .entityType(request.getEntityType())
+                .entityId(request.getEntityId())
+                .tags(result.tags())
+                .added(result.added())
+                .version(result.version())
+                .build();
+    }
+
+    /**
+     * Returns all tags of one entity of the current tenant.
+     */
+    public EntityTagsResponse getTags(String entityType, String entityId) {
+        long tenantId = OrganizationContext.current().organizationId();
+        EntityTags entityTags = tagService.getTags(tenantId, entityType, entityId);
+        return EntityTagsResponse.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .tags(entityTags.tags())
+                .version(entityTags.version())
+                .build();
+    }
+
+    /**
+     * Returns the tag version of one entity of the current tenant without loading its tags.
+     */
+    public long getTagVersion(String entityType, String entityId) {
+        long tenantId = OrganizationContext.current().organizationId();
+        return tagService.getTagVersion(tenantId, entityType, entityId);
+    }
+
+    /**
+     * Removes a tag from an entity of the current tenant.
+     *
+     * @param ifMatch the {@code If-Match} header, or null for an unconditional delete
+     * @return the entity's tag version after the delete
+     */
+    public long deleteTag(String entityType, String entityId, String key, String value, String ifMatch) {
+        long tenantId = OrganizationContext.current().organizationId();
+        return tagService.deleteTag(tenantId, entityType, entityId, key, value, ETagUtils.ifMatch(ifMatch));
+    }
+
+    /**
+     * Writes the tags of every requested entity of the current tenant to {@code output} as a JSON
+     * array of {@link EntityTagsResponse}, one element at a time in request order.
+     */
+    public void streamTagsForEntities(TagBatchGetRequest request, OutputStream output) throws IOException {
+        long tenantId = OrganizationContext.current().organizationId();
+        // Nothing reaches the output before the service has validated the request and loaded every
+        // entity, so database errors still become regular error responses. A failure while writing
+        // propagates with the generator left open, because closing would complete the array and
+        // flush it; the container then aborts the response instead of ending it cleanly.
+        JsonGenerator generator = objectMapper.createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        tagService.streamTagsForEntities(tenantId, request.getEntities(), entity -> {
+            try {
+                generator.writeObject(entity);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        generator.writeEndArray();
+        generator.close();
+    }
+
+    /**
+     * Stores tags from an NDJSON upload for the current tenant and writes the NDJSON result to
+     * {@code output}: rejected lines while the upload is processed, then a summary line. If the
+     * upload fails after the response has started, an error line is written instead of the summary.
+     */
+    public void bulkAddTags(InputStream input, OutputStream output) throws IOException {
+        long tenantId = OrganizationContext.current().organizationId();
+        OutputStream out = new BufferedOutputStream(output);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        TagBulkResponseLine last;
+        try {
+            TagService.BulkResult result = tagService.bulkAddTags(tenantId, lines, line -> writeLine(out, line));
+            last = TagBulkResponseLine.builder()
+                    .type(TagBulkResponseLine.SUMMARY)
+                    .received(result.received())
+                    .rejected(result.rejected())
+                    .duplicates(result.duplicates())
+                    .conflicts(result.conflicts())
+                    .unchanged(result.unchanged())
+                    .inserted(result.inserted())
+                    .build();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Bulk tag upload failed for organization {}", tenantId, ex);
+            last = TagBulkResponseLine.builder()
+                    .type(TagBulkResponseLine.ERROR)
+                    .description("Bulk upload failed; no tags were stored.")
+                    .build();
+        }
+        try {
+            writeLine(out, last);
+            out.flush();
+        } catch (IOException | UncheckedIOException ex) {
+            // The client is gone; the outcome is logged and, on success, committed regardless
+            log.warn("Could not send the last bulk upload response line to organization {}", tenantId, ex);
+        }
+    }
+
+    private void writeLine(OutputStream out, TagBulkResponseLine line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.tagservice.config;
+
+import com.tagservice.context.ContextCarrier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Carries the request context into asynchronous work.
+ * <p>
+ * Spring Boot applies a single {@link TaskDecorator} bean to the application task executor, which
+ * also runs asynchronous MVC responses such as search exports, with platform threads as well as
+ * with virtual threads ({@code spring.threads.virtual.enabled}). Each task then runs with the
+ * {@link ContextCarrier} context of the thread that submitted it.
+ */
+@Configuration
+public class ContextPropagationConfiguration {
+
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return ContextCarrier::wrap;
+    }
+}
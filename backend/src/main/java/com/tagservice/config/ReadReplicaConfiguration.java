@@ -0,0 +1,69 @@
+package com.tagservice.config;
+
+import com.tagservice.replica.ReadYourWritesTracker;
+import com.tagservice.replica.ReplicaPool;
+import com.tagservice.replica.ReplicaRoutingDataSource;
+import com.tagservice.rls.RlsMode;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+
+/**
+ * Routes read-only transactions to the read replicas in {@code tagservice.datasource.replicas.urls}.
+ * <p>
+ * The primary pool is wrapped in a {@link LazyConnectionDataSourceProxy}, which only fetches the
+ * physical connection at the first statement, after the transaction manager has marked the
+ * connection read-only; read-only transactions then get theirs from the
+ * {@link ReplicaRoutingDataSource}, all others from the primary. Runs before the connection
+ * bulkhead, so replica connections count against the tenant's limit like primary ones.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tagservice.datasource.replicas.urls")
+public class ReadReplicaConfiguration {
+
+    /**
+     * Static, as bean post-processors are created before regular beans; the replicas and the
+     * tracker are only looked up once the first read-only connection is requested.
+     */
+    @Bean
+    public static BeanPostProcessor readReplicaDataSourcePostProcessor(ObjectProvider<ReplicaPool> replicaPool,
+                                                                       ObjectProvider<ReadYourWritesTracker> tracker,
+                                                                       @Value("${tagservice.rls.mode:SESSION}") RlsMode rlsMode) {
+        return new ReadReplicaDataSourcePostProcessor(replicaPool, tracker, rlsMode);
+    }
+
+    private record ReadReplicaDataSourcePostProcessor(ObjectProvider<ReplicaPool> replicaPool,
+                                                      ObjectProvider<ReadYourWritesTracker> tracker,
+                                                      RlsMode rlsMode)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource primary)) {
+                return bean;
+            }
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+            proxy.setTargetDataSource(primary);
+            proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicaPool::getObject,
+                    tracker::getObject, rlsMode));
+            // Set explicitly so that no connection is taken at startup to detect them
+            proxy.setDefaultAutoCommit(primary.isAutoCommit());
+            proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            proxy.afterPropertiesSet();
+            return proxy;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
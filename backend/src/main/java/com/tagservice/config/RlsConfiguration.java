@@ -0,0 +1,43 @@
+package com.tagservice.config;
+
+import com.tagservice.rls.RlsMode;
+import com.tagservice.rls.TenantAwareJpaDialect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * Wires the PostgreSQL Row-Level Security tenant handling selected by {@code tagservice.rls.mode}.
+ * <p>
+ * Replaces Spring Boot's default {@link JpaVendorAdapter} with one that exposes
+ * {@link TenantAwareJpaDialect}, so every JPA transaction can carry the tenant. The adapter is
+ * configured from {@link JpaProperties} exactly like the auto-configured one.
+ */
+@Configuration
+public class RlsConfiguration {
+
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties jpaProperties,
+                                             @Value("${tagservice.rls.mode:SESSION}") RlsMode rlsMode) {
+        HibernateJpaDialect jpaDialect = new TenantAwareJpaDialect(rlsMode);
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        adapter.setShowSql(jpaProperties.isShowSql());
+        if (jpaProperties.getDatabase() != null) {
+            adapter.setDatabase(jpaProperties.getDatabase());
+        }
+        if (jpaProperties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(jpaProperties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(jpaProperties.isGenerateDdl());
+        return adapter;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tagservice.config;
+
+import com.tagservice.bulkhead.TenantBulkhead;
+import com.tagservice.bulkhead.TenantBulkheadDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts the {@link TenantBulkhead} in front of the application's data source, so that every
+ * connection taken for a tenant, by JPA and JDBC alike, counts against the tenant's limit.
+ * Disabled with {@code tagservice.db.bulkhead.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tagservice.db.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class TenantBulkheadConfiguration {
+
+    /**
+     * Static, as bean post-processors are created before regular beans; the bulkhead is only
+     * looked up once the first connection is requested.
+     */
+    @Bean
+    public static BeanPostProcessor tenantBulkheadDataSourcePostProcessor(ObjectProvider<TenantBulkhead> bulkhead) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TenantBulkheadDataSource)) {
+                    return new TenantBulkheadDataSource(dataSource, bulkhead::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package com.tagservice.context;
+
+import com.tagservice.util.MDCUtil;
+import jakarta.servlet.ServletException;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+
+/**
+ * Carries the immutable {@link RequestContext} through a request and into the tasks it hands off.
+ * <p>
+ * The API follows {@code ScopedValue}, which is only a preview in Java 21: a context is bound for
+ * the extent of {@link #runWhere} and the previous one is restored afterwards, nested bindings
+ * shadow outer ones, and nothing can be set or cleared outside such a block. Tasks submitted to
+ * executors take the submitter's context along through {@link #wrap}, which the application task
+ * executor applies to every task. The binding is held in a single thread-local slot, which works
+ * the same on platform and virtual threads; once {@code ScopedValue} is final it can take that
+ * slot's place without changing any caller.
+ * <p>
+ * The request and organization IDs of the bound context are mirrored into the logging MDC.
+ */
+public final class ContextCarrier {
+
+    private static final String MDC_REQUEST_ID_KEY = "requestId";
+    private static final String MDC_ORGANIZATION_ID_KEY = "organizationId";
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private ContextCarrier() {
+    }
+
+    /**
+     * @return the context bound to the current thread, or {@link RequestContext#EMPTY}
+     */
+    public static RequestContext current() {
+        RequestContext context = CURRENT.get();
+        return context != null ? context : RequestContext.EMPTY;
+    }
+
+    /**
+     * Runs {@code action} with {@code context} bound.
+     */
+    public static void runWhere(RequestContext context, Runnable action) {
+        RequestContext previous = bind(context);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Runs a filter chain step with {@code context} bound.
+     */
+    public static void runWhere(RequestContext context, MDCUtil.FilterRunnable action)
+            throws IOException, ServletException {
+        RequestContext previous = bind(context);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Returns a task that runs {@code task} with the context bound at the time of this call,
+     * whichever thread it ends up running on.
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestContext captured = current();
+        if (captured == RequestContext.EMPTY) {
+            return task;
+        }
+        return () -> runWhere(captured, task);
+    }
+
+    private static RequestContext bind(RequestContext context) {
+        RequestContext previous = CURRENT.get();
+        CURRENT.set(context);
+        mirrorToMdc(context);
+        return previous;
+    }
+
+    private static void restore(RequestContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+            mirrorToMdc(RequestContext.EMPTY);
+        } else {
+            CURRENT.set(previous);
+            mirrorToMdc(previous);
+        }
+    }
+
+    private static void mirrorToMdc(RequestContext context) {
+        if (context.requestId() != null) {
+            MDC.put(MDC_REQUEST_ID_KEY, context.requestId());
+        } else {
+            MDC.remove(MDC_REQUEST_ID_KEY);
+        }
+        if (context.tenant() != null) {
+            MDC.put(MDC_ORGANIZATION_ID_KEY, context.tenant().organizationIdAsString());
+        } else {
+            MDC.remove(MDC_ORGANIZATION_ID_KEY);
+        }
+    }
+}
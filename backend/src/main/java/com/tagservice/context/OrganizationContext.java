@@ -1,27 +1,25 @@
 package com.tagservice.context;
 
-import org.slf4j.MDC;
-
 /**
- * Context to hold the current organization ID.
+ * Access to the tenant resolved for the current request.
+ * <p>
+ * The tenant is part of the {@link RequestContext} bound by
+ * {@link com.tagservice.filter.TenantResolutionFilter} through {@link ContextCarrier}.
  */
 public class OrganizationContext {
 
-    private static final ThreadLocal<String> currentOrganization = new ThreadLocal<>();
-
-    private static final String MDC_ORGANIZATION_ID_KEY = "organizationId";
-
-    public static void setOrganizationId(String organizationId) {
-        currentOrganization.set(organizationId);
-        MDC.put(MDC_ORGANIZATION_ID_KEY, organizationId);
+    /**
+     * @return the tenant of the current request, or null outside tenant-scoped requests
+     */
+    public static TenantContext current() {
+        return ContextCarrier.current().tenant();
     }
 
+    /**
+     * @return the current organization ID as a string, or null if no tenant is set
+     */
     public static String getOrganizationId() {
-        return currentOrganization.get();
-    }
-
-    public static void clear() {
-        currentOrganization.remove();
-        MDC.remove(MDC_ORGANIZATION_ID_KEY);
+        TenantContext tenantContext = current();
+        return tenantContext != null ? tenantContext.organizationIdAsString() : null;
     }
 }
@@ -0,0 +1,29 @@
+package com.tagservice.context;
+
+import java.util.UUID;
+
+/**
+ * Immutable context of the current request: its ID and, on tenant-scoped routes, its tenant.
+ * <p>
+ * A context is only ever bound for the extent of a block with {@link ContextCarrier#runWhere},
+ * never set or cleared by hand, so it cannot leak into the next task served by the same thread.
+ *
+ * @param requestId       the request ID in canonical string form, or null outside requests
+ * @param parsedRequestId the same request ID as a UUID, so consumers such as
+ *                        {@link com.tagservice.model.BaseEntity} do not parse it again
+ * @param tenant          the resolved tenant, or null outside tenant-scoped requests
+ */
+public record RequestContext(String requestId, UUID parsedRequestId, TenantContext tenant) {
+
+    /**
+     * The context outside any request.
+     */
+    public static final RequestContext EMPTY = new RequestContext(null, null, null);
+
+    /**
+     * Returns a copy of this context for the given tenant.
+     */
+    public RequestContext withTenant(TenantContext tenant) {
+        return new RequestContext(requestId, parsedRequestId, tenant);
+    }
+}
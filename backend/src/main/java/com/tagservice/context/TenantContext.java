@@ -0,0 +1,19 @@
+package com.tagservice.context;
+
+/**
+ * Immutable tenant information resolved once per request by
+ * {@link com.tagservice.filter.TenantResolutionFilter}.
+ *
+ * @param organizationId   the validated, active organization ID
+ * @param organizationType the organization's type (e.g. {@code enterprise}), which selects its
+ *                         database concurrency limit
+ */
+public record TenantContext(long organizationId, String organizationType) {
+
+    /**
+     * The organization ID in its canonical string form, as written to MDC and database settings.
+     */
+    public String organizationIdAsString() {
+        return Long.toString(organizationId);
+    }
+}
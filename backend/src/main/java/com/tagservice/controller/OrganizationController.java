@@ -3,16 +3,23 @@ package com.tagservice.controller;
 import com.tagservice.client.OrganizationClient;
 import com.tagservice.request.OrganizationCreateRequest;
 import com.tagservice.response.OrganizationCreateResponse;
+import com.tagservice.response.OrganizationHistoryResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+
 /**
  * REST controller for organization management.
  */
@@ -29,4 +36,20 @@ public class OrganizationController {
         OrganizationCreateResponse response = organizationClient.createOrganization(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    /**
+     * Returns one page of the organization's audited changes made at or after {@code from} and
+     * before {@code to} (default: now), oldest first, e.g.
+     * {@code ?from=2026-01-01T00:00:00Z&to=2026-02-01T00:00:00Z}. Further pages are requested with
+     * the {@code nextCursor} of the previous page.
+     */
+    @GetMapping("/organizations/{id}/history")
+    public ResponseEntity<OrganizationHistoryResponse> getOrganizationHistory(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${tagservice.audit.history.default-limit:100}") int limit) {
+        return ResponseEntity.ok(organizationClient.getOrganizationHistory(id, from, to, cursor, limit));
+    }
 }
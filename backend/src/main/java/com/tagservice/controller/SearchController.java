@@ -0,0 +1,48 @@
+package com.tagservice.controller;
+
+import com.tagservice.client.SearchClient;
+import com.tagservice.response.SearchResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller for searching entities by tag.
+ */
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@Validated
+public class SearchController {
+
+    private final SearchClient searchClient;
+
+    /**
+     * Returns one page of the entities that carry every tag of {@code q}, e.g.
+     * {@code ?q=env:prod region:eu}. Further pages are requested with the {@code nextCursor} of
+     * the previous page.
+     */
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${tagservice.search.default-limit:100}") int limit) {
+        return ResponseEntity.ok(searchClient.search(q, cursor, limit));
+    }
+
+    /**
+     * Streams all entities that carry every tag of {@code q} as NDJSON, however many there are.
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam String q) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(searchClient.export(q));
+    }
+}
@@ -0,0 +1,115 @@
+package com.tagservice.controller;
+
+import com.tagservice.client.TagClient;
+import com.tagservice.request.TagAddRequest;
+import com.tagservice.request.TagBatchGetRequest;
+import com.tagservice.response.EntityTagsResponse;
+import com.tagservice.response.TagAddResponse;
+import com.tagservice.util.ETagUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST controller for tag management.
+ */
+@RestController
+@RequestMapping("/api/tags")
+@RequiredArgsConstructor
+@Validated
+public class TagController {
+
+    private final TagClient tagClient;
+
+    /**
+     * Idempotently attaches tags to an entity. Responds with 201 if at least one tag was new
+     * and 200 if every tag already existed. With {@code If-Match}, the write only happens if the
+     * entity's tags are still at that version, otherwise the response is 412.
+     */
+    @PostMapping
+    public ResponseEntity<TagAddResponse> addTags(@Valid @RequestBody TagAddRequest request,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                  String ifMatch) {
+        TagAddResponse response = tagClient.addTags(request, ifMatch);
+        HttpStatus status = response.getAdded() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).eTag(ETagUtils.format(response.getVersion())).body(response);
+    }
+
+    /**
+     * Bulk-loads tags from an NDJSON body with one {@code {"entityType", "entityId", "key", "value"}}
+     * object per line. Both the request and the NDJSON response are streamed.
+     */
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void bulkAddTags(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        tagClient.bulkAddTags(request.getInputStream(), response.getOutputStream());
+    }
+
+    /**
+     * Returns all tags of one entity with their version as {@code ETag}. If {@code If-None-Match}
+     * matches the current version, responds with 304 without loading the tags.
+     */
+    @GetMapping("/{entityType}/{entityId}")
+    public ResponseEntity<EntityTagsResponse> getTags(
+            @PathVariable String entityType,
+            @PathVariable String entityId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            long version = tagClient.getTagVersion(entityType, entityId);
+            if (ETagUtils.ifNoneMatchMatches(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETagUtils.format(version)).build();
+            }
+        }
+        EntityTagsResponse response = tagClient.getTags(entityType, entityId);
+        return ResponseEntity.ok().eTag(ETagUtils.format(response.getVersion())).body(response);
+    }
+
+    /**
+     * Removes the tag with the given key from an entity, or only the tag with the given key and
+     * value if {@code value} is present. Responds with 204 whether or not the tag existed, or with
+     * 412 if {@code If-Match} is given and does not match the entity's current version.
+     */
+    @DeleteMapping("/{entityType}/{entityId}")
+    public ResponseEntity<Void> deleteTag(@PathVariable String entityType,
+                                          @PathVariable String entityId,
+                                          @RequestParam String key,
+                                          @RequestParam(required = false) String value,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                          String ifMatch) {
+        long version = tagClient.deleteTag(entityType, entityId, key, value, ifMatch);
+        return ResponseEntity.noContent().eTag(ETagUtils.format(version)).build();
+    }
+
+    /**
+     * Returns the tags of many entities in one call, answered with one query per entity type.
+     * The JSON array is streamed in request order.
+     */
+    @PostMapping(path = "/batch-get", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getTagsForEntities(@Valid @RequestBody TagBatchGetRequest request,
+                                   HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        tagClient.streamTagsForEntities(request, response.getOutputStream());
+    }
+}
@@ -0,0 +1,23 @@
+package com.tagservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reference to a tagged entity by type and ID.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityRefDto {
+
+    @NotBlank
+    private String entityType;
+
+    @NotBlank
+    private String entityId;
+}
@@ -0,0 +1,50 @@
+package com.tagservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One audited change of an organization: the organization's state after the change, and which
+ * columns it changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrganizationAuditDto {
+
+    private long auditId;
+
+    /**
+     * {@code INSERT}, {@code UPDATE} or {@code DELETE} (soft-deletes included).
+     */
+    private String action;
+    private OffsetDateTime createdAt;
+    private String createdBy;
+    private UUID requestId;
+
+    private String name;
+    private String displayName;
+    private String domain;
+    private String type;
+    private Integer version;
+    private OffsetDateTime deletedAt;
+
+    /**
+     * The settings JSON as stored.
+     */
+    @JsonRawValue
+    private String settings;
+
+    private Boolean nameChanged;
+    private Boolean displayNameChanged;
+    private Boolean domainChanged;
+    private Boolean typeChanged;
+    private Boolean settingsChanged;
+}
@@ -0,0 +1,22 @@
+package com.tagservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single key/value tag. A null value makes the tag a simple flag.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagDto {
+
+    @NotNull
+    private String key;
+
+    private String value;
+}
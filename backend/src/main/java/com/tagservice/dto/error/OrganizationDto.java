@@ -13,5 +13,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class OrganizationDto {
     private Long id;
+    private String type;
     private OffsetDateTime deletedAt;
 }
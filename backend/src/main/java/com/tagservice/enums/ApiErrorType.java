@@ -9,6 +9,9 @@ public enum ApiErrorType {
 
     VALIDATION_ERROR("validation-error", "Validation Error"),
     DUPLICATE_ENTITY("duplicate-entity", "Duplicate Entity"),
+    PRECONDITION_FAILED("precondition-failed", "Precondition Failed"),
+    TOO_MANY_CONCURRENT_REQUESTS("too-many-concurrent-requests", "Too Many Concurrent Requests"),
+    RATE_LIMITED("rate-limited", "Rate Limit Exceeded"),
 
     MISSING_HEADER("missing-header", "Missing Required Header"),
     INVALID_HEADER("invalid-header", "Invalid Header Format"),
@@ -0,0 +1,23 @@
+package com.tagservice.event;
+
+/**
+ * Application event published whenever an organization row is created, updated
+ * or removed through JPA.
+ * <p>
+ * Listeners that keep derived state (e.g. caches) should consume this event after
+ * the surrounding transaction commits.
+ *
+ * @param organizationId the affected organization ID
+ * @param changeType     the kind of change that happened
+ */
+public record OrganizationChangedEvent(Long organizationId, ChangeType changeType) {
+
+    /**
+     * Kind of change applied to an organization.
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
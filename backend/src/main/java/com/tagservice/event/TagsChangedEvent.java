@@ -0,0 +1,25 @@
+package com.tagservice.event;
+
+/**
+ * Application event published whenever tags are added or removed.
+ * <p>
+ * Listeners that keep derived state (e.g. caches) should consume this event after
+ * the surrounding transaction commits.
+ *
+ * @param tenantId   the tenant whose tags changed
+ * @param entityType the entity type, or null if tags of any number of entities changed
+ * @param entityId   the entity ID, or null if tags of any number of entities changed
+ */
+public record TagsChangedEvent(long tenantId, String entityType, String entityId) {
+
+    /**
+     * Event for a change that may have touched any entity of the tenant, e.g. a bulk upload.
+     */
+    public static TagsChangedEvent forTenant(long tenantId) {
+        return new TagsChangedEvent(tenantId, null, null);
+    }
+
+    public boolean isTenantWide() {
+        return entityType == null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.tagservice.exception;
+
+import com.tagservice.dto.error.ErrorResponse;
+import com.tagservice.enums.ApiErrorType;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Exception carrying everything needed to render a standard {@link ErrorResponse}.
+ * <p>
+ * Thrown from the client/service layers and translated by {@link ApiExceptionHandler}.
+ */
+@Getter
+public class ApiException extends RuntimeException {
+
+    private final int status;
+    private final ApiErrorType errorType;
+    private final List<ErrorResponse.ApiSubError> errors;
+
+    public ApiException(int status, ApiErrorType errorType, String detail) {
+        this(status, errorType, detail, null);
+    }
+
+    public ApiException(int status, ApiErrorType errorType, String detail, List<ErrorResponse.ApiSubError> errors) {
+        super(detail);
+        this.status = status;
+        this.errorType = errorType;
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tagservice.exception;
+
+import com.tagservice.bulkhead.TenantBulkheadFullException;
+import com.tagservice.dto.error.ErrorResponse;
+import com.tagservice.enums.ApiErrorType;
+import com.tagservice.util.ErrorResponseUtil;
+import jakarta.persistence.PersistenceException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Renders {@link ApiException}s thrown by controllers in the standard error format.
+ */
+@RestControllerAdvice
+@Slf4j
+@RequiredArgsConstructor
+public class ApiExceptionHandler {
+
+    private static final String BULKHEAD_RETRY_AFTER_SECONDS = "1";
+
+    private final ErrorResponseUtil errorResponseUtil;
+
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<ErrorResponse> handleApiException(ApiException ex, HttpServletRequest request) {
+        log.warn("{} for request: {}: {}", ex.getErrorType().getCode(), request.getRequestURI(), ex.getMessage());
+        ErrorResponse body = errorResponseUtil.buildErrorResponse(ex.getStatus(),
+                ex.getErrorType(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                ex.getErrors());
+        return ResponseEntity.status(ex.getStatus()).body(body);
+    }
+
+    /**
+     * Renders connections refused by the {@link com.tagservice.bulkhead.TenantBulkhead}, which reach
+     * here wrapped in a data access, transaction or persistence exception depending on the caller.
+     * Any other such exception is rethrown to the default handling.
+     */
+    @ExceptionHandler({DataAccessException.class, TransactionException.class, PersistenceException.class})
+    public ResponseEntity<ErrorResponse> handleDatabaseFailure(RuntimeException ex, HttpServletRequest request) {
+        if (!(NestedExceptionUtils.getMostSpecificCause(ex) instanceof TenantBulkheadFullException full)) {
+            throw ex;
+        }
+        log.warn("{} for request: {}: {}", ApiErrorType.TOO_MANY_CONCURRENT_REQUESTS.getCode(),
+                request.getRequestURI(), full.getMessage());
+        ErrorResponse body = errorResponseUtil.buildErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(),
+                ApiErrorType.TOO_MANY_CONCURRENT_REQUESTS,
+                full.getMessage() + "; retry later.",
+                request.getRequestURI(),
+                null);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, BULKHEAD_RETRY_AFTER_SECONDS)
+                .body(body);
+    }
+}
@@ -0,0 +1,106 @@
+package com.tagservice.filter;
+
+import com.tagservice.context.OrganizationContext;
+import com.tagservice.context.TenantContext;
+import com.tagservice.enums.ApiErrorType;
+import com.tagservice.ratelimit.TenantRateLimiter;
+import com.tagservice.settings.TenantSettingsCache;
+import com.tagservice.settings.TenantTagRules;
+import com.tagservice.util.ErrorResponseUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant request rate limiting, running right after the TenantResolutionFilter.
+ * <p>
+ * Every tenant-scoped request takes a token from its tenant's bucket in the
+ * {@link TenantRateLimiter}, sized by the {@code rate_limit_*} columns of the tenant's settings.
+ * Requests without a token are answered with 429 and a {@code Retry-After} header before they
+ * reach the database, so a tenant's retry storm stays cheap. If the tenant's settings cannot be
+ * loaded the request is let through rather than failed, since the limit protects the database and
+ * is not worth an outage of its own.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@Slf4j
+public class RateLimitFilter implements Filter {
+
+    private final TenantRateLimiter rateLimiter;
+    private final TenantSettingsCache tenantSettingsCache;
+    private final ErrorResponseUtil errorResponseUtil;
+    private final Counter throttledCounter;
+    private final Counter rulesFailureCounter;
+    private final boolean enabled;
+
+    public RateLimitFilter(TenantRateLimiter rateLimiter,
+                           TenantSettingsCache tenantSettingsCache,
+                           ErrorResponseUtil errorResponseUtil,
+                           MeterRegistry meterRegistry,
+                           @Value("${tagservice.rate-limit.enabled:true}") boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.tenantSettingsCache = tenantSettingsCache;
+        this.errorResponseUtil = errorResponseUtil;
+        this.throttledCounter = meterRegistry.counter("tagservice.rate-limit.throttled");
+        this.rulesFailureCounter = meterRegistry.counter("tagservice.rate-limit.rules-failures");
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        TenantContext tenant = OrganizationContext.current();
+        if (!enabled || tenant == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        TenantTagRules rules;
+        try {
+            rules = tenantSettingsCache.getRules(tenant.organizationId());
+        } catch (RuntimeException e) {
+            rulesFailureCounter.increment();
+            log.warn("Could not load the rate limit of organization {}, not limiting the request",
+                    tenant.organizationId(), e);
+            chain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = rateLimiter.tryAcquire(tenant.organizationId(),
+                rules.getRateLimitPerSecond(), rules.getRateLimitBurst());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        throttledCounter.increment();
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+        log.debug("Rate limit of organization {} exceeded for request: {}",
+                tenant.organizationId(), httpRequest.getRequestURI());
+        httpResponse.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        errorResponseUtil.sendErrorResponse(httpResponse,
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ApiErrorType.RATE_LIMITED,
+                "The organization exceeded its limit of " + rules.getRateLimitPerSecond()
+                        + " requests per second.",
+                httpRequest.getRequestURI());
+    }
+}
@@ -1,12 +1,15 @@
 package com.tagservice.filter;
 
+import com.tagservice.context.ContextCarrier;
+import com.tagservice.context.RequestContext;
 import com.tagservice.util.MDCUtil;
-import com.tagservice.util.ValidationUtils;
+import com.tagservice.util.RequestIdGenerator;
+import com.tagservice.util.UuidUtils;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -18,6 +21,9 @@ import java.util.UUID;
  * Filter to add a unique request ID to every HTTP request/response.
  * This filter runs at the highest order to ensure the request ID is available
  * throughout the entire request lifecycle.
+ * <p>
+ * The ID is parsed once here and bound as a UUID in the {@link RequestContext}; IDs the
+ * client did not supply come from the configured {@link RequestIdGenerator}.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -26,6 +32,12 @@ public class RequestIdFilter implements Filter {
 
     private static final String REQUEST_ID_HEADER = "X-Request-ID";
 
+    private final RequestIdGenerator requestIdGenerator;
+
+    public RequestIdFilter(@Value("${tagservice.request-id.generator:RANDOM}") RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
@@ -33,26 +45,20 @@ public class RequestIdFilter implements Filter {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-        String requestId = resolveRequestId(httpRequest);
+        String headerValue = httpRequest.getHeader(REQUEST_ID_HEADER);
+        UUID parsedRequestId = UuidUtils.parse(headerValue);
+        String requestId;
+        if (parsedRequestId != null) {
+            requestId = headerValue;
+        } else {
+            parsedRequestId = requestIdGenerator.next();
+            requestId = parsedRequestId.toString();
+        }
+
         log.debug("Request ID: {} for request: {}", requestId, httpRequest.getRequestURI());
-        MDCUtil.runWithRequestId((MDCUtil.FilterRunnable) () -> {
+        ContextCarrier.runWhere(new RequestContext(requestId, parsedRequestId, null), (MDCUtil.FilterRunnable) () -> {
             httpResponse.setHeader(REQUEST_ID_HEADER, requestId);
             chain.doFilter(request, response);
-        }, requestId);
-    }
-
-    /**
-     * Resolves the request ID from the request header.
-     * If the request ID is not present or invalid, a new random UUID is generated.
-     *
-     * @param httpRequest the HTTP request
-     * @return the request ID
-     */
-    private String resolveRequestId(HttpServletRequest httpRequest) {
-        String requestId = httpRequest.getHeader(REQUEST_ID_HEADER);
-        if (StringUtils.isNotBlank(requestId) && ValidationUtils.isValidUUID(requestId)) {
-            return requestId;
-        }
-        return UUID.randomUUID().toString();
+        });
     }
 }
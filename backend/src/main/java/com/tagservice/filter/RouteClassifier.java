@@ -0,0 +1,95 @@
+package com.tagservice.filter;
+
+/**
+ * Classifies incoming requests against a route table that is built once at startup.
+ * <p>
+ * Matching is done with plain character comparisons, so classifying a request neither compiles
+ * a regular expression nor allocates. Rules are evaluated in order and the first match wins;
+ * requests that match no rule are tenant-scoped.
+ */
+public final class RouteClassifier {
+
+    /**
+     * What the tenant-resolution stage has to do for a request.
+     */
+    public enum RouteType {
+        /** No tenant needed (health checks, actuator). */
+        PUBLIC,
+        /** Creates a new organization, so no tenant exists yet. */
+        ORGANIZATION_CREATE,
+        /** Requires a valid, active organization. */
+        TENANT
+    }
+
+    private static final Rule[] DEFAULT_RULES = {
+            new Rule(null, prefix("/actuator"), RouteType.PUBLIC),
+            new Rule(null, prefix("/health"), RouteType.PUBLIC),
+            new Rule(null, prefix("/api/v1/health"), RouteType.PUBLIC),
+            new Rule("POST", versionedCollection("organizations"), RouteType.ORGANIZATION_CREATE)
+    };
+
+    private final Rule[] rules;
+
+    public RouteClassifier() {
+        this(DEFAULT_RULES);
+    }
+
+    RouteClassifier(Rule[] rules) {
+        this.rules = rules.clone();
+    }
+
+    /**
+     * Classifies a request.
+     *
+     * @param method the HTTP method
+     * @param path   the request URI path
+     * @return the route type of the first matching rule, or {@link RouteType#TENANT}
+     */
+    public RouteType classify(String method, String path) {
+        for (Rule rule : rules) {
+            if ((rule.method == null || rule.method.equalsIgnoreCase(method)) && rule.matcher.matches(path)) {
+                return rule.type;
+            }
+        }
+        return RouteType.TENANT;
+    }
+
+    /**
+     * Matches a path against a precompiled pattern.
+     */
+    @FunctionalInterface
+    interface PathMatcher {
+        boolean matches(String path);
+    }
+
+    record Rule(String method, PathMatcher matcher, RouteType type) {
+    }
+
+    static PathMatcher prefix(String prefix) {
+        return path -> path.startsWith(prefix);
+    }
+
+    /**
+     * Matches {@code [/api]/v<digits>/<resource>[/]}, e.g. {@code /v1/organizations} or
+     * {@code /api/v2/organizations/}.
+     */
+    static PathMatcher versionedCollection(String resource) {
+        return path -> {
+            int i = path.startsWith("/api/") ? 4 : 0;
+            if (!path.startsWith("/v", i)) {
+                return false;
+            }
+            i += 2;
+            int digitsStart = i;
+            while (i < path.length() && path.charAt(i) >= '0' && path.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == digitsStart || i >= path.length() || path.charAt(i) != '/'
+                    || !path.startsWith(resource, i + 1)) {
+                return false;
+            }
+            int end = i + 1 + resource.length();
+            return end == path.length() || (end == path.length() - 1 && path.charAt(end) == '/');
+        };
+    }
+}
@@ -0,0 +1,171 @@
+package com.tagservice.filter;
+
+import com.tagservice.client.OrganizationClient;
+import com.tagservice.context.ContextCarrier;
+import com.tagservice.context.OrganizationContext;
+import com.tagservice.context.TenantContext;
+import com.tagservice.dto.error.OrganizationDto;
+import com.tagservice.enums.ApiErrorType;
+import com.tagservice.filter.RouteClassifier.RouteType;
+import com.tagservice.rls.RlsMode;
+import com.tagservice.rls.TenantAwareJpaDialect;
+import com.tagservice.util.ErrorResponseUtil;
+import com.tagservice.util.MDCUtil;
+import com.tagservice.util.ValidationUtils;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Single tenant-resolution stage for every request, running right after the RequestIdFilter.
+ * <p>
+ * The request is classified once against the {@link RouteClassifier} route table. For
+ * tenant-scoped routes the {@code X-Organization-Id} header is parsed and validated once, the
+ * organization is checked to exist and be active, and an immutable {@link TenantContext} is
+ * bound through {@link ContextCarrier} for the rest of the chain and read with
+ * {@link OrganizationContext}. In
+ * {@link RlsMode#SESSION} mode the PostgreSQL RLS setting is also applied around the chain.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class TenantResolutionFilter implements Filter {
+
+    static final String ORGANIZATION_ID_HEADER = "X-Organization-Id";
+
+    private final RouteClassifier routeClassifier = new RouteClassifier();
+    private final OrganizationClient organizationClient;
+    private final ErrorResponseUtil errorResponseUtil;
+    private final JdbcTemplate jdbcTemplate;
+    private final RlsMode rlsMode;
+
+    public TenantResolutionFilter(OrganizationClient organizationClient,
+                                  ErrorResponseUtil errorResponseUtil,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${tagservice.rls.mode:SESSION}") RlsMode rlsMode) {
+        this.organizationClient = organizationClient;
+        this.errorResponseUtil = errorResponseUtil;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rlsMode = rlsMode;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        String requestPath = httpRequest.getRequestURI();
+
+        if (routeClassifier.classify(httpRequest.getMethod(), requestPath) != RouteType.TENANT) {
+            log.debug("Skipping tenant resolution for request: {}", requestPath);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String organizationIdHeader = httpRequest.getHeader(ORGANIZATION_ID_HEADER);
+
+        if (organizationIdHeader == null || organizationIdHeader.isBlank()) {
+            log.warn("Missing {} header for request: {}", ORGANIZATION_ID_HEADER, requestPath);
+            errorResponseUtil.sendErrorResponse(httpResponse,
+                    HttpServletResponse.SC_BAD_REQUEST,
+                    ApiErrorType.MISSING_HEADER,
+                    "The request is missing the required '" + ORGANIZATION_ID_HEADER + "' header.",
+                    requestPath);
+            return;
+        }
+
+        long organizationId = ValidationUtils.parsePositiveLong(organizationIdHeader);
+        if (organizationId < 0) {
+            log.warn("Invalid {} header format: {} for request: {}",
+                    ORGANIZATION_ID_HEADER, organizationIdHeader, requestPath);
+            errorResponseUtil.sendErrorResponse(httpResponse,
+                    HttpServletResponse.SC_BAD_REQUEST,
+                    ApiErrorType.INVALID_HEADER,
+                    "The '" + ORGANIZATION_ID_HEADER + "' header must be a positive integer organization ID.",
+                    requestPath);
+            return;
+        }
+
+        OrganizationDto organization = findActiveOrganization(organizationId, httpResponse, requestPath);
+        if (organization == null) {
+            return;
+        }
+
+        TenantContext tenant = new TenantContext(organizationId, organization.getType());
+        ContextCarrier.runWhere(ContextCarrier.current().withTenant(tenant), (MDCUtil.FilterRunnable) () -> {
+            if (rlsMode == RlsMode.SESSION) {
+                doFilterWithSessionRls(request, response, chain, organizationId);
+            } else {
+                chain.doFilter(request, response);
+            }
+        });
+    }
+
+    /**
+     * Verifies that the organization exists and is not soft-deleted, writing the error response
+     * if it is not.
+     *
+     * @return the organization if the request may proceed, otherwise null
+     */
+    private OrganizationDto findActiveOrganization(long organizationId, HttpServletResponse httpResponse,
+                                                   String requestPath) {
+        try {
+            OrganizationDto organization = organizationClient.getActiveOrganizationById(organizationId);
+
+            // Defensive check: service already treats soft-deleted as non-existent,
+            // but we keep this in case the implementation changes.
+            if (organization.getDeletedAt() != null) {
+                log.warn("Organization {} is soft-deleted for request: {}", organizationId, requestPath);
+                errorResponseUtil.sendErrorResponse(httpResponse,
+                        HttpServletResponse.SC_GONE,
+                        ApiErrorType.ORGANIZATION_DELETED,
+                        "The organization associated with this request has been deleted.",
+                        requestPath);
+                return null;
+            }
+            return organization;
+        } catch (EntityNotFoundException ex) {
+            log.warn("Organization not found with id {} for request: {}", organizationId, requestPath);
+            errorResponseUtil.sendErrorResponse(httpResponse,
+                    HttpServletResponse.SC_NOT_FOUND,
+                    ApiErrorType.ORGANIZATION_NOT_FOUND,
+                    "The organization associated with this request does not exist or has been deleted.",
+                    requestPath);
+            return null;
+        }
+    }
+
+    /**
+     * Sets the PostgreSQL session variable before the chain and resets it afterwards so it does
+     * not leak back into the connection pool.
+     */
+    private void doFilterWithSessionRls(ServletRequest request, ServletResponse response, FilterChain chain,
+                                        long organizationId) throws IOException, ServletException {
+        log.debug("Setting PostgreSQL RLS context for organization: {}", organizationId);
+        jdbcTemplate.execute("SET " + TenantAwareJpaDialect.CURRENT_TENANT_SETTING + " = '" + organizationId + "'");
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            try {
+                jdbcTemplate.execute("RESET " + TenantAwareJpaDialect.CURRENT_TENANT_SETTING);
+            } catch (Exception e) {
+                log.warn("Failed to reset {}", TenantAwareJpaDialect.CURRENT_TENANT_SETTING, e);
+            }
+        }
+    }
+}
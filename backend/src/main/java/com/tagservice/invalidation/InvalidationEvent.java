@@ -0,0 +1,26 @@
+package com.tagservice.invalidation;
+
+/**
+ * A row change announced on the {@code tagservice_invalidation} PostgreSQL channel.
+ *
+ * @param table          the table that changed, e.g. {@code organizations}
+ * @param operation      {@code INSERT}, {@code UPDATE} or {@code DELETE}
+ * @param organizationId the organization the changed row belongs to
+ * @param entityType     for {@code tags}, the entity whose tags changed; null if any entity may have changed
+ * @param entityId       for {@code tags}, the entity whose tags changed; null if any entity may have changed
+ */
+public record InvalidationEvent(String table, String operation, Long organizationId,
+                                String entityType, String entityId) {
+
+    public static final String ORGANIZATIONS = "organizations";
+    public static final String TENANT_SETTINGS = "tenant_settings";
+    public static final String TAGS = "tags";
+
+    public InvalidationEvent(String table, String operation, Long organizationId) {
+        this(table, operation, organizationId, null, null);
+    }
+
+    public boolean isFor(String tableName) {
+        return tableName.equals(table);
+    }
+}
@@ -0,0 +1,23 @@
+package com.tagservice.invalidation;
+
+/**
+ * Implemented by caches that must drop state when another node changes the underlying rows.
+ * <p>
+ * Every Spring bean implementing this interface is registered with
+ * {@link PostgresInvalidationListener} automatically.
+ */
+public interface InvalidationSubscriber {
+
+    /**
+     * Called for every change notification received from the database.
+     *
+     * @param event the change that was committed
+     */
+    void onInvalidation(InvalidationEvent event);
+
+    /**
+     * Called after the listener (re)connects. Notifications sent while it was disconnected
+     * are lost, so subscribers should drop everything they hold.
+     */
+    void onResync();
+}
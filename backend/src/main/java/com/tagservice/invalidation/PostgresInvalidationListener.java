@@ -0,0 +1,217 @@
+package com.tagservice.invalidation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Listens on the {@code tagservice_invalidation} channel fed by the database triggers and fans
+ * every notification out to the registered {@link InvalidationSubscriber}s.
+ * <p>
+ * The listener holds one dedicated connection outside the pool, because a pooled connection
+ * would lose its {@code LISTEN} registration when handed to another caller. When the connection
+ * breaks it reconnects with exponential backoff and asks subscribers to resync, since
+ * notifications sent in the meantime are not replayed. A connection that dies silently would
+ * just keep timing out while polling, so every poll timeout runs a trivial query on it, bounded
+ * by the socket timeout, to surface the failure.
+ */
+@Component
+@ConditionalOnProperty(name = "tagservice.invalidation.listener.enabled", havingValue = "true")
+@Slf4j
+public class PostgresInvalidationListener implements SmartLifecycle {
+
+    static final String CHANNEL = "tagservice_invalidation";
+
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<InvalidationSubscriber> subscribers;
+    private final ObjectMapper objectMapper;
+    private final Duration pollTimeout;
+    private final Duration initialBackoff;
+    private final Counter notificationCounter;
+    private final Counter reconnectCounter;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private volatile Connection connection;
+
+    public PostgresInvalidationListener(DataSourceProperties dataSourceProperties,
+                                        ObjectProvider<InvalidationSubscriber> subscribers,
+                                        ObjectMapper objectMapper,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${tagservice.invalidation.listener.poll-timeout:PT10S}") Duration pollTimeout,
+                                        @Value("${tagservice.invalidation.listener.initial-backoff:PT1S}") Duration initialBackoff) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.subscribers = subscribers;
+        this.objectMapper = objectMapper;
+        this.pollTimeout = pollTimeout;
+        this.initialBackoff = initialBackoff;
+        this.notificationCounter = meterRegistry.counter("tagservice.invalidation.notifications");
+        this.reconnectCounter = meterRegistry.counter("tagservice.invalidation.reconnects");
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "invalidation-listener");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeQuietly(connection);
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        Duration backoff = initialBackoff;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection conn = openConnection()) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for cache invalidations on channel {}", CHANNEL);
+                if (reconnecting) {
+                    reconnectCounter.increment();
+                    resyncSubscribers();
+                }
+                backoff = initialBackoff;
+                poll(conn);
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Invalidation listener connection failed, reconnecting in {}", backoff, e);
+                reconnecting = true;
+                if (!sleep(backoff)) {
+                    break;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+            } finally {
+                connection = null;
+            }
+        }
+        log.info("Invalidation listener stopped");
+    }
+
+    Connection openConnection() throws SQLException {
+        Properties properties = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("socketTimeout", String.valueOf(Math.max(1, pollTimeout.multipliedBy(2).toSeconds())));
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+    }
+
+    private void poll(Connection conn) throws SQLException {
+        PGConnection pgConnection = conn.unwrap(PGConnection.class);
+        int timeoutMillis = (int) pollTimeout.toMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+            if (notifications == null) {
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                dispatch(notification.getParameter());
+            }
+        }
+    }
+
+    void dispatch(String payload) {
+        InvalidationEvent event;
+        try {
+            JsonNode node = objectMapper.readTree(payload);
+            event = new InvalidationEvent(node.path("table").asText(),
+                    node.path("op").asText(),
+                    node.path("organization_id").asLong(),
+                    node.path("entity_type").asText(null),
+                    node.path("entity_id").asText(null));
+        } catch (Exception e) {
+            log.warn("Ignoring malformed invalidation payload: {}", payload, e);
+            return;
+        }
+        notificationCounter.increment();
+        log.debug("Received invalidation {}", event);
+        for (InvalidationSubscriber subscriber : subscriberList()) {
+            try {
+                subscriber.onInvalidation(event);
+            } catch (RuntimeException e) {
+                log.error("Invalidation subscriber {} failed for {}", subscriber.getClass().getSimpleName(), event, e);
+            }
+        }
+    }
+
+    private void resyncSubscribers() {
+        for (InvalidationSubscriber subscriber : subscriberList()) {
+            try {
+                subscriber.onResync();
+            } catch (RuntimeException e) {
+                log.error("Invalidation subscriber {} failed to resync", subscriber.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private List<InvalidationSubscriber> subscriberList() {
+        return subscribers.orderedStream().toList();
+    }
+
+    private boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close invalidation listener connection", e);
+        }
+    }
+}
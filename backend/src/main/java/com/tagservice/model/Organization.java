@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.OffsetDateTime;
 
@@ -13,6 +15,7 @@ import java.time.OffsetDateTime;
  */
 @Entity
 @Table(name = "organizations")
+@EntityListeners(OrganizationChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -41,7 +44,14 @@ public class Organization extends BaseEntity {
     /**
      * Structured settings stored as JSONB in PostgreSQL.
      * Mapped to a DTO based on the API specification.
+     * <p>
+     * Loaded and deserialized lazily on first access (requires bytecode enhancement, see the
+     * hibernate-enhance-maven-plugin in pom.xml), and excluded from equals/hashCode/toString so
+     * they do not trigger the load.
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Column(columnDefinition = "jsonb")
     @Convert(converter = OrganizationSettingsConverter.class)
     private OrganizationSettings settings;
@@ -0,0 +1,46 @@
+package com.tagservice.model;
+
+import com.tagservice.event.OrganizationChangedEvent;
+import com.tagservice.event.OrganizationChangedEvent.ChangeType;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that publishes an {@link OrganizationChangedEvent} for every
+ * persisted change to an {@link Organization}.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container, so the event publisher
+ * is injected through the constructor.
+ */
+public class OrganizationChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrganizationChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreated(Organization organization) {
+        publish(organization, ChangeType.CREATED);
+    }
+
+    /**
+     * Soft-deletes are plain updates of {@code deleted_at}, so they are reported here too.
+     */
+    @PostUpdate
+    public void onUpdated(Organization organization) {
+        publish(organization, organization.getDeletedAt() != null ? ChangeType.DELETED : ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void onRemoved(Organization organization) {
+        publish(organization, ChangeType.DELETED);
+    }
+
+    private void publish(Organization organization, ChangeType changeType) {
+        eventPublisher.publishEvent(new OrganizationChangedEvent(organization.getId(), changeType));
+    }
+}
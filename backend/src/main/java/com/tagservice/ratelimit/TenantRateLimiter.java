@@ -0,0 +1,111 @@
+package com.tagservice.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets, one per tenant.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding the time at which it will be full again (the
+ * "theoretical arrival time" of the generic cell rate algorithm, which behaves exactly like a
+ * token bucket of {@code burst} tokens refilled at {@code perSecond} tokens per second). Taking a
+ * token moves that time forward by one refill interval with a compare-and-set, so there is no
+ * lock and no separate refill step; a refused request writes nothing at all, so a retry storm only
+ * reads the bucket. Buckets live in a bounded map keyed by tenant ID; a bucket idle for longer
+ * than it takes to refill is full anyway, so dropping it loses nothing.
+ */
+@Component
+public class TenantRateLimiter {
+
+    /**
+     * One tenant's bucket for one limit setting.
+     */
+    static final class Bucket {
+
+        private final int perSecond;
+        private final int burst;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong fullAt;
+
+        Bucket(int perSecond, int burst, long now) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / perSecond;
+            this.toleranceNanos = intervalNanos * burst;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long waitNanos = next - now - toleranceNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean hasLimit(int perSecond, int burst) {
+            return this.perSecond == perSecond && this.burst == burst;
+        }
+    }
+
+    private final Cache<Long, Bucket> buckets;
+    private final LongSupplier clock;
+
+    @Autowired
+    public TenantRateLimiter(@Value("${tagservice.rate-limit.max-tenants:100000}") long maxTenants,
+                             @Value("${tagservice.rate-limit.idle-expiry:PT5M}") Duration idleExpiry,
+                             MeterRegistry meterRegistry) {
+        this(maxTenants, idleExpiry, System::nanoTime);
+        Gauge.builder("tagservice.rate-limit.tenants", buckets, Cache::estimatedSize)
+                .description("Tenants with a rate limit bucket")
+                .register(meterRegistry);
+    }
+
+    TenantRateLimiter(long maxTenants, Duration idleExpiry, LongSupplier clock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterAccess(idleExpiry)
+                .build();
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one token from a tenant's bucket.
+     *
+     * @param perSecond the tenant's sustained rate; 0 or less means unlimited
+     * @param burst     the tenant's bucket size, at least 1
+     * @return 0 if the request may proceed, otherwise the nanoseconds until it would be allowed
+     */
+    public long tryAcquire(long tenantId, int perSecond, int burst) {
+        if (perSecond <= 0) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.getIfPresent(tenantId);
+        if (bucket == null || !bucket.hasLimit(perSecond, burst)) {
+            bucket = buckets.asMap().compute(tenantId, (id, current) ->
+                    current != null && current.hasLimit(perSecond, burst) ? current : new Bucket(perSecond, burst, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+}
@@ -0,0 +1,52 @@
+package com.tagservice.replica;
+
+import java.util.function.Supplier;
+
+/**
+ * Routing hint that sends the read-only transactions started inside it to the primary.
+ * <p>
+ * Used for everything that fills an in-process cache or index: a replica may not have replayed a
+ * write whose invalidation has already been applied, and a fill from it would keep the stale data
+ * until the next invalidation. Wrap the whole transaction, not just its statements, since the
+ * connection may be taken when the transaction begins. The hint is bound to the calling thread and
+ * only has an effect while read replicas are configured.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> REQUIRED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    /**
+     * Runs {@code reads} with every read-only transaction it starts routed to the primary.
+     */
+    public static <T> T call(Supplier<T> reads) {
+        if (Boolean.TRUE.equals(REQUIRED.get())) {
+            return reads.get();
+        }
+        REQUIRED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Runs {@code reads} with every read-only transaction it starts routed to the primary.
+     */
+    public static void run(Runnable reads) {
+        call(() -> {
+            reads.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return true if the current thread is inside {@link #call} or {@link #run}
+     */
+    public static boolean required() {
+        return Boolean.TRUE.equals(REQUIRED.get());
+    }
+}
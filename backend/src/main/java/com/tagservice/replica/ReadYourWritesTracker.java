@@ -0,0 +1,78 @@
+package com.tagservice.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tagservice.event.OrganizationChangedEvent;
+import com.tagservice.event.TagsChangedEvent;
+import com.tagservice.invalidation.InvalidationEvent;
+import com.tagservice.invalidation.InvalidationSubscriber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Remembers which tenants wrote recently, so that their reads go to the primary until every
+ * replica in use has caught up with the write.
+ * <p>
+ * Writes made on this node are recorded once they commit; writes made on other nodes arrive as
+ * invalidation notifications. After the invalidation listener reconnects, when notifications may
+ * have been lost, every tenant reads from the primary for one window. The window must cover the
+ * maximum replica lag plus one probe interval.
+ * <p>
+ * This only protects request reads. The order of these listeners relative to the cache
+ * invalidations is undefined, so cache and index fills do not rely on it and always read from
+ * the primary through {@link PrimaryReads}.
+ */
+@Component
+@ConditionalOnProperty(name = "tagservice.datasource.replicas.urls")
+public class ReadYourWritesTracker implements InvalidationSubscriber {
+
+    private final Cache<Long, Boolean> recentWrites;
+    private final long windowNanos;
+    private volatile long allStickyUntil = System.nanoTime();
+
+    public ReadYourWritesTracker(@Value("${tagservice.datasource.replicas.sticky-window:PT5S}") Duration window) {
+        this.windowNanos = window.toNanos();
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * @return true if the tenant wrote within the window and must read from the primary
+     */
+    public boolean mustReadPrimary(long tenantId) {
+        return System.nanoTime() - allStickyUntil < 0 || recentWrites.getIfPresent(tenantId) != null;
+    }
+
+    public void recordWrite(long tenantId) {
+        recentWrites.put(tenantId, Boolean.TRUE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(TagsChangedEvent event) {
+        recordWrite(event.tenantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChanged(OrganizationChangedEvent event) {
+        if (event.organizationId() != null) {
+            recordWrite(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.organizationId() != null) {
+            recordWrite(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        allStickyUntil = System.nanoTime() + windowNanos;
+    }
+}
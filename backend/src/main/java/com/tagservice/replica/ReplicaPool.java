@@ -0,0 +1,242 @@
+package com.tagservice.replica;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pools of the read replicas listed in {@code tagservice.datasource.replicas.urls},
+ * and their replication lag.
+ * <p>
+ * A background thread measures every replica's lag with the configured lag query each probe
+ * interval. A replica is only used while its last probe succeeded and reported at most the
+ * maximum lag; replicas are unused until their first probe, and one that fails to hand out a
+ * connection is dropped until the next successful probe. Replicas in use are picked round-robin.
+ */
+@Component
+@ConditionalOnProperty(name = "tagservice.datasource.replicas.urls")
+@Slf4j
+public class ReplicaPool implements SmartLifecycle {
+
+    /**
+     * The default lag query for PostgreSQL standbys, in milliseconds. A standby that has replayed
+     * everything it received is current even if the primary has been idle for a while, but only
+     * while its WAL receiver is streaming; a disconnected standby is judged by the age of its last
+     * replayed transaction, and one that has replayed none reports no lag and is not used.
+     */
+    public static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                    AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+            END
+            """;
+
+    /**
+     * One replica and the outcome of its last probe.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean usable;
+        private volatile double lagMillis = -1;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Connection getConnection() throws SQLException {
+            return dataSource.getConnection();
+        }
+
+        /**
+         * Stops using this replica until its next successful probe.
+         */
+        public void markDown(SQLException cause) {
+            if (usable) {
+                log.warn("Read replica {} failed, reading from the primary until it recovers", name, cause);
+            }
+            usable = false;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long maxLagMillis;
+    private final Duration probeInterval;
+    private final String lagQuery;
+    private final Map<String, Counter> readCounters;
+
+    private volatile ScheduledExecutorService prober;
+
+    public ReplicaPool(@Value("${tagservice.datasource.replicas.urls}") String urls,
+                       @Value("${tagservice.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                       @Value("${tagservice.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                       @Value("${tagservice.datasource.replicas.driver-class-name:${spring.datasource.driver-class-name:}}") String driverClassName,
+                       @Value("${tagservice.datasource.replicas.pool-size:10}") int poolSize,
+                       @Value("${tagservice.datasource.replicas.connection-timeout:PT2S}") Duration connectionTimeout,
+                       @Value("${tagservice.datasource.replicas.max-lag:PT1S}") Duration maxLag,
+                       @Value("${tagservice.datasource.replicas.probe-interval:PT1S}") Duration probeInterval,
+                       @Value("${tagservice.datasource.replicas.lag-query:" + POSTGRES_LAG_QUERY + "}") String lagQuery,
+                       MeterRegistry meterRegistry) {
+        this.maxLagMillis = maxLag.toMillis();
+        this.probeInterval = probeInterval;
+        this.lagQuery = lagQuery;
+        for (String url : Arrays.stream(urls.split(",")).map(String::trim).filter(u -> !u.isEmpty()).toList()) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + replicas.size());
+            config.setJdbcUrl(url);
+            config.setUsername(username);
+            config.setPassword(password);
+            if (!driverClassName.isEmpty()) {
+                config.setDriverClassName(driverClassName);
+            }
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // A replica that is down at startup must not keep the service from starting
+            config.setInitializationFailTimeout(-1);
+            Replica replica = new Replica(config.getPoolName(), new HikariDataSource(config));
+            replicas.add(replica);
+            Gauge.builder("tagservice.datasource.replica.lag", replica, r -> r.lagMillis)
+                    .description("Replication lag measured by the last probe; -1 if it failed")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        this.readCounters = Map.of(
+                "replica", readCounter(meterRegistry, "replica"),
+                "primary-pinned", readCounter(meterRegistry, "primary-pinned"),
+                "primary-sticky", readCounter(meterRegistry, "primary-sticky"),
+                "primary-fallback", readCounter(meterRegistry, "primary-fallback"));
+        log.info("{} read replicas configured, maximum lag {}", replicas.size(), maxLag);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("tagservice.datasource.reads")
+                .description("Read-only transactions by the data source they were routed to")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the next replica in use, or null if none is.
+     */
+    public Replica pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.usable) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts a read-only transaction routed to {@code replica}, {@code primary-pinned},
+     * {@code primary-sticky} or {@code primary-fallback}.
+     */
+    public void recordRead(String route) {
+        readCounters.get(route).increment();
+    }
+
+    /**
+     * Measures the lag of every replica once and updates which replicas are used.
+     */
+    void probe() {
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.usable;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                resultSet.next();
+                replica.lagMillis = resultSet.getDouble(1);
+                if (resultSet.wasNull()) {
+                    replica.lagMillis = -1;
+                    replica.usable = false;
+                    if (wasUsable) {
+                        log.warn("Read replica {} reports no lag, reading from the primary", replica.name);
+                    }
+                    continue;
+                }
+                replica.usable = replica.lagMillis <= maxLagMillis;
+                if (wasUsable && !replica.usable) {
+                    log.warn("Read replica {} is {} ms behind, reading from the primary", replica.name,
+                            (long) replica.lagMillis);
+                }
+            } catch (SQLException e) {
+                replica.lagMillis = -1;
+                replica.usable = false;
+                if (wasUsable) {
+                    log.warn("Read replica {} cannot be probed, reading from the primary", replica.name, e);
+                }
+            } catch (RuntimeException e) {
+                replica.lagMillis = -1;
+                replica.usable = false;
+                log.warn("Probing read replica {} failed", replica.name, e);
+            }
+            if (!wasUsable && replica.usable) {
+                log.info("Read replica {} is in use, {} ms behind", replica.name, (long) replica.lagMillis);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::probe, 0, probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+        prober = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = prober;
+        prober = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        replicas.forEach(replica -> {
+            replica.usable = false;
+            replica.dataSource.close();
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return prober != null;
+    }
+}
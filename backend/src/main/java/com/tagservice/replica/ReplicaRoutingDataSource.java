@@ -0,0 +1,94 @@
+package com.tagservice.replica;
+
+import com.tagservice.context.OrganizationContext;
+import com.tagservice.context.TenantContext;
+import com.tagservice.rls.RlsMode;
+import com.tagservice.rls.TenantAwareJpaDialect;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Data source for read-only transactions: hands out a replica connection unless the transaction
+ * fills a cache ({@link PrimaryReads}), the tenant wrote recently or no replica is current enough,
+ * in which case it falls back to the primary.
+ * <p>
+ * Every replica connection is bound to the current tenant's RLS setting at session level on
+ * checkout (or has it reset outside a tenant) unless RLS is {@link RlsMode#DISABLED}, so row-level
+ * security holds on replicas in either mode and a replica connection never keeps the tenant of its
+ * previous user. In {@code TRANSACTION} mode the dialect additionally sets it transaction-locally.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final String BIND_TENANT_SQL =
+            "SELECT set_config('" + TenantAwareJpaDialect.CURRENT_TENANT_SETTING + "', ?, false)";
+
+    private final DataSource primary;
+    private final Supplier<ReplicaPool> replicaPool;
+    private final Supplier<ReadYourWritesTracker> readYourWritesTracker;
+    private final RlsMode rlsMode;
+
+    /**
+     * @param replicaPool           supplies the replicas on first use
+     * @param readYourWritesTracker supplies the tracker on first use
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Supplier<ReplicaPool> replicaPool,
+                                    Supplier<ReadYourWritesTracker> readYourWritesTracker, RlsMode rlsMode) {
+        this.primary = primary;
+        this.replicaPool = replicaPool;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.rlsMode = rlsMode;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReplicaPool replicas = replicaPool.get();
+        if (PrimaryReads.required()) {
+            replicas.recordRead("primary-pinned");
+            return primary.getConnection();
+        }
+        TenantContext tenant = OrganizationContext.current();
+        if (tenant != null && readYourWritesTracker.get().mustReadPrimary(tenant.organizationId())) {
+            replicas.recordRead("primary-sticky");
+            return primary.getConnection();
+        }
+        ReplicaPool.Replica replica = replicas.pick();
+        if (replica != null) {
+            Connection connection = null;
+            try {
+                connection = replica.getConnection();
+                if (rlsMode != RlsMode.DISABLED) {
+                    bindTenant(connection, tenant);
+                }
+                replicas.recordRead("replica");
+                return connection;
+            } catch (SQLException ex) {
+                if (connection != null) {
+                    connection.close();
+                }
+                replica.markDown(ex);
+            }
+        }
+        replicas.recordRead("primary-fallback");
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private static void bindTenant(Connection connection, TenantContext tenant) throws SQLException {
+        // A null value resets the setting
+        try (PreparedStatement statement = connection.prepareStatement(BIND_TENANT_SQL)) {
+            statement.setString(1, tenant != null ? tenant.organizationIdAsString() : null);
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.tagservice.repository;
+
+import com.tagservice.dto.OrganizationAuditDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads {@code organizations_audit}.
+ * <p>
+ * History is always read for one organization and a bounded time range; the plain
+ * {@code created_at} range lets PostgreSQL prune every monthly partition outside it (at execution
+ * time for generic plans), and {@code idx_organizations_audit_org_id} serves each remaining
+ * partition in {@code (created_at, audit_id)} order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrganizationAuditRepository {
+
+    private static final String FIND_HISTORY_SQL = """
+            SELECT audit_id, action::text AS action, created_at, created_by, request_id,
+                   name, display_name, domain, type, version, deleted_at, settings::text AS settings,
+                   name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+            FROM organizations_audit
+            WHERE organization_id = ?
+              AND created_at >= ? AND created_at < ?
+              AND (created_at > ? OR (created_at = ? AND audit_id > ?))
+            ORDER BY created_at, audit_id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns up to {@code limit} audit rows of an organization with {@code from <= created_at < to}
+     * that come after the given position, ordered by {@code (created_at, audit_id)}.
+     *
+     * @param afterCreatedAt timestamp of the last row already read, or {@code from} for the first page
+     * @param afterAuditId   ID of the last row already read, or 0 for the first page
+     */
+    public List<OrganizationAuditDto> findHistory(long organizationId, Instant from, Instant to,
+                                                  Instant afterCreatedAt, long afterAuditId, int limit) {
+        OffsetDateTime after = utc(afterCreatedAt);
+        return jdbcTemplate.query(FIND_HISTORY_SQL, (rs, rowNum) -> toDto(rs),
+                organizationId, utc(from), utc(to), after, after, afterAuditId, limit);
+    }
+
+    private static OrganizationAuditDto toDto(ResultSet rs) throws SQLException {
+        return OrganizationAuditDto.builder()
+                .auditId(rs.getLong("audit_id"))
+                .action(rs.getString("action"))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                .createdBy(rs.getString("created_by"))
+                .requestId(rs.getObject("request_id", UUID.class))
+                .name(rs.getString("name"))
+                .displayName(rs.getString("display_name"))
+                .domain(rs.getString("domain"))
+                .type(rs.getString("type"))
+                .version(rs.getObject("version", Integer.class))
+                .deletedAt(rs.getObject("deleted_at", OffsetDateTime.class))
+                .settings(rs.getString("settings"))
+                .nameChanged(rs.getObject("name_changed", Boolean.class))
+                .displayNameChanged(rs.getObject("display_name_changed", Boolean.class))
+                .domainChanged(rs.getObject("domain_changed", Boolean.class))
+                .typeChanged(rs.getObject("type_changed", Boolean.class))
+                .settingsChanged(rs.getObject("settings_changed", Boolean.class))
+                .build();
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
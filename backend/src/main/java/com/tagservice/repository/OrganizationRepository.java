@@ -1,9 +1,13 @@
 package com.tagservice.repository;
 
+import com.tagservice.dto.error.OrganizationDto;
 import com.tagservice.model.Organization;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,5 +25,20 @@ public interface OrganizationRepository extends JpaRepository<Organization, Long
      * Finds an active (non-soft-deleted) organization by ID.
      */
     Optional<Organization> findByIdAndDeletedAtIsNull(Long id);
-}
 
+    /**
+     * Fetches only the fields needed for an existence check of an organization, including a
+     * soft-deleted one. Selects {@code id}, {@code type} and {@code deleted_at} without loading the
+     * entity, so the JSONB settings are neither transferred nor deserialized and nothing enters the
+     * persistence context.
+     */
+    @Query("select new com.tagservice.dto.error.OrganizationDto(o.id, o.type, o.deletedAt) "
+            + "from Organization o where o.id = :id")
+    Optional<OrganizationDto> findStatusById(@Param("id") Long id);
+
+    /**
+     * Returns the IDs of all organizations, including soft-deleted ones.
+     */
+    @Query("select o.id from Organization o")
+    List<Long> findAllIds();
+}
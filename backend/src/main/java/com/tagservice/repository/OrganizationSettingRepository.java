@@ -0,0 +1,82 @@
+package com.tagservice.repository;
+
+import com.tagservice.model.OrganizationSetting;
+import com.tagservice.model.SearchMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Reads {@code tenant_settings}.
+ * <p>
+ * {@code search_mode} is stored in lower case ({@code 'partial'}), as in the column default. An
+ * unknown mode is read as the default {@link SearchMode#PARTIAL}, so one bad row cannot make the
+ * tenant's settings unreadable.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class OrganizationSettingRepository {
+
+    private static final String FIND_BY_ORGANIZATION_SQL = """
+            SELECT organization_id, version, allow_upsert_tag, allow_rename_tag, allow_delete_active_tag,
+                   allow_color, key_case_sensitive, max_tag_count_per_entity,
+                   min_tag_key_length, max_tag_key_length, min_tag_value_length, max_tag_value_length,
+                   search_mode, rate_limit_per_second, rate_limit_burst
+            FROM tenant_settings
+            WHERE organization_id = ?
+            """;
+
+    private static final String FIND_VERSION_SQL = "SELECT version FROM tenant_settings WHERE organization_id = ?";
+
+    private static final RowMapper<OrganizationSetting> ROW_MAPPER = (rs, rowNum) -> OrganizationSetting.builder()
+            .organizationId(rs.getLong("organization_id"))
+            .version(rs.getObject("version", Integer.class))
+            .allowUpsertTag(rs.getBoolean("allow_upsert_tag"))
+            .allowRenameTag(rs.getBoolean("allow_rename_tag"))
+            .allowDeleteActiveTag(rs.getBoolean("allow_delete_active_tag"))
+            .allowColor(rs.getBoolean("allow_color"))
+            .keyCaseSensitive(rs.getBoolean("key_case_sensitive"))
+            .maxTagCountPerEntity(rs.getInt("max_tag_count_per_entity"))
+            .minTagKeyLength(rs.getInt("min_tag_key_length"))
+            .maxTagKeyLength(rs.getInt("max_tag_key_length"))
+            .minTagValueLength(rs.getInt("min_tag_value_length"))
+            .maxTagValueLength(rs.getInt("max_tag_value_length"))
+            .searchMode(searchMode(rs.getLong("organization_id"), rs.getString("search_mode")))
+            .rateLimitPerSecond(rs.getInt("rate_limit_per_second"))
+            .rateLimitBurst(rs.getInt("rate_limit_burst"))
+            .build();
+
+    private static SearchMode searchMode(long organizationId, String value) {
+        if (value != null) {
+            try {
+                return SearchMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                // fall through to the default
+            }
+        }
+        log.warn("Unknown search mode '{}' for organization {}, using {}", value, organizationId, SearchMode.PARTIAL);
+        return SearchMode.PARTIAL;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the settings row of an organization.
+     */
+    public Optional<OrganizationSetting> findByOrganizationId(Long organizationId) {
+        return jdbcTemplate.query(FIND_BY_ORGANIZATION_SQL, ROW_MAPPER, organizationId).stream().findFirst();
+    }
+
+    /**
+     * Fetches only the version of an organization's settings row, for cheap staleness checks.
+     */
+    public Optional<Integer> findVersionByOrganizationId(Long organizationId) {
+        return jdbcTemplate.queryForList(FIND_VERSION_SQL, Integer.class, organizationId).stream().findFirst();
+    }
+}
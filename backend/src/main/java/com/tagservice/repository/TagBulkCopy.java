@@ -0,0 +1,99 @@
+package com.tagservice.repository;
+
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * An open {@code COPY ... FROM STDIN} into the bulk staging table.
+ * <p>
+ * Rows are encoded in PostgreSQL's text format and streamed to the server through a fixed-size
+ * buffer, so memory use does not depend on the number of rows. Obtained from
+ * {@link TagRepository#openBulkCopy()}; call {@link #finish()} to complete the copy, or
+ * {@link #close()} to abort it.
+ */
+public class TagBulkCopy implements Closeable {
+
+    private static final String NULL = "\\N";
+
+    private final PGCopyOutputStream copyStream;
+    private final Writer writer;
+    private boolean finished;
+
+    TagBulkCopy(PGCopyOutputStream copyStream) {
+        this.copyStream = copyStream;
+        this.writer = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends one row to the copy.
+     *
+     * @param lineNumber the input line the row came from
+     */
+    public void add(long lineNumber, String entityType, String entityId, String key, String value) throws IOException {
+        writer.write(Long.toString(lineNumber));
+        writer.write('\t');
+        writeField(entityType);
+        writer.write('\t');
+        writeField(entityId);
+        writer.write('\t');
+        writeField(key);
+        writer.write('\t');
+        writeField(value);
+        writer.write('\n');
+    }
+
+    /**
+     * Flushes the remaining rows and completes the copy.
+     *
+     * @return the number of rows the server received
+     */
+    public long finish() throws IOException {
+        writer.flush();
+        try {
+            long rows = copyStream.endCopy();
+            finished = true;
+            return rows;
+        } catch (SQLException ex) {
+            throw new IOException("Failed to complete COPY", ex);
+        }
+    }
+
+    /**
+     * Cancels the copy unless it was finished.
+     */
+    @Override
+    public void close() throws IOException {
+        if (finished || !copyStream.isActive()) {
+            return;
+        }
+        try {
+            copyStream.cancelCopy();
+        } catch (SQLException ex) {
+            throw new IOException("Failed to cancel COPY", ex);
+        }
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null) {
+            writer.write(NULL);
+            return;
+        }
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(c);
+            }
+        }
+    }
+}
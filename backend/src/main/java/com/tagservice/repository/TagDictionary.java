@@ -0,0 +1,265 @@
+package com.tagservice.repository;
+
+import com.tagservice.cache.EntityTagKey;
+import com.tagservice.cache.TagDictionaryCache;
+import com.tagservice.cache.TagDictionaryCache.TenantTerm;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes tag keys, tag values and entities to the integer IDs stored in {@code tags}, and decodes
+ * key and value IDs back, through the {@link TagDictionaryCache}.
+ * <p>
+ * Cache misses are resolved for a whole batch with one query. Missing dictionary rows are created
+ * on request with {@code INSERT ... ON CONFLICT DO NOTHING}; a row that a concurrent transaction
+ * committed while the insert waited is invisible to that statement, so it is read again with a
+ * fresh statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TagDictionary {
+
+    private static final String FIND_ENTITIES_SQL = """
+            SELECT id, entity_id FROM entities
+            WHERE tenant_id = ? AND entity_type = ? AND entity_id = ANY(?::varchar[])
+            """;
+
+    private static final String CREATE_ENTITY_SQL = """
+            INSERT INTO entities (tenant_id, entity_type, entity_id) VALUES (?, ?, ?)
+            ON CONFLICT (tenant_id, entity_type, entity_id) DO NOTHING
+            RETURNING id
+            """;
+
+    /**
+     * A dictionary table of one term column.
+     */
+    private enum TermTable {
+        KEYS("tag_keys", "key", "varchar"),
+        VALUES("tag_values", "value", "text");
+
+        final String arrayType;
+        final String findByTermSql;
+        final String findByIdSql;
+        final String createSql;
+
+        TermTable(String table, String column, String arrayType) {
+            this.arrayType = arrayType;
+            this.findByTermSql = "SELECT id, " + column + " AS term FROM " + table
+                    + " WHERE tenant_id = ? AND " + column + " = ANY(?::" + arrayType + "[])";
+            this.findByIdSql = "SELECT id, tenant_id, " + column + " AS term FROM " + table
+                    + " WHERE id = ANY(?::int[])";
+            // Sorted inserts take the unique index locks in the same order in every transaction
+            this.createSql = "INSERT INTO " + table + " (tenant_id, " + column + ")"
+                    + " SELECT ?, term FROM (SELECT DISTINCT unnest(?::" + arrayType + "[]) AS term) input"
+                    + " ORDER BY term"
+                    + " ON CONFLICT (tenant_id, " + column + ") DO NOTHING"
+                    + " RETURNING id, " + column + " AS term";
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TagDictionaryCache cache;
+
+    /**
+     * Returns the IDs of the given keys of a tenant.
+     *
+     * @param create whether to create missing keys; otherwise they are left out of the result
+     */
+    public Map<String, Integer> encodeKeys(long tenantId, Collection<String> keys, boolean create) {
+        return encode(TermTable.KEYS, cache.keys(), tenantId, keys, create);
+    }
+
+    /**
+     * Returns the IDs of the given non-null values of a tenant.
+     *
+     * @param create whether to create missing values; otherwise they are left out of the result
+     */
+    public Map<String, Integer> encodeValues(long tenantId, Collection<String> values, boolean create) {
+        return encode(TermTable.VALUES, cache.values(), tenantId, values, create);
+    }
+
+    /**
+     * Returns the keys of the given key IDs.
+     */
+    public Map<Integer, String> decodeKeys(Collection<Integer> ids) {
+        return decode(TermTable.KEYS, cache.keys(), ids);
+    }
+
+    /**
+     * Returns the values of the given value IDs.
+     */
+    public Map<Integer, String> decodeValues(Collection<Integer> ids) {
+        return decode(TermTable.VALUES, cache.values(), ids);
+    }
+
+    /**
+     * Returns the reference of an entity, creating it if necessary.
+     */
+    public long encodeEntity(long tenantId, String entityType, String entityId) {
+        EntityTagKey key = new EntityTagKey(tenantId, entityType, entityId);
+        Long ref = cache.entities().id(key);
+        if (ref != null) {
+            return ref;
+        }
+        List<Long> created = jdbcTemplate.queryForList(CREATE_ENTITY_SQL, Long.class,
+                tenantId, entityType, entityId);
+        if (!created.isEmpty()) {
+            cache.entities().putAfterCommit(Map.of(created.get(0), key));
+            return created.get(0);
+        }
+        ref = findEntities(tenantId, entityType, List.of(entityId)).get(entityId);
+        if (ref == null) {
+            throw new IllegalStateException("Entity " + entityType + "/" + entityId
+                    + " was neither created nor found");
+        }
+        return ref;
+    }
+
+    /**
+     * Returns the reference of an entity, or null if it has never been tagged.
+     */
+    public Long findEntity(long tenantId, String entityType, String entityId) {
+        return findEntities(tenantId, entityType, List.of(entityId)).get(entityId);
+    }
+
+    /**
+     * Returns the references of the given entities of one type; entities that have never been
+     * tagged are left out.
+     */
+    public Map<String, Long> findEntities(long tenantId, String entityType, Collection<String> entityIds) {
+        Map<String, Long> refs = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String entityId : entityIds) {
+            Long ref = cache.entities().id(new EntityTagKey(tenantId, entityType, entityId));
+            if (ref != null) {
+                refs.put(entityId, ref);
+            } else {
+                missing.add(entityId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return refs;
+        }
+        String[] ids = missing.toArray(String[]::new);
+        Map<Long, EntityTagKey> found = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_ENTITIES_SQL);
+            statement.setLong(1, tenantId);
+            statement.setString(2, entityType);
+            statement.setArray(3, connection.createArrayOf("varchar", ids));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            long ref = rs.getLong("id");
+            String entityId = rs.getString("entity_id");
+            refs.put(entityId, ref);
+            found.put(ref, new EntityTagKey(tenantId, entityType, entityId));
+        });
+        cache.entities().putAfterCommit(found);
+        return refs;
+    }
+
+    private Map<String, Integer> encode(TermTable table, TagDictionaryCache.Terms<TenantTerm, Integer> terms,
+                                        long tenantId, Collection<String> texts, boolean create) {
+        Map<String, Integer> ids = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String text : texts) {
+            Integer id = terms.id(new TenantTerm(tenantId, text));
+            if (id != null) {
+                ids.put(text, id);
+            } else {
+                missing.add(text);
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+        findByTerms(table, terms, tenantId, missing, ids);
+        if (!create) {
+            return ids;
+        }
+        missing.removeAll(ids.keySet());
+        if (missing.isEmpty()) {
+            return ids;
+        }
+        Map<Integer, TenantTerm> created = new HashMap<>();
+        queryTerms(table.createSql, tenantId, table.arrayType, missing, (id, text) -> {
+            ids.put(text, id);
+            created.put(id, new TenantTerm(tenantId, text));
+        });
+        terms.putAfterCommit(created);
+        missing.removeAll(ids.keySet());
+        if (!missing.isEmpty()) {
+            // Created by a transaction that committed while our insert waited on it
+            findByTerms(table, terms, tenantId, missing, ids);
+        }
+        return ids;
+    }
+
+    private void findByTerms(TermTable table, TagDictionaryCache.Terms<TenantTerm, Integer> terms, long tenantId,
+                             Collection<String> texts, Map<String, Integer> ids) {
+        Map<Integer, TenantTerm> found = new HashMap<>();
+        queryTerms(table.findByTermSql, tenantId, table.arrayType, texts, (id, text) -> {
+            ids.put(text, id);
+            found.put(id, new TenantTerm(tenantId, text));
+        });
+        terms.putAfterCommit(found);
+    }
+
+    @FunctionalInterface
+    private interface TermRowHandler {
+        void onTerm(int id, String text);
+    }
+
+    private void queryTerms(String sql, long tenantId, String arrayType, Collection<String> texts,
+                            TermRowHandler handler) {
+        Object[] array = texts.toArray();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setLong(1, tenantId);
+            statement.setArray(2, connection.createArrayOf(arrayType, array));
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.onTerm(rs.getInt("id"), rs.getString("term")));
+    }
+
+    private Map<Integer, String> decode(TermTable table, TagDictionaryCache.Terms<TenantTerm, Integer> terms,
+                                        Collection<Integer> ids) {
+        Map<Integer, String> texts = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            TenantTerm term = terms.term(id);
+            if (term != null) {
+                texts.put(id, term.term());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return texts;
+        }
+        Integer[] array = missing.toArray(Integer[]::new);
+        Map<Integer, TenantTerm> found = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(table.findByIdSql);
+            statement.setArray(1, connection.createArrayOf("int", array));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            int id = rs.getInt("id");
+            String text = rs.getString("term");
+            texts.put(id, text);
+            found.put(id, new TenantTerm(rs.getLong("tenant_id"), text));
+        });
+        terms.putAfterCommit(found);
+        return texts;
+    }
+}
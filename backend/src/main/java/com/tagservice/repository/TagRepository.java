@@ -0,0 +1,754 @@
+package com.tagservice.repository;
+
+import com.tagservice.dto.TagDto;
+import com.tagservice.search.PatternQuery;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * JDBC repository for the {@code tags} table.
+ * <p>
+ * Tags are written with set-based SQL that Spring Data cannot express, so this repository works
+ * directly on {@link JdbcTemplate}. Inside a JPA transaction it shares the transaction's connection
+ * and with it the tenant bound for Row-Level Security.
+ * <p>
+ * {@code tags} is hash-partitioned on {@code tenant_id} (see {@code V10__partition_tags_by_tenant.sql}).
+ * Every statement therefore compares {@code tags.tenant_id} with a parameter directly, rather than
+ * through a join, so that all other partitions are pruned even when the driver switches to a
+ * generic server-side plan.
+ * <p>
+ * {@code tags} is dictionary-encoded: rows hold an entity reference and key and value IDs (see
+ * {@code V9__dictionary_encoded_tags.sql}). Single-entity operations translate between strings and
+ * IDs through the cached {@link TagDictionary}; set-based statements (batch lookups, bulk uploads,
+ * tenant scans, pattern searches) join the dictionary tables instead. The public API is
+ * string-based throughout.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TagRepository {
+
+    /**
+     * Inserts all tags of one entity in a single statement and round trip. Key and value IDs are
+     * passed as two arrays and expanded with {@code unnest}, so the statement text is the same for
+     * any number of tags. Existing keys are left untouched through the primary key, and nothing is
+     * inserted if the entity would end up with more distinct keys than allowed. Returns one row per
+     * requested key, in request order, with the value that is stored afterwards: the inserted one,
+     * or the one the key already had.
+     * <p>
+     * The limit is only exact if no other transaction adds tags to the entity between the
+     * statement's snapshot and its commit; callers hold the entity's version row lock (see
+     * {@link #LOCK_VERSION_SQL}) for that, as does every writer that adds tags.
+     */
+    private static final String INSERT_TAGS_SQL = """
+            WITH input AS (
+                SELECT t.key_id, t.value_id, t.ord
+                FROM unnest(?::int[], ?::int[]) WITH ORDINALITY AS t(key_id, value_id, ord)
+            ),
+            allowed AS (
+                SELECT count(*) <= ? AS ok FROM (
+                    SELECT key_id FROM tags WHERE tenant_id = ? AND entity_ref = ?
+                    UNION
+                    SELECT key_id FROM input
+                ) keys
+            ),
+            inserted AS (
+                INSERT INTO tags (tenant_id, entity_ref, key_id, value_id)
+                SELECT ?, ?, input.key_id, input.value_id FROM input
+                WHERE (SELECT ok FROM allowed)
+                ON CONFLICT (tenant_id, entity_ref, key_id) DO NOTHING
+                RETURNING key_id, value_id
+            )
+            SELECT (SELECT ok FROM allowed) AS allowed, i.key_id, n.key_id IS NOT NULL AS inserted,
+                   CASE WHEN n.key_id IS NOT NULL THEN n.value_id ELSE t.value_id END AS value_id
+            FROM input i
+            LEFT JOIN inserted n ON n.key_id = i.key_id
+            LEFT JOIN tags t ON t.tenant_id = ? AND t.entity_ref = ? AND t.key_id = i.key_id
+            ORDER BY i.ord
+            """;
+
+    /**
+     * Per-transaction staging table for bulk uploads. COPY cannot skip rows that conflict with the
+     * primary key, so uploads are copied here first and merged into {@code tags} with one insert.
+     */
+    private static final String CREATE_BULK_STAGING_SQL = """
+            CREATE TEMPORARY TABLE tags_bulk_staging (
+                line_no BIGINT NOT NULL,
+                entity_type VARCHAR(50) NOT NULL,
+                entity_id VARCHAR(255) NOT NULL,
+                key VARCHAR(100) NOT NULL,
+                value TEXT
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_BULK_STAGING_SQL =
+            "COPY tags_bulk_staging (line_no, entity_type, entity_id, key, value) FROM STDIN";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Drops every staged row of entities that would end up with more distinct keys than allowed,
+     * returning the dropped rows so they can be reported.
+     */
+    private static final String DELETE_BULK_OVER_LIMIT_SQL = """
+            WITH staged_entities AS (
+                SELECT DISTINCT entity_type, entity_id FROM tags_bulk_staging
+            ),
+            over_limit AS (
+                SELECT entity_type, entity_id FROM (
+                    SELECT entity_type, entity_id, key FROM tags_bulk_staging
+                    UNION
+                    SELECT e.entity_type, e.entity_id, k.key
+                    FROM staged_entities s
+                    JOIN entities e
+                      ON e.tenant_id = ? AND e.entity_type = s.entity_type AND e.entity_id = s.entity_id
+                    JOIN tags t ON t.tenant_id = ? AND t.entity_ref = e.id
+                    JOIN tag_keys k ON k.id = t.key_id
+                ) keys
+                GROUP BY entity_type, entity_id
+                HAVING count(*) > ?
+            )
+            DELETE FROM tags_bulk_staging s
+            USING over_limit o
+            WHERE s.entity_type = o.entity_type AND s.entity_id = o.entity_id
+            RETURNING s.line_no
+            """;
+
+    /**
+     * Adds the staged entities, keys and values missing from the dictionaries, in sorted order so
+     * that concurrent uploads take the unique index locks in the same order.
+     */
+    private static final String[] ENCODE_BULK_STAGING_SQL = {
+            """
+            INSERT INTO entities (tenant_id, entity_type, entity_id)
+            SELECT DISTINCT ?, entity_type, entity_id FROM tags_bulk_staging
+            ORDER BY entity_type, entity_id
+            ON CONFLICT (tenant_id, entity_type, entity_id) DO NOTHING
+            """,
+            """
+            INSERT INTO tag_keys (tenant_id, key)
+            SELECT DISTINCT ?, key FROM tags_bulk_staging
+            ORDER BY key
+            ON CONFLICT (tenant_id, key) DO NOTHING
+            """,
+            """
+            INSERT INTO tag_values (tenant_id, value)
+            SELECT DISTINCT ?, value FROM tags_bulk_staging WHERE value IS NOT NULL
+            ORDER BY value
+            ON CONFLICT (tenant_id, value) DO NOTHING
+            """
+    };
+
+    /**
+     * Merges the staged rows into {@code tags}; for a key staged more than once the earliest line
+     * wins. Returns one row per entity that received tags, with the number inserted (without a line
+     * number), then one row per staged line that was not inserted, with the reason. Every part of the statement sees the
+     * {@code tags} rows from before the insert, so an existing tag is told apart from one inserted
+     * here; a tag committed concurrently, whose row the statement cannot see, counts as a conflict.
+     */
+    private static final String INSERT_FROM_BULK_STAGING_SQL = """
+            WITH staged AS (
+                SELECT s.line_no, e.id AS entity_ref, k.id AS key_id, v.id AS value_id,
+                       first_value(s.line_no) OVER (PARTITION BY e.id, k.id ORDER BY s.line_no) AS first_line_no
+                FROM tags_bulk_staging s
+                JOIN entities e ON e.tenant_id = ? AND e.entity_type = s.entity_type AND e.entity_id = s.entity_id
+                JOIN tag_keys k ON k.tenant_id = e.tenant_id AND k.key = s.key
+                LEFT JOIN tag_values v ON v.tenant_id = e.tenant_id AND v.value = s.value
+            ),
+            inserted AS (
+                INSERT INTO tags (tenant_id, entity_ref, key_id, value_id)
+                SELECT ?, entity_ref, key_id, value_id FROM staged
+                WHERE line_no = first_line_no
+                ORDER BY entity_ref, key_id
+                ON CONFLICT (tenant_id, entity_ref, key_id) DO NOTHING
+                RETURNING entity_ref, key_id
+            )
+            SELECT NULL::bigint AS line_no, NULL::bigint AS first_line_no, NULL AS outcome,
+                   entity_ref, count(*) AS inserted
+            FROM inserted
+            GROUP BY entity_ref
+            UNION ALL
+            SELECT s.line_no, s.first_line_no,
+                   CASE WHEN s.line_no <> s.first_line_no THEN 'DUPLICATE'
+                        WHEN t.key_id IS NOT NULL AND t.value_id IS NOT DISTINCT FROM s.value_id THEN 'UNCHANGED'
+                        ELSE 'CONFLICT' END,
+                   NULL, NULL
+            FROM staged s
+            LEFT JOIN tags t ON t.tenant_id = ? AND t.entity_ref = s.entity_ref AND t.key_id = s.key_id
+            WHERE s.line_no <> s.first_line_no
+               OR NOT EXISTS (SELECT 1 FROM inserted i WHERE i.entity_ref = s.entity_ref AND i.key_id = s.key_id)
+            """;
+
+    /**
+     * Tags of several entities, grouped by entity and ordered by key within each, so that callers
+     * can handle one entity at a time. A single array parameter keeps the statement text (and its
+     * cached plan) independent of the number of entities while still using the primary key. Keys
+     * are compared in the "C" collation, by code point, whatever the database's collation is.
+     */
+    private static final String FIND_BY_ENTITY_REFS_SQL = """
+            SELECT t.entity_ref, k.key, v.value
+            FROM tags t
+            JOIN tag_keys k ON k.id = t.key_id
+            LEFT JOIN tag_values v ON v.id = t.value_id
+            WHERE t.tenant_id = ? AND t.entity_ref = ANY(?::bigint[])
+            ORDER BY t.entity_ref, k.key COLLATE "C"
+            """;
+
+    private static final String DELETE_BY_KEY_SQL =
+            "DELETE FROM tags WHERE tenant_id = ? AND entity_ref = ? AND key_id = ?";
+
+    private static final String DELETE_BY_KEY_AND_VALUE_SQL = DELETE_BY_KEY_SQL + " AND value_id = ?";
+
+    /**
+     * Announces a tag change to every node's invalidation listener. Like the trigger-based
+     * notifications (see {@code V5__notify_cache_invalidation.sql}) it is only delivered on commit.
+     */
+    private static final String NOTIFY_TAGS_CHANGED_SQL = """
+            SELECT pg_notify('tagservice_invalidation', json_build_object(
+                'table', 'tags', 'op', ?::text, 'organization_id', ?::bigint,
+                'entity_type', ?::text, 'entity_id', ?::text)::text)
+            """;
+
+    private static final String FIND_VERSION_SQL =
+            "SELECT version FROM entity_tag_versions WHERE tenant_id = ? AND entity_type = ? AND entity_id = ?";
+
+    private static final String FIND_VERSIONS_SQL = """
+            SELECT entity_id, version FROM entity_tag_versions
+            WHERE tenant_id = ? AND entity_type = ? AND entity_id = ANY(?::varchar[])
+            """;
+
+    /**
+     * Returns the current version and holds the version row's lock until the transaction ends,
+     * creating the row at version 0 if the entity has never been tagged. Writers that add tags
+     * take this lock before checking the tag limit, so that they see each other's tags.
+     */
+    private static final String LOCK_VERSION_SQL = """
+            INSERT INTO entity_tag_versions (tenant_id, entity_type, entity_id, version) VALUES (?, ?, ?, 0)
+            ON CONFLICT (tenant_id, entity_type, entity_id) DO UPDATE SET version = entity_tag_versions.version
+            RETURNING version
+            """;
+
+    private static final String INCREMENT_VERSION_SQL = """
+            INSERT INTO entity_tag_versions (tenant_id, entity_type, entity_id, version) VALUES (?, ?, ?, 1)
+            ON CONFLICT (tenant_id, entity_type, entity_id) DO UPDATE SET version = entity_tag_versions.version + 1
+            RETURNING version
+            """;
+
+    /**
+     * {@link #LOCK_VERSION_SQL} for every entity in the bulk staging table, in a fixed order so that
+     * concurrent uploads cannot deadlock.
+     */
+    private static final String LOCK_BULK_STAGING_VERSIONS_SQL = """
+            INSERT INTO entity_tag_versions (tenant_id, entity_type, entity_id, version)
+            SELECT DISTINCT ?, entity_type, entity_id, 0 FROM tags_bulk_staging
+            ORDER BY entity_type, entity_id
+            ON CONFLICT (tenant_id, entity_type, entity_id) DO UPDATE SET version = entity_tag_versions.version
+            """;
+
+    /**
+     * {@link #INCREMENT_VERSION_SQL} for several entities given by reference, in the same order as
+     * {@link #LOCK_BULK_STAGING_VERSIONS_SQL}.
+     */
+    private static final String INCREMENT_VERSIONS_BY_REF_SQL = """
+            INSERT INTO entity_tag_versions (tenant_id, entity_type, entity_id, version)
+            SELECT ?, entity_type, entity_id, 1 FROM entities
+            WHERE tenant_id = ? AND id = ANY(?::bigint[])
+            ORDER BY entity_type, entity_id
+            ON CONFLICT (tenant_id, entity_type, entity_id) DO UPDATE SET version = entity_tag_versions.version + 1
+            """;
+
+    /**
+     * Decodes in the database: a tenant scan touches most of the tenant's dictionary entries, which
+     * the hash joins read once, instead of one cache lookup per row.
+     */
+    private static final String FIND_BY_TENANT_SQL = """
+            SELECT t.entity_ref, e.entity_type, e.entity_id, k.key, v.value
+            FROM tags t
+            JOIN entities e ON e.id = t.entity_ref
+            JOIN tag_keys k ON k.id = t.key_id
+            LEFT JOIN tag_values v ON v.id = t.value_id
+            WHERE t.tenant_id = ?
+            """;
+
+    /**
+     * Rows are streamed from the server in batches of this size instead of being buffered whole.
+     */
+    private static final int STREAM_FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TagDictionary tagDictionary;
+
+    /**
+     * Outcome of {@link #insertTags}.
+     *
+     * @param allowed  false if the insert was skipped because of the tag limit
+     * @param inserted number of tags that did not exist before
+     * @param tags     the stored tag of every requested key, in request order; the requested value
+     *                 for an inserted key, the existing one otherwise. Empty if not allowed.
+     */
+    public record InsertResult(boolean allowed, int inserted, List<TagDto> tags) {
+    }
+
+    /**
+     * Receives tag rows as they are read.
+     */
+    @FunctionalInterface
+    public interface TagRowHandler {
+        void onTag(String entityId, String key, String value);
+    }
+
+    /**
+     * Why a staged bulk line was not inserted.
+     */
+    public enum BulkLineOutcome {
+        /** An earlier line of the upload sets the same key of the same entity. */
+        DUPLICATE,
+        /** The entity already has the key with the same value. */
+        UNCHANGED,
+        /** The entity already has the key with another value, which is kept. */
+        CONFLICT
+    }
+
+    /**
+     * Receives the staged bulk lines that were not inserted.
+     */
+    @FunctionalInterface
+    public interface BulkLineHandler {
+        /**
+         * @param firstLineNumber the earliest line with the same entity and key; equal to
+         *                        {@code lineNumber} unless the line is a duplicate
+         */
+        void onLine(long lineNumber, long firstLineNumber, BulkLineOutcome outcome);
+    }
+
+    /**
+     * Streams the tags of the given entities of one type, read with one query, grouped by entity
+     * and ordered by key within each entity. Must run inside a transaction so that the driver can
+     * fetch the rows with a cursor; only one batch of rows is held in memory then.
+     *
+     * @param tenantId   the tenant
+     * @param entityType the entity type shared by all IDs
+     * @param entityIds  the entity IDs
+     * @param handler    called once per tag row
+     */
+    public void findByEntityIds(long tenantId, String entityType, Collection<String> entityIds,
+                                TagRowHandler handler) {
+        Map<String, Long> refs = tagDictionary.findEntities(tenantId, entityType, entityIds);
+        if (refs.isEmpty()) {
+            return;
+        }
+        Map<Long, String> entityIdsByRef = new HashMap<>();
+        refs.forEach((entityId, ref) -> entityIdsByRef.put(ref, entityId));
+        Long[] refArray = refs.values().toArray(Long[]::new);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_BY_ENTITY_REFS_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setLong(1, tenantId);
+            statement.setArray(2, connection.createArrayOf("bigint", refArray));
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.onTag(entityIdsByRef.get(rs.getLong("entity_ref")),
+                rs.getString("key"), rs.getString("value")));
+    }
+
+    /**
+     * Receives tag rows of any entity as they are read.
+     */
+    @FunctionalInterface
+    public interface TenantTagRowHandler {
+        void onTag(long entityRef, String entityType, String entityId, String key, String value);
+    }
+
+    /**
+     * Receives the entities found by a search as they are read.
+     */
+    @FunctionalInterface
+    public interface EntityRowHandler {
+        void onEntity(long entityRef, String entityType, String entityId);
+    }
+
+    /**
+     * Streams every tag of a tenant. Must run inside a transaction so that the driver can fetch
+     * the rows with a cursor instead of materializing them all.
+     */
+    public void streamByTenant(long tenantId, TenantTagRowHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_BY_TENANT_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setLong(1, tenantId);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.onTag(rs.getLong("entity_ref"), rs.getString("entity_type"),
+                rs.getString("entity_id"), rs.getString("key"), rs.getString("value")));
+    }
+
+    /**
+     * Streams the entities with a tag matching every term of a pattern query, in reference order.
+     * <p>
+     * Each side of a term is first resolved against its dictionary table, where the trigram indexes
+     * only have to search the tenant's distinct keys or values. The term expected to be most selective
+     * drives the search: its rows are read after {@code afterEntityRef} in {@code tags} primary key
+     * order, which is entity reference order, and every other term is checked per entity with an
+     * {@code EXISTS} probe of the primary key. Rows therefore arrive already grouped and ordered, so
+     * a limited page stops as soon as it is full instead of aggregating every remaining match. A page
+     * still reads every driving row it skips because another term did not match, so a page of a rare
+     * combination of common terms costs more than one of a selective term. Rows are fetched with a
+     * cursor in batches of {@value #STREAM_FETCH_SIZE}, so even an unlimited search holds only one
+     * batch in memory. Every fetch runs under {@code statementTimeoutMs} so that a pattern the
+     * service let through still cannot hold a connection for long.
+     *
+     * @param tenantId           the tenant
+     * @param query              the translated query
+     * @param afterEntityRef     only entities with a greater reference are returned; -1 for all
+     * @param limit              the maximum number of entities to return, or 0 for all of them
+     * @param statementTimeoutMs the statement timeout in milliseconds, or 0 for none
+     * @param handler            called once per entity
+     * @throws IllegalStateException if called outside a transaction
+     */
+    public void searchByPatterns(long tenantId, PatternQuery query, long afterEntityRef, int limit,
+                                 long statementTimeoutMs, EntityRowHandler handler) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Pattern searches require an active transaction");
+        }
+        List<PatternQuery.Term> terms = query.terms();
+        int driving = mostSelective(terms);
+        List<Object> args = new ArrayList<>();
+        StringBuilder matches = new StringBuilder("SELECT DISTINCT t.entity_ref FROM tags t"
+                + " WHERE t.tenant_id = ? AND t.entity_ref > ?");
+        args.add(tenantId);
+        args.add(afterEntityRef);
+        appendTermConditions(matches, "t", terms.get(driving), tenantId, args);
+        for (int i = 0; i < terms.size(); i++) {
+            if (i == driving) {
+                continue;
+            }
+            String alias = "p" + i;
+            matches.append(" AND EXISTS (SELECT 1 FROM tags ").append(alias).append(" WHERE ")
+                    .append(alias).append(".tenant_id = t.tenant_id AND ")
+                    .append(alias).append(".entity_ref = t.entity_ref");
+            appendTermConditions(matches, alias, terms.get(i), tenantId, args);
+            matches.append(')');
+        }
+        matches.append(" ORDER BY t.entity_ref");
+        if (limit > 0) {
+            matches.append(" LIMIT ?");
+            args.add(limit);
+        }
+
+        // Entities are only looked up for the references that made the page
+        String sql = "SELECT e.id AS entity_ref, e.entity_type, e.entity_id FROM (" + matches
+                + ") r JOIN entities e ON e.id = r.entity_ref ORDER BY e.id";
+
+        if (statementTimeoutMs > 0) {
+            jdbcTemplate.execute("SET LOCAL statement_timeout = " + statementTimeoutMs);
+        }
+        Object[] argArray = args.toArray();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(argArray).setValues(statement);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.onEntity(rs.getLong("entity_ref"), rs.getString("entity_type"),
+                rs.getString("entity_id")));
+    }
+
+    /**
+     * Picks the term expected to match the fewest rows: one that constrains the value before a
+     * key-only one, then the one with more equality comparisons. Ties go to the earlier term.
+     *
+     * @return the index of the term
+     */
+    private static int mostSelective(List<PatternQuery.Term> terms) {
+        int best = 0;
+        for (int i = 1; i < terms.size(); i++) {
+            if (selectivity(terms.get(i)) > selectivity(terms.get(best))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int selectivity(PatternQuery.Term term) {
+        int score = 0;
+        if (term.value() != null) {
+            score += 2;
+            if (term.value().operator() == PatternQuery.Operator.EQUALS) {
+                score++;
+            }
+        }
+        if (term.key() != null && term.key().operator() == PatternQuery.Operator.EQUALS) {
+            score++;
+        }
+        return score;
+    }
+
+    private static void appendTermConditions(StringBuilder sql, String alias, PatternQuery.Term term,
+                                             long tenantId, List<Object> args) {
+        if (term.key() != null) {
+            sql.append(" AND ").append(alias)
+                    .append(".key_id IN (SELECT id FROM tag_keys WHERE tenant_id = ? AND key ")
+                    .append(term.key().operator().sql()).append(" ?)");
+            args.add(tenantId);
+            args.add(term.key().operand());
+        }
+        if (term.value() != null) {
+            sql.append(" AND ").append(alias)
+                    .append(".value_id IN (SELECT id FROM tag_values WHERE tenant_id = ? AND value ")
+                    .append(term.value().operator().sql()).append(" ?)");
+            args.add(tenantId);
+            args.add(term.value().operand());
+        }
+    }
+
+    /**
+     * Idempotently attaches tags to an entity. Must run in a transaction that holds the entity's
+     * version lock (see {@link #lockVersion}), or the tag limit can be exceeded by concurrent writers.
+     *
+     * @param tenantId          the tenant
+     * @param entityType        the entity type
+     * @param entityId          the entity ID
+     * @param tags              tags with distinct, already normalized keys
+     * @param maxTagsPerEntity  the maximum number of distinct keys the entity may have afterwards
+     * @return whether the insert was allowed, how many tags were new and the stored tags
+     */
+    public InsertResult insertTags(long tenantId, String entityType, String entityId,
+                                   List<TagDto> tags, int maxTagsPerEntity) {
+        List<String> keys = new ArrayList<>(tags.size());
+        List<String> values = new ArrayList<>(tags.size());
+        for (TagDto tag : tags) {
+            keys.add(tag.getKey());
+            if (tag.getValue() != null) {
+                values.add(tag.getValue());
+            }
+        }
+        long entityRef = tagDictionary.encodeEntity(tenantId, entityType, entityId);
+        Map<String, Integer> keyIds = tagDictionary.encodeKeys(tenantId, keys, true);
+        Map<String, Integer> valueIds = values.isEmpty()
+                ? Map.of()
+                : tagDictionary.encodeValues(tenantId, values, true);
+        Integer[] keyArray = new Integer[tags.size()];
+        Integer[] valueArray = new Integer[tags.size()];
+        for (int i = 0; i < tags.size(); i++) {
+            keyArray[i] = keyIds.get(tags.get(i).getKey());
+            valueArray[i] = tags.get(i).getValue() != null ? valueIds.get(tags.get(i).getValue()) : null;
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_TAGS_SQL);
+            statement.setArray(1, connection.createArrayOf("int", keyArray));
+            statement.setArray(2, connection.createArrayOf("int", valueArray));
+            statement.setInt(3, maxTagsPerEntity);
+            statement.setLong(4, tenantId);
+            statement.setLong(5, entityRef);
+            statement.setLong(6, tenantId);
+            statement.setLong(7, entityRef);
+            statement.setLong(8, tenantId);
+            statement.setLong(9, entityRef);
+            return statement;
+        }, rs -> {
+            Map<Integer, String> keysById = new HashMap<>();
+            keyIds.forEach((key, id) -> keysById.put(id, key));
+            Map<Integer, String> valuesById = new HashMap<>();
+            valueIds.forEach((value, id) -> valuesById.put(id, value));
+            boolean allowed = true;
+            int inserted = 0;
+            List<Integer> keyOrder = new ArrayList<>(tags.size());
+            List<Integer> storedValueIds = new ArrayList<>(tags.size());
+            while (rs.next()) {
+                allowed = rs.getBoolean("allowed");
+                if (rs.getBoolean("inserted")) {
+                    inserted++;
+                }
+                keyOrder.add(rs.getInt("key_id"));
+                int valueId = rs.getInt("value_id");
+                storedValueIds.add(rs.wasNull() ? null : valueId);
+            }
+            if (!allowed) {
+                return new InsertResult(false, 0, List.of());
+            }
+            List<Integer> unknownValueIds = storedValueIds.stream()
+                    .filter(id -> id != null && !valuesById.containsKey(id))
+                    .toList();
+            if (!unknownValueIds.isEmpty()) {
+                valuesById.putAll(tagDictionary.decodeValues(unknownValueIds));
+            }
+            List<TagDto> stored = new ArrayList<>(keyOrder.size());
+            for (int i = 0; i < keyOrder.size(); i++) {
+                Integer valueId = storedValueIds.get(i);
+                stored.add(new TagDto(keysById.get(keyOrder.get(i)), valueId != null ? valuesById.get(valueId) : null));
+            }
+            return new InsertResult(true, inserted, stored);
+        });
+    }
+
+    /**
+     * Creates the staging table for a bulk upload. It is dropped when the transaction ends.
+     *
+     * @throws IllegalStateException if called outside a transaction
+     */
+    public void createBulkStaging() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Bulk tag staging requires an active transaction");
+        }
+        jdbcTemplate.execute(CREATE_BULK_STAGING_SQL);
+    }
+
+    /**
+     * Starts a {@code COPY FROM STDIN} into the staging table on the transaction's connection.
+     */
+    public TagBulkCopy openBulkCopy() {
+        return jdbcTemplate.execute((ConnectionCallback<TagBulkCopy>) connection -> new TagBulkCopy(new PGCopyOutputStream(
+                connection.unwrap(PGConnection.class), COPY_BULK_STAGING_SQL, COPY_BUFFER_SIZE)));
+    }
+
+    /**
+     * Removes staged rows of entities that would exceed the tag limit.
+     *
+     * @param tenantId         the tenant
+     * @param maxTagsPerEntity the maximum number of distinct keys per entity
+     * @param rejected         called with the line number of every removed row
+     */
+    public void deleteBulkStagingOverLimit(long tenantId, int maxTagsPerEntity, LongConsumer rejected) {
+        jdbcTemplate.query(DELETE_BULK_OVER_LIMIT_SQL,
+                (RowCallbackHandler) rs -> rejected.accept(rs.getLong("line_no")),
+                tenantId, tenantId, maxTagsPerEntity);
+    }
+
+    /**
+     * Inserts the staged rows that do not exist yet, first adding their entities, keys and values
+     * to the dictionaries.
+     *
+     * @param tenantId    the tenant the rows belong to
+     * @param notInserted called for every staged line that was not inserted, with the reason
+     * @param changed     called with the reference of every entity that received at least one tag
+     * @return the number of inserted tags
+     */
+    public long insertFromBulkStaging(long tenantId, BulkLineHandler notInserted, LongConsumer changed) {
+        for (String sql : ENCODE_BULK_STAGING_SQL) {
+            jdbcTemplate.update(sql, tenantId);
+        }
+        long[] inserted = new long[1];
+        jdbcTemplate.query(INSERT_FROM_BULK_STAGING_SQL, (RowCallbackHandler) rs -> {
+            String outcome = rs.getString("outcome");
+            if (outcome == null) {
+                changed.accept(rs.getLong("entity_ref"));
+                inserted[0] += rs.getLong("inserted");
+            } else {
+                notInserted.onLine(rs.getLong("line_no"), rs.getLong("first_line_no"),
+                        BulkLineOutcome.valueOf(outcome));
+            }
+        }, tenantId, tenantId, tenantId);
+        return inserted[0];
+    }
+
+    /**
+     * Removes a tag from an entity.
+     *
+     * @param value if not null, only a tag with this value is removed
+     * @return the number of removed tags
+     */
+    public int deleteTag(long tenantId, String entityType, String entityId, String key, String value) {
+        Long entityRef = tagDictionary.findEntity(tenantId, entityType, entityId);
+        if (entityRef == null) {
+            return 0;
+        }
+        Integer keyId = tagDictionary.encodeKeys(tenantId, List.of(key), false).get(key);
+        if (keyId == null) {
+            return 0;
+        }
+        if (value == null) {
+            return jdbcTemplate.update(DELETE_BY_KEY_SQL, tenantId, entityRef, keyId);
+        }
+        Integer valueId = tagDictionary.encodeValues(tenantId, List.of(value), false).get(value);
+        if (valueId == null) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_BY_KEY_AND_VALUE_SQL, tenantId, entityRef, keyId, valueId);
+    }
+
+    /**
+     * Notifies all nodes, once the current transaction commits, that tags of an entity changed.
+     *
+     * @param operation  {@code INSERT} or {@code DELETE}
+     * @param entityType the entity type, or null if any entity of the tenant may have changed
+     * @param entityId   the entity ID, or null if any entity of the tenant may have changed
+     */
+    public void notifyTagsChanged(String operation, long tenantId, String entityType, String entityId) {
+        jdbcTemplate.query(NOTIFY_TAGS_CHANGED_SQL, (ResultSetExtractor<Void>) rs -> null,
+                operation, tenantId, entityType, entityId);
+    }
+
+    /**
+     * Returns an entity's tag version; 0 if its tags have never changed.
+     */
+    public long findVersion(long tenantId, String entityType, String entityId) {
+        return jdbcTemplate.query(FIND_VERSION_SQL, rs -> rs.next() ? rs.getLong("version") : 0L,
+                tenantId, entityType, entityId);
+    }
+
+    /**
+     * Returns the tag versions of several entities of one type. Entities without a version are left out.
+     */
+    public Map<String, Long> findVersions(long tenantId, String entityType, Collection<String> entityIds) {
+        String[] ids = entityIds.toArray(String[]::new);
+        Map<String, Long> versions = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_VERSIONS_SQL);
+            statement.setLong(1, tenantId);
+            statement.setString(2, entityType);
+            statement.setArray(3, connection.createArrayOf("varchar", ids));
+            return statement;
+        }, (RowCallbackHandler) rs -> versions.put(rs.getString("entity_id"), rs.getLong("version")));
+        return versions;
+    }
+
+    /**
+     * Locks an entity's tag version for the rest of the transaction and returns it.
+     */
+    public long lockVersion(long tenantId, String entityType, String entityId) {
+        return jdbcTemplate.queryForObject(LOCK_VERSION_SQL, Long.class, tenantId, entityType, entityId);
+    }
+
+    /**
+     * Advances an entity's tag version and returns the new version.
+     */
+    public long incrementVersion(long tenantId, String entityType, String entityId) {
+        return jdbcTemplate.queryForObject(INCREMENT_VERSION_SQL, Long.class, tenantId, entityType, entityId);
+    }
+
+    /**
+     * Locks the tag version of every entity in the bulk staging table until the transaction ends,
+     * like {@link #lockVersion}.
+     */
+    public void lockBulkStagingVersions(long tenantId) {
+        jdbcTemplate.update(LOCK_BULK_STAGING_VERSIONS_SQL, tenantId);
+    }
+
+    /**
+     * Advances the tag versions of several entities, given by reference.
+     */
+    public void incrementVersions(long tenantId, long[] entityRefs) {
+        Long[] refs = Arrays.stream(entityRefs).boxed().toArray(Long[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INCREMENT_VERSIONS_BY_REF_SQL);
+            statement.setLong(1, tenantId);
+            statement.setLong(2, tenantId);
+            statement.setArray(3, connection.createArrayOf("bigint", refs));
+            return statement;
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.tagservice.request;
+
+import com.tagservice.dto.TagDto;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request payload for attaching tags to an entity.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagAddRequest {
+
+    @NotBlank
+    private String entityType;
+
+    @NotBlank
+    private String entityId;
+
+    @NotEmpty
+    private List<@Valid TagDto> tags;
+}
@@ -0,0 +1,24 @@
+package com.tagservice.request;
+
+import com.tagservice.dto.EntityRefDto;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request payload for fetching the tags of many entities at once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagBatchGetRequest {
+
+    @NotEmpty
+    private List<@Valid EntityRefDto> entities;
+}
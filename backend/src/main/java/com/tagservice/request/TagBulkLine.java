@@ -0,0 +1,21 @@
+package com.tagservice.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of an NDJSON bulk tag upload: a single tag attached to a single entity.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagBulkLine {
+
+    private String entityType;
+    private String entityId;
+    private String key;
+    private String value;
+}
@@ -0,0 +1,28 @@
+package com.tagservice.response;
+
+import com.tagservice.dto.TagDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * All tags of one entity, with the version they were read at.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityTagsResponse {
+
+    private String entityType;
+    private String entityId;
+    private List<TagDto> tags;
+
+    /**
+     * The entity's tag version; also sent as the {@code ETag} of single-entity responses.
+     */
+    private long version;
+}
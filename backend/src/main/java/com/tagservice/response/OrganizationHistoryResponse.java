@@ -0,0 +1,22 @@
+package com.tagservice.response;
+
+import com.tagservice.dto.OrganizationAuditDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of an organization's audited changes, oldest first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrganizationHistoryResponse {
+
+    private List<OrganizationAuditDto> data;
+    private SearchResponse.Meta meta;
+}
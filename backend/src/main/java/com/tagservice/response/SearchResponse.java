@@ -0,0 +1,39 @@
+package com.tagservice.response;
+
+import com.tagservice.dto.EntityRefDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of search results.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResponse {
+
+    private List<EntityRefDto> data;
+    private Meta meta;
+
+    /**
+     * Paging information of a {@link SearchResponse}.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Meta {
+
+        private int limit;
+
+        /**
+         * Opaque token to pass as {@code cursor} for the next page; null on the last page.
+         */
+        private String nextCursor;
+    }
+}
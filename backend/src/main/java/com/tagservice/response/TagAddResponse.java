@@ -0,0 +1,38 @@
+package com.tagservice.response;
+
+import com.tagservice.dto.TagDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response payload returned after attaching tags to an entity.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagAddResponse {
+
+    private String entityType;
+    private String entityId;
+
+    /**
+     * The stored tag of every requested key, in request order, with keys normalized for
+     * case-insensitive tenants. A key the entity already had keeps its existing value.
+     */
+    private List<TagDto> tags;
+
+    /**
+     * Number of tags that did not exist before this request.
+     */
+    private int added;
+
+    /**
+     * The entity's tag version after this request; also sent as the {@code ETag}.
+     */
+    private long version;
+}
@@ -0,0 +1,47 @@
+package com.tagservice.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the NDJSON response to a bulk tag upload.
+ * <p>
+ * A {@code rejected} line is written for every invalid input line, a {@code duplicate} line for
+ * every line repeating the entity and key of an earlier line, and a {@code conflict} line for
+ * every line whose entity already has the key with another value, as soon as it is known. Lines
+ * whose tag is already stored with the same value are only counted as {@code unchanged}. The
+ * stream ends with a single {@code summary} line, whose {@code received} count is the sum of all
+ * other counts, or with an {@code error} line if the upload failed and nothing was stored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TagBulkResponseLine {
+
+    public static final String REJECTED = "rejected";
+    public static final String DUPLICATE = "duplicate";
+    public static final String CONFLICT = "conflict";
+    public static final String SUMMARY = "summary";
+    public static final String ERROR = "error";
+
+    private String type;
+
+    /**
+     * 1-based number of the input line that was not stored.
+     */
+    private Long line;
+    private String field;
+    private String description;
+
+    private Long received;
+    private Long rejected;
+    private Long duplicates;
+    private Long conflicts;
+    private Long unchanged;
+    private Long inserted;
+}
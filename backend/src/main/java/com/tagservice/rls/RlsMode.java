@@ -0,0 +1,25 @@
+package com.tagservice.rls;
+
+/**
+ * How the tenant ID is handed to PostgreSQL Row-Level Security policies.
+ */
+public enum RlsMode {
+
+    /**
+     * {@link com.tagservice.filter.TenantResolutionFilter} runs {@code SET} before and {@code RESET}
+     * after each request on a pooled connection of its own.
+     */
+    SESSION,
+
+    /**
+     * {@link TenantAwareJpaDialect} applies the tenant with {@code set_config(..., true)} when a
+     * transaction begins, on the connection that runs the transaction. The setting ends with
+     * the transaction, so nothing needs resetting and transaction-mode poolers are safe.
+     */
+    TRANSACTION,
+
+    /**
+     * No tenant setting is applied (e.g. databases without RLS support in tests).
+     */
+    DISABLED
+}
@@ -0,0 +1,63 @@
+package com.tagservice.rls;
+
+import com.tagservice.context.OrganizationContext;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Hibernate JPA dialect that binds the current tenant to every transaction it begins.
+ * <p>
+ * In {@link RlsMode#TRANSACTION} mode the tenant from {@link OrganizationContext} is applied with
+ * {@code set_config('app.current_tenant_id', ?, true)} right after {@code BEGIN}, on the very
+ * connection that will run the transaction. The setting is transaction-local, so it disappears
+ * on commit or rollback and never leaks back into the pool. A failure here fails the transaction
+ * begin, so work never runs without its tenant.
+ */
+@Slf4j
+public class TenantAwareJpaDialect extends HibernateJpaDialect {
+
+    public static final String CURRENT_TENANT_SETTING = "app.current_tenant_id";
+
+    private static final String SET_LOCAL_TENANT_SQL = "SELECT set_config('" + CURRENT_TENANT_SETTING + "', ?, true)";
+
+    private final RlsMode rlsMode;
+
+    public TenantAwareJpaDialect(RlsMode rlsMode) {
+        this.rlsMode = rlsMode;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (rlsMode == RlsMode.TRANSACTION) {
+            String organizationId = OrganizationContext.getOrganizationId();
+            if (organizationId != null) {
+                entityManager.unwrap(Session.class).doWork(connection -> applyTenant(connection, organizationId));
+            }
+        }
+        return transactionData;
+    }
+
+    /**
+     * Applies the tenant to the given connection for the remainder of its current transaction.
+     *
+     * @param connection     a connection with an open transaction
+     * @param organizationId the tenant to bind
+     * @throws SQLException if the setting cannot be applied
+     */
+    public static void applyTenant(Connection connection, String organizationId) throws SQLException {
+        log.debug("Binding PostgreSQL RLS context to transaction for organization: {}", organizationId);
+        try (PreparedStatement statement = connection.prepareStatement(SET_LOCAL_TENANT_SQL)) {
+            statement.setString(1, organizationId);
+            statement.execute();
+        }
+    }
+}
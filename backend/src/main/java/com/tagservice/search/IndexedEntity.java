@@ -0,0 +1,10 @@
+package com.tagservice.search;
+
+/**
+ * An entity known to a {@link TenantTagIndex}.
+ *
+ * @param entityType the entity type
+ * @param entityId   the entity ID
+ */
+public record IndexedEntity(String entityType, String entityId) {
+}
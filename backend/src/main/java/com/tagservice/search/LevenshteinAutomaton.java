@@ -0,0 +1,134 @@
+package com.tagservice.search;
+
+/**
+ * Levenshtein automaton: accepts every string within {@code maxEdits} insertions, deletions or
+ * substitutions of a term.
+ * <p>
+ * The automaton is run character by character alongside a walk over a sorted vocabulary such as
+ * {@link TermTrie}. Each state is the row of the edit-distance matrix for the input consumed so
+ * far, capped at {@code maxEdits + 1}. Only the diagonal band of width {@code 2 * maxEdits + 1}
+ * around the number of characters consumed can hold values within the limit, so a state stores
+ * just that band and a step costs {@code O(maxEdits)} in time and memory rather than
+ * {@code O(term length)}. A step returns null once no continuation can be accepted, which lets
+ * the walk skip the whole subtree below that prefix.
+ */
+public final class LevenshteinAutomaton {
+
+    private final char[] term;
+    private final int maxEdits;
+    /** Cells of the band; a state has one more cell holding the number of characters consumed. */
+    private final int width;
+    private final int[] start;
+
+    public LevenshteinAutomaton(String term, int maxEdits) {
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("maxEdits must not be negative");
+        }
+        this.term = term.toCharArray();
+        this.maxEdits = maxEdits;
+        this.width = 2 * maxEdits + 1;
+        // Cell j holds the distance to the term prefix of length depth - maxEdits + j
+        this.start = new int[width + 1];
+        for (int j = 0; j < width; j++) {
+            int i = j - maxEdits;
+            start[j] = i < 0 || i > this.term.length ? maxEdits + 1 : Math.min(i, maxEdits + 1);
+        }
+    }
+
+    /**
+     * Returns the number of edits allowed for a term of the given length: none for up to two
+     * characters, one for up to five and two beyond, but never more than {@code cap}.
+     */
+    public static int maxEditsFor(int termLength, int cap) {
+        int edits = termLength <= 2 ? 0 : termLength <= 5 ? 1 : 2;
+        return Math.min(edits, cap);
+    }
+
+    public int maxEdits() {
+        return maxEdits;
+    }
+
+    /**
+     * Returns the state before any input; it must not be modified.
+     */
+    public int[] start() {
+        return start;
+    }
+
+    /**
+     * Returns the state after reading {@code c} in {@code state}, or null if no string with the
+     * input read so far as prefix is accepted.
+     */
+    public int[] step(int[] state, char c) {
+        int n = term.length;
+        int limit = maxEdits + 1;
+        int depth = state[width] + 1;
+        int[] next = new int[width + 1];
+        next[width] = depth;
+
+        // The band moves one position along the term per step, so cell j of the previous state
+        // holds the prefix one shorter than cell j of the next one
+        int best = limit;
+        for (int j = 0; j < width; j++) {
+            int i = depth - maxEdits + j;
+            int distance;
+            if (i < 0 || i > n) {
+                distance = limit;
+            } else if (i == 0) {
+                distance = Math.min(depth, limit);
+            } else {
+                int substitution = state[j] + (term[i - 1] == c ? 0 : 1);
+                int deletion = (j + 1 < width ? state[j + 1] : limit) + 1;
+                int insertion = (j > 0 ? next[j - 1] : limit) + 1;
+                distance = Math.min(Math.min(substitution, deletion), Math.min(insertion, limit));
+            }
+            next[j] = distance;
+            best = Math.min(best, distance);
+        }
+        return best > maxEdits ? null : next;
+    }
+
+    /**
+     * Returns the edit distance between the input read to reach {@code state} and the term, or -1
+     * if it exceeds {@code maxEdits}.
+     */
+    public int distance(int[] state) {
+        int j = term.length - state[width] + maxEdits;
+        if (j < 0 || j >= width) {
+            return -1;
+        }
+        return state[j] <= maxEdits ? state[j] : -1;
+    }
+
+    /**
+     * Returns the edit distance between {@code a} and {@code b}, or -1 if it exceeds
+     * {@code maxEdits}, with the textbook dynamic program. Used to check the automaton and as the
+     * brute-force baseline.
+     */
+    public static int distance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return -1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int best = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                best = Math.min(best, current[j]);
+            }
+            if (best > maxEdits) {
+                return -1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits ? previous[b.length()] : -1;
+    }
+}
@@ -0,0 +1,224 @@
+package com.tagservice.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A tag search translated into SQL {@code LIKE} conditions for the PARTIAL and WILDCARD search
+ * modes; every term must match (logical AND).
+ * <p>
+ * The translation keeps every term answerable from the {@code pg_trgm} GIN indexes on
+ * {@code tags.key} and {@code tags.value}: pg_trgm can only use a pattern that contains a run of
+ * at least {@value #TRIGRAM_LENGTH} letters or digits. PARTIAL fragments shorter than that are
+ * compared for equality instead, and WILDCARD terms without such a run on either side are
+ * rejected, as are overlong patterns and patterns with many {@code *}, whose matching cost grows
+ * with every wildcard.
+ *
+ * @param terms the terms, never empty
+ */
+public record PatternQuery(List<Term> terms) {
+
+    static final int TRIGRAM_LENGTH = 3;
+
+    /**
+     * SQL comparison operators used by a {@link Match}.
+     */
+    public enum Operator {
+        EQUALS("="),
+        LIKE("LIKE"),
+        ILIKE("ILIKE");
+
+        private final String sql;
+
+        Operator(String sql) {
+            this.sql = sql;
+        }
+
+        public String sql() {
+            return sql;
+        }
+    }
+
+    /**
+     * The comparison of one column.
+     *
+     * @param operator the operator
+     * @param operand  the right-hand side; a {@code LIKE} pattern with {@code \} as escape character
+     *                 unless the operator is {@link Operator#EQUALS}
+     */
+    public record Match(Operator operator, String operand) {
+    }
+
+    /**
+     * A single search term.
+     *
+     * @param key   the condition on {@code tags.key}, or null to match any key
+     * @param value the condition on {@code tags.value}, or null to match any value
+     */
+    public record Term(Match key, Match value) {
+    }
+
+    /**
+     * Translates a query for the EXACT mode: keys and values must be equal. Used where an EXACT
+     * search is answered by the database rather than the in-memory index.
+     *
+     * @param query the parsed query
+     */
+    public static PatternQuery exact(TagQuery query) {
+        List<Term> terms = new ArrayList<>(query.terms().size());
+        for (TagQuery.Term term : query.terms()) {
+            Match value = term.matchesAnyValue() ? null : new Match(Operator.EQUALS, term.value());
+            terms.add(new Term(new Match(Operator.EQUALS, term.key()), value));
+        }
+        return new PatternQuery(List.copyOf(terms));
+    }
+
+    /**
+     * Translates a query for the PARTIAL mode: the key and value of each term match tags whose key
+     * and value contain them, the value case-insensitively. Fragments too short for the trigram
+     * index must match exactly.
+     *
+     * @param query         the parsed query
+     * @param maxTermLength the maximum length of a key or value
+     * @throws IllegalArgumentException if a key or value is too long
+     */
+    public static PatternQuery partial(TagQuery query, int maxTermLength) {
+        List<Term> terms = new ArrayList<>(query.terms().size());
+        for (TagQuery.Term term : query.terms()) {
+            checkLength(term, maxTermLength);
+            Match value = term.matchesAnyValue() ? null : contains(term.value(), Operator.ILIKE);
+            terms.add(new Term(contains(term.key(), Operator.LIKE), value));
+        }
+        return new PatternQuery(List.copyOf(terms));
+    }
+
+    /**
+     * Translates a query for the WILDCARD mode: {@code *} matches any number of characters,
+     * {@code ?} exactly one, and {@code \} escapes the next character. A side that is only
+     * {@code *} matches anything; a side without wildcards must match exactly.
+     *
+     * @param query         the parsed query
+     * @param maxTermLength the maximum length of a key or value
+     * @param maxWildcards  the maximum number of {@code *} per key or value
+     * @throws IllegalArgumentException if a term is too long, has too many wildcards or is not
+     *                                  selective enough to be answered from the index
+     */
+    public static PatternQuery wildcard(TagQuery query, int maxTermLength, int maxWildcards) {
+        List<Term> terms = new ArrayList<>(query.terms().size());
+        for (TagQuery.Term term : query.terms()) {
+            checkLength(term, maxTermLength);
+            Translation key = translateWildcard(term.key(), maxWildcards);
+            Translation value = term.matchesAnyValue()
+                    ? Translation.ANY
+                    : translateWildcard(term.value(), maxWildcards);
+            if (!key.indexable() && !value.indexable()) {
+                throw new IllegalArgumentException("Pattern '" + describe(term) + "' needs at least "
+                        + TRIGRAM_LENGTH + " consecutive letters or digits in its key or value, "
+                        + "or a key or value without wildcards.");
+            }
+            terms.add(new Term(key.match(), value.match()));
+        }
+        return new PatternQuery(List.copyOf(terms));
+    }
+
+    private static Match contains(String fragment, Operator operator) {
+        if (longestWordRun(fragment) < TRIGRAM_LENGTH) {
+            return new Match(Operator.EQUALS, fragment);
+        }
+        return new Match(operator, "%" + escapeLike(fragment) + "%");
+    }
+
+    /**
+     * @param match     the condition, or null for "anything"
+     * @param indexable whether the condition can be answered from an index on its own
+     */
+    private record Translation(Match match, boolean indexable) {
+        static final Translation ANY = new Translation(null, false);
+    }
+
+    private static Translation translateWildcard(String pattern, int maxWildcards) {
+        StringBuilder like = new StringBuilder(pattern.length() + 2);
+        StringBuilder literal = new StringBuilder(pattern.length());
+        boolean hasWildcard = false;
+        boolean previousStar = false;
+        int stars = 0;
+        int wordRun = 0;
+        int longestWordRun = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*') {
+                hasWildcard = true;
+                wordRun = 0;
+                // Consecutive stars are equivalent to one
+                if (!previousStar) {
+                    like.append('%');
+                    stars++;
+                }
+                previousStar = true;
+                continue;
+            }
+            previousStar = false;
+            if (c == '?') {
+                hasWildcard = true;
+                wordRun = 0;
+                like.append('_');
+                continue;
+            }
+            if (c == '\\' && i + 1 < pattern.length()) {
+                c = pattern.charAt(++i);
+            }
+            literal.append(c);
+            appendEscaped(like, c);
+            wordRun = Character.isLetterOrDigit(c) ? wordRun + 1 : 0;
+            longestWordRun = Math.max(longestWordRun, wordRun);
+        }
+        if (stars > maxWildcards) {
+            throw new IllegalArgumentException("Pattern '" + pattern + "' has more than " + maxWildcards
+                    + " '*' wildcards.");
+        }
+        if (!hasWildcard) {
+            return new Translation(new Match(Operator.EQUALS, literal.toString()), true);
+        }
+        if (like.length() == 1 && stars == 1) {
+            return Translation.ANY;
+        }
+        return new Translation(new Match(Operator.LIKE, like.toString()), longestWordRun >= TRIGRAM_LENGTH);
+    }
+
+    private static void checkLength(TagQuery.Term term, int maxTermLength) {
+        if (term.key().length() > maxTermLength
+                || (!term.matchesAnyValue() && term.value().length() > maxTermLength)) {
+            throw new IllegalArgumentException("Pattern '" + describe(term) + "' is longer than "
+                    + maxTermLength + " characters.");
+        }
+    }
+
+    private static int longestWordRun(String text) {
+        int run = 0;
+        int longest = 0;
+        for (int i = 0; i < text.length(); i++) {
+            run = Character.isLetterOrDigit(text.charAt(i)) ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    private static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 4);
+        for (int i = 0; i < text.length(); i++) {
+            appendEscaped(escaped, text.charAt(i));
+        }
+        return escaped.toString();
+    }
+
+    private static void appendEscaped(StringBuilder like, char c) {
+        if (c == '%' || c == '_' || c == '\\') {
+            like.append('\\');
+        }
+        like.append(c);
+    }
+
+    private static String describe(TagQuery.Term term) {
+        return term.matchesAnyValue() ? term.key() : term.key() + ":" + term.value();
+    }
+}
@@ -0,0 +1,327 @@
+package com.tagservice.search;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Compressed set of non-negative {@code int}s in the style of Roaring bitmaps.
+ * <p>
+ * Values are partitioned by their high 16 bits into chunks. Each chunk stores its low 16 bits in
+ * the cheaper of two containers: a sorted {@code char[]} while it holds at most
+ * {@value #ARRAY_CONTAINER_MAX} values (2 bytes per value) and a fixed 8 KiB bitmap above that.
+ * Intersections and unions work chunk by chunk, so sparse postings cost little memory and dense
+ * ones intersect with word-wide {@code AND}s.
+ * <p>
+ * Not thread-safe; {@link TenantTagIndex} guards all access.
+ */
+public final class RoaringBitmap {
+
+    static final int ARRAY_CONTAINER_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // Chunk i holds the values whose high 16 bits are keys[i]. Its container is either a sorted
+    // char[] of which the first cardinalities[i] entries are used, or a long[1024] bitmap.
+    private char[] keys = new char[0];
+    private Object[] containers = new Object[0];
+    private int[] cardinalities = new int[0];
+    private int size;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(int value) {
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new char[4], 0);
+        }
+        containers[index] = containerAdd(index, containers[index], (char) value);
+    }
+
+    public void remove(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Object container = containerRemove(index, containers[index], (char) value);
+        if (container == null) {
+            removeContainer(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containerContains(index, (char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += cardinalities[i];
+        }
+        return cardinality;
+    }
+
+    /**
+     * Passes the values in ascending order to {@code consumer} until it returns false.
+     */
+    public void forEach(IntPredicate consumer) {
+        forEachFrom(0, consumer);
+    }
+
+    /**
+     * Passes the values not less than {@code from} in ascending order to {@code consumer} until it
+     * returns false. Chunks and container entries below {@code from} are skipped, not visited, so
+     * resuming an iteration deep into the bitmap is cheap.
+     */
+    public void forEachFrom(int from, IntPredicate consumer) {
+        if (from < 0) {
+            from = 0;
+        }
+        char fromHigh = (char) (from >>> 16);
+        int first = Arrays.binarySearch(keys, 0, size, fromHigh);
+        if (first < 0) {
+            first = -first - 1;
+        }
+        for (int i = first; i < size; i++) {
+            int base = keys[i] << 16;
+            char fromLow = keys[i] == fromHigh ? (char) from : 0;
+            Object container = containers[i];
+            if (container instanceof long[] bitmap) {
+                for (int word = fromLow >>> 6; word < BITMAP_WORDS; word++) {
+                    long bits = bitmap[word];
+                    if (word == fromLow >>> 6) {
+                        bits &= -1L << fromLow;
+                    }
+                    while (bits != 0) {
+                        if (!consumer.test(base | (word << 6) + Long.numberOfTrailingZeros(bits))) {
+                            return;
+                        }
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                char[] array = (char[]) container;
+                int cardinality = cardinalities[i];
+                int start = fromLow == 0 ? 0 : Arrays.binarySearch(array, 0, cardinality, fromLow);
+                for (int j = start < 0 ? -start - 1 : start; j < cardinality; j++) {
+                    if (!consumer.test(base | array[j])) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the values present in both bitmaps.
+     */
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.appendIntersection(a.keys[i], a, i, b, j);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in either bitmap.
+     */
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = a.copy();
+        b.forEach(value -> {
+            result.add(value);
+            return true;
+        });
+        return result;
+    }
+
+    public RoaringBitmap copy() {
+        RoaringBitmap copy = new RoaringBitmap();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.containers = new Object[size];
+        copy.cardinalities = Arrays.copyOf(cardinalities, size);
+        for (int i = 0; i < size; i++) {
+            Object container = containers[i];
+            copy.containers[i] = container instanceof long[] bitmap ? bitmap.clone() : ((char[]) container).clone();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    private Object containerAdd(int index, Object container, char low) {
+        int cardinality = cardinalities[index];
+        if (container instanceof long[] bitmap) {
+            long mask = 1L << low;
+            if ((bitmap[low >>> 6] & mask) == 0) {
+                bitmap[low >>> 6] |= mask;
+                cardinalities[index] = cardinality + 1;
+            }
+            return bitmap;
+        }
+        char[] array = (char[]) container;
+        int position = Arrays.binarySearch(array, 0, cardinality, low);
+        if (position >= 0) {
+            return array;
+        }
+        if (cardinality == ARRAY_CONTAINER_MAX) {
+            long[] bitmap = toBitmap(array, cardinality);
+            bitmap[low >>> 6] |= 1L << low;
+            cardinalities[index] = cardinality + 1;
+            return bitmap;
+        }
+        position = -position - 1;
+        if (cardinality == array.length) {
+            array = Arrays.copyOf(array, Math.min(ARRAY_CONTAINER_MAX, array.length * 2));
+        }
+        System.arraycopy(array, position, array, position + 1, cardinality - position);
+        array[position] = low;
+        cardinalities[index] = cardinality + 1;
+        return array;
+    }
+
+    /**
+     * @return the updated container, or null if it became empty
+     */
+    private Object containerRemove(int index, Object container, char low) {
+        int cardinality = cardinalities[index];
+        if (container instanceof long[] bitmap) {
+            long mask = 1L << low;
+            if ((bitmap[low >>> 6] & mask) == 0) {
+                return bitmap;
+            }
+            bitmap[low >>> 6] &= ~mask;
+            cardinalities[index] = --cardinality;
+            return cardinality <= ARRAY_CONTAINER_MAX ? toArray(bitmap, cardinality) : bitmap;
+        }
+        char[] array = (char[]) container;
+        int position = Arrays.binarySearch(array, 0, cardinality, low);
+        if (position < 0) {
+            return array;
+        }
+        System.arraycopy(array, position + 1, array, position, cardinality - position - 1);
+        cardinalities[index] = --cardinality;
+        return cardinality == 0 ? null : array;
+    }
+
+    private boolean containerContains(int index, char low) {
+        Object container = containers[index];
+        if (container instanceof long[] bitmap) {
+            return (bitmap[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, 0, cardinalities[index], low) >= 0;
+    }
+
+    private void appendIntersection(char key, RoaringBitmap a, int i, RoaringBitmap b, int j) {
+        Object left = a.containers[i];
+        Object right = b.containers[j];
+        int leftCardinality = a.cardinalities[i];
+        int rightCardinality = b.cardinalities[j];
+        Object container;
+        int cardinality;
+        if (left instanceof long[] leftBitmap && right instanceof long[] rightBitmap) {
+            long[] bitmap = new long[BITMAP_WORDS];
+            cardinality = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                bitmap[w] = leftBitmap[w] & rightBitmap[w];
+                cardinality += Long.bitCount(bitmap[w]);
+            }
+            container = cardinality <= ARRAY_CONTAINER_MAX ? toArray(bitmap, cardinality) : bitmap;
+        } else if (left instanceof long[] leftBitmap) {
+            char[] array = (char[]) right;
+            char[] result = new char[rightCardinality];
+            cardinality = 0;
+            for (int k = 0; k < rightCardinality; k++) {
+                char low = array[k];
+                if ((leftBitmap[low >>> 6] & (1L << low)) != 0) {
+                    result[cardinality++] = low;
+                }
+            }
+            container = result;
+        } else if (right instanceof long[]) {
+            appendIntersection(key, b, j, a, i);
+            return;
+        } else {
+            char[] leftArray = (char[]) left;
+            char[] rightArray = (char[]) right;
+            char[] result = new char[Math.min(leftCardinality, rightCardinality)];
+            cardinality = 0;
+            int x = 0;
+            int y = 0;
+            while (x < leftCardinality && y < rightCardinality) {
+                if (leftArray[x] < rightArray[y]) {
+                    x++;
+                } else if (leftArray[x] > rightArray[y]) {
+                    y++;
+                } else {
+                    result[cardinality++] = leftArray[x];
+                    x++;
+                    y++;
+                }
+            }
+            container = result;
+        }
+        if (cardinality > 0) {
+            insertContainer(size, key, container, cardinality);
+        }
+    }
+
+    private void insertContainer(int index, char key, Object container, int cardinality) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        cardinalities[index] = cardinality;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        System.arraycopy(cardinalities, index + 1, cardinalities, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private static long[] toBitmap(char[] array, int cardinality) {
+        long[] bitmap = new long[BITMAP_WORDS];
+        for (int k = 0; k < cardinality; k++) {
+            bitmap[array[k] >>> 6] |= 1L << array[k];
+        }
+        return bitmap;
+    }
+
+    private static char[] toArray(long[] bitmap, int cardinality) {
+        char[] array = new char[Math.max(cardinality, 1)];
+        int position = 0;
+        for (int word = 0; word < BITMAP_WORDS; word++) {
+            long bits = bitmap[word];
+            while (bits != 0) {
+                array[position++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return array;
+    }
+}
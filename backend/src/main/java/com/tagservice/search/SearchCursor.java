@@ -0,0 +1,48 @@
+package com.tagservice.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token of a search page.
+ * <p>
+ * The token carries the reference of the page's last entity. The next page continues with a
+ * keyset seek past that reference, so its cost does not grow with the number of pages already
+ * read, unlike an offset, and rows added or removed in between neither repeat nor skip results.
+ * Clients must not interpret tokens; the format is versioned so that it can change.
+ */
+public final class SearchCursor {
+
+    private static final String PREFIX = "v1:";
+
+    private SearchCursor() {
+    }
+
+    /**
+     * Returns the token that continues after the given entity reference.
+     */
+    public static String encode(long entityRef) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + entityRef).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns the entity reference a token continues after.
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode}
+     */
+    public static long decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(PREFIX)) {
+                long entityRef = Long.parseLong(decoded.substring(PREFIX.length()));
+                if (entityRef >= 0) {
+                    return entityRef;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // Not Base64 or not a number; NumberFormatException is an IllegalArgumentException
+        }
+        throw new IllegalArgumentException("Invalid cursor.");
+    }
+}
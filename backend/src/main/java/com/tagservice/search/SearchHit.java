@@ -0,0 +1,12 @@
+package com.tagservice.search;
+
+/**
+ * An entity found by a search.
+ *
+ * @param entityRef  the entity's reference ({@code entities.id}); results are ordered by it, and
+ *                   the last one of a page is where the next page continues
+ * @param entityType the entity type
+ * @param entityId   the entity ID
+ */
+public record SearchHit(long entityRef, String entityType, String entityId) {
+}
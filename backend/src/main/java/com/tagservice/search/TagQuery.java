@@ -0,0 +1,57 @@
+package com.tagservice.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A parsed tag search: every term must match (logical AND).
+ * <p>
+ * Syntax: terms separated by whitespace or commas, each either {@code key:value} (the tag
+ * {@code key} with exactly that value) or {@code key} (the tag {@code key} with any value).
+ * The value extends to the end of the term and may itself contain colons.
+ *
+ * @param terms the terms, never empty
+ */
+public record TagQuery(List<Term> terms) {
+
+    /**
+     * A single search term.
+     *
+     * @param key   the tag key
+     * @param value the tag value, or null to match any value
+     */
+    public record Term(String key, String value) {
+
+        public boolean matchesAnyValue() {
+            return value == null;
+        }
+    }
+
+    /**
+     * Parses a query string.
+     *
+     * @param query        the raw query, e.g. {@code env:prod region:eu}
+     * @param keyNormalizer applied to every key, e.g. to lowercase keys of case-insensitive tenants
+     * @return the query, or null if it contains no terms or a term has an empty key
+     */
+    public static TagQuery parse(String query, UnaryOperator<String> keyNormalizer) {
+        if (query == null) {
+            return null;
+        }
+        List<Term> terms = new ArrayList<>();
+        for (String token : query.trim().split("[\\s,]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            int separator = token.indexOf(':');
+            String key = separator < 0 ? token : token.substring(0, separator);
+            if (key.isEmpty()) {
+                return null;
+            }
+            String value = separator < 0 ? null : token.substring(separator + 1);
+            terms.add(new Term(keyNormalizer.apply(key), value));
+        }
+        return terms.isEmpty() ? null : new TagQuery(List.copyOf(terms));
+    }
+}
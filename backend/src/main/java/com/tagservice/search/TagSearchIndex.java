@@ -0,0 +1,97 @@
+package com.tagservice.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tagservice.event.TagsChangedEvent;
+import com.tagservice.invalidation.InvalidationEvent;
+import com.tagservice.invalidation.InvalidationSubscriber;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Holds the {@link TenantTagIndex} of every recently searched tenant.
+ * <p>
+ * Indexes are created on a tenant's first search. The cache is bounded by the total
+ * {@link TenantTagIndex#weight() weight} of its indexes, indexed entities plus indexed tags, so a
+ * few large tenants cannot fill the heap; the least recently searched indexes are evicted first.
+ * An index is weighed again after each load or applied change (see {@link #reweigh}).
+ * <p>
+ * Committed tag changes mark the affected entity dirty in its tenant's index; tenant-wide changes
+ * (bulk uploads) and changes whose extent is unknown drop the index so that it is rebuilt on the
+ * next search. Changes made on other nodes arrive through
+ * {@link com.tagservice.invalidation.PostgresInvalidationListener}.
+ */
+@Component
+public class TagSearchIndex implements InvalidationSubscriber {
+
+    public static final String CACHE_NAME = "search.tenant-index";
+
+    private final Cache<Long, TenantTagIndex> indexes;
+
+    public TagSearchIndex(@Value("${tagservice.search-index.max-weight:5000000}") long maxWeight,
+                          MeterRegistry meterRegistry) {
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long tenantId, TenantTagIndex index) -> Math.max(1, index.weight()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, CACHE_NAME);
+        Gauge.builder("tagservice.search-index.weight", indexes,
+                        cache -> cache.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .description("Indexed entities plus indexed tags of all cached tenant indexes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the tenant's index, creating an empty, not yet loaded one if necessary.
+     */
+    public TenantTagIndex forTenant(long tenantId) {
+        return indexes.get(tenantId, id -> new TenantTagIndex());
+    }
+
+    /**
+     * Updates the cache's record of an index's weight after the index was loaded or changed. Does
+     * nothing if the index has been evicted or replaced meanwhile.
+     */
+    public void reweigh(long tenantId, TenantTagIndex index) {
+        indexes.asMap().replace(tenantId, index, index);
+    }
+
+    public void invalidateTenant(long tenantId) {
+        indexes.invalidate(tenantId);
+    }
+
+    /**
+     * Applies a tag change to the index once it is committed, or immediately when the change
+     * happened outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(TagsChangedEvent event) {
+        if (event.isTenantWide()) {
+            invalidateTenant(event.tenantId());
+            return;
+        }
+        TenantTagIndex index = indexes.getIfPresent(event.tenantId());
+        if (index != null) {
+            index.markDirty(new IndexedEntity(event.entityType(), event.entityId()));
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.isFor(InvalidationEvent.TAGS)) {
+            onTagsChanged(new TagsChangedEvent(event.organizationId(), event.entityType(), event.entityId()));
+        } else if (event.isFor(InvalidationEvent.ORGANIZATIONS) && "DELETE".equals(event.operation())) {
+            invalidateTenant(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        indexes.invalidateAll();
+    }
+}
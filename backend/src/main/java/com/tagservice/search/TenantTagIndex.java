@@ -0,0 +1,488 @@
+package com.tagservice.search;
+
+import com.tagservice.dto.TagDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted tag index of one tenant.
+ * <p>
+ * Every entity gets a dense ordinal of its own, and every {@code (key, value)} pair maps to a
+ * {@link RoaringBitmap} of the ordinals of the entities carrying it. A search intersects the
+ * bitmaps of its terms, smallest first, and only turns the surviving ordinals back into entities.
+ * Ordinals are assigned in the order of the entities' references ({@code entities.id}), so results
+ * come in the same order as from the database, and a page can continue after the last reference
+ * of the previous one even if the index was rebuilt in between. References are global and grow
+ * without bound, which is why they are not used as ordinals directly. An entity whose reference
+ * is lower than the highest one indexed, which happens when entities are committed out of
+ * sequence order, makes the index renumber all of its entities in memory.
+ * <p>
+ * For FUZZY searches the index also keeps its vocabulary in {@link TermTrie tries}: one of all
+ * keys, and per key one of its values, whose entries share the posting bitmaps. A fuzzy term walks
+ * the tries with a {@link LevenshteinAutomaton} and ORs the bitmaps of the terms it accepts.
+ * <p>
+ * The index is filled once from the {@code tags} table and then kept current incrementally:
+ * writers only {@link #markDirty mark} the entities they changed, and the next search reloads
+ * just those entities before it runs. Searches share a read lock; loading and applying changes
+ * take the write lock.
+ */
+public final class TenantTagIndex {
+
+    /**
+     * Receives the rows of a full load.
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        void add(long entityRef, String entityType, String entityId, String key, String value);
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<IndexedEntity, Integer> ordinals = new HashMap<>();
+    private final Map<Integer, IndexedEntity> entities = new HashMap<>();
+    /** References by ordinal, ascending; kept for removed ordinals too, so they stay searchable. */
+    private long[] refs = new long[16];
+    private int nextOrdinal;
+    /** Tags per ordinal as flattened key/value pairs, needed to remove an entity's postings. */
+    private final Map<Integer, String[]> tagsByOrdinal = new HashMap<>();
+    private final Map<String, Map<String, RoaringBitmap>> postings = new HashMap<>();
+    /** Keys to their values to the same bitmaps as {@link #postings}; null values are not included. */
+    private TermTrie<TermTrie<RoaringBitmap>> vocabulary = new TermTrie<>();
+    private final Set<IndexedEntity> dirty = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    /** Indexed tags, maintained by {@link #replace}. */
+    private int tagCount;
+    private volatile int weight;
+
+    /**
+     * Returns true if a search has to load the index or reload changed entities first.
+     */
+    public boolean needsRefresh() {
+        return !loaded || !dirty.isEmpty();
+    }
+
+    /**
+     * Loads the whole index unless that has already happened.
+     *
+     * @param source streams all of the tenant's tags into the given sink
+     */
+    public void ensureLoaded(Consumer<RowSink> source) {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            Map<IndexedEntity, List<String>> tagsByEntity = new HashMap<>();
+            Map<IndexedEntity, Long> entityRefs = new HashMap<>();
+            source.accept((entityRef, entityType, entityId, key, value) -> {
+                IndexedEntity entity = new IndexedEntity(entityType, entityId);
+                List<String> tags = tagsByEntity.get(entity);
+                if (tags == null) {
+                    tags = new ArrayList<>(4);
+                    tagsByEntity.put(entity, tags);
+                    entityRefs.put(entity, entityRef);
+                }
+                tags.add(key);
+                tags.add(value);
+            });
+            Map<IndexedEntity, String[]> flattened = new HashMap<>();
+            tagsByEntity.forEach((entity, tags) -> flattened.put(entity, tags.toArray(String[]::new)));
+            renumber(flattened, entityRefs);
+            updateWeight();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that an entity's tags changed. Safe to call from any thread at any time.
+     */
+    public void markDirty(IndexedEntity entity) {
+        dirty.add(entity);
+    }
+
+    /**
+     * Removes and returns the entities marked dirty so far. If reloading them fails, they must
+     * be handed back through {@link #markDirty}.
+     */
+    public Set<IndexedEntity> drainDirty() {
+        Set<IndexedEntity> drained = new HashSet<>();
+        for (IndexedEntity entity : dirty) {
+            if (dirty.remove(entity)) {
+                drained.add(entity);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Replaces the indexed tags of the given entities; an entity mapped to an empty list is
+     * removed from the index.
+     *
+     * @param tagsByEntity the current tags of every changed entity
+     * @param entityRefs   the references of the changed entities; required for every entity that
+     *                     has tags
+     */
+    public void apply(Map<IndexedEntity, List<TagDto>> tagsByEntity, Map<IndexedEntity, Long> entityRefs) {
+        lock.writeLock().lock();
+        try {
+            Map<IndexedEntity, String[]> changes = new HashMap<>();
+            List<IndexedEntity> added = new ArrayList<>();
+            tagsByEntity.forEach((entity, tags) -> {
+                String[] flattened = new String[tags.size() * 2];
+                for (int i = 0; i < tags.size(); i++) {
+                    flattened[2 * i] = tags.get(i).getKey();
+                    flattened[2 * i + 1] = tags.get(i).getValue();
+                }
+                changes.put(entity, flattened);
+                if (flattened.length > 0 && !ordinals.containsKey(entity)) {
+                    added.add(entity);
+                }
+            });
+            added.sort(Comparator.comparingLong(entity -> requireRef(entity, entityRefs.get(entity))));
+            if (!added.isEmpty() && !fitsAfterLast(entityRefs.get(added.get(0)), added.size())) {
+                Map<IndexedEntity, String[]> all = new HashMap<>();
+                Map<IndexedEntity, Long> allRefs = new HashMap<>(entityRefs);
+                ordinals.forEach((entity, ordinal) -> {
+                    all.put(entity, tagsByOrdinal.get(ordinal));
+                    allRefs.putIfAbsent(entity, refs[ordinal]);
+                });
+                all.putAll(changes);
+                renumber(all, allRefs);
+                updateWeight();
+                return;
+            }
+            changes.forEach((entity, tags) -> {
+                if (ordinals.containsKey(entity) || tags.length == 0) {
+                    replace(entity, null, tags);
+                }
+            });
+            for (IndexedEntity entity : added) {
+                replace(entity, entityRefs.get(entity), changes.get(entity));
+            }
+            updateWeight();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entities matching every term of the query, in reference order.
+     *
+     * @param query          the query
+     * @param afterEntityRef only entities with a greater reference are returned; -1 for all
+     * @param limit          the maximum number of entities to return
+     */
+    public List<SearchHit> search(TagQuery query, long afterEntityRef, int limit) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(query.terms().size());
+            for (TagQuery.Term term : query.terms()) {
+                RoaringBitmap bitmap = postingsFor(term);
+                if (bitmap == null || bitmap.isEmpty()) {
+                    return List.of();
+                }
+                bitmaps.add(bitmap);
+            }
+            return intersect(bitmaps, afterEntityRef, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entities that, for every term of the query, carry a tag whose key and value are
+     * within the allowed number of edits of the term's, in reference order.
+     *
+     * @param query         the query
+     * @param maxEdits      the most edits allowed per key or value; shorter terms allow fewer
+     *                      (see {@link LevenshteinAutomaton#maxEditsFor})
+     * @param maxExpansions  the most {@code (key, value)} pairs a term may expand to, or keys for a
+     *                       term without a value (which matches all values of each key); the
+     *                       closest are kept
+     * @param afterEntityRef only entities with a greater reference are returned; -1 for all
+     * @param limit          the maximum number of entities to return
+     */
+    public List<SearchHit> searchFuzzy(TagQuery query, int maxEdits, int maxExpansions, long afterEntityRef,
+                                       int limit) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(query.terms().size());
+            for (TagQuery.Term term : query.terms()) {
+                RoaringBitmap bitmap = fuzzyPostingsFor(term, maxEdits, maxExpansions);
+                if (bitmap.isEmpty()) {
+                    return List.of();
+                }
+                bitmaps.add(bitmap);
+            }
+            return intersect(bitmaps, afterEntityRef, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The size of the index in indexed entities plus indexed tags, which is what its memory grows
+     * with; as of the last load or applied change.
+     */
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * Number of distinct {@code (key, value)} postings, for monitoring.
+     */
+    public int postingCount() {
+        lock.readLock().lock();
+        try {
+            return postings.values().stream().mapToInt(Map::size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must hold the read lock; all bitmaps must be non-empty.
+     */
+    private List<SearchHit> intersect(List<RoaringBitmap> bitmaps, long afterEntityRef, int limit) {
+        int firstOrdinal = firstOrdinalAfter(afterEntityRef);
+        if (firstOrdinal >= nextOrdinal) {
+            return List.of();
+        }
+        bitmaps.sort(Comparator.comparingLong(RoaringBitmap::cardinality));
+        RoaringBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, bitmaps.get(i));
+        }
+
+        List<SearchHit> matches = new ArrayList<>(Math.min(limit, 64));
+        result.forEachFrom(firstOrdinal, ordinal -> {
+            IndexedEntity entity = entities.get(ordinal);
+            matches.add(new SearchHit(refs[ordinal], entity.entityType(), entity.entityId()));
+            return matches.size() < limit;
+        });
+        return matches;
+    }
+
+    /**
+     * Returns the first ordinal whose reference is greater than the given one. Must hold a lock.
+     */
+    private int firstOrdinalAfter(long entityRef) {
+        int low = 0;
+        int high = nextOrdinal;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (refs[middle] <= entityRef) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private RoaringBitmap fuzzyPostingsFor(TagQuery.Term term, int maxEdits, int maxExpansions) {
+        LevenshteinAutomaton keyAutomaton = new LevenshteinAutomaton(term.key(),
+                LevenshteinAutomaton.maxEditsFor(term.key().length(), maxEdits));
+        LevenshteinAutomaton valueAutomaton = term.matchesAnyValue() ? null : new LevenshteinAutomaton(term.value(),
+                LevenshteinAutomaton.maxEditsFor(term.value().length(), maxEdits));
+
+        List<Expansion> expansions = new ArrayList<>();
+        vocabulary.fuzzyMatch(keyAutomaton, (key, keyDistance, values) -> {
+            if (valueAutomaton == null) {
+                // One expansion per key; its values are only unioned if the key is kept
+                expansions.add(new Expansion(keyDistance, key, null));
+            } else {
+                values.fuzzyMatch(valueAutomaton, (value, valueDistance, bitmap) ->
+                        expansions.add(new Expansion(keyDistance + valueDistance, key, bitmap)));
+            }
+        });
+        if (expansions.size() > maxExpansions) {
+            expansions.sort(Comparator.comparingInt(Expansion::distance));
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (int i = 0; i < expansions.size() && i < maxExpansions; i++) {
+            Expansion expansion = expansions.get(i);
+            if (expansion.bitmap() != null) {
+                union = RoaringBitmap.or(union, expansion.bitmap());
+            } else {
+                for (RoaringBitmap bitmap : postings.get(expansion.key()).values()) {
+                    union = RoaringBitmap.or(union, bitmap);
+                }
+            }
+        }
+        return union;
+    }
+
+    /**
+     * @param bitmap the postings of one {@code (key, value)} pair, or null for all values of the key
+     */
+    private record Expansion(int distance, String key, RoaringBitmap bitmap) {
+    }
+
+    private RoaringBitmap postingsFor(TagQuery.Term term) {
+        Map<String, RoaringBitmap> byValue = postings.get(term.key());
+        if (byValue == null) {
+            return null;
+        }
+        if (!term.matchesAnyValue()) {
+            return byValue.get(term.value());
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (RoaringBitmap bitmap : byValue.values()) {
+            union = RoaringBitmap.or(union, bitmap);
+        }
+        return union;
+    }
+
+    /**
+     * Must hold the write lock.
+     *
+     * @param entityRef the entity's reference; only needed if the entity is not indexed yet
+     */
+    private void replace(IndexedEntity entity, Long entityRef, String[] tags) {
+        Integer existing = ordinals.get(entity);
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            String[] previous = tagsByOrdinal.get(ordinal);
+            for (int i = 0; i < previous.length; i += 2) {
+                removePosting(previous[i], previous[i + 1], ordinal);
+            }
+            tagCount -= previous.length / 2;
+            if (tags.length == 0) {
+                ordinals.remove(entity);
+                entities.remove(ordinal);
+                tagsByOrdinal.remove(ordinal);
+                return;
+            }
+        } else if (tags.length == 0) {
+            return;
+        } else {
+            ordinal = nextOrdinal(requireRef(entity, entityRef));
+            ordinals.put(entity, ordinal);
+            entities.put(ordinal, entity);
+        }
+        for (int i = 0; i < tags.length; i += 2) {
+            addPosting(tags[i], tags[i + 1], ordinal);
+        }
+        tagCount += tags.length / 2;
+        tagsByOrdinal.put(ordinal, tags);
+    }
+
+    /**
+     * Must hold the write lock.
+     */
+    private void updateWeight() {
+        weight = (int) Math.min((long) ordinals.size() + tagCount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns whether {@code count} entities, the lowest of which has the given reference, can be
+     * appended without renumbering. Must hold the write lock.
+     */
+    private boolean fitsAfterLast(long lowestRef, int count) {
+        return (nextOrdinal == 0 || lowestRef > refs[nextOrdinal - 1]) && count <= Integer.MAX_VALUE - nextOrdinal;
+    }
+
+    /**
+     * Assigns the next ordinal to an entity whose reference is greater than every indexed one.
+     * Must hold the write lock.
+     */
+    private int nextOrdinal(long entityRef) {
+        if (nextOrdinal == refs.length) {
+            refs = Arrays.copyOf(refs, (int) Math.min((long) refs.length * 2, Integer.MAX_VALUE));
+        }
+        refs[nextOrdinal] = entityRef;
+        return nextOrdinal++;
+    }
+
+    /**
+     * Rebuilds the index from scratch, with ordinals assigned in reference order and without the
+     * gaps of removed entities. Must hold the write lock.
+     *
+     * @param tagsByEntity the tags of every entity to index; entities without tags are skipped
+     * @param entityRefs   the reference of every entity to index
+     */
+    private void renumber(Map<IndexedEntity, String[]> tagsByEntity, Map<IndexedEntity, Long> entityRefs) {
+        List<IndexedEntity> sorted = new ArrayList<>(tagsByEntity.size());
+        tagsByEntity.forEach((entity, tags) -> {
+            if (tags.length > 0) {
+                requireRef(entity, entityRefs.get(entity));
+                sorted.add(entity);
+            }
+        });
+        sorted.sort(Comparator.comparingLong(entityRefs::get));
+        ordinals.clear();
+        entities.clear();
+        tagsByOrdinal.clear();
+        postings.clear();
+        tagCount = 0;
+        vocabulary = new TermTrie<>();
+        refs = new long[Math.max(16, sorted.size())];
+        nextOrdinal = 0;
+        for (IndexedEntity entity : sorted) {
+            replace(entity, entityRefs.get(entity), tagsByEntity.get(entity));
+        }
+    }
+
+    private static long requireRef(IndexedEntity entity, Long entityRef) {
+        if (entityRef == null) {
+            throw new IllegalArgumentException("Missing reference of " + entity);
+        }
+        return entityRef;
+    }
+
+    private void addPosting(String key, String value, int ordinal) {
+        Map<String, RoaringBitmap> byValue = postings.computeIfAbsent(key, k -> new HashMap<>());
+        RoaringBitmap bitmap = byValue.get(value);
+        if (bitmap == null) {
+            bitmap = new RoaringBitmap();
+            byValue.put(value, bitmap);
+            TermTrie<RoaringBitmap> values = vocabulary.get(key);
+            if (values == null) {
+                values = new TermTrie<>();
+                vocabulary.put(key, values);
+            }
+            if (value != null) {
+                values.put(value, bitmap);
+            }
+        }
+        bitmap.add(ordinal);
+    }
+
+    private void removePosting(String key, String value, int ordinal) {
+        Map<String, RoaringBitmap> byValue = postings.get(key);
+        if (byValue == null) {
+            return;
+        }
+        RoaringBitmap bitmap = byValue.get(value);
+        if (bitmap == null) {
+            return;
+        }
+        bitmap.remove(ordinal);
+        if (bitmap.isEmpty()) {
+            byValue.remove(value);
+            if (value != null) {
+                vocabulary.get(key).remove(value);
+            }
+            if (byValue.isEmpty()) {
+                postings.remove(key);
+                vocabulary.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.tagservice.search;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Character trie mapping terms to values, with children kept sorted so that walks visit terms in
+ * lexicographic order.
+ * <p>
+ * Besides exact lookups the trie answers fuzzy lookups by walking it in step with a
+ * {@link LevenshteinAutomaton}: a subtree is skipped as soon as the automaton rejects its prefix,
+ * so only a small fraction of the vocabulary is visited instead of computing the edit distance to
+ * every term. Not thread-safe.
+ *
+ * @param <V> the value type
+ */
+public final class TermTrie<V> {
+
+    /**
+     * Receives the terms accepted by a fuzzy lookup.
+     */
+    @FunctionalInterface
+    public interface FuzzyMatchConsumer<V> {
+        void accept(String term, int distance, V value);
+    }
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private static final class Node<V> {
+        char[] labels = NO_LABELS;
+        @SuppressWarnings("unchecked")
+        Node<V>[] children = (Node<V>[]) NO_CHILDREN;
+        V value;
+
+        Node<V> child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node<V> getOrAddChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node<V> child = new Node<>();
+            char[] newLabels = new char[labels.length + 1];
+            @SuppressWarnings("unchecked")
+            Node<V>[] newChildren = (Node<V>[]) new Node<?>[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = child;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            @SuppressWarnings("unchecked")
+            Node<V>[] newChildren = (Node<V>[]) new Node<?>[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return value == null && labels.length == 0;
+        }
+    }
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value of {@code term}, or null if the term is not present.
+     */
+    public V get(String term) {
+        Node<V> node = root;
+        for (int i = 0; i < term.length() && node != null; i++) {
+            node = node.child(term.charAt(i));
+        }
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Associates {@code value}, which must not be null, with {@code term}.
+     */
+    public void put(String term, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        Node<V> node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.getOrAddChild(term.charAt(i));
+        }
+        if (node.value == null) {
+            size++;
+        }
+        node.value = value;
+    }
+
+    /**
+     * Removes {@code term} and the nodes only it used.
+     *
+     * @return the removed value, or null if the term was not present
+     */
+    public V remove(String term) {
+        Node<V>[] path = pathTo(term);
+        if (path == null || path[term.length()].value == null) {
+            return null;
+        }
+        Node<V> node = path[term.length()];
+        V removed = node.value;
+        node.value = null;
+        size--;
+        for (int i = term.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(term.charAt(i - 1));
+        }
+        return removed;
+    }
+
+    /**
+     * Calls {@code consumer} for every term in lexicographic order.
+     */
+    public void forEach(BiConsumer<String, V> consumer) {
+        forEach(root, new StringBuilder(), consumer);
+    }
+
+    /**
+     * Calls {@code consumer} for every term the automaton accepts, in lexicographic order.
+     */
+    public void fuzzyMatch(LevenshteinAutomaton automaton, FuzzyMatchConsumer<V> consumer) {
+        fuzzyMatch(root, automaton.start(), automaton, new StringBuilder(), consumer);
+    }
+
+    private void fuzzyMatch(Node<V> node, int[] state, LevenshteinAutomaton automaton, StringBuilder prefix,
+                            FuzzyMatchConsumer<V> consumer) {
+        if (node.value != null) {
+            int distance = automaton.distance(state);
+            if (distance >= 0) {
+                consumer.accept(prefix.toString(), distance, node.value);
+            }
+        }
+        for (int i = 0; i < node.labels.length; i++) {
+            int[] next = automaton.step(state, node.labels[i]);
+            if (next != null) {
+                prefix.append(node.labels[i]);
+                fuzzyMatch(node.children[i], next, automaton, prefix, consumer);
+                prefix.setLength(prefix.length() - 1);
+            }
+        }
+    }
+
+    private void forEach(Node<V> node, StringBuilder prefix, BiConsumer<String, V> consumer) {
+        if (node.value != null) {
+            consumer.accept(prefix.toString(), node.value);
+        }
+        for (int i = 0; i < node.labels.length; i++) {
+            prefix.append(node.labels[i]);
+            forEach(node.children[i], prefix, consumer);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<V>[] pathTo(String term) {
+        Node<V>[] path = (Node<V>[]) new Node<?>[term.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].child(term.charAt(i));
+            if (path[i + 1] == null) {
+                return null;
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,94 @@
+package com.tagservice.service;
+
+import com.tagservice.audit.AuditHistoryCursor;
+import com.tagservice.dto.OrganizationAuditDto;
+import com.tagservice.enums.ApiErrorType;
+import com.tagservice.exception.ApiException;
+import com.tagservice.repository.OrganizationAuditRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Service for reading an organization's audited changes by time range.
+ * <p>
+ * Ranges are bounded by {@code tagservice.audit.history.max-range}, so a request only ever
+ * touches the few monthly partitions of {@code organizations_audit} that overlap it. Results are
+ * ordered by {@code (created_at, audit_id)} and returned in keyset pages (see
+ * {@link AuditHistoryCursor}).
+ */
+@Service
+public class OrganizationHistoryService {
+
+    private final OrganizationAuditRepository organizationAuditRepository;
+    private final int maxLimit;
+    private final Duration maxRange;
+
+    /**
+     * One page of history.
+     *
+     * @param changes    the audit rows of the page, oldest first
+     * @param nextCursor the cursor of the next page, or null if this is the last one
+     */
+    public record Page(List<OrganizationAuditDto> changes, String nextCursor) {
+    }
+
+    public OrganizationHistoryService(OrganizationAuditRepository organizationAuditRepository,
+                                      @Value("${tagservice.audit.history.max-limit:1000}") int maxLimit,
+                                      @Value("${tagservice.audit.history.max-range:P366D}") Duration maxRange) {
+        this.organizationAuditRepository = organizationAuditRepository;
+        this.maxLimit = maxLimit;
+        this.maxRange = maxRange;
+    }
+
+    /**
+     * Returns one page of the changes of an organization made at or after {@code from} and
+     * before {@code to}.
+     *
+     * @param cursor the {@link Page#nextCursor()} of the previous page, or null for the first page
+     * @throws ApiException if the range, cursor or limit is invalid
+     */
+    @Transactional(readOnly = true)
+    public Page getHistory(long organizationId, Instant from, Instant to, String cursor, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "Limit must be between 1 and " + maxLimit + ".");
+        }
+        if (!from.isBefore(to)) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "from must be before to.");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "The time range must not exceed " + maxRange.toDays() + " days.");
+        }
+        // Audit timestamps have microsecond precision
+        from = from.truncatedTo(ChronoUnit.MICROS);
+        AuditHistoryCursor after = cursor != null ? decodeCursor(cursor) : new AuditHistoryCursor(from, 0);
+
+        List<OrganizationAuditDto> changes = organizationAuditRepository.findHistory(organizationId, from, to,
+                after.createdAt(), after.auditId(), limit + 1);
+        String nextCursor = null;
+        if (changes.size() > limit) {
+            changes = changes.subList(0, limit);
+            OrganizationAuditDto last = changes.get(limit - 1);
+            nextCursor = new AuditHistoryCursor(last.getCreatedAt().toInstant(), last.getAuditId()).encode();
+        }
+        return new Page(changes, nextCursor);
+    }
+
+    private static AuditHistoryCursor decodeCursor(String cursor) {
+        try {
+            return AuditHistoryCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    ex.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.tagservice.service;
 
+import com.tagservice.dto.error.OrganizationDto;
 import com.tagservice.model.Organization;
 import com.tagservice.repository.OrganizationRepository;
 import com.tagservice.request.OrganizationCreateRequest;
@@ -8,6 +9,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Service for organization-related operations.
  */
@@ -46,6 +50,40 @@ public class OrganizationService {
         return organizationRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new EntityNotFoundException("Organization not found with id: " + id));
     }
-}
 
+    /**
+     * Fetches the existence status (ID and deletion timestamp) of an organization, active or
+     * soft-deleted, through a projection, without loading the entity.
+     *
+     * @param id the organization ID
+     * @return the organization status, or empty if no organization has this ID
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrganizationDto> getOrganizationStatus(Long id) {
+        return organizationRepository.findStatusById(id);
+    }
 
+    /**
+     * Checks whether an organization exists, including soft-deleted ones.
+     */
+    @Transactional(readOnly = true)
+    public boolean organizationExists(Long id) {
+        return organizationRepository.existsById(id);
+    }
+
+    /**
+     * Counts all organizations, including soft-deleted ones.
+     */
+    @Transactional(readOnly = true)
+    public long countAllOrganizations() {
+        return organizationRepository.count();
+    }
+
+    /**
+     * Returns the IDs of all organizations, including soft-deleted ones.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getAllOrganizationIds() {
+        return organizationRepository.findAllIds();
+    }
+}
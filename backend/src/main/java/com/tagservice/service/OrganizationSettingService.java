@@ -0,0 +1,48 @@
+package com.tagservice.service;
+
+import com.tagservice.repository.OrganizationSettingRepository;
+import com.tagservice.settings.TenantTagRules;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for tenant settings operations.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrganizationSettingService {
+
+    /**
+     * Version reported for organizations without a settings row.
+     */
+    public static final int NO_SETTINGS_VERSION = 0;
+
+    private final OrganizationSettingRepository organizationSettingRepository;
+
+    /**
+     * Loads and compiles the tag rules of an organization, falling back to the defaults
+     * when it has no settings row.
+     *
+     * @param organizationId the organization ID
+     * @return the compiled rules
+     */
+    @Transactional(readOnly = true)
+    public TenantTagRules loadTagRules(Long organizationId) {
+        return organizationSettingRepository.findByOrganizationId(organizationId)
+                .map(TenantTagRules::compile)
+                .orElse(TenantTagRules.DEFAULTS);
+    }
+
+    /**
+     * Fetches the current version of an organization's settings.
+     *
+     * @param organizationId the organization ID
+     * @return the version, or {@link #NO_SETTINGS_VERSION} when it has no settings row
+     */
+    @Transactional(readOnly = true)
+    public int getSettingsVersion(Long organizationId) {
+        return organizationSettingRepository.findVersionByOrganizationId(organizationId)
+                .orElse(NO_SETTINGS_VERSION);
+    }
+}
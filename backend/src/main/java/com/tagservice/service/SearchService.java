@@ -0,0 +1,302 @@
+package com.tagservice.service;
+
+import com.tagservice.dto.EntityRefDto;
+import com.tagservice.dto.TagDto;
+import com.tagservice.enums.ApiErrorType;
+import com.tagservice.exception.ApiException;
+import com.tagservice.model.SearchMode;
+import com.tagservice.replica.PrimaryReads;
+import com.tagservice.repository.TagDictionary;
+import com.tagservice.repository.TagRepository;
+import com.tagservice.search.IndexedEntity;
+import com.tagservice.search.PatternQuery;
+import com.tagservice.search.SearchCursor;
+import com.tagservice.search.SearchHit;
+import com.tagservice.search.TagQuery;
+import com.tagservice.search.TagSearchIndex;
+import com.tagservice.search.TenantTagIndex;
+import com.tagservice.settings.TenantSettingsCache;
+import com.tagservice.settings.TenantTagRules;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Service for searching entities by tag, interpreting the query according to the tenant's
+ * {@link SearchMode}.
+ * <p>
+ * EXACT and FUZZY searches run against the tenant's in-memory {@link TenantTagIndex}, FUZZY ones
+ * by matching the query against the index's vocabulary with Levenshtein automata. The database is only
+ * touched to build the index on a tenant's first search and to reload entities changed since
+ * the previous search, both in a read-only transaction.
+ * <p>
+ * PARTIAL and WILDCARD searches are translated into a {@link PatternQuery} and answered by the
+ * database from the trigram indexes on tag keys and values. Patterns the indexes cannot serve
+ * are rejected before they reach the database.
+ * <p>
+ * Results of every mode are ordered by entity reference and returned in pages, each continuing
+ * after the last reference of the previous one (see {@link SearchCursor}). Exports return all
+ * results without holding them in memory: EXACT, PARTIAL and WILDCARD exports stream from a
+ * single database cursor, FUZZY ones page through the in-memory index, since only the index can
+ * expand fuzzy terms.
+ */
+@Service
+public class SearchService {
+
+    /**
+     * SQLState of a statement canceled by {@code statement_timeout} or a JDBC query timeout.
+     */
+    private static final String QUERY_CANCELED = "57014";
+
+    private final TagSearchIndex tagSearchIndex;
+    private final TagRepository tagRepository;
+    private final TagDictionary tagDictionary;
+    private final TenantSettingsCache tenantSettingsCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxLimit;
+    private final int maxPatternLength;
+    private final int maxWildcards;
+    private final long patternStatementTimeoutMs;
+    private final int fuzzyMaxEdits;
+    private final int fuzzyMaxExpansions;
+    private final long exportStatementTimeoutMs;
+    private final int exportBatchSize;
+
+    /**
+     * One page of search results.
+     *
+     * @param results    the entities of the page
+     * @param nextCursor the cursor of the next page, or null if this is the last one
+     */
+    public record Page(List<EntityRefDto> results, String nextCursor) {
+    }
+
+    /**
+     * A validated export that has yet to run.
+     */
+    @FunctionalInterface
+    public interface Export {
+
+        /**
+         * Passes every matching entity to {@code sink}, in reference order.
+         */
+        void run(Consumer<EntityRefDto> sink);
+    }
+
+    public SearchService(TagSearchIndex tagSearchIndex,
+                         TagRepository tagRepository,
+                         TagDictionary tagDictionary,
+                         TenantSettingsCache tenantSettingsCache,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${tagservice.search.max-limit:1000}") int maxLimit,
+                         @Value("${tagservice.search.pattern.max-length:100}") int maxPatternLength,
+                         @Value("${tagservice.search.pattern.max-wildcards:4}") int maxWildcards,
+                         @Value("${tagservice.search.pattern.statement-timeout-ms:2000}")
+                         long patternStatementTimeoutMs,
+                         @Value("${tagservice.search.fuzzy.max-edits:2}") int fuzzyMaxEdits,
+                         @Value("${tagservice.search.fuzzy.max-expansions:50}") int fuzzyMaxExpansions,
+                         @Value("${tagservice.search.export.statement-timeout-ms:30000}") long exportStatementTimeoutMs,
+                         @Value("${tagservice.search.export.batch-size:1000}") int exportBatchSize) {
+        this.tagSearchIndex = tagSearchIndex;
+        this.tagRepository = tagRepository;
+        this.tagDictionary = tagDictionary;
+        this.tenantSettingsCache = tenantSettingsCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxLimit = maxLimit;
+        this.maxPatternLength = maxPatternLength;
+        this.maxWildcards = maxWildcards;
+        this.patternStatementTimeoutMs = patternStatementTimeoutMs;
+        this.fuzzyMaxEdits = fuzzyMaxEdits;
+        this.fuzzyMaxExpansions = fuzzyMaxExpansions;
+        this.exportStatementTimeoutMs = exportStatementTimeoutMs;
+        this.exportBatchSize = exportBatchSize;
+    }
+
+    /**
+     * Finds one page of the entities that carry a matching tag for every term of the query.
+     *
+     * @param tenantId the tenant
+     * @param query    the query, e.g. {@code env:prod region:eu}; see {@link TagQuery}
+     * @param cursor   the {@link Page#nextCursor()} of the previous page, or null for the first page
+     * @param limit    the maximum number of entities to return
+     * @return the matching entities, ordered by entity reference
+     * @throws ApiException if the query, cursor or limit is invalid or a pattern is rejected
+     */
+    public Page search(long tenantId, String query, String cursor, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "Limit must be between 1 and " + maxLimit + ".");
+        }
+        long afterEntityRef = decodeCursor(cursor);
+        TenantTagRules rules = tenantSettingsCache.getRules(tenantId);
+        TagQuery tagQuery = parse(query, rules);
+
+        // One extra hit tells whether there is a next page
+        int fetch = limit + 1;
+        List<SearchHit> hits = switch (rules.getSearchMode()) {
+            case EXACT -> loadedIndex(tenantId).search(tagQuery, afterEntityRef, fetch);
+            case FUZZY -> loadedIndex(tenantId).searchFuzzy(tagQuery, fuzzyMaxEdits, fuzzyMaxExpansions,
+                    afterEntityRef, fetch);
+            case PARTIAL, WILDCARD -> searchPatterns(tenantId, translate(tagQuery, rules.getSearchMode()),
+                    afterEntityRef, fetch);
+        };
+
+        String nextCursor = null;
+        if (hits.size() > limit) {
+            hits = hits.subList(0, limit);
+            nextCursor = SearchCursor.encode(hits.get(limit - 1).entityRef());
+        }
+        List<EntityRefDto> results = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            results.add(new EntityRefDto(hit.entityType(), hit.entityId()));
+        }
+        return new Page(results, nextCursor);
+    }
+
+    /**
+     * Validates a query and returns an export of all of its results. Nothing is read before the
+     * export runs, so it can run after the response has been started.
+     *
+     * @throws ApiException if the query is invalid or a pattern is rejected
+     */
+    public Export export(long tenantId, String query) {
+        TenantTagRules rules = tenantSettingsCache.getRules(tenantId);
+        TagQuery tagQuery = parse(query, rules);
+        if (rules.getSearchMode() == SearchMode.FUZZY) {
+            return sink -> exportFromIndex(tenantId, tagQuery, sink);
+        }
+        PatternQuery patternQuery = rules.getSearchMode() == SearchMode.EXACT
+                ? PatternQuery.exact(tagQuery)
+                : translate(tagQuery, rules.getSearchMode());
+        return sink -> readOnlyTransaction.executeWithoutResult(status ->
+                tagRepository.searchByPatterns(tenantId, patternQuery, -1, 0, exportStatementTimeoutMs,
+                        (entityRef, entityType, entityId) -> sink.accept(new EntityRefDto(entityType, entityId))));
+    }
+
+    private void exportFromIndex(long tenantId, TagQuery query, Consumer<EntityRefDto> sink) {
+        long afterEntityRef = -1;
+        List<SearchHit> hits;
+        do {
+            hits = loadedIndex(tenantId).searchFuzzy(query, fuzzyMaxEdits, fuzzyMaxExpansions, afterEntityRef,
+                    exportBatchSize);
+            for (SearchHit hit : hits) {
+                sink.accept(new EntityRefDto(hit.entityType(), hit.entityId()));
+            }
+            if (!hits.isEmpty()) {
+                afterEntityRef = hits.get(hits.size() - 1).entityRef();
+            }
+        } while (hits.size() == exportBatchSize);
+    }
+
+    private static TagQuery parse(String query, TenantTagRules rules) {
+        TagQuery tagQuery = TagQuery.parse(query, rules::normalizeKey);
+        if (tagQuery == null) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "Query must contain at least one term of the form key or key:value.");
+        }
+        return tagQuery;
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        try {
+            return SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    ex.getMessage());
+        }
+    }
+
+    private PatternQuery translate(TagQuery query, SearchMode mode) {
+        try {
+            return mode == SearchMode.WILDCARD
+                    ? PatternQuery.wildcard(query, maxPatternLength, maxWildcards)
+                    : PatternQuery.partial(query, maxPatternLength);
+        } catch (IllegalArgumentException ex) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    ex.getMessage());
+        }
+    }
+
+    private List<SearchHit> searchPatterns(long tenantId, PatternQuery query, long afterEntityRef, int limit) {
+        List<SearchHit> hits = new ArrayList<>(Math.min(limit, 64));
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> tagRepository.searchByPatterns(tenantId, query,
+                    afterEntityRef, limit, patternStatementTimeoutMs,
+                    (entityRef, entityType, entityId) -> hits.add(new SearchHit(entityRef, entityType, entityId))));
+            return hits;
+        } catch (RuntimeException ex) {
+            if (!isQueryCanceled(ex)) {
+                throw ex;
+            }
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "Search took too long; use more specific patterns.");
+        }
+    }
+
+    /**
+     * Returns whether a statement was canceled by its timeout. Spring translates PostgreSQL's
+     * cancellation into a generic resource failure rather than a {@code QueryTimeoutException},
+     * and it can arrive wrapped further, e.g. by the transaction, so the whole cause chain is
+     * searched for the SQLState.
+     */
+    private static boolean isQueryCanceled(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && QUERY_CANCELED.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TenantTagIndex loadedIndex(long tenantId) {
+        TenantTagIndex index = tagSearchIndex.forTenant(tenantId);
+        if (index.needsRefresh()) {
+            PrimaryReads.run(() -> readOnlyTransaction.executeWithoutResult(status -> refresh(tenantId, index)));
+            tagSearchIndex.reweigh(tenantId, index);
+        }
+        return index;
+    }
+
+    private void refresh(long tenantId, TenantTagIndex index) {
+        index.ensureLoaded(sink -> tagRepository.streamByTenant(tenantId, sink::add));
+        Set<IndexedEntity> changed = index.drainDirty();
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, List<String>> idsByType = new LinkedHashMap<>();
+            Map<IndexedEntity, List<TagDto>> tagsByEntity = new HashMap<>();
+            Map<IndexedEntity, Long> entityRefs = new HashMap<>();
+            for (IndexedEntity entity : changed) {
+                idsByType.computeIfAbsent(entity.entityType(), type -> new ArrayList<>()).add(entity.entityId());
+                tagsByEntity.put(entity, new ArrayList<>());
+            }
+            idsByType.forEach((entityType, entityIds) -> {
+                tagDictionary.findEntities(tenantId, entityType, entityIds).forEach((entityId, entityRef) ->
+                        entityRefs.put(new IndexedEntity(entityType, entityId), entityRef));
+                tagRepository.findByEntityIds(tenantId, entityType, entityIds,
+                        (entityId, key, value) -> tagsByEntity.get(new IndexedEntity(entityType, entityId))
+                                .add(new TagDto(key, value)));
+            });
+            index.apply(tagsByEntity, entityRefs);
+        } catch (RuntimeException ex) {
+            changed.forEach(index::markDirty);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package com.tagservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tagservice.cache.EntityTagCache;
+import com.tagservice.cache.EntityTagKey;
+import com.tagservice.cache.EntityTags;
+import com.tagservice.dto.EntityRefDto;
+import com.tagservice.dto.TagDto;
+import com.tagservice.dto.error.ErrorResponse;
+import com.tagservice.enums.ApiErrorType;
+import com.tagservice.event.TagsChangedEvent;
+import com.tagservice.exception.ApiException;
+import com.tagservice.replica.PrimaryReads;
+import com.tagservice.repository.TagBulkCopy;
+import com.tagservice.repository.TagRepository;
+import com.tagservice.request.TagAddRequest;
+import com.tagservice.request.TagBulkLine;
+import com.tagservice.response.EntityTagsResponse;
+import com.tagservice.response.TagBulkResponseLine;
+import com.tagservice.settings.TagViolation;
+import com.tagservice.settings.TenantSettingsCache;
+import com.tagservice.settings.TenantTagRules;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+/**
+ * Service for tag operations.
+ * <p>
+ * Reads are served from {@link EntityTagCache} where possible and only open a read-only
+ * transaction for the entities that miss. Every write invalidates the affected entries once it
+ * commits, on this node through a {@link TagsChangedEvent} and on all others through a
+ * notification on the invalidation channel.
+ * <p>
+ * Each entity has a tag version that advances whenever its tags change; it is the basis for
+ * conditional requests. Reads load the version before the tags, so a concurrent write can make
+ * the version older than the tags but never newer, and a client is never told its stale copy is
+ * current.
+ */
+@Service
+public class TagService {
+
+    private static final String INSERT = "INSERT";
+    private static final String DELETE = "DELETE";
+
+    private final TagRepository tagRepository;
+    private final TenantSettingsCache tenantSettingsCache;
+    private final EntityTagCache entityTagCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchGetEntities;
+
+    public TagService(TagRepository tagRepository,
+                      TenantSettingsCache tenantSettingsCache,
+                      EntityTagCache entityTagCache,
+                      ApplicationEventPublisher eventPublisher,
+                      PlatformTransactionManager transactionManager,
+                      ObjectMapper objectMapper,
+                      @Value("${tagservice.tags.batch-get.max-entities:500}") int maxBatchGetEntities) {
+        this.tagRepository = tagRepository;
+        this.tenantSettingsCache = tenantSettingsCache;
+        this.entityTagCache = entityTagCache;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.maxBatchGetEntities = maxBatchGetEntities;
+    }
+
+    /**
+     * Result of attaching tags to an entity.
+     *
+     * @param tags    the stored tag of every requested key: the requested value for a new key,
+     *                the existing value otherwise
+     * @param added   number of tags that did not exist before
+     * @param version the entity's tag version after the write
+     */
+    public record AddTagsResult(List<TagDto> tags, int added, long version) {
+    }
+
+    /**
+     * Idempotently attaches tags to an entity with one insert statement.
+     * <p>
+     * Tags are validated against the tenant's compiled rules, keys are normalized, and duplicate
+     * keys within the request keep their first occurrence. The entity's version row is locked
+     * first, so that concurrent writers to the entity cannot exceed the tag limit together.
+     *
+     * @param tenantId     the tenant
+     * @param request      the tags to attach
+     * @param versionCheck if not null, the write only happens if it accepts the current version
+     * @return the stored tags, how many were new and the resulting version
+     * @throws ApiException if a tag violates the tenant's rules, the entity would have too many tags
+     *                      or the version check fails
+     */
+    @Transactional
+    public AddTagsResult addTags(long tenantId, TagAddRequest request, LongPredicate versionCheck) {
+        TenantTagRules rules = tenantSettingsCache.getRules(tenantId);
+        List<TagDto> tags = validateAndNormalize(rules, request);
+        String entityType = request.getEntityType();
+        String entityId = request.getEntityId();
+        long version = versionCheck != null
+                ? checkVersion(tenantId, entityType, entityId, versionCheck)
+                : tagRepository.lockVersion(tenantId, entityType, entityId);
+
+        TagRepository.InsertResult result = tagRepository.insertTags(tenantId,
+                entityType, entityId, tags, rules.getMaxTagCountPerEntity());
+        if (!result.allowed()) {
+            throw tooManyTags(rules);
+        }
+        if (result.inserted() > 0) {
+            version = tagsChanged(INSERT, new TagsChangedEvent(tenantId, entityType, entityId));
+        }
+        return new AddTagsResult(result.tags(), result.inserted(), version);
+    }
+
+    /**
+     * Removes a tag from an entity. Removing a tag that does not exist is not an error.
+     *
+     * @param key          the tag key; normalized like keys on write
+     * @param value        if not null, the tag is only removed if it has this value
+     * @param versionCheck if not null, the delete only happens if it accepts the current version
+     * @return the entity's tag version after the delete
+     * @throws ApiException if the version check fails
+     */
+    @Transactional
+    public long deleteTag(long tenantId, String entityType, String entityId, String key, String value,
+                          LongPredicate versionCheck) {
+        long version = checkVersion(tenantId, entityType, entityId, versionCheck);
+        String normalizedKey = tenantSettingsCache.getRules(tenantId).normalizeKey(key);
+        int deleted = tagRepository.deleteTag(tenantId, entityType, entityId, normalizedKey, value);
+        if (deleted > 0) {
+            return tagsChanged(DELETE, new TagsChangedEvent(tenantId, entityType, entityId));
+        }
+        return versionCheck != null ? version : tagRepository.findVersion(tenantId, entityType, entityId);
+    }
+
+    /**
+     * Returns all tags of one entity, ordered by key, with their version. An entity without tags
+     * has an empty list.
+     */
+    public EntityTags getTags(long tenantId, String entityType, String entityId) {
+        return entityTagCache.get(new EntityTagKey(tenantId, entityType, entityId),
+                () -> PrimaryReads.call(() -> readOnlyTransaction.execute(
+                        status -> loadTags(tenantId, entityType, entityId))));
+    }
+
+    /**
+     * Returns the tag version of one entity without loading its tags.
+     */
+    public long getTagVersion(long tenantId, String entityType, String entityId) {
+        EntityTags cached = entityTagCache.getIfPresent(new EntityTagKey(tenantId, entityType, entityId));
+        if (cached != null) {
+            return cached.version();
+        }
+        Long version = readOnlyTransaction.execute(
+                status -> tagRepository.findVersion(tenantId, entityType, entityId));
+        return version != null ? version : 0;
+    }
+
+    private EntityTags loadTags(long tenantId, String entityType, String entityId) {
+        long version = tagRepository.findVersion(tenantId, entityType, entityId);
+        List<TagDto> tags = new ArrayList<>();
+        tagRepository.findByEntityIds(tenantId, entityType, List.of(entityId),
+                (id, key, value) -> tags.add(new TagDto(key, value)));
+        return new EntityTags(version, tags);
+    }
+
+    /**
+     * Locks the entity's version and applies the caller's precondition to it.
+     *
+     * @return the current version, or -1 if there is no precondition
+     */
+    private long checkVersion(long tenantId, String entityType, String entityId, LongPredicate versionCheck) {
+        if (versionCheck == null) {
+            return -1;
+        }
+        long version = tagRepository.lockVersion(tenantId, entityType, entityId);
+        if (!versionCheck.test(version)) {
+            throw new ApiException(HttpServletResponse.SC_PRECONDITION_FAILED, ApiErrorType.PRECONDITION_FAILED,
+                    "The entity's tags have changed; the current version is " + version + ".");
+        }
+        return version;
+    }
+
+    /**
+     * Streams the tags of many entities. Cached entities are taken from the cache; the rest are
+     * loaded from the primary with one query per distinct entity type and cached.
+     * <p>
+     * Each requested entity is passed to {@code consumer} exactly once, in request order; entities
+     * without tags are passed with an empty list and duplicate references are answered once. All
+     * entities are resolved before the first one is passed on, so a failed load reaches the
+     * caller before anything was written.
+     *
+     * @param tenantId the tenant
+     * @param entities the entities to look up
+     * @param consumer receives the tags of each entity
+     * @throws ApiException if more entities are requested than allowed
+     */
+    public void streamTagsForEntities(long tenantId, List<EntityRefDto> entities,
+                                      Consumer<EntityTagsResponse> consumer) {
+        if (entities.size() > maxBatchGetEntities) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "At most " + maxBatchGetEntities + " entities can be requested at once.");
+        }
+        // Misses keep their slot with a null value until they are loaded
+        Map<EntityTagKey, EntityTagsResponse> results = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> missTokensByType = new LinkedHashMap<>();
+        for (EntityRefDto entity : entities) {
+            EntityTagKey key = new EntityTagKey(tenantId, entity.getEntityType(), entity.getEntityId());
+            if (results.containsKey(key)) {
+                continue;
+            }
+            EntityTags cached = entityTagCache.getIfPresent(key);
+            if (cached != null) {
+                results.put(key, new EntityTagsResponse(key.entityType(), key.entityId(), cached.tags(),
+                        cached.version()));
+            } else {
+                results.put(key, null);
+                missTokensByType.computeIfAbsent(key.entityType(), type -> new LinkedHashMap<>())
+                        .put(key.entityId(), entityTagCache.readToken(key));
+            }
+        }
+        if (!missTokensByType.isEmpty()) {
+            PrimaryReads.run(() -> readOnlyTransaction.executeWithoutResult(
+                    status -> missTokensByType.forEach((entityType, tokens) ->
+                            loadMisses(tenantId, entityType, tokens, loaded -> results.put(
+                                    new EntityTagKey(tenantId, entityType, loaded.getEntityId()), loaded)))));
+        }
+        results.values().forEach(consumer);
+    }
+
+    /**
+     * Loads and caches the tags of uncached entities of one type.
+     *
+     * @param tokens the cache read token of each entity ID
+     */
+    private void loadMisses(long tenantId, String entityType, Map<String, Long> tokens,
+                            Consumer<EntityTagsResponse> consumer) {
+        Map<String, Long> versions = tagRepository.findVersions(tenantId, entityType, tokens.keySet());
+        Set<String> entityIds = new LinkedHashSet<>(tokens.keySet());
+        EntityGrouper grouper = new EntityGrouper(entityType, entityIds, versions, loaded -> {
+            entityTagCache.put(new EntityTagKey(tenantId, entityType, loaded.getEntityId()),
+                    new EntityTags(loaded.getVersion(), loaded.getTags()), tokens.get(loaded.getEntityId()));
+            consumer.accept(loaded);
+        });
+        tagRepository.findByEntityIds(tenantId, entityType, tokens.keySet(), grouper);
+        grouper.finish();
+    }
+
+    /**
+     * Turns tag rows grouped by entity into one {@link EntityTagsResponse} per entity.
+     */
+    private static final class EntityGrouper implements TagRepository.TagRowHandler {
+
+        private final String entityType;
+        private final Set<String> pending;
+        private final Map<String, Long> versions;
+        private final Consumer<EntityTagsResponse> consumer;
+        private String currentId;
+        private List<TagDto> currentTags;
+
+        EntityGrouper(String entityType, Set<String> entityIds, Map<String, Long> versions,
+                      Consumer<EntityTagsResponse> consumer) {
+            this.entityType = entityType;
+            this.pending = entityIds;
+            this.versions = versions;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void onTag(String entityId, String key, String value) {
+            if (!entityId.equals(currentId)) {
+                emitCurrent();
+                currentId = entityId;
+                currentTags = new ArrayList<>();
+            }
+            currentTags.add(new TagDto(key, value));
+        }
+
+        void finish() {
+            emitCurrent();
+            for (String entityId : pending) {
+                emit(entityId, List.of());
+            }
+        }
+
+        private void emitCurrent() {
+            if (currentId != null) {
+                pending.remove(currentId);
+                emit(currentId, currentTags);
+                currentId = null;
+            }
+        }
+
+        private void emit(String entityId, List<TagDto> tags) {
+            long version = versions.getOrDefault(entityId, 0L);
+            consumer.accept(new EntityTagsResponse(entityType, entityId, tags, version));
+        }
+    }
+
+    /**
+     * Result of a bulk upload.
+     *
+     * @param received   number of non-blank input lines; the sum of all other counts
+     * @param rejected   number of lines that were reported as rejected
+     * @param duplicates number of lines that were reported as duplicates of an earlier line
+     * @param conflicts  number of lines that were reported as conflicting with a stored tag
+     * @param unchanged  number of lines whose tag was already stored with the same value
+     * @param inserted   number of tags that did not exist before
+     */
+    public record BulkResult(long received, long rejected, long duplicates, long conflicts, long unchanged,
+                             long inserted) {
+    }
+
+    /**
+     * Idempotently stores tags read from an NDJSON stream, one {@link TagBulkLine} per line.
+     * <p>
+     * Lines are parsed and validated one at a time and valid rows are streamed to a staging table
+     * with {@code COPY}, so memory use is independent of the upload size. Afterwards, the staged
+     * entities' version rows are locked like in {@link #addTags}, entities that would exceed the
+     * tag limit are dropped and the rest is merged into {@code tags} in one statement. Every line
+     * that is not stored, other than one repeating a stored tag, is passed to {@code notStored} as
+     * soon as it is known: invalid lines and lines over the tag limit as rejected, a key given again
+     * for the same entity as a duplicate of its first line, and a key the entity already has with
+     * another value as a conflict; the stored value is kept.
+     * Everything runs in one transaction, so tenant scoping for Row-Level Security applies to all
+     * statements and a failure stores nothing.
+     *
+     * @param tenantId the tenant
+     * @param lines    the NDJSON input
+     * @param notStored receives a {@link TagBulkResponseLine#REJECTED}, {@link TagBulkResponseLine#DUPLICATE}
+     *                  or {@link TagBulkResponseLine#CONFLICT} line per input line that was not stored
+     * @return counts of the received lines by outcome
+     * @throws IOException if the input cannot be read or the copy fails
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public BulkResult bulkAddTags(long tenantId, BufferedReader lines,
+                                  Consumer<TagBulkResponseLine> notStored) throws IOException {
+        TenantTagRules rules = tenantSettingsCache.getRules(tenantId);
+        AtomicLong rejected = new AtomicLong();
+        long received = 0;
+        long lineNumber = 0;
+
+        tagRepository.createBulkStaging();
+        try (TagBulkCopy copy = tagRepository.openBulkCopy()) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                received++;
+                TagBulkLine tag = parseLine(line);
+                if (tag == null) {
+                    rejected.incrementAndGet();
+                    notStored.accept(rejectedLine(lineNumber, null, "Line is not a valid tag object."));
+                    continue;
+                }
+                TagViolation violation = rules.checkEntity(tag.getEntityType(), tag.getEntityId());
+                if (violation == null) {
+                    violation = rules.checkTag(tag.getKey(), tag.getValue());
+                }
+                if (violation != null) {
+                    rejected.incrementAndGet();
+                    notStored.accept(rejectedLine(lineNumber, violation.getField(), violation.describe(rules)));
+                    continue;
+                }
+                copy.add(lineNumber, tag.getEntityType(), tag.getEntityId(),
+                        rules.normalizeKey(tag.getKey()), tag.getValue());
+            }
+            copy.finish();
+        }
+
+        String tooManyTags = TagViolation.TOO_MANY_TAGS.describe(rules);
+        tagRepository.lockBulkStagingVersions(tenantId);
+        tagRepository.deleteBulkStagingOverLimit(tenantId, rules.getMaxTagCountPerEntity(), rejectedLineNumber -> {
+            rejected.incrementAndGet();
+            notStored.accept(rejectedLine(rejectedLineNumber, TagViolation.TOO_MANY_TAGS.getField(), tooManyTags));
+        });
+        AtomicLong duplicates = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong unchanged = new AtomicLong();
+        String conflict = "Entity already has this key with another value, which is kept.";
+        LongStream.Builder changedEntities = LongStream.builder();
+        long inserted = tagRepository.insertFromBulkStaging(tenantId, (stagedLine, firstLine, outcome) -> {
+            switch (outcome) {
+                case DUPLICATE -> {
+                    duplicates.incrementAndGet();
+                    notStored.accept(bulkLine(TagBulkResponseLine.DUPLICATE, stagedLine, null,
+                            "Same entity and key as line " + firstLine + ", which is used."));
+                }
+                case CONFLICT -> {
+                    conflicts.incrementAndGet();
+                    notStored.accept(bulkLine(TagBulkResponseLine.CONFLICT, stagedLine, "value", conflict));
+                }
+                // Re-sending a stored tag is what makes uploads idempotent, so it is only counted
+                case UNCHANGED -> unchanged.incrementAndGet();
+            }
+        }, changedEntities::add);
+        if (inserted > 0) {
+            // Only entities that received tags change their ETag; a re-upload of stored tags keeps it
+            tagRepository.incrementVersions(tenantId, changedEntities.build().toArray());
+            tagsChanged(INSERT, TagsChangedEvent.forTenant(tenantId));
+        }
+        return new BulkResult(received, rejected.get(), duplicates.get(), conflicts.get(), unchanged.get(), inserted);
+    }
+
+    /**
+     * Announces a committed change and, for a single entity, advances its version.
+     *
+     * @return the entity's new version, or 0 for a tenant-wide change
+     */
+    private long tagsChanged(String operation, TagsChangedEvent event) {
+        long version = event.isTenantWide() ? 0
+                : tagRepository.incrementVersion(event.tenantId(), event.entityType(), event.entityId());
+        tagRepository.notifyTagsChanged(operation, event.tenantId(), event.entityType(), event.entityId());
+        eventPublisher.publishEvent(event);
+        return version;
+    }
+
+    private TagBulkLine parseLine(String line) {
+        try {
+            return objectMapper.readValue(line, TagBulkLine.class);
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+    }
+
+    private static TagBulkResponseLine rejectedLine(long lineNumber, String field, String description) {
+        return bulkLine(TagBulkResponseLine.REJECTED, lineNumber, field, description);
+    }
+
+    private static TagBulkResponseLine bulkLine(String type, long lineNumber, String field, String description) {
+        return TagBulkResponseLine.builder()
+                .type(type)
+                .line(lineNumber)
+                .field(field)
+                .description(description)
+                .build();
+    }
+
+    private List<TagDto> validateAndNormalize(TenantTagRules rules, TagAddRequest request) {
+        List<ErrorResponse.ApiSubError> errors = null;
+        TagViolation entityViolation = rules.checkEntity(request.getEntityType(), request.getEntityId());
+        if (entityViolation != null) {
+            errors = addError(errors, entityViolation.getField(), entityViolation, rules);
+        }
+
+        Map<String, TagDto> byKey = new LinkedHashMap<>();
+        List<TagDto> requestTags = request.getTags();
+        for (int i = 0; i < requestTags.size(); i++) {
+            TagDto tag = requestTags.get(i);
+            TagViolation violation = rules.checkTag(tag.getKey(), tag.getValue());
+            if (violation != null) {
+                errors = addError(errors, "tags[" + i + "]." + violation.getField(), violation, rules);
+                continue;
+            }
+            String key = rules.normalizeKey(tag.getKey());
+            byKey.putIfAbsent(key, new TagDto(key, tag.getValue()));
+        }
+
+        if (errors != null) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, ApiErrorType.VALIDATION_ERROR,
+                    "One or more tags violate the organization's tag settings.", errors);
+        }
+        if (rules.checkTagCount(byKey.size()) != null) {
+            throw tooManyTags(rules);
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private static List<ErrorResponse.ApiSubError> addError(List<ErrorResponse.ApiSubError> errors, String field,
+                                                           TagViolation violation, TenantTagRules rules) {
+        List<ErrorResponse.ApiSubError> result = errors != null ? errors : new ArrayList<>();
+        result.add(ErrorResponse.ApiSubError.builder()
+                .field(field)
+                .type(ApiErrorType.VALIDATION_ERROR.getTypeUri())
+                .description(violation.describe(rules))
+                .build());
+        return result;
+    }
+
+    private static ApiException tooManyTags(TenantTagRules rules) {
+        return new ApiException(HttpServletResponse.SC_CONFLICT, ApiErrorType.VALIDATION_ERROR,
+                TagViolation.TOO_MANY_TAGS.describe(rules));
+    }
+}
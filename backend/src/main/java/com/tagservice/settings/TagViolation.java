@@ -0,0 +1,42 @@
+package com.tagservice.settings;
+
+/**
+ * A tenant tag constraint that a tag write failed.
+ * <p>
+ * Returned by {@link TenantTagRules} instead of an exception or message object so that
+ * validation does not allocate; callers build error details only for rejected tags.
+ */
+public enum TagViolation {
+
+    ENTITY_TYPE_INVALID("entityType", "Entity type must be between 1 and %d characters."),
+    ENTITY_ID_INVALID("entityId", "Entity ID must be between 1 and %d characters."),
+    KEY_TOO_SHORT("key", "Tag key must be at least %d characters."),
+    KEY_TOO_LONG("key", "Tag key must be at most %d characters."),
+    VALUE_TOO_SHORT("value", "Tag value must be at least %d characters."),
+    VALUE_TOO_LONG("value", "Tag value must be at most %d characters."),
+    TOO_MANY_TAGS("tags", "An entity may have at most %d tags.");
+
+    private final String field;
+    private final String descriptionTemplate;
+
+    TagViolation(String field, String descriptionTemplate) {
+        this.field = field;
+        this.descriptionTemplate = descriptionTemplate;
+    }
+
+    /**
+     * The request field the violation refers to.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Human-readable description, filled in with the limit that applies to the tenant.
+     *
+     * @param rules the rules that produced the violation
+     */
+    public String describe(TenantTagRules rules) {
+        return String.format(descriptionTemplate, rules.limitFor(this));
+    }
+}
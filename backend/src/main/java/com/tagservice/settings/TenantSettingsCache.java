@@ -0,0 +1,124 @@
+package com.tagservice.settings;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tagservice.invalidation.InvalidationEvent;
+import com.tagservice.invalidation.InvalidationSubscriber;
+import com.tagservice.replica.PrimaryReads;
+import com.tagservice.service.OrganizationSettingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant cache of compiled {@link TenantTagRules}.
+ * <p>
+ * Entries are refreshed by version: once an entry is older than the refresh interval, a single
+ * caller checks the {@code version} column of {@code tenant_settings}, which the database increments
+ * on every update, and only reloads and recompiles the rules if it changed. Other callers keep
+ * using the current rules meanwhile.
+ * The check runs on the caller's thread, so it happens inside the caller's tenant context and
+ * passes Row-Level Security. Settings changes are also pushed through the invalidation listener.
+ * Checks and loads read from the primary ({@link PrimaryReads}).
+ */
+@Component
+@Slf4j
+public class TenantSettingsCache implements InvalidationSubscriber {
+
+    public static final String CACHE_NAME = "tenant.settings";
+
+    private final OrganizationSettingService organizationSettingService;
+    private final Cache<Long, Entry> cache;
+    private final long refreshIntervalNanos;
+    private final Counter versionCheckCounter;
+    private final Counter recompileCounter;
+
+    public TenantSettingsCache(OrganizationSettingService organizationSettingService,
+                               MeterRegistry meterRegistry,
+                               @Value("${tagservice.tenant-settings-cache.max-size:10000}") long maximumSize,
+                               @Value("${tagservice.tenant-settings-cache.refresh-interval:PT30S}") Duration refreshInterval) {
+        this.organizationSettingService = organizationSettingService;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.versionCheckCounter = meterRegistry.counter("tagservice.tenant-settings.version-checks");
+        this.recompileCounter = meterRegistry.counter("tagservice.tenant-settings.recompiles");
+    }
+
+    /**
+     * Returns the compiled rules of a tenant.
+     *
+     * @param organizationId the tenant's organization ID
+     * @return the rules, never null
+     */
+    public TenantTagRules getRules(long organizationId) {
+        Entry entry = cache.get(organizationId, this::load);
+        long now = System.nanoTime();
+        long nextCheck = entry.nextCheckNanos.get();
+        if (now - nextCheck >= 0 && entry.nextCheckNanos.compareAndSet(nextCheck, now + refreshIntervalNanos)) {
+            entry = refresh(organizationId, entry);
+        }
+        return entry.rules;
+    }
+
+    public void invalidate(long organizationId) {
+        cache.invalidate(organizationId);
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.isFor(InvalidationEvent.TENANT_SETTINGS)) {
+            invalidate(event.organizationId());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        cache.invalidateAll();
+    }
+
+    private Entry load(Long organizationId) {
+        recompileCounter.increment();
+        TenantTagRules rules = PrimaryReads.call(() -> organizationSettingService.loadTagRules(organizationId));
+        return new Entry(rules, System.nanoTime() + refreshIntervalNanos);
+    }
+
+    private Entry refresh(long organizationId, Entry entry) {
+        versionCheckCounter.increment();
+        try {
+            int version = PrimaryReads.call(() -> organizationSettingService.getSettingsVersion(organizationId));
+            if (version == entry.rules.getVersion()) {
+                return entry;
+            }
+            log.debug("Tenant settings of organization {} changed from version {} to {}",
+                    organizationId, entry.rules.getVersion(), version);
+            Entry reloaded = load(organizationId);
+            cache.put(organizationId, reloaded);
+            return reloaded;
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh tenant settings of organization {}, keeping version {}",
+                    organizationId, entry.rules.getVersion(), e);
+            return entry;
+        }
+    }
+
+    private static final class Entry {
+
+        private final TenantTagRules rules;
+        private final AtomicLong nextCheckNanos;
+
+        private Entry(TenantTagRules rules, long nextCheckNanos) {
+            this.rules = rules;
+            this.nextCheckNanos = new AtomicLong(nextCheckNanos);
+        }
+    }
+}
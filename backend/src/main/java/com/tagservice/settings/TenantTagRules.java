@@ -0,0 +1,223 @@
+package com.tagservice.settings;
+
+import com.tagservice.model.OrganizationSetting;
+import com.tagservice.model.SearchMode;
+
+import java.util.Locale;
+
+/**
+ * Immutable, precompiled tag constraints and request rate limit of one tenant, built from its
+ * {@code tenant_settings} row.
+ * <p>
+ * Limits are clamped to the column sizes of the {@code tags} table at compile time, so the
+ * checks on the write path are plain integer comparisons. Lengths are measured in Unicode code
+ * points like PostgreSQL {@code VARCHAR}, but the code point count is only computed when the
+ * UTF-16 length alone cannot decide. None of the checks allocate.
+ */
+public final class TenantTagRules {
+
+    static final int MAX_ENTITY_TYPE_LENGTH = 50;
+    static final int MAX_ENTITY_ID_LENGTH = 255;
+    static final int MAX_KEY_COLUMN_LENGTH = 100;
+
+    /**
+     * Rules for tenants without a {@code tenant_settings} row; mirrors the column defaults.
+     */
+    public static final TenantTagRules DEFAULTS = new TenantTagRules(0, true, true, false, true, false,
+            50, 1, 50, 0, 255, SearchMode.PARTIAL, 100, 200);
+
+    private final int version;
+    private final boolean allowUpsertTag;
+    private final boolean allowRenameTag;
+    private final boolean allowDeleteActiveTag;
+    private final boolean allowColor;
+    private final boolean keyCaseSensitive;
+    private final int maxTagCountPerEntity;
+    private final int minKeyLength;
+    private final int maxKeyLength;
+    private final int minValueLength;
+    private final int maxValueLength;
+    private final SearchMode searchMode;
+    private final int rateLimitPerSecond;
+    private final int rateLimitBurst;
+
+    private TenantTagRules(int version, boolean allowUpsertTag, boolean allowRenameTag,
+                           boolean allowDeleteActiveTag, boolean allowColor, boolean keyCaseSensitive,
+                           int maxTagCountPerEntity, int minKeyLength, int maxKeyLength,
+                           int minValueLength, int maxValueLength, SearchMode searchMode,
+                           int rateLimitPerSecond, int rateLimitBurst) {
+        this.version = version;
+        this.allowUpsertTag = allowUpsertTag;
+        this.allowRenameTag = allowRenameTag;
+        this.allowDeleteActiveTag = allowDeleteActiveTag;
+        this.allowColor = allowColor;
+        this.keyCaseSensitive = keyCaseSensitive;
+        this.maxTagCountPerEntity = Math.max(0, maxTagCountPerEntity);
+        this.minKeyLength = Math.max(1, minKeyLength);
+        this.maxKeyLength = Math.min(MAX_KEY_COLUMN_LENGTH, Math.max(this.minKeyLength, maxKeyLength));
+        this.minValueLength = Math.max(0, minValueLength);
+        this.maxValueLength = Math.max(this.minValueLength, maxValueLength);
+        this.searchMode = searchMode != null ? searchMode : SearchMode.PARTIAL;
+        this.rateLimitPerSecond = Math.max(0, rateLimitPerSecond);
+        this.rateLimitBurst = Math.max(1, rateLimitBurst);
+    }
+
+    /**
+     * Compiles a settings row into rules.
+     *
+     * @param setting the tenant settings entity
+     * @return the compiled rules
+     */
+    public static TenantTagRules compile(OrganizationSetting setting) {
+        return new TenantTagRules(
+                setting.getVersion() != null ? setting.getVersion() : 0,
+                setting.isAllowUpsertTag(),
+                setting.isAllowRenameTag(),
+                setting.isAllowDeleteActiveTag(),
+                setting.isAllowColor(),
+                setting.isKeyCaseSensitive(),
+                setting.getMaxTagCountPerEntity(),
+                setting.getMinTagKeyLength(),
+                setting.getMaxTagKeyLength(),
+                setting.getMinTagValueLength(),
+                setting.getMaxTagValueLength(),
+                setting.getSearchMode(),
+                setting.getRateLimitPerSecond(),
+                setting.getRateLimitBurst());
+    }
+
+    /**
+     * Checks the entity identifiers of a tag write.
+     *
+     * @return the first violation, or null if valid
+     */
+    public TagViolation checkEntity(String entityType, String entityId) {
+        if (!isLengthBetween(entityType, 1, MAX_ENTITY_TYPE_LENGTH)) {
+            return TagViolation.ENTITY_TYPE_INVALID;
+        }
+        if (!isLengthBetween(entityId, 1, MAX_ENTITY_ID_LENGTH)) {
+            return TagViolation.ENTITY_ID_INVALID;
+        }
+        return null;
+    }
+
+    /**
+     * Checks a single tag against the key and value length limits. A null value is a flag tag
+     * and counts as empty.
+     *
+     * @return the first violation, or null if valid
+     */
+    public TagViolation checkTag(String key, String value) {
+        int keyLength = key == null ? 0 : codePointLength(key, minKeyLength, maxKeyLength);
+        if (keyLength < minKeyLength) {
+            return TagViolation.KEY_TOO_SHORT;
+        }
+        if (keyLength > maxKeyLength) {
+            return TagViolation.KEY_TOO_LONG;
+        }
+        int valueLength = value == null ? 0 : codePointLength(value, minValueLength, maxValueLength);
+        if (valueLength < minValueLength) {
+            return TagViolation.VALUE_TOO_SHORT;
+        }
+        if (valueLength > maxValueLength) {
+            return TagViolation.VALUE_TOO_LONG;
+        }
+        return null;
+    }
+
+    /**
+     * Checks the number of tags an entity would end up with.
+     *
+     * @return {@link TagViolation#TOO_MANY_TAGS}, or null if within the limit
+     */
+    public TagViolation checkTagCount(int tagCount) {
+        return tagCount > maxTagCountPerEntity ? TagViolation.TOO_MANY_TAGS : null;
+    }
+
+    /**
+     * Returns the key in its stored form: lower-cased for tenants with case-insensitive keys.
+     * Returns the same instance when nothing changes.
+     */
+    public String normalizeKey(String key) {
+        return keyCaseSensitive || key == null ? key : key.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The configured limit a violation refers to.
+     */
+    public int limitFor(TagViolation violation) {
+        return switch (violation) {
+            case ENTITY_TYPE_INVALID -> MAX_ENTITY_TYPE_LENGTH;
+            case ENTITY_ID_INVALID -> MAX_ENTITY_ID_LENGTH;
+            case KEY_TOO_SHORT -> minKeyLength;
+            case KEY_TOO_LONG -> maxKeyLength;
+            case VALUE_TOO_SHORT -> minValueLength;
+            case VALUE_TOO_LONG -> maxValueLength;
+            case TOO_MANY_TAGS -> maxTagCountPerEntity;
+        };
+    }
+
+    /**
+     * Returns a length that decides the {@code [min, max]} check exactly like the code point
+     * count would. A string has between {@code length / 2} and {@code length} code points, so
+     * the count is only computed when the UTF-16 length alone cannot decide.
+     */
+    private static int codePointLength(String value, int min, int max) {
+        int length = value.length();
+        return length <= max && length >= 2 * min ? length : value.codePointCount(0, length);
+    }
+
+    private static boolean isLengthBetween(String value, int min, int max) {
+        if (value == null) {
+            return false;
+        }
+        int length = codePointLength(value, min, max);
+        return length >= min && length <= max;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean isAllowUpsertTag() {
+        return allowUpsertTag;
+    }
+
+    public boolean isAllowRenameTag() {
+        return allowRenameTag;
+    }
+
+    public boolean isAllowDeleteActiveTag() {
+        return allowDeleteActiveTag;
+    }
+
+    public boolean isAllowColor() {
+        return allowColor;
+    }
+
+    public boolean isKeyCaseSensitive() {
+        return keyCaseSensitive;
+    }
+
+    public int getMaxTagCountPerEntity() {
+        return maxTagCountPerEntity;
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    /**
+     * Sustained requests per second the tenant may make; 0 means unlimited.
+     */
+    public int getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    /**
+     * Requests the tenant may make at once, at least 1.
+     */
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+}
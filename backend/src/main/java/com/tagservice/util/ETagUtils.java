@@ -0,0 +1,65 @@
+package com.tagservice.util;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Formatting and matching of version-based entity tags ({@code ETag}, {@code If-None-Match},
+ * {@code If-Match}, RFC 9110 section 13.1).
+ * <p>
+ * A version {@code n} is represented by the strong entity tag {@code "n"}.
+ */
+public final class ETagUtils {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETagUtils() {
+        // Private constructor to prevent instantiation
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Returns the entity tag for a version, including the surrounding quotes.
+     */
+    public static String format(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Evaluates an {@code If-None-Match} header using weak comparison.
+     *
+     * @param header the header value, e.g. {@code "3"}, {@code W/"3", "4"} or {@code *}
+     * @param version the current version
+     * @return true if the current representation matches, i.e. 304 may be returned
+     */
+    public static boolean ifNoneMatchMatches(String header, long version) {
+        return matches(header, version, true);
+    }
+
+    /**
+     * Turns an {@code If-Match} header into a check of the current version using strong comparison.
+     *
+     * @param header the header value, may be null
+     * @return a predicate that accepts the versions the header matches, or null if there is no header
+     */
+    public static LongPredicate ifMatch(String header) {
+        return header == null ? null : version -> matches(header, version, false);
+    }
+
+    private static boolean matches(String header, long version, boolean weakComparison) {
+        String current = format(version);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (ANY.equals(tag)) {
+                return true;
+            }
+            if (weakComparison && tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * Utility class for sending standardized error responses.
@@ -35,15 +36,7 @@ public class ErrorResponseUtil {
                                   ApiErrorType errorType,
                                   String detail,
                                   String instance) {
-        ErrorResponse errorResponse = ErrorResponse.builder()
-                .type(errorType.getTypeUri())
-                .title(errorType.getTitle())
-                .status(status)
-                .detail(detail)
-                .instance(instance)
-                .requestId(MDCUtil.getCurrentRequestId())
-                .timestamp(OffsetDateTime.now())
-                .build();
+        ErrorResponse errorResponse = buildErrorResponse(status, errorType, detail, instance, null);
         try {
             response.setStatus(status);
             response.setContentType("application/json");
@@ -55,5 +48,31 @@ public class ErrorResponseUtil {
             log.error("Failed to send error response", e);
         }
     }
-}
 
+    /**
+     * Builds an error response body following the project's standard error format.
+     *
+     * @param status    the HTTP status code
+     * @param errorType the standardized API error type
+     * @param detail    the error detail message
+     * @param instance  the request path/instance URI
+     * @param errors    optional field-level errors, may be null
+     * @return the error response body
+     */
+    public ErrorResponse buildErrorResponse(int status,
+                                            ApiErrorType errorType,
+                                            String detail,
+                                            String instance,
+                                            List<ErrorResponse.ApiSubError> errors) {
+        return ErrorResponse.builder()
+                .type(errorType.getTypeUri())
+                .title(errorType.getTitle())
+                .status(status)
+                .detail(detail)
+                .instance(instance)
+                .requestId(MDCUtil.getCurrentRequestId())
+                .timestamp(OffsetDateTime.now())
+                .errors(errors)
+                .build();
+    }
+}
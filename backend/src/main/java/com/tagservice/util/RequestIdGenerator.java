@@ -0,0 +1,32 @@
+package com.tagservice.util;
+
+import java.util.UUID;
+
+/**
+ * Strategy used by {@link com.tagservice.filter.RequestIdFilter} to create request IDs that the
+ * client did not supply. Selected with {@code tagservice.request-id.generator}.
+ */
+public enum RequestIdGenerator {
+
+    /**
+     * Random version 4 UUIDs from {@link UUID#randomUUID()}.
+     */
+    RANDOM {
+        @Override
+        public UUID next() {
+            return UUID.randomUUID();
+        }
+    },
+
+    /**
+     * Time-ordered version 7 UUIDs from {@link UuidV7Generator}.
+     */
+    TIME_ORDERED {
+        @Override
+        public UUID next() {
+            return UuidV7Generator.generate();
+        }
+    };
+
+    public abstract UUID next();
+}
@@ -0,0 +1,95 @@
+package com.tagservice.util;
+
+import java.util.UUID;
+
+/**
+ * Exception-free validation and parsing of canonical UUID strings.
+ * <p>
+ * Only the canonical 36-character {@code 8-4-4-4-12} hexadecimal form is accepted. Unlike
+ * {@link UUID#fromString(String)}, malformed input is reported through the return value
+ * instead of an exception, so rejecting a bad header costs no stack trace.
+ */
+public final class UuidUtils {
+
+    private static final int UUID_LENGTH = 36;
+
+    private UuidUtils() {
+        // Private constructor to prevent instantiation
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Checks whether the given string is a canonical UUID.
+     *
+     * @param value the string to check, may be null
+     * @return true if the value is a canonical UUID
+     */
+    public static boolean isValid(CharSequence value) {
+        if (value == null || value.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = value.charAt(i);
+            if (isDashPosition(i)) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hexValue(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a canonical UUID string.
+     *
+     * @param value the string to parse, may be null
+     * @return the parsed UUID, or null if the value is not a canonical UUID
+     */
+    public static UUID parse(CharSequence value) {
+        if (value == null || value.length() != UUID_LENGTH) {
+            return null;
+        }
+        long mostSignificantBits = 0;
+        long leastSignificantBits = 0;
+        int nibbles = 0;
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = value.charAt(i);
+            if (isDashPosition(i)) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int nibble = hexValue(c);
+            if (nibble < 0) {
+                return null;
+            }
+            if (nibbles < 16) {
+                mostSignificantBits = (mostSignificantBits << 4) | nibble;
+            } else {
+                leastSignificantBits = (leastSignificantBits << 4) | nibble;
+            }
+            nibbles++;
+        }
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    private static boolean isDashPosition(int index) {
+        return index == 8 || index == 13 || index == 18 || index == 23;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
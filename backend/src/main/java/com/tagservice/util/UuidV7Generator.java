@@ -0,0 +1,56 @@
+package com.tagservice.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562).
+ * <p>
+ * The 48-bit Unix millisecond timestamp is followed by a 12-bit counter that keeps IDs
+ * strictly increasing within one JVM, even for IDs created in the same millisecond, and by
+ * 62 random bits from {@link ThreadLocalRandom}. IDs therefore append to the right-hand edge
+ * of B-tree indexes on {@code request_id} columns, and generation never contends on
+ * {@code SecureRandom}. These IDs are for tracing, not for secrets.
+ */
+public final class UuidV7Generator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+    private static final int COUNTER_BITS = 12;
+
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    private UuidV7Generator() {
+        // Private constructor to prevent instantiation
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * @return a new version 7 UUID, greater than every UUID previously returned by this JVM
+     */
+    public static UUID generate() {
+        long timestampAndCounter = nextTimestampAndCounter(System.currentTimeMillis());
+        long timestamp = timestampAndCounter >>> COUNTER_BITS;
+        long counter = timestampAndCounter & ((1L << COUNTER_BITS) - 1);
+
+        long mostSignificantBits = (timestamp << 16) | VERSION_7 | counter;
+        long leastSignificantBits = (ThreadLocalRandom.current().nextLong() >>> 2) | VARIANT_RFC_4122;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Advances the shared {@code timestamp << 12 | counter} state. A counter overflow borrows
+     * the next millisecond, and a clock that moves backwards keeps the last timestamp.
+     */
+    private static long nextTimestampAndCounter(long nowMillis) {
+        long candidate = nowMillis << COUNTER_BITS;
+        while (true) {
+            long last = LAST_TIMESTAMP_AND_COUNTER.get();
+            long next = candidate > last ? candidate : last + 1;
+            if (LAST_TIMESTAMP_AND_COUNTER.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -2,8 +2,6 @@ package com.tagservice.util;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.UUID;
-
 /**
  * Utility class for common validation operations.
  */
@@ -25,11 +23,30 @@ public final class ValidationUtils {
             return false;
         }
 
-        try {
-            UUID.fromString(uuid);
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
+        return UuidUtils.isValid(uuid);
+    }
+
+    /**
+     * Parses a strictly positive decimal long without throwing or allocating.
+     *
+     * @param value the string to parse
+     * @return the parsed value, or -1 if the string is blank, not purely numeric or overflows
+     */
+    public static long parsePositiveLong(String value) {
+        if (value == null || value.isEmpty() || value.length() > 19) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+            if (result < 0) {
+                return -1;
+            }
         }
+        return result > 0 ? result : -1;
     }
 }
@@ -0,0 +1,31 @@
+package com.tagservice;
+
+import com.tagservice.filter.RateLimitFilter;
+import com.tagservice.ratelimit.TenantRateLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads the full application context so that a bean that cannot be wired fails here rather than
+ * at startup.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TagServiceApplicationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    @DisplayName("Should wire every bean, including the request filters")
+    void given_testProfile_when_contextLoads_then_filtersAreWired() {
+        assertThat(context.getBean(TenantRateLimiter.class)).isNotNull();
+        assertThat(context.getBean(RateLimitFilter.class)).isNotNull();
+    }
+}
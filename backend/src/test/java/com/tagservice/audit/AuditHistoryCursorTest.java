@@ -0,0 +1,31 @@
+package com.tagservice.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link AuditHistoryCursor}.
+ */
+class AuditHistoryCursorTest {
+
+    @Test
+    @DisplayName("Should decode the microsecond timestamp and audit ID an encoded cursor continues after")
+    void given_encodedCursor_when_decode_then_samePosition() {
+        AuditHistoryCursor cursor = new AuditHistoryCursor(Instant.parse("2026-10-16T08:15:30.123456Z"), 42);
+
+        assertThat(AuditHistoryCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens it did not produce")
+    void given_foreignToken_when_decode_then_rejected() {
+        assertThatThrownBy(() -> AuditHistoryCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AuditHistoryCursor.decode("djE6MTIz")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AuditHistoryCursor.decode("djE6YWJjOjE")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
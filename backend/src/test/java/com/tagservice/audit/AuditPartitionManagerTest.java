@@ -0,0 +1,142 @@
+package com.tagservice.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the partition planning and the partition statements of {@link AuditPartitionManager}.
+ */
+class AuditPartitionManagerTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2026, 10);
+
+    @Test
+    @DisplayName("Should create the current and upcoming months that have no partition yet")
+    void given_somePartitions_when_plan_then_missingUpcomingMonthsCreated() {
+        AuditPartitionManager.Plan plan = AuditPartitionManager.plan(CURRENT,
+                Set.of(YearMonth.of(2026, 10), YearMonth.of(2026, 11)), Set.of(), 3, 24);
+
+        assertThat(plan.create()).containsExactly(YearMonth.of(2026, 12), YearMonth.of(2027, 1));
+        assertThat(plan.retire()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should give every month with rows in the default partition its own partition")
+    void given_rowsInDefault_when_plan_then_theirMonthsCreatedAfterUpcomingOnes() {
+        AuditPartitionManager.Plan plan = AuditPartitionManager.plan(CURRENT, Set.of(),
+                Set.of(YearMonth.of(2026, 3), YearMonth.of(2025, 12), CURRENT), 1, 24);
+
+        assertThat(plan.create()).as("current and upcoming months first")
+                .containsExactly(CURRENT, YearMonth.of(2026, 11), YearMonth.of(2025, 12), YearMonth.of(2026, 3));
+    }
+
+    @Test
+    @DisplayName("Should retire partitions and default rows older than the retention, keeping everything without one")
+    void given_oldMonths_when_plan_then_onlyThosePastRetentionRetired() {
+        Set<YearMonth> existing = Set.of(YearMonth.of(2025, 8), YearMonth.of(2025, 10), CURRENT);
+        Set<YearMonth> inDefault = Set.of(YearMonth.of(2025, 6));
+
+        AuditPartitionManager.Plan plan = AuditPartitionManager.plan(CURRENT, existing, inDefault, 0, 12);
+        AuditPartitionManager.Plan keepAll = AuditPartitionManager.plan(CURRENT, existing, inDefault, 0, 0);
+
+        assertThat(plan.create()).containsExactly(YearMonth.of(2025, 6));
+        assertThat(plan.retire()).containsExactly(YearMonth.of(2025, 6), YearMonth.of(2025, 8));
+        assertThat(keepAll.retire()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep creating partitions when default rows have no created_at")
+    void given_nullMonthInDefault_when_maintain_then_partitionsStillCreated() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class)))
+                .thenReturn(List.of(AuditPartitionManager.DEFAULT_PARTITION));
+        when(jdbcTemplate.queryForList(contains("created_at IS NOT NULL"), eq(String.class)))
+                .thenReturn(Arrays.asList((String) null));
+        AuditPartitionManager manager = new AuditPartitionManager(jdbcTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 1, 24, AuditPartitionManager.RetentionAction.DETACH,
+                Duration.ofHours(1), Duration.ofSeconds(5));
+
+        manager.maintain();
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        assertThat(statements.getAllValues()).filteredOn(statement -> statement.contains(" ATTACH PARTITION "))
+                .extracting(statement -> statement.split(" ")[5])
+                .containsExactly(AuditPartitionManager.partitionName(current),
+                        AuditPartitionManager.partitionName(current.plusMonths(1)));
+    }
+
+    @Test
+    @DisplayName("Should attach the current month first, each after excluding it from the default partition")
+    void given_rowsInDefault_when_maintain_then_defaultExcludesEachMonthBeforeAttach() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        YearMonth old = current.minusMonths(2);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class)))
+                .thenReturn(List.of(AuditPartitionManager.DEFAULT_PARTITION));
+        when(jdbcTemplate.queryForList(contains("FROM organizations_audit_default"), eq(String.class)))
+                .thenReturn(List.of(old.toString()));
+        AuditPartitionManager manager = new AuditPartitionManager(jdbcTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 1, 24, AuditPartitionManager.RetentionAction.DETACH,
+                Duration.ofHours(1), Duration.ofSeconds(5));
+
+        manager.maintain();
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        List<String> sql = statements.getAllValues();
+        assertThat(sql).filteredOn(statement -> statement.contains(" ATTACH PARTITION "))
+                .extracting(statement -> statement.split(" ")[5])
+                .containsExactly(AuditPartitionManager.partitionName(current),
+                        AuditPartitionManager.partitionName(current.plusMonths(1)),
+                        AuditPartitionManager.partitionName(old));
+        String name = AuditPartitionManager.partitionName(old);
+        int added = indexOf(sql, "ALTER TABLE organizations_audit_default ADD CONSTRAINT " + name + "_excluded");
+        int validated = indexOf(sql, "ALTER TABLE organizations_audit_default VALIDATE CONSTRAINT " + name + "_excluded");
+        int attached = indexOf(sql, "ALTER TABLE organizations_audit ATTACH PARTITION " + name);
+        assertThat(sql.get(added)).contains("CHECK (NOT (created_at >= '" + old.getYear());
+        assertThat(added).isLessThan(validated);
+        assertThat(validated).isLessThan(attached);
+        assertThat(indexOf(sql, "ALTER TABLE organizations_audit_default DROP CONSTRAINT " + name + "_excluded"))
+                .isGreaterThan(attached);
+    }
+
+    @Test
+    @DisplayName("Should only recognize partition names it produces")
+    void given_tableNames_when_parsePartitionName_then_onlyManagedNamesParsed() {
+        assertThat(AuditPartitionManager.partitionName(YearMonth.of(2026, 1))).isEqualTo("organizations_audit_y2026m01");
+        assertThat(AuditPartitionManager.parsePartitionName("organizations_audit_y2026m01")).isEqualTo(YearMonth.of(2026, 1));
+        assertThat(AuditPartitionManager.parsePartitionName("organizations_audit_default")).isNull();
+        assertThat(AuditPartitionManager.parsePartitionName("organizations_audit_y2026m13")).isNull();
+        assertThat(AuditPartitionManager.parsePartitionName("organizations_audit_2026_01")).isNull();
+    }
+
+    private static int indexOf(List<String> statements, String prefix) {
+        for (int i = 0; i < statements.size(); i++) {
+            if (statements.get(i).startsWith(prefix)) {
+                return i;
+            }
+        }
+        throw new AssertionError("No statement starts with " + prefix);
+    }
+}
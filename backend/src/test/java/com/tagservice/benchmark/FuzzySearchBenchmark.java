@@ -0,0 +1,117 @@
+package com.tagservice.benchmark;
+
+import com.tagservice.search.LevenshteinAutomaton;
+import com.tagservice.search.TermTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a fuzzy lookup in a tenant vocabulary by walking a {@link TermTrie} with a
+ * {@link LevenshteinAutomaton} against computing the bounded edit distance to every term.
+ * <p>
+ * The vocabulary consists of random tag-like values; each query is a vocabulary term with one
+ * random edit. Run with {@code main}; the GC profiler reports allocation per operation
+ * ({@code gc.alloc.rate.norm}) next to the average time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuzzySearchBenchmark {
+
+    private static final int QUERY_COUNT = 64;
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789-";
+
+    @Param({"10000", "100000"})
+    public int vocabularySize;
+
+    @Param({"1", "2"})
+    public int maxEdits;
+
+    private String[] vocabulary;
+    private TermTrie<String> trie;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[vocabularySize];
+        trie = new TermTrie<>();
+        for (int i = 0; i < vocabularySize; i++) {
+            String term = randomTerm(random, 4 + random.nextInt(12));
+            vocabulary[i] = term;
+            trie.put(term, term);
+        }
+        queries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = withOneEdit(random, vocabulary[random.nextInt(vocabularySize)]);
+        }
+    }
+
+    @Benchmark
+    public void automatonOverTrie(Blackhole blackhole) {
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton(nextQuery(), maxEdits);
+        trie.fuzzyMatch(automaton, (term, distance, value) -> blackhole.consume(value));
+    }
+
+    @Benchmark
+    public void bruteForceScan(Blackhole blackhole) {
+        String query = nextQuery();
+        for (String term : vocabulary) {
+            if (LevenshteinAutomaton.distance(query, term, maxEdits) >= 0) {
+                blackhole.consume(term);
+            }
+        }
+    }
+
+    private String nextQuery() {
+        String query = queries[next];
+        next = (next + 1) % QUERY_COUNT;
+        return query;
+    }
+
+    private static String randomTerm(Random random, int length) {
+        StringBuilder term = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            term.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return term.toString();
+    }
+
+    private static String withOneEdit(Random random, String term) {
+        int position = random.nextInt(term.length());
+        char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        return switch (random.nextInt(3)) {
+            case 0 -> term.substring(0, position) + c + term.substring(position + 1);
+            case 1 -> term.substring(0, position) + c + term.substring(position);
+            default -> term.substring(0, position) + term.substring(position + 1);
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FuzzySearchBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.tagservice.benchmark;
+
+import com.tagservice.ratelimit.TenantRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of {@link TenantRateLimiter} on 32 threads, against a token
+ * bucket guarded by a lock as it would commonly be written.
+ * <p>
+ * {@code tenants} spreads the requests over that many tenants: 1 puts every thread on the same
+ * bucket. {@code perSecond} is either high enough that every request is allowed, so every call
+ * writes the bucket, or low enough that almost every request is refused, as in a retry storm.
+ * Run with {@code main}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(32)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantRateLimiterBenchmark {
+
+    @Param({"1", "1000"})
+    public int tenants;
+
+    @Param({"1000000000", "100"})
+    public int perSecond;
+
+    private static final int BURST = 200;
+
+    private TenantRateLimiter limiter;
+    private final Map<Long, LockedBucket> lockedBuckets = new HashMap<>();
+
+    /**
+     * Token bucket with a token count and refill timestamp updated under a lock.
+     */
+    private static final class LockedBucket {
+
+        private final double perNano;
+        private final int burst;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private LockedBucket(int perSecond, int burst) {
+            this.perNano = perSecond / 1e9;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * perNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        limiter = new TenantRateLimiter(100_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        for (long tenant = 0; tenant < tenants; tenant++) {
+            lockedBuckets.put(tenant, new LockedBucket(perSecond, BURST));
+        }
+    }
+
+    @Benchmark
+    public long casTokenBucket() {
+        long tenant = ThreadLocalRandom.current().nextInt(tenants);
+        return limiter.tryAcquire(tenant, perSecond, BURST);
+    }
+
+    @Benchmark
+    public boolean lockedTokenBucket() {
+        long tenant = ThreadLocalRandom.current().nextInt(tenants);
+        // The map is only read after setup, so the lookup itself needs no lock
+        return lockedBuckets.get(tenant).tryAcquire();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TenantRateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.tagservice.benchmark;
+
+import com.tagservice.filter.RouteClassifier;
+import com.tagservice.util.ValidationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request routing and header parsing cost of the former three-filter chain
+ * (OrganizationIdFilter, OrganizationExistenceFilter, PostgresRlsFilter) with the single
+ * {@link RouteClassifier}-based tenant-resolution stage.
+ * <p>
+ * Run with {@code main}; the GC profiler reports allocation per operation
+ * ({@code gc.alloc.rate.norm}) next to the average time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantResolutionBenchmark {
+
+    private static final String[] LEGACY_EXCLUDED_PATHS = {"/actuator", "/health"};
+    private static final String[] LEGACY_RLS_EXCLUDED_PATHS = {"/actuator", "/api/v1/health"};
+
+    @Param({"GET /api/tags/server/srv-01", "POST /v1/organizations", "GET /api/v1/health"})
+    public String request;
+
+    private final RouteClassifier routeClassifier = new RouteClassifier();
+    private final String organizationIdHeader = "42";
+
+    private String method;
+    private String path;
+
+    @Setup
+    public void setUp() {
+        int space = request.indexOf(' ');
+        method = request.substring(0, space);
+        path = request.substring(space + 1);
+    }
+
+    @Benchmark
+    public void legacyFilterChain(Blackhole blackhole) {
+        // OrganizationIdFilter
+        boolean skipIdFilter = isExcluded(LEGACY_EXCLUDED_PATHS, path) || isLegacyOrganizationCreation(method, path);
+        blackhole.consume(skipIdFilter);
+        // OrganizationExistenceFilter
+        if (!isExcluded(LEGACY_EXCLUDED_PATHS, path) && !isLegacyOrganizationCreation(method, path)) {
+            try {
+                blackhole.consume(Long.valueOf(organizationIdHeader));
+            } catch (NumberFormatException ex) {
+                blackhole.consume(ex);
+            }
+        }
+        // PostgresRlsFilter
+        blackhole.consume(isExcluded(LEGACY_RLS_EXCLUDED_PATHS, path));
+    }
+
+    @Benchmark
+    public void tenantResolutionStage(Blackhole blackhole) {
+        if (routeClassifier.classify(method, path) == RouteClassifier.RouteType.TENANT) {
+            blackhole.consume(ValidationUtils.parsePositiveLong(organizationIdHeader));
+        }
+    }
+
+    private static boolean isExcluded(String[] excludedPaths, String path) {
+        for (String excludedPath : excludedPaths) {
+            if (path.startsWith(excludedPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLegacyOrganizationCreation(String method, String path) {
+        return "POST".equalsIgnoreCase(method) && path.matches("^/api/v\\d+/organizations/?$");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TenantResolutionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
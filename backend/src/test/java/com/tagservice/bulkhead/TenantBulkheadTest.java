@@ -0,0 +1,89 @@
+package com.tagservice.bulkhead;
+
+import com.tagservice.context.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link TenantBulkhead}.
+ */
+class TenantBulkheadTest {
+
+    private static final TenantContext STANDARD = new TenantContext(1, "standard");
+    private static final TenantContext OTHER_STANDARD = new TenantContext(2, "standard");
+    private static final TenantContext ENTERPRISE = new TenantContext(3, "enterprise");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TenantBulkhead bulkhead(int globalPermits) {
+        Map<String, Integer> permitsByType = Map.of("enterprise", 3);
+        return new TenantBulkhead(globalPermits, Duration.ofMillis(20),
+                type -> permitsByType.getOrDefault(type, 1), Duration.ofMinutes(10), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should refuse a tenant at its limit while other tenants still get connections")
+    void given_tenantAtLimit_when_acquire_then_onlyThatTenantRejected() throws Exception {
+        TenantBulkhead bulkhead = bulkhead(8);
+        TenantBulkhead.Permit held = bulkhead.acquire(STANDARD);
+
+        assertThatThrownBy(() -> bulkhead.acquire(STANDARD))
+                .isInstanceOf(TenantBulkheadFullException.class)
+                .extracting(ex -> ((TenantBulkheadFullException) ex).getOrganizationId())
+                .isEqualTo(1L);
+        bulkhead.acquire(OTHER_STANDARD).close();
+
+        held.close();
+        bulkhead.acquire(STANDARD).close();
+        assertThat(meterRegistry.get(TenantBulkhead.METRIC_PREFIX + ".rejections")
+                .tag("tenant", "1").tag("type", "standard").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TenantBulkhead.METRIC_PREFIX + ".wait")
+                .tag("tenant", "1").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should size each tenant's limit by its organization type")
+    void given_enterpriseTenant_when_acquire_then_typeLimitApplies() throws Exception {
+        TenantBulkhead bulkhead = bulkhead(8);
+
+        bulkhead.acquire(ENTERPRISE);
+        bulkhead.acquire(ENTERPRISE);
+        bulkhead.acquire(ENTERPRISE);
+
+        assertThatThrownBy(() -> bulkhead.acquire(ENTERPRISE)).isInstanceOf(TenantBulkheadFullException.class);
+    }
+
+    @Test
+    @DisplayName("Should refuse every tenant once the global permits are taken, and free the tenant permit again")
+    void given_globalPermitsTaken_when_acquire_then_rejectedAndTenantPermitReturned() throws Exception {
+        TenantBulkhead bulkhead = bulkhead(2);
+        TenantBulkhead.Permit first = bulkhead.acquire(ENTERPRISE);
+        bulkhead.acquire(ENTERPRISE);
+
+        assertThatThrownBy(() -> bulkhead.acquire(STANDARD)).isInstanceOf(TenantBulkheadFullException.class);
+
+        first.close();
+        bulkhead.acquire(STANDARD);
+        assertThat(meterRegistry.get(TenantBulkhead.METRIC_PREFIX + ".global.available").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should release permits only once and need none outside a tenant")
+    void given_permit_when_closedTwice_then_releasedOnce() throws Exception {
+        TenantBulkhead bulkhead = bulkhead(1);
+        TenantBulkhead.Permit permit = bulkhead.acquire(STANDARD);
+        permit.close();
+        permit.close();
+
+        bulkhead.acquire(null);
+        bulkhead.acquire(OTHER_STANDARD);
+        assertThatThrownBy(() -> bulkhead.acquire(ENTERPRISE)).isInstanceOf(TenantBulkheadFullException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.tagservice.cache;
+
+import com.tagservice.dto.error.OrganizationDto;
+import com.tagservice.event.OrganizationChangedEvent;
+import com.tagservice.event.OrganizationChangedEvent.ChangeType;
+import com.tagservice.invalidation.InvalidationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link ActiveOrganizationCache}.
+ */
+class ActiveOrganizationCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ActiveOrganizationCache cache = new ActiveOrganizationCache(2, Duration.ofMinutes(5), meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, OrganizationDto> loader = id -> {
+        loads.incrementAndGet();
+        return OrganizationDto.builder().id(id).type("standard").build();
+    };
+
+    @Test
+    @DisplayName("Should load an organization once and serve repeated lookups from the cache")
+    void given_cachedOrganization_when_get_then_loaderCalledOnce() {
+        OrganizationDto first = cache.get(1L, loader);
+        OrganizationDto second = cache.get(1L, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ActiveOrganizationCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ActiveOrganizationCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache a lookup that failed")
+    void given_missingOrganization_when_get_then_nothingCached() {
+        Function<Long, OrganizationDto> failing = id -> {
+            loads.incrementAndGet();
+            throw new EntityNotFoundException("Organization not found with id: " + id);
+        };
+
+        assertThatThrownBy(() -> cache.get(1L, failing)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> cache.get(1L, failing)).isInstanceOf(EntityNotFoundException.class);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should reload an organization after it was updated or soft-deleted")
+    void given_organizationChanged_when_get_then_reloaded() {
+        cache.get(1L, loader);
+        cache.onOrganizationChanged(new OrganizationChangedEvent(1L, ChangeType.UPDATED));
+        cache.get(1L, loader);
+        cache.onOrganizationChanged(new OrganizationChangedEvent(1L, ChangeType.DELETED));
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should drop organizations changed on other nodes, and everything on a resync")
+    void given_remoteInvalidation_when_get_then_reloaded() {
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        cache.onInvalidation(new InvalidationEvent(InvalidationEvent.ORGANIZATIONS, "UPDATE", 1L));
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        assertThat(loads).hasValue(3);
+
+        cache.onResync();
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL")
+    void given_expiredEntry_when_get_then_reloaded() {
+        ActiveOrganizationCache expiring = new ActiveOrganizationCache(2, Duration.ofNanos(1), meterRegistry);
+
+        expiring.get(1L, loader);
+        expiring.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+}
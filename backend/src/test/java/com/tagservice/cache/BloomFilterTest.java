@@ -0,0 +1,52 @@
+package com.tagservice.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the organization ID Bloom filter.
+ */
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added key as absent")
+    void given_addedKeys_when_mightContain_then_alwaysTrue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        for (long id = 1; id <= 10_000; id++) {
+            assertThat(filter.mightContain(id)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the false-positive rate near the configured probability")
+    void given_fullFilter_when_probingUnknownKeys_then_falsePositiveRateWithinBounds() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        int falsePositives = 0;
+        for (long id = 1_000_000; id < 1_100_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.currentFalsePositiveProbability()).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizing parameters")
+    void given_invalidParameters_when_create_then_throws() {
+        assertThatThrownBy(() -> BloomFilter.create(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.create(100, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,174 @@
+package com.tagservice.cache;
+
+import com.tagservice.dto.TagDto;
+import com.tagservice.event.TagsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the off-heap entity tag cache.
+ */
+class EntityTagCacheTest {
+
+    private static final EntityTags TAGS = new EntityTags(3, List.of(new TagDto("env", "prod"),
+            new TagDto("flag", null), new TagDto("név", "ü")));
+
+    /** One segment of 8 blocks of 32 bytes; a tenant may use at most half of it. */
+    private final EntityTagCache cache = new EntityTagCache(true, DataSize.ofBytes(256), 32, 1, 0.5,
+            new SimpleMeterRegistry());
+
+    private static EntityTagKey key(long tenantId, String entityId) {
+        return new EntityTagKey(tenantId, "server", entityId);
+    }
+
+    private void put(EntityTagKey key, EntityTags tags) {
+        cache.put(key, tags, cache.readToken(key));
+    }
+
+    @Test
+    @DisplayName("Should return what was stored, including the version, null values and non-ASCII text")
+    void given_storedTags_when_getIfPresent_then_returnsEqualTags() {
+        put(key(1, "a"), TAGS);
+
+        assertThat(cache.getIfPresent(key(1, "a"))).isEqualTo(TAGS);
+        assertThat(cache.getIfPresent(key(1, "b"))).isNull();
+        assertThat(cache.getTenantMemoryUsage(1)).isEqualTo(32);
+    }
+
+    @Test
+    @DisplayName("Should not store data loaded before an invalidation")
+    void given_invalidationAfterTokenRead_when_put_then_notStored() {
+        EntityTagKey key = key(1, "a");
+        long token = cache.readToken(key);
+        cache.onTagsChanged(new TagsChangedEvent(1, "server", "a"));
+
+        cache.put(key, TAGS, token);
+
+        assertThat(cache.getIfPresent(key)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when the segment is full")
+    void given_fullSegment_when_put_then_evictsLeastRecentlyUsed() {
+        for (int i = 0; i < 4; i++) {
+            put(key(1, "t1-" + i), TAGS);
+            put(key(2, "t2-" + i), TAGS);
+        }
+        cache.getIfPresent(key(1, "t1-0"));
+
+        put(key(3, "new"), TAGS);
+
+        assertThat(cache.getIfPresent(key(3, "new"))).isEqualTo(TAGS);
+        assertThat(cache.getIfPresent(key(1, "t1-0"))).isEqualTo(TAGS);
+        assertThat(cache.getIfPresent(key(2, "t2-0"))).isNull();
+        assertThat(cache.getTenantMemoryUsage()).containsEntry(2L, 96L).containsEntry(3L, 32L);
+    }
+
+    @Test
+    @DisplayName("Should make room within a tenant's share by evicting the tenant's least recently used entry")
+    void given_tenantAtLimit_when_put_then_evictsOwnLeastRecentlyUsed() {
+        for (int i = 0; i < 4; i++) {
+            put(key(1, "e" + i), TAGS);
+        }
+        put(key(2, "other"), TAGS);
+        cache.getIfPresent(key(1, "e0"));
+
+        put(key(1, "e4"), TAGS);
+
+        assertThat(cache.getIfPresent(key(1, "e4"))).isEqualTo(TAGS);
+        assertThat(cache.getIfPresent(key(1, "e0"))).isEqualTo(TAGS);
+        assertThat(cache.getIfPresent(key(1, "e1"))).isNull();
+        assertThat(cache.getIfPresent(key(2, "other"))).isEqualTo(TAGS);
+        assertThat(cache.getTenantMemoryUsage(1)).isEqualTo(128);
+    }
+
+    @Test
+    @DisplayName("Should evict a tenant's least recently used entry from whichever segment holds it")
+    void given_tenantAtLimitAcrossSegments_when_put_then_evictsOldestOfAllSegments() {
+        // Four segments of 8 blocks; a tenant may use 4 blocks in all
+        EntityTagCache segmented = new EntityTagCache(true, DataSize.ofBytes(1024), 32, 4, 0.125,
+                new SimpleMeterRegistry());
+        for (int i = 0; i < 4; i++) {
+            EntityTagKey key = key(1, "e" + i);
+            segmented.put(key, TAGS, segmented.readToken(key));
+        }
+        segmented.getIfPresent(key(1, "e0"));
+
+        EntityTagKey added = key(1, "e4");
+        segmented.put(added, TAGS, segmented.readToken(added));
+
+        assertThat(segmented.getIfPresent(added)).isEqualTo(TAGS);
+        assertThat(segmented.getIfPresent(key(1, "e1"))).isNull();
+        assertThat(segmented.getIfPresent(key(1, "e0"))).isEqualTo(TAGS);
+        assertThat(segmented.getIfPresent(key(1, "e2"))).isEqualTo(TAGS);
+        assertThat(segmented.getIfPresent(key(1, "e3"))).isEqualTo(TAGS);
+        assertThat(segmented.getTenantMemoryUsage(1)).isEqualTo(128);
+    }
+
+    @Test
+    @DisplayName("Should keep a tenant's own eviction order after the segment evicted some of its entries")
+    void given_segmentEvictedTenantEntry_when_tenantAtLimit_then_evictsNextOwnEntry() {
+        for (int i = 0; i < 4; i++) {
+            put(key(1, "t1-" + i), TAGS);
+            put(key(2, "t2-" + i), TAGS);
+        }
+        // The segment evicts t1-0, then t2-0
+        put(key(3, "new"), TAGS);
+        put(key(1, "t1-4"), TAGS);
+
+        put(key(1, "t1-5"), TAGS);
+
+        assertThat(cache.getIfPresent(key(1, "t1-5"))).isEqualTo(TAGS);
+        assertThat(cache.getIfPresent(key(1, "t1-1"))).isNull();
+        assertThat(cache.getIfPresent(key(1, "t1-2"))).isEqualTo(TAGS);
+        assertThat(cache.getIfPresent(key(2, "t2-1"))).isEqualTo(TAGS);
+        assertThat(cache.getTenantMemoryUsage(1)).isEqualTo(128);
+    }
+
+    @Test
+    @DisplayName("Should reject only an entry larger than the tenant's share, keeping the tenant's entries")
+    void given_entryLargerThanShare_when_put_then_notStoredAndNothingEvicted() {
+        put(key(1, "small"), TAGS);
+        EntityTags large = new EntityTags(1, List.of(new TagDto("description", "x".repeat(140))));
+
+        put(key(1, "large"), large);
+
+        assertThat(cache.getIfPresent(key(1, "large"))).isNull();
+        assertThat(cache.getIfPresent(key(1, "small"))).isEqualTo(TAGS);
+        assertThat(cache.getTenantMemoryUsage(1)).isEqualTo(32);
+    }
+
+    @Test
+    @DisplayName("Should span several blocks and skip entries larger than a segment")
+    void given_largeTagSets_when_put_then_storedAcrossBlocksOrSkipped() {
+        EntityTags medium = new EntityTags(1, List.of(new TagDto("description", "x".repeat(70))));
+        char[] huge = new char[300];
+        Arrays.fill(huge, 'y');
+
+        put(key(1, "medium"), medium);
+        put(key(2, "huge"), new EntityTags(1, List.of(new TagDto("blob", new String(huge)))));
+
+        assertThat(cache.getIfPresent(key(1, "medium"))).isEqualTo(medium);
+        assertThat(cache.getIfPresent(key(2, "huge"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop every entry of a tenant on a tenant-wide change")
+    void given_tenantWideChange_when_onTagsChanged_then_tenantEntriesRemoved() {
+        put(key(1, "a"), TAGS);
+        put(key(2, "a"), TAGS);
+
+        cache.onTagsChanged(TagsChangedEvent.forTenant(1));
+
+        assertThat(cache.getIfPresent(key(1, "a"))).isNull();
+        assertThat(cache.getIfPresent(key(2, "a"))).isEqualTo(TAGS);
+        assertThat(cache.getTenantMemoryUsage(1)).isZero();
+    }
+}
@@ -0,0 +1,74 @@
+package com.tagservice.cache;
+
+import com.tagservice.service.OrganizationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KnownOrganizationFilter}.
+ */
+class KnownOrganizationFilterTest {
+
+    private final OrganizationService organizationService = mock(OrganizationService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KnownOrganizationFilter filter = new KnownOrganizationFilter(organizationService, meterRegistry,
+            true, 4, 0.01, Duration.ofHours(1), Duration.ZERO);
+
+    @BeforeEach
+    void setUp() {
+        when(organizationService.countAllOrganizations()).thenReturn(2L);
+        when(organizationService.getAllOrganizationIds()).thenReturn(List.of(1L, 2L));
+        filter.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should report an unknown ID as absent without querying the database")
+    void given_unknownId_when_isDefinitelyAbsent_then_absentWithoutQuery() {
+        assertThat(filter.isDefinitelyAbsent(1000L)).isTrue();
+        assertThat(filter.isDefinitelyAbsent(1000L)).isTrue();
+
+        verify(organizationService, never()).organizationExists(anyLong());
+        assertThat(meterRegistry.counter("tagservice.organization.bloom.absent").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should recheck at most one rejected ID per interval and add it if the database has it")
+    void given_missedId_when_recheckDue_then_addedAndCountedAsFalseNegative() {
+        KnownOrganizationFilter rechecking = new KnownOrganizationFilter(organizationService, meterRegistry,
+                true, 4, 0.01, Duration.ofHours(1), Duration.ofHours(1));
+        rechecking.rebuild();
+        when(organizationService.organizationExists(1001L)).thenReturn(true);
+
+        assertThat(rechecking.isDefinitelyAbsent(1001L)).isFalse();
+        assertThat(rechecking.isDefinitelyAbsent(1002L)).isTrue();
+
+        assertThat(rechecking.mightExist(1001L)).isTrue();
+        verify(organizationService, times(1)).organizationExists(anyLong());
+        assertThat(meterRegistry.counter("tagservice.organization.bloom.false-negatives").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not count repeated adds of the same ID towards the filter's capacity")
+    void given_duplicateAdds_when_adding_then_noRebuild() {
+        for (int i = 0; i < 20; i++) {
+            filter.add(1L);
+            filter.add(3L);
+        }
+
+        verify(organizationService, times(1)).countAllOrganizations();
+        assertThat(filter.mightExist(3L)).isTrue();
+    }
+}
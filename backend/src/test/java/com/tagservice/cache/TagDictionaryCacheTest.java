@@ -0,0 +1,75 @@
+package com.tagservice.cache;
+
+import com.tagservice.cache.TagDictionaryCache.TenantTerm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TagDictionaryCache}.
+ */
+class TagDictionaryCacheTest {
+
+    private static final TenantTerm ENV = new TenantTerm(1, "env");
+
+    private final TagDictionaryCache cache = new TagDictionaryCache(100, 100, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should cache both directions right away outside a transaction")
+    void given_noTransaction_when_put_then_cachedImmediately() {
+        cache.keys().putAfterCommit(Map.of(7, ENV));
+
+        assertThat(cache.keys().id(ENV)).isEqualTo(7);
+        assertThat(cache.keys().term(7)).isEqualTo(ENV);
+    }
+
+    @Test
+    @DisplayName("Should only cache entries once the transaction commits")
+    void given_transaction_when_committed_then_cached() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.keys().putAfterCommit(Map.of(7, ENV));
+        assertThat(cache.keys().id(ENV)).isNull();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.keys().id(ENV)).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should never cache entries of a rolled-back transaction")
+    void given_transaction_when_rolledBack_then_notCached() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.values().putAfterCommit(Map.of(9, ENV));
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(cache.values().id(ENV)).isNull();
+        assertThat(cache.values().term(9)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should only cache entities in the encoding direction")
+    void given_entity_when_put_then_onlyIdCached() {
+        EntityTagKey entity = new EntityTagKey(1, "server", "srv-01");
+
+        cache.entities().putAfterCommit(Map.of(42L, entity));
+
+        assertThat(cache.entities().id(entity)).isEqualTo(42L);
+        assertThat(cache.entities().term(42L)).isNull();
+    }
+}
@@ -0,0 +1,92 @@
+package com.tagservice.client;
+
+import com.tagservice.cache.ActiveOrganizationCache;
+import com.tagservice.cache.KnownOrganizationFilter;
+import com.tagservice.dto.error.OrganizationDto;
+import com.tagservice.service.OrganizationHistoryService;
+import com.tagservice.service.OrganizationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the cached active-organization lookup of {@link OrganizationClient}.
+ */
+class OrganizationClientTest {
+
+    private final OrganizationService organizationService = mock(OrganizationService.class);
+    private final KnownOrganizationFilter knownOrganizationFilter = mock(KnownOrganizationFilter.class);
+    private final ActiveOrganizationCache activeOrganizationCache = new ActiveOrganizationCache(100,
+            Duration.ofMinutes(5), new SimpleMeterRegistry());
+    private final OrganizationClient organizationClient = new OrganizationClient(organizationService,
+            mock(OrganizationHistoryService.class), activeOrganizationCache, knownOrganizationFilter);
+
+    @BeforeEach
+    void setUp() {
+        when(knownOrganizationFilter.isDefinitelyAbsent(anyLong())).thenReturn(false);
+    }
+
+    @Test
+    @DisplayName("Should query the database only on the first lookup of an active organization")
+    void given_activeOrganization_when_getActiveOrganizationByIdTwice_then_queriedOnce() {
+        OrganizationDto organization = OrganizationDto.builder().id(1L).type("standard").build();
+        when(organizationService.getOrganizationStatus(1L)).thenReturn(Optional.of(organization));
+
+        assertThat(organizationClient.getActiveOrganizationById(1L)).isEqualTo(organization);
+        assertThat(organizationClient.getActiveOrganizationById(1L)).isEqualTo(organization);
+
+        verify(organizationService, times(1)).getOrganizationStatus(1L);
+    }
+
+    @Test
+    @DisplayName("Should query the database again after a soft-delete was committed")
+    void given_invalidatedOrganization_when_getActiveOrganizationById_then_notFound() {
+        when(organizationService.getOrganizationStatus(1L))
+                .thenReturn(Optional.of(OrganizationDto.builder().id(1L).type("standard").build()))
+                .thenReturn(Optional.of(OrganizationDto.builder().id(1L).type("standard")
+                        .deletedAt(OffsetDateTime.now()).build()));
+        organizationClient.getActiveOrganizationById(1L);
+
+        activeOrganizationCache.invalidate(1L);
+
+        assertThatThrownBy(() -> organizationClient.getActiveOrganizationById(1L))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(knownOrganizationFilter, never()).recordFalsePositive();
+    }
+
+    @Test
+    @DisplayName("Should count an ID that passed the filter but has no row as a false positive")
+    void given_missingOrganization_when_getActiveOrganizationById_then_falsePositive() {
+        when(organizationService.getOrganizationStatus(1000L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> organizationClient.getActiveOrganizationById(1000L))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(knownOrganizationFilter).recordFalsePositive();
+    }
+
+    @Test
+    @DisplayName("Should reject an ID unknown to the filter without loading it")
+    void given_unknownOrganization_when_getActiveOrganizationById_then_notFoundWithoutLoad() {
+        when(knownOrganizationFilter.isDefinitelyAbsent(1000L)).thenReturn(true);
+
+        assertThatThrownBy(() -> organizationClient.getActiveOrganizationById(1000L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Organization not found with id: 1000");
+        verify(organizationService, never()).getOrganizationStatus(anyLong());
+    }
+}
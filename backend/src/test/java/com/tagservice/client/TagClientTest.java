@@ -0,0 +1,101 @@
+package com.tagservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tagservice.context.ContextCarrier;
+import com.tagservice.context.RequestContext;
+import com.tagservice.context.TenantContext;
+import com.tagservice.response.TagBulkResponseLine;
+import com.tagservice.service.TagService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the bulk upload response of {@link TagClient}.
+ */
+class TagClientTest {
+
+    private static final UUID REQUEST_ID = UUID.fromString("0190b6f0-0000-7000-8000-000000000002");
+    private static final RequestContext TENANT_REQUEST = new RequestContext(REQUEST_ID.toString(), REQUEST_ID, null)
+            .withTenant(new TenantContext(7, "standard"));
+
+    private final TagService tagService = mock(TagService.class);
+    private final TagClient tagClient = new TagClient(tagService, new ObjectMapper());
+
+    @Test
+    @DisplayName("Should end the bulk response with a summary of every outcome")
+    void given_bulkResult_when_bulkAddTags_then_summaryHasAllCounts() throws Exception {
+        when(tagService.bulkAddTags(eq(7L), any(), any())).thenAnswer(invocation -> {
+            Consumer<TagBulkResponseLine> notStored = invocation.getArgument(2);
+            notStored.accept(TagBulkResponseLine.builder().type(TagBulkResponseLine.DUPLICATE).line(2L).build());
+            return new TagService.BulkResult(6, 1, 1, 1, 1, 2);
+        });
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        bulkAddTags(output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"type":"duplicate","line":2}
+                {"type":"summary","received":6,"rejected":1,"duplicates":1,"conflicts":1,"unchanged":1,"inserted":2}
+                """);
+    }
+
+    @Test
+    @DisplayName("Should not throw when the error line of a failed upload cannot be written")
+    void given_failedUploadAndBrokenOutput_when_bulkAddTags_then_doesNotThrow() throws Exception {
+        when(tagService.bulkAddTags(eq(7L), any(), any())).thenThrow(new IllegalStateException("database is down"));
+        OutputStream brokenOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatCode(() -> bulkAddTags(brokenOutput)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should not throw when the client disconnects while lines are reported")
+    void given_outputFailingDuringUpload_when_bulkAddTags_then_doesNotThrow() throws Exception {
+        when(tagService.bulkAddTags(eq(7L), any(), any())).thenAnswer(invocation -> {
+            Consumer<TagBulkResponseLine> notStored = invocation.getArgument(2);
+            // Enough lines to overflow the response buffer
+            for (long line = 1; line <= 1000; line++) {
+                notStored.accept(TagBulkResponseLine.builder().type(TagBulkResponseLine.CONFLICT).line(line).build());
+            }
+            return new TagService.BulkResult(1000, 0, 0, 1000, 0, 0);
+        });
+        OutputStream brokenOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatCode(() -> bulkAddTags(brokenOutput)).doesNotThrowAnyException();
+    }
+
+    private void bulkAddTags(OutputStream output) {
+        ContextCarrier.runWhere(TENANT_REQUEST, (Runnable) () -> {
+            try {
+                tagClient.bulkAddTags(new ByteArrayInputStream(new byte[0]), output);
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.tagservice.context;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ContextCarrier}.
+ */
+class ContextCarrierTest {
+
+    private static final UUID REQUEST_ID = UUID.fromString("0190b6f0-0000-7000-8000-000000000001");
+    private static final RequestContext REQUEST =
+            new RequestContext(REQUEST_ID.toString(), REQUEST_ID, null);
+
+    @Test
+    @DisplayName("Should bind a context only for the extent of runWhere, restoring the outer one")
+    void given_nestedBindings_when_runWhere_then_innerShadowsAndOuterIsRestored() {
+        AtomicReference<RequestContext> inner = new AtomicReference<>();
+        AtomicReference<RequestContext> outerAfterInner = new AtomicReference<>();
+        RequestContext tenantRequest = REQUEST.withTenant(new TenantContext(42, "standard"));
+
+        ContextCarrier.runWhere(REQUEST, (Runnable) () -> {
+            ContextCarrier.runWhere(tenantRequest, (Runnable) () -> {
+                inner.set(ContextCarrier.current());
+                assertThat(MDC.get("organizationId")).isEqualTo("42");
+            });
+            outerAfterInner.set(ContextCarrier.current());
+            assertThat(MDC.get("organizationId")).isNull();
+            assertThat(MDC.get("requestId")).isEqualTo(REQUEST_ID.toString());
+        });
+
+        assertThat(inner.get()).isEqualTo(tenantRequest);
+        assertThat(outerAfterInner.get()).isEqualTo(REQUEST);
+        assertThat(ContextCarrier.current()).isSameAs(RequestContext.EMPTY);
+        assertThat(MDC.get("requestId")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should restore the outer context when the bound action throws")
+    void given_failingAction_when_runWhere_then_contextRestored() {
+        try {
+            ContextCarrier.runWhere(REQUEST, (Runnable) () -> {
+                throw new IllegalStateException("boom");
+            });
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+
+        assertThat(ContextCarrier.current()).isSameAs(RequestContext.EMPTY);
+    }
+
+    @Test
+    @DisplayName("Should carry the submitter's context into wrapped tasks on other threads, virtual or not")
+    void given_wrappedTask_when_runOnExecutor_then_submitterContextBound() throws Exception {
+        RequestContext tenantRequest = REQUEST.withTenant(new TenantContext(7, "enterprise"));
+        try (ExecutorService platform = Executors.newSingleThreadExecutor();
+             ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ExecutorService executor : new ExecutorService[]{platform, virtual}) {
+                CompletableFuture<RequestContext> seen = new CompletableFuture<>();
+                ContextCarrier.runWhere(tenantRequest, (Runnable) () ->
+                        executor.execute(ContextCarrier.wrap(() -> seen.complete(ContextCarrier.current()))));
+
+                assertThat(seen.get()).isEqualTo(tenantRequest);
+                assertThat(OrganizationContext.getOrganizationId()).isNull();
+            }
+
+            CompletableFuture<RequestContext> afterwards = new CompletableFuture<>();
+            platform.execute(() -> afterwards.complete(ContextCarrier.current()));
+            assertThat(afterwards.get()).isSameAs(RequestContext.EMPTY);
+        }
+    }
+}
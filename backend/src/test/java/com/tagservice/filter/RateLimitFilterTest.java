@@ -0,0 +1,55 @@
+package com.tagservice.filter;
+
+import com.tagservice.context.ContextCarrier;
+import com.tagservice.context.RequestContext;
+import com.tagservice.context.TenantContext;
+import com.tagservice.ratelimit.TenantRateLimiter;
+import com.tagservice.settings.TenantSettingsCache;
+import com.tagservice.util.ErrorResponseUtil;
+import com.tagservice.util.MDCUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RateLimitFilter}.
+ */
+class RateLimitFilterTest {
+
+    private static final RequestContext TENANT_REQUEST =
+            RequestContext.EMPTY.withTenant(new TenantContext(42, "standard"));
+
+    private final TenantRateLimiter rateLimiter = mock(TenantRateLimiter.class);
+    private final TenantSettingsCache tenantSettingsCache = mock(TenantSettingsCache.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitFilter filter = new RateLimitFilter(rateLimiter, tenantSettingsCache,
+            mock(ErrorResponseUtil.class), meterRegistry, true);
+
+    @Test
+    @DisplayName("Should let the request through and count the failure when the tenant settings cannot be loaded")
+    void given_settingsFailure_when_doFilter_then_requestPassesUnlimited() throws Exception {
+        when(tenantSettingsCache.getRules(42L)).thenThrow(new DataAccessResourceFailureException("down"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/tags");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        ContextCarrier.runWhere(TENANT_REQUEST, (MDCUtil.FilterRunnable) () -> filter.doFilter(request, response, chain));
+
+        verify(chain).doFilter(request, response);
+        verify(rateLimiter, never()).tryAcquire(anyLong(), anyInt(), anyInt());
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("tagservice.rate-limit.rules-failures").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.tagservice.filter;
+
+import com.tagservice.filter.RouteClassifier.RouteType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the precompiled route table used by TenantResolutionFilter.
+ */
+class RouteClassifierTest {
+
+    private final RouteClassifier routeClassifier = new RouteClassifier();
+
+    @ParameterizedTest(name = "{0} {1} -> {2}")
+    @CsvSource({
+            "GET, /actuator/health, PUBLIC",
+            "GET, /health, PUBLIC",
+            "GET, /api/v1/health, PUBLIC",
+            "POST, /v1/organizations, ORGANIZATION_CREATE",
+            "POST, /v1/organizations/, ORGANIZATION_CREATE",
+            "post, /api/v2/organizations, ORGANIZATION_CREATE",
+            "POST, /api/v10/organizations, ORGANIZATION_CREATE",
+            "GET, /v1/organizations, TENANT",
+            "POST, /v1/organizations/1, TENANT",
+            "POST, /vx/organizations, TENANT",
+            "POST, /v/organizations, TENANT",
+            "POST, /v1/organizationsx, TENANT",
+            "POST, /api/tags, TENANT"
+    })
+    @DisplayName("Should classify requests against the route table")
+    void given_request_when_classify_then_returnsRouteType(String method, String path, RouteType expected) {
+        assertThat(routeClassifier.classify(method, path)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Should treat unknown routes as tenant-scoped")
+    void given_unknownPath_when_classify_then_returnsTenant() {
+        assertThat(routeClassifier.classify("DELETE", "/api/tags/server/srv-01")).isEqualTo(RouteType.TENANT);
+    }
+}
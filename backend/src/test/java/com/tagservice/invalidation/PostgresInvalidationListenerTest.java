@@ -0,0 +1,138 @@
+package com.tagservice.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the invalidation listener, with mocked connections in place of PostgreSQL.
+ */
+class PostgresInvalidationListenerTest {
+
+    private final InvalidationSubscriber first = mock(InvalidationSubscriber.class);
+    private final InvalidationSubscriber second = mock(InvalidationSubscriber.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Deque<Connection> connections = new ArrayDeque<>();
+
+    private final PostgresInvalidationListener listener = new PostgresInvalidationListener(
+            new DataSourceProperties(), subscribers(first, second), new ObjectMapper(), meterRegistry,
+            Duration.ofMillis(1), Duration.ofMillis(1)) {
+        @Override
+        Connection openConnection() throws SQLException {
+            Connection connection = connections.poll();
+            if (connection == null) {
+                throw new SQLException("no more connections");
+            }
+            return connection;
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<InvalidationSubscriber> subscribers(InvalidationSubscriber... subscribers) {
+        ObjectProvider<InvalidationSubscriber> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(invocation -> List.of(subscribers).stream());
+        return provider;
+    }
+
+    private static Connection connection(boolean alive) throws SQLException {
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(pgConnection.getNotifications(anyInt())).thenReturn(null);
+        if (!alive) {
+            doThrow(new SQLException("connection reset")).when(statement).execute("SELECT 1");
+        }
+        return connection;
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    @DisplayName("Should parse the payload into an event for every subscriber")
+    void given_tagsPayload_when_dispatch_then_subscribersReceiveEvent() {
+        listener.dispatch("""
+                {"table": "tags", "op": "UPDATE", "organization_id": 42, "entity_type": "server", "entity_id": "s1"}
+                """);
+
+        InvalidationEvent expected = new InvalidationEvent("tags", "UPDATE", 42L, "server", "s1");
+        verify(first).onInvalidation(expected);
+        verify(second).onInvalidation(expected);
+        assertThat(meterRegistry.counter("tagservice.invalidation.notifications").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave the entity null when the payload names none")
+    void given_organizationsPayload_when_dispatch_then_entityNull() {
+        listener.dispatch("""
+                {"table": "organizations", "op": "DELETE", "organization_id": 7}
+                """);
+
+        verify(first).onInvalidation(new InvalidationEvent("organizations", "DELETE", 7L));
+    }
+
+    @Test
+    @DisplayName("Should ignore a malformed payload")
+    void given_malformedPayload_when_dispatch_then_nothingDispatched() {
+        listener.dispatch("{not json");
+
+        verify(first, never()).onInvalidation(any());
+        assertThat(meterRegistry.counter("tagservice.invalidation.notifications").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should still notify the other subscribers when one fails")
+    void given_failingSubscriber_when_dispatch_then_othersNotified() {
+        InvalidationEvent event = new InvalidationEvent("tenant_settings", "UPDATE", 3L);
+        doThrow(new IllegalStateException("boom")).when(first).onInvalidation(event);
+
+        listener.dispatch("""
+                {"table": "tenant_settings", "op": "UPDATE", "organization_id": 3}
+                """);
+
+        verify(second).onInvalidation(event);
+    }
+
+    @Test
+    @DisplayName("Should reconnect and resync subscribers when the keepalive query fails")
+    void given_deadConnection_when_pollTimesOut_then_reconnectsAndResyncs() throws SQLException {
+        Connection dead = connection(false);
+        Connection healthy = connection(true);
+        connections.add(dead);
+        connections.add(healthy);
+
+        listener.start();
+
+        verify(first, timeout(5000)).onResync();
+        verify(second, timeout(5000)).onResync();
+        verify(dead).close();
+        assertThat(meterRegistry.counter("tagservice.invalidation.reconnects").count()).isEqualTo(1);
+    }
+}
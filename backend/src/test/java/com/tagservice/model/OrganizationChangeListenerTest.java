@@ -0,0 +1,43 @@
+package com.tagservice.model;
+
+import com.tagservice.event.OrganizationChangedEvent;
+import com.tagservice.event.OrganizationChangedEvent.ChangeType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.OffsetDateTime;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link OrganizationChangeListener}.
+ */
+class OrganizationChangeListenerTest {
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final OrganizationChangeListener listener = new OrganizationChangeListener(eventPublisher);
+
+    @Test
+    @DisplayName("Should report an update that sets deleted_at as a deletion")
+    void given_softDeletedOrganization_when_onUpdated_then_publishesDeleted() {
+        Organization organization = Organization.builder().deletedAt(OffsetDateTime.now()).build();
+        organization.setId(1L);
+
+        listener.onUpdated(organization);
+
+        verify(eventPublisher).publishEvent(new OrganizationChangedEvent(1L, ChangeType.DELETED));
+    }
+
+    @Test
+    @DisplayName("Should report other updates as updates")
+    void given_activeOrganization_when_onUpdated_then_publishesUpdated() {
+        Organization organization = Organization.builder().build();
+        organization.setId(1L);
+
+        listener.onUpdated(organization);
+
+        verify(eventPublisher).publishEvent(new OrganizationChangedEvent(1L, ChangeType.UPDATED));
+    }
+}
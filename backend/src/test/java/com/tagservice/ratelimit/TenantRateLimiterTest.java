@@ -0,0 +1,98 @@
+package com.tagservice.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TenantRateLimiter}.
+ */
+class TenantRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    private final TenantRateLimiter limiter = new TenantRateLimiter(1_000, Duration.ofMinutes(5), now::get);
+
+    @Test
+    @DisplayName("Should allow a full burst, then refuse with the time until the next token")
+    void given_burstUsed_when_tryAcquire_then_refusedUntilRefill() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(1, 10, 5)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire(1, 10, 5)).isEqualTo(SECOND / 10);
+
+        now.addAndGet(SECOND / 10);
+        assertThat(limiter.tryAcquire(1, 10, 5)).isZero();
+        assertThat(limiter.tryAcquire(1, 10, 5)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should refill at most a full burst however long the bucket was idle")
+    void given_idleBucket_when_tryAcquire_then_burstCapped() {
+        limiter.tryAcquire(1, 10, 3);
+        now.addAndGet(60 * SECOND);
+
+        int allowed = 0;
+        while (limiter.tryAcquire(1, 10, 3) == 0) {
+            allowed++;
+        }
+
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep tenants apart, apply changed limits and never limit a rate of 0")
+    void given_tenantsAndLimits_when_tryAcquire_then_independent() {
+        assertThat(limiter.tryAcquire(1, 1, 1)).isZero();
+        assertThat(limiter.tryAcquire(1, 1, 1)).isPositive();
+
+        assertThat(limiter.tryAcquire(2, 1, 1)).isZero();
+        assertThat(limiter.tryAcquire(1, 1, 2)).isZero();
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(3, 0, 1)).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand out exactly the burst under contention")
+    void given_concurrentCallers_when_tryAcquire_then_noTokenGrantedTwice() throws Exception {
+        int threads = 32;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 1_000; i++) {
+                        if (limiter.tryAcquire(1, 1, 500) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(allowed.get()).isEqualTo(500);
+    }
+}
@@ -0,0 +1,187 @@
+package com.tagservice.replica;
+
+import com.tagservice.context.ContextCarrier;
+import com.tagservice.context.RequestContext;
+import com.tagservice.context.TenantContext;
+import com.tagservice.rls.RlsMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing tests for {@link ReplicaRoutingDataSource} against two in-memory H2 databases standing in
+ * for the primary and a replica.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final TenantContext TENANT = new TenantContext(42, "standard");
+    private static final TenantContext OTHER_TENANT = new TenantContext(43, "standard");
+
+    /**
+     * Last tenant bound through {@code set_config} on the replica.
+     */
+    private static volatile String boundTenant;
+
+    /**
+     * H2 functions of the replica; public, as H2 can only call methods of public classes.
+     */
+    public static final class ReplicaFunctions {
+
+        /**
+         * Stands in for PostgreSQL's {@code set_config} on the replica.
+         */
+        public static String setConfig(String name, String value, boolean local) {
+            boundTenant = value;
+            return value;
+        }
+    }
+
+    private JdbcDataSource primary;
+    private Connection primaryKeepAlive;
+    private Connection replicaKeepAlive;
+    private ReplicaPool replicaPool;
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = h2("routing-primary");
+        primaryKeepAlive = primary.getConnection();
+        execute(primaryKeepAlive, "CREATE TABLE node (name VARCHAR(20))", "INSERT INTO node VALUES ('primary')");
+        replicaKeepAlive = h2("routing-replica").getConnection();
+        execute(replicaKeepAlive, "CREATE TABLE node (name VARCHAR(20))", "INSERT INTO node VALUES ('replica')",
+                "CREATE TABLE lag (ms BIGINT)", "INSERT INTO lag VALUES (0)",
+                "CREATE ALIAS set_config FOR \"" + ReplicaFunctions.class.getName() + ".setConfig\"");
+        boundTenant = null;
+
+        replicaPool = replicaPool("jdbc:h2:mem:routing-replica");
+        tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+        routing = new ReplicaRoutingDataSource(primary, () -> replicaPool, () -> tracker, RlsMode.TRANSACTION);
+        replicaPool.probe();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        replicaPool.stop();
+        primaryKeepAlive.close();
+        replicaKeepAlive.close();
+    }
+
+    @Test
+    @DisplayName("Should read from a current replica with the tenant bound to the connection")
+    void given_currentReplica_when_reading_then_replicaUsedWithTenantBound() {
+        assertThat(readNode(TENANT)).isEqualTo("replica");
+        assertThat(boundTenant).isEqualTo("42");
+
+        assertThat(readNode(null)).isEqualTo("replica");
+        assertThat(boundTenant).as("reset outside a tenant").isNull();
+    }
+
+    @Test
+    @DisplayName("Should read a tenant's recent writes from the primary, other tenants from the replica")
+    void given_recentWrite_when_reading_then_onlyThatTenantReadsPrimary() {
+        tracker.recordWrite(TENANT.organizationId());
+
+        assertThat(readNode(TENANT)).isEqualTo("primary");
+        assertThat(readNode(OTHER_TENANT)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should read cache and index fills from the primary even with a current replica")
+    void given_primaryReads_when_reading_then_primaryUsed() {
+        assertThat(PrimaryReads.call(() -> readNode(TENANT))).isEqualTo("primary");
+        assertThat(PrimaryReads.required()).as("cleared after the fill").isFalse();
+        assertThat(readNode(TENANT)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should read every tenant from the primary for one window after the invalidation listener resyncs")
+    void given_resync_when_reading_then_everyTenantReadsPrimary() {
+        tracker.onResync();
+
+        assertThat(readNode(TENANT)).isEqualTo("primary");
+        assertThat(readNode(OTHER_TENANT)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags too far behind")
+    void given_laggingReplica_when_reading_then_primaryUsedUntilCaughtUp() throws SQLException {
+        execute(replicaKeepAlive, "UPDATE lag SET ms = 5000");
+        replicaPool.probe();
+
+        assertThat(readNode(TENANT)).isEqualTo("primary");
+
+        execute(replicaKeepAlive, "UPDATE lag SET ms = 200");
+        replicaPool.probe();
+
+        assertThat(readNode(TENANT)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica cannot tell its lag")
+    void given_unknownReplicaLag_when_reading_then_primaryUsed() throws SQLException {
+        execute(replicaKeepAlive, "UPDATE lag SET ms = NULL");
+        replicaPool.probe();
+
+        assertThat(replicaPool.pick()).isNull();
+        assertThat(readNode(TENANT)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica cannot be reached")
+    void given_unreachableReplica_when_reading_then_primaryUsed() {
+        replicaPool.stop();
+        replicaPool = replicaPool("jdbc:h2:tcp://127.0.0.1:1/unreachable");
+        replicaPool.probe();
+
+        assertThat(replicaPool.pick()).isNull();
+        assertThat(readNode(TENANT)).isEqualTo("primary");
+    }
+
+    private String readNode(TenantContext tenant) {
+        AtomicReference<String> node = new AtomicReference<>();
+        ContextCarrier.runWhere(RequestContext.EMPTY.withTenant(tenant), (Runnable) () -> {
+            try (Connection connection = routing.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT name FROM node")) {
+                resultSet.next();
+                node.set(resultSet.getString(1));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return node.get();
+    }
+
+    private static ReplicaPool replicaPool(String url) {
+        return new ReplicaPool(url, "sa", "", "org.h2.Driver", 2, Duration.ofMillis(250),
+                Duration.ofSeconds(1), Duration.ofSeconds(1), "SELECT ms FROM lag", new SimpleMeterRegistry());
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name);
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static void execute(Connection connection, String... sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String s : sql) {
+                statement.execute(s);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.tagservice.repository;
+
+import com.tagservice.model.OrganizationSetting;
+import com.tagservice.model.SearchMode;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mapping tests for {@link OrganizationSettingRepository} against an in-memory H2 copy of the
+ * {@code tenant_settings} table as created by V4 and V11 (without the foreign key and triggers).
+ */
+class OrganizationSettingRepositoryTest {
+
+    private static final String TENANT_SETTINGS_DDL = """
+            CREATE TABLE tenant_settings (
+                setting_id SERIAL PRIMARY KEY,
+                organization_id INTEGER NOT NULL UNIQUE,
+                allow_upsert_tag BOOLEAN NOT NULL DEFAULT TRUE,
+                allow_rename_tag BOOLEAN NOT NULL DEFAULT TRUE,
+                allow_delete_active_tag BOOLEAN NOT NULL DEFAULT FALSE,
+                allow_color BOOLEAN NOT NULL DEFAULT TRUE,
+                key_case_sensitive BOOLEAN NOT NULL DEFAULT FALSE,
+                max_tag_count_per_entity INTEGER NOT NULL DEFAULT 50,
+                min_tag_key_length INTEGER NOT NULL DEFAULT 1,
+                max_tag_key_length INTEGER NOT NULL DEFAULT 50,
+                min_tag_value_length INTEGER NOT NULL DEFAULT 0,
+                max_tag_value_length INTEGER NOT NULL DEFAULT 255,
+                search_mode VARCHAR(20) NOT NULL DEFAULT 'partial',
+                version INTEGER NOT NULL DEFAULT 1,
+                updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+                updated_by VARCHAR(40),
+                rate_limit_per_second INTEGER NOT NULL DEFAULT 100 CHECK (rate_limit_per_second >= 0),
+                rate_limit_burst INTEGER NOT NULL DEFAULT 200 CHECK (rate_limit_burst >= 1)
+            )
+            """;
+
+    private Connection keepAlive;
+    private JdbcTemplate jdbcTemplate;
+    private OrganizationSettingRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:tenant-settings;MODE=PostgreSQL");
+        keepAlive = dataSource.getConnection();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(TENANT_SETTINGS_DDL);
+        repository = new OrganizationSettingRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        jdbcTemplate.execute("DROP TABLE tenant_settings");
+        keepAlive.close();
+    }
+
+    @Test
+    @DisplayName("Given a settings row, when loading it, then every column is mapped")
+    void given_settingsRow_when_findByOrganizationId_then_allColumnsMapped() {
+        jdbcTemplate.update("""
+                INSERT INTO tenant_settings (organization_id, allow_upsert_tag, allow_rename_tag,
+                    allow_delete_active_tag, allow_color, key_case_sensitive, max_tag_count_per_entity,
+                    min_tag_key_length, max_tag_key_length, min_tag_value_length, max_tag_value_length,
+                    search_mode, version, rate_limit_per_second, rate_limit_burst)
+                VALUES (7, FALSE, FALSE, TRUE, FALSE, TRUE, 12, 2, 30, 1, 80, 'fuzzy', 4, 25, 40)
+                """);
+
+        OrganizationSetting setting = repository.findByOrganizationId(7L).orElseThrow();
+
+        assertThat(setting.getOrganizationId()).isEqualTo(7L);
+        assertThat(setting.getVersion()).isEqualTo(4);
+        assertThat(setting.isAllowUpsertTag()).isFalse();
+        assertThat(setting.isAllowRenameTag()).isFalse();
+        assertThat(setting.isAllowDeleteActiveTag()).isTrue();
+        assertThat(setting.isAllowColor()).isFalse();
+        assertThat(setting.isKeyCaseSensitive()).isTrue();
+        assertThat(setting.getMaxTagCountPerEntity()).isEqualTo(12);
+        assertThat(setting.getMinTagKeyLength()).isEqualTo(2);
+        assertThat(setting.getMaxTagKeyLength()).isEqualTo(30);
+        assertThat(setting.getMinTagValueLength()).isEqualTo(1);
+        assertThat(setting.getMaxTagValueLength()).isEqualTo(80);
+        assertThat(setting.getSearchMode()).isEqualTo(SearchMode.FUZZY);
+        assertThat(setting.getRateLimitPerSecond()).isEqualTo(25);
+        assertThat(setting.getRateLimitBurst()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Given a row with column defaults, when loading it, then the lower-case default search mode is mapped")
+    void given_defaultRow_when_findByOrganizationId_then_defaultsMapped() {
+        jdbcTemplate.update("INSERT INTO tenant_settings (organization_id) VALUES (8)");
+
+        OrganizationSetting setting = repository.findByOrganizationId(8L).orElseThrow();
+
+        assertThat(setting.getSearchMode()).isEqualTo(SearchMode.PARTIAL);
+        assertThat(setting.getVersion()).isEqualTo(1);
+        assertThat(setting.getMaxTagCountPerEntity()).isEqualTo(50);
+        assertThat(setting.getRateLimitBurst()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Given a row with an unknown search mode, when loading it, then the default search mode is mapped")
+    void given_unknownSearchMode_when_findByOrganizationId_then_defaultSearchMode() {
+        jdbcTemplate.update("INSERT INTO tenant_settings (organization_id, search_mode) VALUES (11, 'regex')");
+
+        OrganizationSetting setting = repository.findByOrganizationId(11L).orElseThrow();
+
+        assertThat(setting.getSearchMode()).isEqualTo(SearchMode.PARTIAL);
+    }
+
+    @Test
+    @DisplayName("Given settings rows, when reading versions, then only existing organizations have one")
+    void given_settingsRow_when_findVersionByOrganizationId_then_versionOrEmpty() {
+        jdbcTemplate.update("INSERT INTO tenant_settings (organization_id, version) VALUES (9, 3)");
+
+        assertThat(repository.findVersionByOrganizationId(9L)).contains(3);
+        assertThat(repository.findVersionByOrganizationId(10L)).isEmpty();
+        assertThat(repository.findByOrganizationId(10L)).isEmpty();
+    }
+}
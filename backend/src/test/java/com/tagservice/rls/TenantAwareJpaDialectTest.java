@@ -0,0 +1,114 @@
+package com.tagservice.rls;
+
+import com.tagservice.context.ContextCarrier;
+import com.tagservice.context.RequestContext;
+import com.tagservice.context.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.FlushMode;
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link TenantAwareJpaDialect}, with a mocked Hibernate session and connection.
+ */
+class TenantAwareJpaDialectTest {
+
+    private static final RequestContext TENANT_REQUEST =
+            RequestContext.EMPTY.withTenant(new TenantContext(42, "standard"));
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final SessionImplementor session = mock(SessionImplementor.class);
+    private final EntityTransaction transaction = mock(EntityTransaction.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        when(session.getHibernateFlushMode()).thenReturn(FlushMode.AUTO);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        // Hibernate runs the work on the transaction's connection and wraps SQL failures
+        doAnswer(invocation -> {
+            try {
+                invocation.<Work>getArgument(0).execute(connection);
+            } catch (SQLException e) {
+                throw new JDBCException("Error calling Work", e);
+            }
+            return null;
+        }).when(session).doWork(any());
+    }
+
+    private void beginAsTenant(RlsMode rlsMode) {
+        ContextCarrier.runWhere(TENANT_REQUEST, (Runnable) () -> begin(rlsMode));
+    }
+
+    private void begin(RlsMode rlsMode) {
+        try {
+            new TenantAwareJpaDialect(rlsMode).beginTransaction(entityManager, new DefaultTransactionDefinition());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("Should bind the tenant transaction-locally right after the transaction begins")
+    void given_transactionModeAndTenant_when_beginTransaction_then_setConfigAfterBegin() throws SQLException {
+        beginAsTenant(RlsMode.TRANSACTION);
+
+        InOrder order = inOrder(transaction, connection, statement);
+        order.verify(transaction).begin();
+        order.verify(connection).prepareStatement(contains("set_config('app.current_tenant_id', ?, true)"));
+        order.verify(statement).setString(1, "42");
+        order.verify(statement).execute();
+    }
+
+    @Test
+    @DisplayName("Should not touch the connection without a tenant or outside transaction mode")
+    void given_noTenantOrSessionMode_when_beginTransaction_then_setConfigSkipped() {
+        begin(RlsMode.TRANSACTION);
+        beginAsTenant(RlsMode.SESSION);
+
+        verify(transaction, times(2)).begin();
+        verify(session, never()).doWork(any());
+    }
+
+    @Test
+    @DisplayName("Should fail the transaction begin when the tenant cannot be bound")
+    void given_setConfigFailure_when_beginTransaction_then_failurePropagates() throws SQLException {
+        SQLException failure = new SQLException("permission denied for function set_config");
+        doThrow(failure).when(statement).execute();
+
+        assertThatThrownBy(() -> beginAsTenant(RlsMode.TRANSACTION))
+                .isInstanceOf(JDBCException.class)
+                .hasCause(failure);
+        assertThat(ContextCarrier.current()).isSameAs(RequestContext.EMPTY);
+    }
+}
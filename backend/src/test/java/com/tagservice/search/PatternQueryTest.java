@@ -0,0 +1,81 @@
+package com.tagservice.search;
+
+import com.tagservice.search.PatternQuery.Match;
+import com.tagservice.search.PatternQuery.Operator;
+import com.tagservice.search.PatternQuery.Term;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link PatternQuery}.
+ */
+class PatternQueryTest {
+
+    @Test
+    @DisplayName("Should turn PARTIAL terms into escaped contains patterns")
+    void given_partialQuery_when_translated_then_containsPatterns() {
+        PatternQuery query = PatternQuery.partial(parse("env:pro_d% region"), 100);
+
+        assertThat(query.terms()).containsExactly(
+                new Term(new Match(Operator.LIKE, "%env%"), new Match(Operator.ILIKE, "%pro\\_d\\%%")),
+                new Term(new Match(Operator.LIKE, "%region%"), null));
+    }
+
+    @Test
+    @DisplayName("Should compare PARTIAL fragments too short for trigrams for equality")
+    void given_shortFragment_when_partial_then_equals() {
+        PatternQuery query = PatternQuery.partial(parse("os:eu"), 100);
+
+        assertThat(query.terms()).containsExactly(
+                new Term(new Match(Operator.EQUALS, "os"), new Match(Operator.EQUALS, "eu")));
+    }
+
+    @Test
+    @DisplayName("Should translate wildcards, collapse stars and keep escaped characters literal")
+    void given_wildcardQuery_when_translated_then_likePatterns() {
+        PatternQuery query = PatternQuery.wildcard(parse("env:prod-**-eu? team:a\\*b *:postgres"), 100, 4);
+
+        assertThat(query.terms()).containsExactly(
+                new Term(new Match(Operator.EQUALS, "env"), new Match(Operator.LIKE, "prod-%-eu_")),
+                new Term(new Match(Operator.EQUALS, "team"), new Match(Operator.EQUALS, "a*b")),
+                new Term(null, new Match(Operator.EQUALS, "postgres")));
+    }
+
+    @Test
+    @DisplayName("Should match any value for a star-only value")
+    void given_starValue_when_wildcard_then_anyValue() {
+        PatternQuery query = PatternQuery.wildcard(parse("env:*"), 100, 4);
+
+        assertThat(query.terms()).containsExactly(new Term(new Match(Operator.EQUALS, "env"), null));
+    }
+
+    @ParameterizedTest(name = "rejects {0}")
+    @ValueSource(strings = {"*:*", "*", "e*:p*", "*:?*", "*:*ab*"})
+    void given_unselectivePattern_when_wildcard_then_rejected(String pattern) {
+        assertThatThrownBy(() -> PatternQuery.wildcard(parse(pattern), 100, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("consecutive letters or digits");
+    }
+
+    @Test
+    @DisplayName("Should reject patterns with too many stars or too many characters")
+    void given_expensivePattern_when_wildcard_then_rejected() {
+        assertThatThrownBy(() -> PatternQuery.wildcard(parse("env:a*b*c*d*e*f"), 100, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("wildcards");
+        assertThatThrownBy(() -> PatternQuery.partial(parse("env:" + "x".repeat(101)), 100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("longer than");
+    }
+
+    private static TagQuery parse(String query) {
+        return TagQuery.parse(query, UnaryOperator.identity());
+    }
+}
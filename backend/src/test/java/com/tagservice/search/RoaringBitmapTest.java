@@ -0,0 +1,140 @@
+package com.tagservice.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RoaringBitmap}, checked against {@link BitSet}.
+ */
+class RoaringBitmapTest {
+
+    @Test
+    @DisplayName("Should behave like a BitSet for sparse and dense containers")
+    void given_randomValues_when_addedAndRemoved_then_matchesBitSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            // Alternate between a range that stays in array containers and one that forces bitmap containers
+            int range = round % 2 == 0 ? 1 << 20 : 3 * 65536;
+            int count = round % 2 == 0 ? 2_000 : 40_000;
+            RoaringBitmap bitmap = new RoaringBitmap();
+            BitSet expected = new BitSet();
+            for (int i = 0; i < count; i++) {
+                int value = random.nextInt(range);
+                bitmap.add(value);
+                expected.set(value);
+            }
+            for (int i = 0; i < count / 2; i++) {
+                int value = random.nextInt(range);
+                bitmap.remove(value);
+                expected.clear(value);
+            }
+
+            assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+            assertThat(toList(bitmap)).isEqualTo(expected.stream().boxed().toList());
+            for (int i = 0; i < 1_000; i++) {
+                int value = random.nextInt(range);
+                assertThat(bitmap.contains(value)).isEqualTo(expected.get(value));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should intersect and union like a BitSet")
+    void given_twoBitmaps_when_andOr_then_matchesBitSet() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            RoaringBitmap a = new RoaringBitmap();
+            RoaringBitmap b = new RoaringBitmap();
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            fill(random, a, expectedA, 1 + random.nextInt(20_000));
+            fill(random, b, expectedB, 1 + random.nextInt(20_000));
+
+            BitSet and = (BitSet) expectedA.clone();
+            and.and(expectedB);
+            BitSet or = (BitSet) expectedA.clone();
+            or.or(expectedB);
+
+            assertThat(toList(RoaringBitmap.and(a, b))).isEqualTo(and.stream().boxed().toList());
+            assertThat(toList(RoaringBitmap.or(a, b))).isEqualTo(or.stream().boxed().toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not change the original when a copy is modified")
+    void given_copy_when_modified_then_originalUnchanged() {
+        RoaringBitmap original = new RoaringBitmap();
+        original.add(1);
+        original.add(70_000);
+
+        RoaringBitmap copy = original.copy();
+        copy.add(2);
+        copy.remove(70_000);
+
+        assertThat(toList(original)).containsExactly(1, 70_000);
+        assertThat(toList(copy)).containsExactly(1, 2);
+    }
+
+    @Test
+    @DisplayName("Should stop iterating when the consumer returns false")
+    void given_consumerReturningFalse_when_forEach_then_stops() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 100; i++) {
+            bitmap.add(i * 1_000);
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        bitmap.forEach(value -> {
+            seen.add(value);
+            return seen.size() < 3;
+        });
+
+        assertThat(seen).containsExactly(0, 1_000, 2_000);
+    }
+
+    @Test
+    @DisplayName("Should resume iteration at any value in sparse and dense containers")
+    void given_startValue_when_forEachFrom_then_matchesBitSetTail() {
+        Random random = new Random(7);
+        RoaringBitmap sparse = new RoaringBitmap();
+        BitSet sparseExpected = new BitSet();
+        fill(random, sparse, sparseExpected, 2_000);
+        RoaringBitmap dense = new RoaringBitmap();
+        BitSet denseExpected = new BitSet();
+        fill(random, dense, denseExpected, 100_000);
+
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(5 * 65536);
+            assertThat(toList(sparse, from)).isEqualTo(sparseExpected.stream().filter(v -> v >= from).boxed().toList());
+            assertThat(toList(dense, from)).isEqualTo(denseExpected.stream().filter(v -> v >= from).boxed().toList());
+        }
+    }
+
+    private static void fill(Random random, RoaringBitmap bitmap, BitSet expected, int count) {
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(4 * 65536);
+            bitmap.add(value);
+            expected.set(value);
+        }
+    }
+
+    private static List<Integer> toList(RoaringBitmap bitmap) {
+        return toList(bitmap, 0);
+    }
+
+    private static List<Integer> toList(RoaringBitmap bitmap, int from) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEachFrom(from, value -> {
+            values.add(value);
+            return true;
+        });
+        return values;
+    }
+}
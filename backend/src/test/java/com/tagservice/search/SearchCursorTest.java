@@ -0,0 +1,38 @@
+package com.tagservice.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SearchCursor}.
+ */
+class SearchCursorTest {
+
+    @Test
+    @DisplayName("Should decode the entity reference an encoded cursor continues after")
+    void given_encodedCursor_when_decode_then_sameEntityRef() {
+        assertThat(SearchCursor.decode(SearchCursor.encode(0))).isZero();
+        assertThat(SearchCursor.decode(SearchCursor.encode(123_456_789_012L))).isEqualTo(123_456_789_012L);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens it did not produce")
+    void given_foreignToken_when_decode_then_rejected() {
+        assertThatThrownBy(() -> SearchCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("MTIz")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("djE6YWJj")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("djE6LTE")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should accept every non-negative reference and reject those beyond the long range")
+    void given_extremeReferences_when_decode_then_rangeChecked() {
+        assertThat(SearchCursor.decode(SearchCursor.encode(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+        // v1:9223372036854775808
+        assertThatThrownBy(() -> SearchCursor.decode("djE6OTIyMzM3MjAzNjg1NDc3NTgwOA"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
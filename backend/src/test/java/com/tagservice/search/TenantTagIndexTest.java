@@ -0,0 +1,165 @@
+package com.tagservice.search;
+
+import com.tagservice.dto.TagDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TenantTagIndex} and {@link TagQuery}.
+ */
+class TenantTagIndexTest {
+
+    private static final IndexedEntity WEB = new IndexedEntity("host", "web-1");
+    private static final IndexedEntity DB = new IndexedEntity("host", "db-1");
+    private static final IndexedEntity BUCKET = new IndexedEntity("bucket", "logs");
+
+    private TenantTagIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TenantTagIndex();
+        index.ensureLoaded(sink -> {
+            sink.add(1, "host", "web-1", "env", "prod");
+            sink.add(1, "host", "web-1", "role", "web");
+            sink.add(2, "host", "db-1", "env", "prod");
+            sink.add(2, "host", "db-1", "role", "db");
+            sink.add(3, "bucket", "logs", "env", "dev");
+        });
+    }
+
+    @Test
+    @DisplayName("Should return only entities matching every term")
+    void given_twoTerms_when_search_then_intersection() {
+        assertThat(entities(index.search(query("env:prod role:web"), -1, 10))).containsExactly(WEB);
+        assertThat(entities(index.search(query("env:prod"), -1, 10))).containsExactly(WEB, DB);
+        assertThat(entities(index.search(query("env:prod,role:cache"), -1, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match any value for a term without a value")
+    void given_keyOnlyTerm_when_search_then_anyValue() {
+        assertThat(entities(index.search(query("env"), -1, 10))).containsExactlyInAnyOrder(WEB, DB, BUCKET);
+        assertThat(entities(index.search(query("role env:prod"), -1, 1))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should reflect applied changes and drop entities without tags")
+    void given_dirtyEntities_when_applied_then_searchReflectsChanges() {
+        index.markDirty(WEB);
+        index.markDirty(BUCKET);
+        assertThat(index.needsRefresh()).isTrue();
+
+        assertThat(index.drainDirty()).containsExactlyInAnyOrder(WEB, BUCKET);
+        index.apply(Map.of(
+                WEB, List.of(new TagDto("env", "staging")),
+                BUCKET, List.of()), Map.of(WEB, 1L));
+
+        assertThat(index.needsRefresh()).isFalse();
+        assertThat(entities(index.search(query("env:prod"), -1, 10))).containsExactly(DB);
+        assertThat(entities(index.search(query("env:staging"), -1, 10))).containsExactly(WEB);
+        assertThat(entities(index.search(query("role:web"), -1, 10))).isEmpty();
+        assertThat(entities(index.search(query("env:dev"), -1, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should weigh the index by its indexed entities and tags")
+    void given_appliedChanges_when_weight_then_entitiesPlusTags() {
+        assertThat(index.weight()).isEqualTo(3 + 5);
+
+        index.apply(Map.of(
+                WEB, List.of(new TagDto("env", "staging")),
+                BUCKET, List.of()), Map.of(WEB, 1L));
+
+        assertThat(index.weight()).isEqualTo(2 + 3);
+    }
+
+    @Test
+    @DisplayName("Should match keys and values within the allowed edit distance")
+    void given_misspelledTerms_when_searchFuzzy_then_closeTagsMatch() {
+        assertThat(entities(index.searchFuzzy(query("env:prdo"), 2, 50, -1, 10))).isEmpty();
+        assertThat(entities(index.searchFuzzy(query("env:prd"), 2, 50, -1, 10))).containsExactlyInAnyOrder(WEB, DB);
+        assertThat(entities(index.searchFuzzy(query("rloe:web"), 2, 50, -1, 10))).isEmpty();
+        assertThat(entities(index.searchFuzzy(query("roles:web env:prod"), 2, 50, -1, 10))).containsExactly(WEB);
+        assertThat(entities(index.searchFuzzy(query("env:dev"), 2, 50, -1, 10))).containsExactly(BUCKET);
+        assertThat(entities(index.searchFuzzy(query("env:dex"), 2, 50, -1, 10))).containsExactly(BUCKET);
+    }
+
+    @Test
+    @DisplayName("Should count a fuzzy key-only term's key as one expansion, whatever its number of values")
+    void given_keyWithManyValues_when_searchFuzzyKeyOnly_then_allValuesMatched() {
+        assertThat(entities(index.searchFuzzy(query("emv"), 2, 1, -1, 10)))
+                .containsExactlyInAnyOrder(WEB, DB, BUCKET);
+        assertThat(entities(index.searchFuzzy(query("rol"), 2, 1, -1, 10))).containsExactlyInAnyOrder(WEB, DB);
+    }
+
+    @Test
+    @DisplayName("Should stop matching removed tags fuzzily")
+    void given_removedTag_when_searchFuzzy_then_notMatched() {
+        index.apply(Map.of(BUCKET, List.of()), Map.of());
+
+        assertThat(entities(index.searchFuzzy(query("env:dex"), 2, 50, -1, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should page through results in reference order after the given reference")
+    void given_afterEntityRef_when_search_then_continuesAfterIt() {
+        index.apply(Map.of(new IndexedEntity("host", "web-2"), List.of(new TagDto("env", "prod"))),
+                Map.of(new IndexedEntity("host", "web-2"), 70_000L));
+
+        assertThat(index.search(query("env:prod"), -1, 2))
+                .containsExactly(new SearchHit(1, "host", "web-1"), new SearchHit(2, "host", "db-1"));
+        assertThat(index.search(query("env:prod"), 2, 2)).containsExactly(new SearchHit(70_000, "host", "web-2"));
+        assertThat(index.search(query("env:prod"), 70_000, 2)).isEmpty();
+        assertThat(entities(index.searchFuzzy(query("env:prd"), 2, 50, 1, 10)))
+                .containsExactly(DB, new IndexedEntity("host", "web-2"));
+    }
+
+    @Test
+    @DisplayName("Should keep reference order for entities beyond the int range and arriving out of order")
+    void given_largeAndOutOfOrderRefs_when_search_then_referenceOrder() {
+        IndexedEntity late = new IndexedEntity("host", "web-3");
+        IndexedEntity early = new IndexedEntity("host", "web-4");
+        index.apply(Map.of(late, List.of(new TagDto("env", "prod"))), Map.of(late, 5_000_000_000L));
+        index.apply(Map.of(early, List.of(new TagDto("env", "prod"))), Map.of(early, 4_000_000_000L));
+
+        assertThat(index.search(query("env:prod"), 2, 10)).containsExactly(
+                new SearchHit(4_000_000_000L, "host", "web-4"), new SearchHit(5_000_000_000L, "host", "web-3"));
+        assertThat(index.search(query("env:prod"), 4_000_000_000L, 10))
+                .containsExactly(new SearchHit(5_000_000_000L, "host", "web-3"));
+        assertThat(entities(index.search(query("role"), -1, 10))).containsExactly(WEB, DB);
+        assertThat(index.search(query("env:prod"), Long.MAX_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject queries without terms or with an empty key")
+    void given_invalidQuery_when_parse_then_null() {
+        assertThat(TagQuery.parse("  ", UnaryOperator.identity())).isNull();
+        assertThat(TagQuery.parse(":prod", UnaryOperator.identity())).isNull();
+        assertThat(TagQuery.parse(null, UnaryOperator.identity())).isNull();
+    }
+
+    @Test
+    @DisplayName("Should normalize keys and keep colons in values")
+    void given_query_when_parse_then_termsNormalized() {
+        TagQuery parsed = TagQuery.parse("Env:prod url:http://a", String::toLowerCase);
+
+        assertThat(parsed.terms()).containsExactly(
+                new TagQuery.Term("env", "prod"),
+                new TagQuery.Term("url", "http://a"));
+    }
+
+    private static TagQuery query(String query) {
+        return TagQuery.parse(query, UnaryOperator.identity());
+    }
+
+    private static List<IndexedEntity> entities(List<SearchHit> hits) {
+        return hits.stream().map(hit -> new IndexedEntity(hit.entityType(), hit.entityId())).toList();
+    }
+}
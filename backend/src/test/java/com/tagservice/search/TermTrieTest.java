@@ -0,0 +1,91 @@
+package com.tagservice.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TermTrie} and {@link LevenshteinAutomaton}.
+ */
+class TermTrieTest {
+
+    @Test
+    @DisplayName("Should keep terms sorted and drop removed terms")
+    void given_putAndRemove_when_forEach_then_matchesTreeMap() {
+        Random random = new Random(3);
+        TermTrie<Integer> trie = new TermTrie<>();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            String term = randomTerm(random);
+            if (random.nextInt(3) == 0) {
+                assertThat(trie.remove(term)).isEqualTo(expected.remove(term));
+            } else {
+                trie.put(term, i);
+                expected.put(term, i);
+            }
+        }
+
+        List<String> terms = new ArrayList<>();
+        trie.forEach((term, value) -> {
+            terms.add(term);
+            assertThat(value).isEqualTo(expected.get(term));
+        });
+        assertThat(terms).containsExactlyElementsOf(expected.keySet());
+        assertThat(trie.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    @DisplayName("Should find exactly the terms a brute-force edit distance scan finds")
+    void given_vocabulary_when_fuzzyMatch_then_matchesBruteForce() {
+        Random random = new Random(11);
+        TermTrie<String> trie = new TermTrie<>();
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String term = randomTerm(random);
+            trie.put(term, term);
+            vocabulary.add(term);
+        }
+
+        for (int round = 0; round < 200; round++) {
+            String query = randomTerm(random);
+            int maxEdits = random.nextInt(3);
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            for (String term : vocabulary) {
+                int distance = LevenshteinAutomaton.distance(query, term, maxEdits);
+                if (distance >= 0) {
+                    expected.put(term, distance);
+                }
+            }
+
+            TreeMap<String, Integer> actual = new TreeMap<>();
+            trie.fuzzyMatch(new LevenshteinAutomaton(query, maxEdits), (term, distance, value) ->
+                    actual.put(term, distance));
+
+            assertThat(actual).as("query %s with %d edits", query, maxEdits).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Should allow fewer edits for short terms")
+    void given_termLength_when_maxEditsFor_then_scaled() {
+        assertThat(LevenshteinAutomaton.maxEditsFor(2, 2)).isZero();
+        assertThat(LevenshteinAutomaton.maxEditsFor(4, 2)).isEqualTo(1);
+        assertThat(LevenshteinAutomaton.maxEditsFor(8, 2)).isEqualTo(2);
+        assertThat(LevenshteinAutomaton.maxEditsFor(8, 1)).isEqualTo(1);
+    }
+
+    private static String randomTerm(Random random) {
+        // A small alphabet makes near matches common
+        char[] chars = new char[1 + random.nextInt(7)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+}
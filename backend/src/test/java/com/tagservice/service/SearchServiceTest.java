@@ -0,0 +1,128 @@
+package com.tagservice.service;
+
+import com.tagservice.exception.ApiException;
+import com.tagservice.repository.TagDictionary;
+import com.tagservice.repository.TagRepository;
+import com.tagservice.search.TagSearchIndex;
+import com.tagservice.settings.TenantSettingsCache;
+import com.tagservice.settings.TenantTagRules;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the statement timeout of PARTIAL searches in {@link SearchService}, against an
+ * in-memory H2 copy of the tag tables. H2 cancels a statement that exceeds its query timeout with
+ * the same SQLState as PostgreSQL's {@code statement_timeout}, so the service's own
+ * {@code SET LOCAL} is turned off and the session's {@code QUERY_TIMEOUT} stands in for it. H2
+ * applies it in whole seconds, so reading the slow {@code tags} view takes a few.
+ */
+class SearchServiceTest {
+
+    private static final String TAG_TABLES_DDL = """
+            CREATE TABLE entities (id BIGINT PRIMARY KEY, tenant_id INTEGER NOT NULL,
+                                   entity_type VARCHAR(50) NOT NULL, entity_id VARCHAR(255) NOT NULL);
+            CREATE TABLE tag_keys (id INTEGER PRIMARY KEY, tenant_id INTEGER NOT NULL, key VARCHAR(100) NOT NULL);
+            CREATE TABLE tag_values (id INTEGER PRIMARY KEY, tenant_id INTEGER NOT NULL, value TEXT NOT NULL);
+            CREATE TABLE tag_rows (tenant_id INTEGER NOT NULL, entity_ref BIGINT NOT NULL, key_id INTEGER NOT NULL,
+                                   value_id INTEGER, PRIMARY KEY (tenant_id, entity_ref, key_id));
+            CREATE ALIAS PAUSE FOR "com.tagservice.service.SearchServiceTest$SlowFunctions.pause";
+            CREATE VIEW tags AS SELECT tenant_id, entity_ref, key_id, value_id FROM tag_rows WHERE PAUSE(10);
+            INSERT INTO tag_keys VALUES (1, 7, 'environment');
+            INSERT INTO tag_values VALUES (1, 7, 'prod');
+            INSERT INTO entities SELECT x, 7, 'server', 'srv-' || x FROM SYSTEM_RANGE(1, 300);
+            INSERT INTO tag_rows SELECT 7, x, 1, 1 FROM SYSTEM_RANGE(1, 300);
+            """;
+
+    /**
+     * Makes every row of the {@code tags} view take a while to read; public for H2.
+     */
+    public static final class SlowFunctions {
+
+        public static boolean pause(int millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return true;
+        }
+    }
+
+    private final TenantSettingsCache tenantSettingsCache = mock(TenantSettingsCache.class);
+    private Connection keepAlive;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:search-timeout;MODE=PostgreSQL;NON_KEYWORDS=KEY,VALUE;QUERY_TIMEOUT=1000");
+        keepAlive = dataSource.getConnection();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(TAG_TABLES_DDL);
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+
+        TagDictionary tagDictionary = mock(TagDictionary.class);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        searchService = searchService(new TagRepository(jdbcTemplate, tagDictionary), tagDictionary);
+    }
+
+    private SearchService searchService(TagRepository tagRepository, TagDictionary tagDictionary) {
+        return new SearchService(new TagSearchIndex(1000, new SimpleMeterRegistry()), tagRepository, tagDictionary,
+                tenantSettingsCache, transactionManager, 1000, 100, 4, 0, 2, 50, 0, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Test
+    @DisplayName("Should answer a pattern search canceled by the statement timeout with a validation error")
+    void given_slowPatternSearch_when_search_then_timeoutReportedAsValidationError() {
+        assertThatThrownBy(() -> searchService.search(7L, "env", null, 10))
+                .isInstanceOfSatisfying(ApiException.class, ex -> assertThat(ex.getStatus()).isEqualTo(400))
+                .hasMessage("Search took too long; use more specific patterns.");
+    }
+
+    @Test
+    @DisplayName("Should recognize PostgreSQL's statement timeout, which Spring translates as a resource failure")
+    void given_postgresCancellation_when_search_then_timeoutReportedAsValidationError() {
+        TagRepository tagRepository = mock(TagRepository.class);
+        doThrow(new DataAccessResourceFailureException("PreparedStatementCallback",
+                new PSQLException("ERROR: canceling statement due to statement timeout", PSQLState.QUERY_CANCELED)))
+                .when(tagRepository).searchByPatterns(anyLong(), any(), anyLong(), anyInt(), anyLong(), any());
+
+        assertThatThrownBy(() -> searchService(tagRepository, mock(TagDictionary.class)).search(7L, "env", null, 10))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Search took too long; use more specific patterns.");
+    }
+
+    @Test
+    @DisplayName("Should pass on pattern search failures other than timeouts")
+    void given_failingPatternSearch_when_search_then_originalExceptionThrown() {
+        jdbcTemplate.execute("DROP VIEW tags");
+
+        assertThatThrownBy(() -> searchService.search(7L, "env", null, 10))
+                .isInstanceOf(DataAccessException.class);
+    }
+}
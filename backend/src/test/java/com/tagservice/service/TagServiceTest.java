@@ -0,0 +1,310 @@
+package com.tagservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tagservice.cache.EntityTagCache;
+import com.tagservice.dto.EntityRefDto;
+import com.tagservice.dto.TagDto;
+import com.tagservice.exception.ApiException;
+import com.tagservice.repository.TagBulkCopy;
+import com.tagservice.repository.TagRepository;
+import com.tagservice.repository.TagRepository.BulkLineOutcome;
+import com.tagservice.request.TagAddRequest;
+import com.tagservice.response.EntityTagsResponse;
+import com.tagservice.response.TagBulkResponseLine;
+import com.tagservice.settings.TenantSettingsCache;
+import com.tagservice.settings.TenantTagRules;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for tag writes, batch tag lookups and bulk uploads in {@link TagService}.
+ */
+class TagServiceTest {
+
+    private final TagRepository tagRepository = mock(TagRepository.class);
+    private final TenantSettingsCache tenantSettingsCache = mock(TenantSettingsCache.class);
+    private final EntityTagCache entityTagCache = new EntityTagCache(true, DataSize.ofKilobytes(64), 64, 2, 1.0,
+            new SimpleMeterRegistry());
+    private final TagService tagService = new TagService(tagRepository, tenantSettingsCache,
+            entityTagCache, mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class),
+            new ObjectMapper(), 3);
+
+    @Test
+    @DisplayName("Should issue one query per entity type and group rows per entity")
+    void given_entitiesOfTwoTypes_when_streamTagsForEntities_then_groupsPerEntity() {
+        doAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(2);
+            assertThat(ids).containsExactly("srv-01", "srv-02");
+            TagRepository.TagRowHandler handler = invocation.getArgument(3);
+            handler.onTag("srv-01", "env", "prod");
+            handler.onTag("srv-01", "region", "eu");
+            return null;
+        }).when(tagRepository).findByEntityIds(eq(7L), eq("server"), anyCollection(), any());
+        when(tagRepository.findVersions(eq(7L), eq("server"), anyCollection())).thenReturn(Map.of("srv-01", 2L));
+
+        List<EntityTagsResponse> results = new ArrayList<>();
+        tagService.streamTagsForEntities(7L, List.of(
+                new EntityRefDto("server", "srv-01"),
+                new EntityRefDto("user", "u-1"),
+                new EntityRefDto("server", "srv-02")), results::add);
+
+        verify(tagRepository).findByEntityIds(eq(7L), eq("user"), anyCollection(), any());
+        assertThat(results).containsExactly(
+                new EntityTagsResponse("server", "srv-01",
+                        List.of(new TagDto("env", "prod"), new TagDto("region", "eu")), 2),
+                new EntityTagsResponse("user", "u-1", List.of(), 0),
+                new EntityTagsResponse("server", "srv-02", List.of(), 0));
+    }
+
+    @Test
+    @DisplayName("Should answer in request order when cached entities follow uncached ones")
+    void given_missBeforeCacheHit_when_streamTagsForEntities_then_requestOrderKept() {
+        tagService.streamTagsForEntities(7L, List.of(new EntityRefDto("server", "srv-02")), result -> { });
+
+        List<EntityTagsResponse> results = new ArrayList<>();
+        tagService.streamTagsForEntities(7L, List.of(
+                new EntityRefDto("server", "srv-01"),
+                new EntityRefDto("server", "srv-02"),
+                new EntityRefDto("server", "srv-01")), results::add);
+
+        assertThat(results).extracting(EntityTagsResponse::getEntityId).containsExactly("srv-01", "srv-02");
+    }
+
+    @Test
+    @DisplayName("Should pass nothing on when loading uncached entities fails")
+    void given_loadFailure_when_streamTagsForEntities_then_nothingPassedOn() {
+        tagService.streamTagsForEntities(7L, List.of(new EntityRefDto("server", "srv-01")), result -> { });
+        when(tagRepository.findVersions(eq(7L), eq("server"), anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        List<EntityTagsResponse> results = new ArrayList<>();
+        assertThatThrownBy(() -> tagService.streamTagsForEntities(7L, List.of(
+                new EntityRefDto("server", "srv-01"),
+                new EntityRefDto("server", "srv-02")), results::add))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(results).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should answer cached entities without querying again")
+    void given_loadedEntity_when_streamTagsForEntitiesAgain_then_servedFromCache() {
+        doAnswer(invocation -> {
+            TagRepository.TagRowHandler handler = invocation.getArgument(3);
+            handler.onTag("srv-01", "env", "prod");
+            return null;
+        }).when(tagRepository).findByEntityIds(eq(7L), eq("server"), anyCollection(), any());
+        List<EntityRefDto> entities = List.of(new EntityRefDto("server", "srv-01"));
+        tagService.streamTagsForEntities(7L, entities, result -> { });
+
+        List<EntityTagsResponse> results = new ArrayList<>();
+        tagService.streamTagsForEntities(7L, entities, results::add);
+
+        verify(tagRepository, times(1)).findByEntityIds(anyLong(), any(), anyCollection(), any());
+        assertThat(results).containsExactly(
+                new EntityTagsResponse("server", "srv-01", List.of(new TagDto("env", "prod")), 0));
+    }
+
+    @Test
+    @DisplayName("Should reject a write whose If-Match precondition fails")
+    void given_staleVersion_when_deleteTag_then_throwsPreconditionFailed() {
+        when(tagRepository.lockVersion(7L, "server", "srv-01")).thenReturn(5L);
+
+        assertThatThrownBy(() -> tagService.deleteTag(7L, "server", "srv-01", "env", null, version -> version == 4))
+                .isInstanceOfSatisfying(ApiException.class, ex -> assertThat(ex.getStatus()).isEqualTo(412));
+        verify(tagRepository, never()).deleteTag(anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject requests above the entity cap without querying")
+    void given_tooManyEntities_when_streamTagsForEntities_then_throws() {
+        List<EntityRefDto> entities = List.of(
+                new EntityRefDto("server", "a"),
+                new EntityRefDto("server", "b"),
+                new EntityRefDto("server", "c"),
+                new EntityRefDto("server", "d"));
+
+        assertThatThrownBy(() -> tagService.streamTagsForEntities(7L, entities, result -> { }))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("At most 3 entities can be requested at once.");
+        verify(tagRepository, never()).findByEntityIds(anyLong(), any(), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Should report duplicate and conflicting bulk lines so that all received lines are accounted for")
+    void given_duplicateAndConflictingLines_when_bulkAddTags_then_everyLineCounted() throws Exception {
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+        when(tagRepository.openBulkCopy()).thenReturn(mock(TagBulkCopy.class));
+        when(tagRepository.insertFromBulkStaging(eq(7L), any(), any())).thenAnswer(invocation -> {
+            TagRepository.BulkLineHandler handler = invocation.getArgument(1);
+            handler.onLine(3, 2, BulkLineOutcome.DUPLICATE);
+            handler.onLine(4, 4, BulkLineOutcome.CONFLICT);
+            handler.onLine(5, 5, BulkLineOutcome.UNCHANGED);
+            LongConsumer changed = invocation.getArgument(2);
+            changed.accept(13L);
+            return 1L;
+        });
+        String input = String.join("\n",
+                "not json",
+                "{\"entityType\": \"server\", \"entityId\": \"srv-01\", \"key\": \"env\", \"value\": \"prod\"}",
+                "{\"entityType\": \"server\", \"entityId\": \"srv-01\", \"key\": \"env\", \"value\": \"dev\"}",
+                "{\"entityType\": \"server\", \"entityId\": \"srv-02\", \"key\": \"env\", \"value\": \"dev\"}",
+                "{\"entityType\": \"server\", \"entityId\": \"srv-03\", \"key\": \"env\", \"value\": \"qa\"}");
+
+        List<TagBulkResponseLine> reported = new ArrayList<>();
+        TagService.BulkResult result = tagService.bulkAddTags(7L, new BufferedReader(new StringReader(input)),
+                reported::add);
+
+        assertThat(result).isEqualTo(new TagService.BulkResult(5, 1, 1, 1, 1, 1));
+        assertThat(result.received()).isEqualTo(result.rejected() + result.duplicates() + result.conflicts()
+                + result.unchanged() + result.inserted());
+        assertThat(reported).extracting(TagBulkResponseLine::getType, TagBulkResponseLine::getLine).containsExactly(
+                tuple(TagBulkResponseLine.REJECTED, 1L),
+                tuple(TagBulkResponseLine.DUPLICATE, 3L),
+                tuple(TagBulkResponseLine.CONFLICT, 4L));
+        assertThat(reported.get(1).getDescription()).isEqualTo("Same entity and key as line 2, which is used.");
+        verify(tagRepository).deleteBulkStagingOverLimit(eq(7L), anyInt(), any());
+        verify(tagRepository).incrementVersions(eq(7L), aryEq(new long[] {13L}));
+    }
+
+    @Test
+    @DisplayName("Should keep the version of an entity whose bulk lines were all unchanged")
+    void given_unchangedAndNewEntities_when_bulkAddTags_then_onlyChangedEntityVersioned() throws Exception {
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+        when(tagRepository.openBulkCopy()).thenReturn(mock(TagBulkCopy.class));
+        when(tagRepository.insertFromBulkStaging(eq(7L), any(), any())).thenAnswer(invocation -> {
+            TagRepository.BulkLineHandler handler = invocation.getArgument(1);
+            handler.onLine(1, 1, BulkLineOutcome.UNCHANGED);
+            LongConsumer changed = invocation.getArgument(2);
+            changed.accept(12L);
+            return 1L;
+        });
+        String input = String.join("\n",
+                "{\"entityType\": \"server\", \"entityId\": \"srv-01\", \"key\": \"env\", \"value\": \"prod\"}",
+                "{\"entityType\": \"server\", \"entityId\": \"srv-02\", \"key\": \"env\", \"value\": \"prod\"}");
+
+        tagService.bulkAddTags(7L, new BufferedReader(new StringReader(input)), line -> { });
+
+        ArgumentCaptor<long[]> refs = ArgumentCaptor.forClass(long[].class);
+        verify(tagRepository).incrementVersions(eq(7L), refs.capture());
+        assertThat(refs.getValue()).containsExactly(12L);
+    }
+
+    @Test
+    @DisplayName("Should not announce a change when a bulk upload only repeats stored tags")
+    void given_onlyUnchangedLines_when_bulkAddTags_then_noChangeAnnounced() throws Exception {
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+        when(tagRepository.openBulkCopy()).thenReturn(mock(TagBulkCopy.class));
+        when(tagRepository.insertFromBulkStaging(eq(7L), any(), any())).thenAnswer(invocation -> {
+            TagRepository.BulkLineHandler handler = invocation.getArgument(1);
+            handler.onLine(1, 1, BulkLineOutcome.UNCHANGED);
+            return 0L;
+        });
+        String input = "{\"entityType\": \"server\", \"entityId\": \"srv-01\", \"key\": \"env\", \"value\": \"prod\"}";
+
+        List<TagBulkResponseLine> reported = new ArrayList<>();
+        TagService.BulkResult result = tagService.bulkAddTags(7L, new BufferedReader(new StringReader(input)),
+                reported::add);
+
+        assertThat(result).isEqualTo(new TagService.BulkResult(1, 0, 0, 0, 1, 0));
+        assertThat(reported).isEmpty();
+        verify(tagRepository, never()).incrementVersions(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer a tag write with the stored values, not the requested ones")
+    void given_existingKeyWithOtherValue_when_addTags_then_respondsWithStoredValue() {
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+        when(tagRepository.lockVersion(7L, "server", "srv-01")).thenReturn(3L);
+        when(tagRepository.insertTags(eq(7L), eq("server"), eq("srv-01"), any(), anyInt()))
+                .thenReturn(new TagRepository.InsertResult(true, 0,
+                        List.of(new TagDto("env", "prod"), new TagDto("region", "eu"))));
+        TagAddRequest request = new TagAddRequest("server", "srv-01",
+                List.of(new TagDto("env", "dev"), new TagDto("region", "eu")));
+
+        TagService.AddTagsResult result = tagService.addTags(7L, request, null);
+
+        assertThat(result.tags()).containsExactly(new TagDto("env", "prod"), new TagDto("region", "eu"));
+        assertThat(result.added()).isZero();
+        assertThat(result.version()).isEqualTo(3L);
+        verify(tagRepository, never()).incrementVersion(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should lock the entity's version before checking the tag limit")
+    void given_unconditionalWrite_when_addTags_then_versionLockedBeforeInsert() {
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+        when(tagRepository.insertTags(eq(7L), eq("server"), eq("srv-01"), any(), anyInt()))
+                .thenReturn(new TagRepository.InsertResult(true, 1, List.of(new TagDto("env", "prod"))));
+        when(tagRepository.incrementVersion(7L, "server", "srv-01")).thenReturn(1L);
+        TagAddRequest request = new TagAddRequest("server", "srv-01", List.of(new TagDto("env", "prod")));
+
+        TagService.AddTagsResult result = tagService.addTags(7L, request, null);
+
+        InOrder order = inOrder(tagRepository);
+        order.verify(tagRepository).lockVersion(7L, "server", "srv-01");
+        order.verify(tagRepository).insertTags(eq(7L), eq("server"), eq("srv-01"), any(), anyInt());
+        assertThat(result.version()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should reject a tag write over the limit and change nothing")
+    void given_limitExceeded_when_addTags_then_throwsWithoutVersionChange() {
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+        when(tagRepository.insertTags(eq(7L), eq("server"), eq("srv-01"), any(), anyInt()))
+                .thenReturn(new TagRepository.InsertResult(false, 0, List.of()));
+        TagAddRequest request = new TagAddRequest("server", "srv-01", List.of(new TagDto("env", "prod")));
+
+        assertThatThrownBy(() -> tagService.addTags(7L, request, null))
+                .isInstanceOfSatisfying(ApiException.class, ex -> assertThat(ex.getStatus()).isEqualTo(409));
+        verify(tagRepository).lockVersion(7L, "server", "srv-01");
+        verify(tagRepository, never()).incrementVersion(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should lock the staged entities' versions before dropping those over the tag limit")
+    void given_bulkUpload_when_bulkAddTags_then_versionsLockedBeforeLimitCheck() throws Exception {
+        when(tenantSettingsCache.getRules(7L)).thenReturn(TenantTagRules.DEFAULTS);
+        when(tagRepository.openBulkCopy()).thenReturn(mock(TagBulkCopy.class));
+        String input = "{\"entityType\": \"server\", \"entityId\": \"srv-01\", \"key\": \"env\", \"value\": \"prod\"}";
+
+        tagService.bulkAddTags(7L, new BufferedReader(new StringReader(input)), line -> { });
+
+        InOrder order = inOrder(tagRepository);
+        order.verify(tagRepository).lockBulkStagingVersions(7L);
+        order.verify(tagRepository).deleteBulkStagingOverLimit(eq(7L), anyInt(), any());
+        order.verify(tagRepository).insertFromBulkStaging(eq(7L), any(), any());
+    }
+}
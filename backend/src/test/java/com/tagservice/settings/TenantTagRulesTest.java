@@ -0,0 +1,57 @@
+package com.tagservice.settings;
+
+import com.tagservice.model.OrganizationSetting;
+import com.tagservice.model.SearchMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for compiled tenant tag rules.
+ */
+class TenantTagRulesTest {
+
+    private final TenantTagRules rules = TenantTagRules.compile(OrganizationSetting.builder()
+            .keyCaseSensitive(false)
+            .maxTagCountPerEntity(3)
+            .minTagKeyLength(2)
+            .maxTagKeyLength(5)
+            .minTagValueLength(0)
+            .maxTagValueLength(4)
+            .searchMode(SearchMode.EXACT)
+            .build());
+
+    @Test
+    @DisplayName("Should accept tags within the configured limits")
+    void given_validTag_when_checkTag_then_returnsNull() {
+        assertThat(rules.checkTag("env", "prod")).isNull();
+        assertThat(rules.checkTag("env", null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should report the violated key and value limits")
+    void given_invalidTag_when_checkTag_then_returnsViolation() {
+        assertThat(rules.checkTag("e", "prod")).isEqualTo(TagViolation.KEY_TOO_SHORT);
+        assertThat(rules.checkTag("environment", "prod")).isEqualTo(TagViolation.KEY_TOO_LONG);
+        assertThat(rules.checkTag("env", "production")).isEqualTo(TagViolation.VALUE_TOO_LONG);
+        assertThat(TagViolation.VALUE_TOO_LONG.describe(rules)).isEqualTo("Tag value must be at most 4 characters.");
+    }
+
+    @Test
+    @DisplayName("Should count code points rather than UTF-16 units")
+    void given_surrogatePairs_when_checkTag_then_countsCodePoints() {
+        String twoEmoji = "😀😀";
+        assertThat(rules.checkTag(twoEmoji, null)).isNull();
+        assertThat(rules.checkTag("😀", null)).isEqualTo(TagViolation.KEY_TOO_SHORT);
+    }
+
+    @Test
+    @DisplayName("Should enforce the tag count and normalize case-insensitive keys")
+    void given_rules_when_checkCountAndNormalize_then_applyTenantSettings() {
+        assertThat(rules.checkTagCount(3)).isNull();
+        assertThat(rules.checkTagCount(4)).isEqualTo(TagViolation.TOO_MANY_TAGS);
+        assertThat(rules.normalizeKey("Env")).isEqualTo("env");
+        assertThat(rules.getSearchMode()).isEqualTo(SearchMode.EXACT);
+    }
+}
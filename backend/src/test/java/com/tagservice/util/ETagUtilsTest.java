@@ -0,0 +1,51 @@
+package com.tagservice.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ETagUtils}.
+ */
+class ETagUtilsTest {
+
+    @Test
+    @DisplayName("Should format a version as a quoted strong entity tag")
+    void given_version_when_format_then_quoted() {
+        assertThat(ETagUtils.format(42)).isEqualTo("\"42\"");
+    }
+
+    @ParameterizedTest(name = "If-None-Match {0} matches version 3: {1}")
+    @CsvSource(delimiter = '|', value = {
+            "\"3\"          | true",
+            "W/\"3\"        | true",
+            "\"2\", \"3\"   | true",
+            "*              | true",
+            "\"2\"          | false",
+            "3              | false"
+    })
+    void given_ifNoneMatch_when_compared_then_usesWeakComparison(String header, boolean expected) {
+        assertThat(ETagUtils.ifNoneMatchMatches(header, 3)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "If-Match {0} matches version 3: {1}")
+    @CsvSource(delimiter = '|', value = {
+            "\"3\"          | true",
+            "\"2\", \"3\"   | true",
+            "*              | true",
+            "W/\"3\"        | false",
+            "\"4\"          | false"
+    })
+    void given_ifMatch_when_compared_then_usesStrongComparison(String header, boolean expected) {
+        assertThat(ETagUtils.ifMatch(header).test(3)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Should not produce a check without an If-Match header")
+    void given_noHeader_when_ifMatch_then_null() {
+        assertThat(ETagUtils.ifMatch(null)).isNull();
+    }
+}
@@ -0,0 +1,77 @@
+package com.tagservice.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for exception-free UUID handling and the UUIDv7 generator.
+ */
+class UuidUtilsTest {
+
+    @Nested
+    @DisplayName("Parse")
+    class Parse {
+
+        @Test
+        @DisplayName("Should parse canonical UUIDs like UUID.fromString")
+        void given_randomUuids_when_parse_then_matchesFromString() {
+            for (int i = 0; i < 1000; i++) {
+                UUID expected = UUID.randomUUID();
+                assertThat(UuidUtils.parse(expected.toString())).isEqualTo(expected);
+                assertThat(UuidUtils.parse(expected.toString().toUpperCase())).isEqualTo(expected);
+            }
+        }
+
+        @ParameterizedTest
+        @NullAndEmptySource
+        @ValueSource(strings = {
+                "not-a-uuid",
+                "c6a2e460-705a-471f-8c66-1234567890a",
+                "c6a2e460-705a-471f-8c66-1234567890abc",
+                "c6a2e460x705a-471f-8c66-1234567890ab",
+                "c6a2e460-705a-471f-8c66-1234567890ag",
+                "1-1-1-1-1"
+        })
+        @DisplayName("Should reject malformed values without throwing")
+        void given_malformedValue_when_parse_then_returnsNull(String value) {
+            assertThat(UuidUtils.parse(value)).isNull();
+            assertThat(UuidUtils.isValid(value)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("UUIDv7")
+    class Version7 {
+
+        @Test
+        @DisplayName("Should generate strictly increasing version 7 UUIDs")
+        void given_manyIds_when_generate_then_strictlyIncreasing() {
+            UUID previous = UuidV7Generator.generate();
+            for (int i = 0; i < 10_000; i++) {
+                UUID next = UuidV7Generator.generate();
+                assertThat(next.version()).isEqualTo(7);
+                assertThat(next.variant()).isEqualTo(2);
+                assertThat(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()))
+                        .isPositive();
+                previous = next;
+            }
+        }
+
+        @Test
+        @DisplayName("Should embed the current Unix time in milliseconds")
+        void given_now_when_generate_then_embedsTimestamp() {
+            long before = System.currentTimeMillis();
+            UUID uuid = UuidV7Generator.generate();
+            long timestamp = uuid.getMostSignificantBits() >>> 16;
+            assertThat(timestamp).isGreaterThanOrEqualTo(before);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+-- =============================================
+-- Benchmark: Row-Level vs Statement-Level Audit Triggers
+-- Description: Runs the same bulk workload (insert, settings update, soft-delete, hard delete of
+--              :rows organizations) against a scratch copy of organizations, once with the row-level
+--              audit_organizations_changes() trigger (V5) and once with the statement-level
+--              transition-table triggers (V12), and reports the time of every step.
+--              It also checks that both variants wrote the same audit rows.
+--              Everything runs in one transaction that is rolled back, so neither organizations nor
+--              organizations_audit keep any rows, and no notifications are delivered.
+-- Usage:       psql -v rows=100000 -f db/benchmarks/audit_triggers.sql   (default 10000 rows)
+-- =============================================
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+    \set rows 10000
+\endif
+
+BEGIN;
+
+SELECT set_config('bench.rows', :'rows', true);
+
+-- Same columns as organizations; no unique indexes or updated_at trigger, which neither variant needs
+CREATE TEMP TABLE bench_organizations (LIKE organizations INCLUDING DEFAULTS) ON COMMIT DROP;
+CREATE TEMP TABLE bench_results (
+    variant TEXT,
+    step_no INTEGER,
+    step TEXT,
+    ms NUMERIC,
+    audit_rows BIGINT
+) ON COMMIT DROP;
+
+CREATE FUNCTION pg_temp.bench_run(p_variant TEXT, p_request_id UUID)
+RETURNS void AS $$
+DECLARE
+    v_rows INTEGER := current_setting('bench.rows')::INTEGER;
+    v_steps TEXT[] := ARRAY['insert', 'update settings', 'soft delete', 'hard delete'];
+    v_sql TEXT[] := ARRAY[
+        format('INSERT INTO bench_organizations (id, name, display_name, domain, created_by, request_id)'
+               ' SELECT g, ''bench-'' || g, ''Bench '' || g, ''bench-'' || g || ''.example'', ''bench'', %L'
+               ' FROM generate_series(1, %s) g', p_request_id, v_rows),
+        'UPDATE bench_organizations SET settings = settings || ''{"bench": true}'', version = version + 1',
+        'UPDATE bench_organizations SET deleted_at = NOW(), version = version + 1',
+        'DELETE FROM bench_organizations'];
+    v_started TIMESTAMPTZ;
+    v_ms NUMERIC;
+    v_audited BIGINT := 0;
+    v_total BIGINT;
+BEGIN
+    FOR i IN 1..array_length(v_steps, 1) LOOP
+        v_started := clock_timestamp();
+        EXECUTE v_sql[i];
+        v_ms := round(extract(epoch FROM clock_timestamp() - v_started)::NUMERIC * 1000, 1);
+        SELECT count(*) INTO v_total FROM organizations_audit WHERE request_id = p_request_id;
+        INSERT INTO bench_results VALUES (p_variant, i, v_steps[i], v_ms, v_total - v_audited);
+        v_audited := v_total;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 1. Row-level trigger
+CREATE TRIGGER bench_audit_row
+AFTER INSERT OR UPDATE OR DELETE ON bench_organizations
+FOR EACH ROW EXECUTE FUNCTION audit_organizations_changes();
+
+SELECT pg_temp.bench_run('row', '00000000-0000-4000-8000-000000000001');
+
+DROP TRIGGER bench_audit_row ON bench_organizations;
+
+-- 2. Statement-level triggers
+CREATE TRIGGER bench_audit_insert
+AFTER INSERT ON bench_organizations
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION audit_organizations_inserts();
+
+CREATE TRIGGER bench_audit_update
+AFTER UPDATE ON bench_organizations
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION audit_organizations_updates();
+
+CREATE TRIGGER bench_audit_delete
+AFTER DELETE ON bench_organizations
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION audit_organizations_deletes();
+
+SELECT pg_temp.bench_run('statement', '00000000-0000-4000-8000-000000000002');
+
+-- 3. Results
+SELECT r.step,
+       r.audit_rows,
+       r.ms AS row_level_ms,
+       s.ms AS statement_level_ms,
+       round(r.ms / nullif(s.ms, 0), 1) AS speedup
+FROM bench_results r
+JOIN bench_results s ON s.step_no = r.step_no AND s.variant = 'statement'
+WHERE r.variant = 'row'
+ORDER BY r.step_no;
+
+-- Audit rows written by one variant but not the other; expected: 0
+SELECT count(*) AS mismatched_audit_rows
+FROM (
+    (SELECT organization_id, action, created_by, name, display_name, domain, type, version,
+            deleted_at IS NULL AS active, settings,
+            name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+     FROM organizations_audit WHERE request_id = '00000000-0000-4000-8000-000000000001'
+     EXCEPT ALL
+     SELECT organization_id, action, created_by, name, display_name, domain, type, version,
+            deleted_at IS NULL, settings,
+            name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+     FROM organizations_audit WHERE request_id = '00000000-0000-4000-8000-000000000002')
+    UNION ALL
+    (SELECT organization_id, action, created_by, name, display_name, domain, type, version,
+            deleted_at IS NULL, settings,
+            name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+     FROM organizations_audit WHERE request_id = '00000000-0000-4000-8000-000000000002'
+     EXCEPT ALL
+     SELECT organization_id, action, created_by, name, display_name, domain, type, version,
+            deleted_at IS NULL, settings,
+            name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+     FROM organizations_audit WHERE request_id = '00000000-0000-4000-8000-000000000001')
+) mismatches;
+
+ROLLBACK;
@@ -0,0 +1,179 @@
+-- =============================================
+-- Migration: V10 Partition Tags by Tenant
+-- Description: Splits tags into 16 hash partitions on tenant_id, so that vacuum, index bloat and
+--              buffer churn of one tenant only affect the tenants sharing its partition. Every
+--              statement the service sends filters on tenant_id, so the planner (or the executor,
+--              for generic plans) prunes all other partitions.
+--              Each hash partition is itself list-partitioned on tenant_id with a single DEFAULT
+--              partition holding all of its tenants. A tenant that outgrows its neighbours can be
+--              moved into a dedicated list partition of its hash partition with
+--                  CALL tags_move_tenant_to_partition(<tenant_id>);
+--              Layout:
+--                  tags                    PARTITION BY HASH (tenant_id)
+--                    tags_p0 .. tags_p15   PARTITION BY LIST (tenant_id)
+--                      tags_pN_shared      DEFAULT
+--                      tags_t<tenant_id>   FOR VALUES IN (<tenant_id>)   (after a move)
+-- =============================================
+
+-- 1. Partitioned table; the primary key must (and does) contain the partition key
+CREATE TABLE tags_partitioned (
+    tenant_id INTEGER NOT NULL REFERENCES organizations(id) ON DELETE CASCADE,
+    entity_ref BIGINT NOT NULL REFERENCES entities(id) ON DELETE CASCADE,
+    key_id INTEGER NOT NULL REFERENCES tag_keys(id),
+    value_id INTEGER REFERENCES tag_values(id),   -- NULL for a tag without value
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    PRIMARY KEY (tenant_id, entity_ref, key_id)
+) PARTITION BY HASH (tenant_id);
+
+DO $$
+BEGIN
+    FOR r IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE tags_p%s PARTITION OF tags_partitioned'
+                       ' FOR VALUES WITH (MODULUS 16, REMAINDER %s) PARTITION BY LIST (tenant_id)',
+                       r, r);
+        EXECUTE format('CREATE TABLE tags_p%s_shared PARTITION OF tags_p%s DEFAULT', r, r);
+    END LOOP;
+END $$;
+
+-- 2. Copy the rows and swap tables
+INSERT INTO tags_partitioned (tenant_id, entity_ref, key_id, value_id, created_at)
+SELECT tenant_id, entity_ref, key_id, value_id, created_at FROM tags;
+
+DROP TABLE tags;
+ALTER TABLE tags_partitioned RENAME TO tags;
+ALTER INDEX tags_partitioned_pkey RENAME TO tags_pkey;
+
+-- Created on the parent, and with it on every partition
+CREATE INDEX IF NOT EXISTS idx_tags_lookup ON tags(tenant_id, key_id, value_id) INCLUDE (entity_ref);
+
+-- 3. Moves one tenant out of its shared partition into a dedicated one.
+--    Must be CALLed outside a transaction block: it commits after every step so that it never
+--    holds locks for long, and can simply be called again if it is interrupted or times out.
+--    1. creates tags_t<tenant_id> as a standalone table with the primary key;
+--    2. copies the tenant's rows in batches, resuming after the last row already copied;
+--    3. adds the lookup index and foreign keys of tags (validated without blocking writes to the
+--       referenced tables), so that attaching can reuse them instead of building them, and a
+--       CHECK (tenant_id = <tenant_id>) that spares attaching the scan of the copy;
+--    4. applies the changes made while copying, once without locks and once more after locking
+--       the shared partition against writes;
+--    5. deletes the tenant's rows from the shared partition, proves that with a validated
+--       CHECK (tenant_id <> <tenant_id>) on it, and attaches the copy. With both constraints in
+--       place, attaching scans neither table; the CHECK stays on the shared partition.
+--    Only writes of tenants in the same hash partition wait, and only during step 5 and the last
+--    pass of step 4; reads are blocked only while step 5 validates the shared partition's CHECK.
+CREATE OR REPLACE PROCEDURE tags_move_tenant_to_partition(p_tenant_id INTEGER,
+                                                          p_batch_size INTEGER DEFAULT 10000)
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_bucket REGCLASS;
+    v_shared REGCLASS;
+    v_target TEXT := 'tags_t' || p_tenant_id;
+    v_last_ref BIGINT;
+    v_last_key INTEGER;
+    v_copied BIGINT;
+    v_fk RECORD;
+BEGIN
+    SELECT c.oid::regclass INTO v_bucket
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    CROSS JOIN LATERAL regexp_match(pg_get_expr(c.relpartbound, c.oid), 'MODULUS (\d+), REMAINDER (\d+)') AS b(bound)
+    WHERE i.inhparent = 'tags'::regclass
+      AND satisfies_hash_partition('tags'::regclass, b.bound[1]::int, b.bound[2]::int, p_tenant_id);
+
+    IF EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+               WHERE i.inhparent = v_bucket AND c.relname = v_target) THEN
+        RAISE NOTICE 'Tenant % already has its own partition %', p_tenant_id, v_target;
+        RETURN;
+    END IF;
+
+    SELECT c.oid::regclass INTO v_shared
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = v_bucket AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT';
+
+    -- 1. Copy target
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I (LIKE tags INCLUDING DEFAULTS,'
+                   ' PRIMARY KEY (tenant_id, entity_ref, key_id))', v_target);
+    COMMIT;
+
+    -- 2. Batched copy in primary key order
+    EXECUTE format('SELECT entity_ref, key_id FROM %I ORDER BY entity_ref DESC, key_id DESC LIMIT 1', v_target)
+        INTO v_last_ref, v_last_key;
+    v_last_ref := coalesce(v_last_ref, 0);
+    v_last_key := coalesce(v_last_key, 0);
+    LOOP
+        EXECUTE format($sql$
+            WITH batch AS (
+                INSERT INTO %I
+                SELECT * FROM %s
+                WHERE tenant_id = $1 AND (entity_ref, key_id) > ($2, $3)
+                ORDER BY entity_ref, key_id
+                LIMIT $4
+                RETURNING entity_ref, key_id
+            )
+            SELECT count(*) OVER (), entity_ref, key_id FROM batch
+            ORDER BY entity_ref DESC, key_id DESC LIMIT 1
+            $sql$, v_target, v_shared)
+            INTO v_copied, v_last_ref, v_last_key
+            USING p_tenant_id, v_last_ref, v_last_key, p_batch_size;
+        COMMIT;
+        EXIT WHEN v_copied IS NULL;
+    END LOOP;
+
+    -- 3. Index and foreign keys matching those of tags
+    EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON %I (tenant_id, key_id, value_id) INCLUDE (entity_ref)',
+                   v_target || '_lookup', v_target);
+    FOR v_fk IN SELECT conname, pg_get_constraintdef(oid) AS definition
+                FROM pg_constraint WHERE conrelid = 'tags'::regclass AND contype = 'f' LOOP
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                       WHERE conrelid = to_regclass(v_target) AND conname = v_fk.conname) THEN
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I %s NOT VALID', v_target, v_fk.conname, v_fk.definition);
+        END IF;
+    END LOOP;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = to_regclass(v_target) AND conname = v_target || '_tenant') THEN
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (tenant_id = %s) NOT VALID',
+                       v_target, v_target || '_tenant', p_tenant_id);
+    END IF;
+    COMMIT;
+    FOR v_fk IN SELECT conname FROM pg_constraint
+                WHERE conrelid = to_regclass(v_target) AND contype IN ('f', 'c') AND NOT convalidated LOOP
+        EXECUTE format('ALTER TABLE %I VALIDATE CONSTRAINT %I', v_target, v_fk.conname);
+        COMMIT;
+    END LOOP;
+
+    -- 4. Catch up; tags rows are never updated, only deleted and inserted
+    FOR pass IN 1..2 LOOP
+        IF pass = 2 THEN
+            PERFORM set_config('lock_timeout', '5s', true);
+            EXECUTE format('LOCK TABLE %s IN EXCLUSIVE MODE', v_shared);
+        END IF;
+        EXECUTE format($sql$
+            DELETE FROM %I t
+            WHERE NOT EXISTS (
+                SELECT 1 FROM %s s
+                WHERE s.tenant_id = $1 AND s.entity_ref = t.entity_ref AND s.key_id = t.key_id
+                  AND s.value_id IS NOT DISTINCT FROM t.value_id AND s.created_at IS NOT DISTINCT FROM t.created_at
+            )
+            $sql$, v_target, v_shared) USING p_tenant_id;
+        EXECUTE format('INSERT INTO %I SELECT * FROM %s WHERE tenant_id = $1'
+                       ' ON CONFLICT (tenant_id, entity_ref, key_id) DO NOTHING', v_target, v_shared)
+            USING p_tenant_id;
+        IF pass = 1 THEN
+            COMMIT;
+        END IF;
+    END LOOP;
+
+    -- 5. Swap, still holding the lock of the last pass; readers see the old rows until commit.
+    --    The shared partition's CHECK can only be added now: even NOT VALID it would reject the
+    --    tenant's writes during the copy. Validating it is the scan attaching would otherwise do.
+    EXECUTE format('DELETE FROM %s WHERE tenant_id = $1', v_shared) USING p_tenant_id;
+    EXECUTE format('ALTER TABLE %s ADD CONSTRAINT %I CHECK (tenant_id <> %s) NOT VALID',
+                   v_shared, v_shared::text || '_not_' || p_tenant_id, p_tenant_id);
+    EXECUTE format('ALTER TABLE %s VALIDATE CONSTRAINT %I', v_shared, v_shared::text || '_not_' || p_tenant_id);
+    EXECUTE format('ALTER TABLE %s ATTACH PARTITION %I FOR VALUES IN (%s)', v_bucket, v_target, p_tenant_id);
+    COMMIT;
+
+    RAISE NOTICE 'Moved tenant % into partition % of %', p_tenant_id, v_target, v_bucket;
+END $$;
@@ -0,0 +1,15 @@
+-- =============================================
+-- Migration: V11 Tenant Rate Limits
+-- Description: Per-tenant request rate limits, enforced by the service with one token bucket per
+--              tenant. A tenant may make rate_limit_burst requests at once and then
+--              rate_limit_per_second requests per second on average; a rate of 0 disables the
+--              limit. The burst is at least 1.
+--              Changes reach the service through the version check and the invalidation
+--              notifications of tenant_settings, like every other setting.
+-- =============================================
+
+ALTER TABLE tenant_settings
+    ADD COLUMN IF NOT EXISTS rate_limit_per_second INTEGER NOT NULL DEFAULT 100
+        CHECK (rate_limit_per_second >= 0),
+    ADD COLUMN IF NOT EXISTS rate_limit_burst INTEGER NOT NULL DEFAULT 200
+        CHECK (rate_limit_burst >= 1);
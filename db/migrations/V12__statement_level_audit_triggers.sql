@@ -0,0 +1,106 @@
+-- =============================================
+-- Migration: V12 Statement-Level Audit Triggers
+-- Description: Replaces the FOR EACH ROW audit trigger of organizations with one statement-level
+--              trigger per operation. Each reads the statement's changed rows from its transition
+--              tables (REFERENCING OLD TABLE / NEW TABLE) and writes all of their audit rows with a
+--              single set-based INSERT, so a bulk update or soft-delete of many organizations runs
+--              the trigger once instead of once per row.
+--              Audit rows and notifications are the same as those of the V5 row-level function:
+--              same actions (soft-deletes as DELETE), audit users and *_changed flags.
+--              A trigger with transition tables may only fire on one event, hence three triggers.
+--              Benchmark against the row-level trigger: db/benchmarks/audit_triggers.sql
+-- =============================================
+
+-- 1. INSERT: every column counts as changed
+CREATE OR REPLACE FUNCTION audit_organizations_inserts()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO organizations_audit (
+        organization_id, action, created_at, created_by, request_id,
+        name, display_name, domain, type, version, deleted_at, settings,
+        name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+    )
+    SELECT n.id, 'INSERT', NOW(), n.created_by, n.request_id,
+           n.name, n.display_name, n.domain, n.type, n.version, n.deleted_at, n.settings,
+           TRUE, TRUE, TRUE, TRUE, TRUE
+    FROM new_rows n;
+
+    PERFORM notify_cache_invalidation('organizations', 'INSERT', n.id) FROM new_rows n;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 2. UPDATE: old and new versions are paired by id; soft-deletes are audited and published as DELETE
+CREATE OR REPLACE FUNCTION audit_organizations_updates()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO organizations_audit (
+        organization_id, action, created_at, created_by, request_id,
+        name, display_name, domain, type, version, deleted_at, settings,
+        name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+    )
+    SELECT n.id,
+           CASE WHEN n.deleted_at IS NOT NULL AND o.deleted_at IS NULL
+                THEN 'DELETE'::audit_action_type
+                ELSE 'UPDATE'::audit_action_type
+           END,
+           NOW(), current_user, n.request_id,
+           n.name, n.display_name, n.domain, n.type, n.version, n.deleted_at, n.settings,
+           (n.name IS DISTINCT FROM o.name),
+           (n.display_name IS DISTINCT FROM o.display_name),
+           (n.domain IS DISTINCT FROM o.domain),
+           (n.type IS DISTINCT FROM o.type),
+           (n.settings IS DISTINCT FROM o.settings)
+    FROM new_rows n
+    JOIN old_rows o ON o.id = n.id;
+
+    PERFORM notify_cache_invalidation(
+                'organizations',
+                CASE WHEN n.deleted_at IS NOT NULL AND o.deleted_at IS NULL THEN 'DELETE' ELSE 'UPDATE' END,
+                n.id)
+    FROM new_rows n
+    JOIN old_rows o ON o.id = n.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 3. DELETE (hard deletes, admin only): no column counts as changed
+CREATE OR REPLACE FUNCTION audit_organizations_deletes()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO organizations_audit (
+        organization_id, action, created_at, created_by, request_id,
+        name, display_name, domain, type, version, deleted_at, settings,
+        name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+    )
+    SELECT o.id, 'DELETE', NOW(), current_user, o.request_id,
+           o.name, o.display_name, o.domain, o.type, o.version, o.deleted_at, o.settings,
+           FALSE, FALSE, FALSE, FALSE, FALSE
+    FROM old_rows o;
+
+    PERFORM notify_cache_invalidation('organizations', 'DELETE', o.id) FROM old_rows o;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 4. Swap triggers
+-- audit_organizations_changes() is kept for the benchmark, but no longer attached to organizations.
+SELECT drop_trigger_if_exists('trigger_audit_organizations', 'organizations');
+SELECT drop_trigger_if_exists('trigger_audit_organizations_insert', 'organizations');
+SELECT drop_trigger_if_exists('trigger_audit_organizations_update', 'organizations');
+SELECT drop_trigger_if_exists('trigger_audit_organizations_delete', 'organizations');
+
+CREATE TRIGGER trigger_audit_organizations_insert
+AFTER INSERT ON organizations
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION audit_organizations_inserts();
+
+CREATE TRIGGER trigger_audit_organizations_update
+AFTER UPDATE ON organizations
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION audit_organizations_updates();
+
+CREATE TRIGGER trigger_audit_organizations_delete
+AFTER DELETE ON organizations
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION audit_organizations_deletes();
@@ -0,0 +1,16 @@
+-- =============================================
+-- Migration: V13 Organizations Audit History Index
+-- Description: Widens idx_organizations_audit_org_id to (organization_id, created_at, audit_id).
+--              The organization history API reads one organization's audit rows in a time range,
+--              ordered by (created_at, audit_id); with the wider index each monthly partition
+--              returns them in order from an index range scan, instead of reading and sorting the
+--              organization's whole history in every partition.
+--              Monthly partitions are created, filled from the default partition and retired by
+--              the service (AuditPartitionManager); partitions are named organizations_audit_yYYYYmMM
+--              and cover one calendar month in UTC. The index is defined on the parent, so every
+--              partition gets it.
+-- =============================================
+
+DROP INDEX IF EXISTS idx_organizations_audit_org_id;
+CREATE INDEX IF NOT EXISTS idx_organizations_audit_org_id
+    ON organizations_audit (organization_id, created_at, audit_id);
@@ -0,0 +1,15 @@
+-- =============================================
+-- Migration: V14 Bump Tenant Settings Version
+-- Description: Every update of a tenant_settings row now increments its version, not only its
+--              updated_at. The service refreshes cached settings whose version changed, so an
+--              UPDATE from any client takes effect even if its invalidation notification is lost.
+-- =============================================
+
+CREATE OR REPLACE FUNCTION update_tenant_settings_timestamp()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = NOW();
+    NEW.version = OLD.version + 1;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,107 @@
+-- =============================================
+-- Migration: V5 Cache Invalidation Notifications
+-- Description: Publishes row changes of organizations and tenant_settings on a NOTIFY channel so that
+--              every service node can invalidate its in-process caches.
+-- =============================================
+
+-- Channel: tagservice_invalidation
+-- Payload: {"table": "<table>", "op": "<INSERT|UPDATE|DELETE>", "organization_id": <id>}
+-- NOTIFY is transactional: listeners only receive the payload once the writing transaction commits,
+-- and duplicate payloads within one transaction are folded into one.
+
+-- 1. Notification Helper
+CREATE OR REPLACE FUNCTION notify_cache_invalidation(table_name text, op text, organization_id integer)
+RETURNS void AS $$
+BEGIN
+    PERFORM pg_notify(
+        'tagservice_invalidation',
+        json_build_object('table', table_name, 'op', op, 'organization_id', organization_id)::text
+    );
+END;
+$$ LANGUAGE plpgsql;
+
+-- 2. Organizations: extend the audit trigger function
+-- Same audit logic as V1, plus a notification for each change. Soft-deletes are published as DELETE.
+CREATE OR REPLACE FUNCTION audit_organizations_changes()
+RETURNS TRIGGER AS $$
+DECLARE
+    current_audit_user VARCHAR(40);
+    current_action audit_action_type;
+BEGIN
+    IF (TG_OP = 'INSERT') THEN
+        current_audit_user := NEW.created_by;
+    ELSE
+        current_audit_user := current_user;
+    END IF;
+
+    IF (TG_OP = 'INSERT') THEN
+        INSERT INTO organizations_audit (
+            organization_id, action, created_at, created_by, request_id,
+            name, display_name, domain, type, version, deleted_at, settings,
+            name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+        ) VALUES (
+            NEW.id, 'INSERT', NOW(), current_audit_user, NEW.request_id,
+            NEW.name, NEW.display_name, NEW.domain, NEW.type, NEW.version, NEW.deleted_at, NEW.settings,
+            TRUE, TRUE, TRUE, TRUE, TRUE
+        );
+        PERFORM notify_cache_invalidation('organizations', 'INSERT', NEW.id);
+        RETURN NEW;
+    ELSIF (TG_OP = 'UPDATE') THEN
+        IF NEW.deleted_at IS NOT NULL AND OLD.deleted_at IS NULL THEN
+             current_action := 'DELETE';
+        ELSE
+             current_action := 'UPDATE';
+        END IF;
+
+        INSERT INTO organizations_audit (
+            organization_id, action, created_at, created_by, request_id,
+            name, display_name, domain, type, version, deleted_at, settings,
+            name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+        ) VALUES (
+            NEW.id,
+            current_action,
+            NOW(), current_audit_user, NEW.request_id,
+            NEW.name, NEW.display_name, NEW.domain, NEW.type, NEW.version, NEW.deleted_at, NEW.settings,
+            (NEW.name IS DISTINCT FROM OLD.name),
+            (NEW.display_name IS DISTINCT FROM OLD.display_name),
+            (NEW.domain IS DISTINCT FROM OLD.domain),
+            (NEW.type IS DISTINCT FROM OLD.type),
+            (NEW.settings IS DISTINCT FROM OLD.settings)
+        );
+        PERFORM notify_cache_invalidation('organizations', current_action::text, NEW.id);
+        RETURN NEW;
+    ELSIF (TG_OP = 'DELETE') THEN
+        INSERT INTO organizations_audit (
+            organization_id, action, created_at, created_by, request_id,
+            name, display_name, domain, type, version, deleted_at, settings,
+            name_changed, display_name_changed, domain_changed, type_changed, settings_changed
+        ) VALUES (
+            OLD.id, 'DELETE', NOW(), current_audit_user, OLD.request_id,
+            OLD.name, OLD.display_name, OLD.domain, OLD.type, OLD.version, OLD.deleted_at, OLD.settings,
+            FALSE, FALSE, FALSE, FALSE, FALSE
+        );
+        PERFORM notify_cache_invalidation('organizations', 'DELETE', OLD.id);
+        RETURN OLD;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 3. Tenant Settings: notification trigger
+CREATE OR REPLACE FUNCTION notify_tenant_settings_changes()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF (TG_OP = 'DELETE') THEN
+        PERFORM notify_cache_invalidation('tenant_settings', TG_OP, OLD.organization_id);
+        RETURN OLD;
+    END IF;
+    PERFORM notify_cache_invalidation('tenant_settings', TG_OP, NEW.organization_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT drop_trigger_if_exists('trigger_notify_tenant_settings', 'tenant_settings');
+
+CREATE TRIGGER trigger_notify_tenant_settings
+AFTER INSERT OR UPDATE OR DELETE ON tenant_settings
+FOR EACH ROW EXECUTE FUNCTION notify_tenant_settings_changes();
@@ -0,0 +1,13 @@
+-- Enforce one value per key and entity so tag inserts can be idempotent
+-- (INSERT ... ON CONFLICT (tenant_id, entity_type, entity_id, key) DO NOTHING).
+
+-- Remove duplicates left from before the constraint existed, keeping the oldest row
+DELETE FROM tags t
+USING tags newer
+WHERE t.tenant_id = newer.tenant_id
+  AND t.entity_type = newer.entity_type
+  AND t.entity_id = newer.entity_id
+  AND t.key = newer.key
+  AND t.id > newer.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_unique_entity_key ON tags(tenant_id, entity_type, entity_id, key);
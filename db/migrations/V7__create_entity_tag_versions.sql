@@ -0,0 +1,20 @@
+-- =============================================
+-- Migration: V7 Entity Tag Versions
+-- Description: One version counter per tagged entity, advanced by the service whenever the entity's
+--              tags change. Exposed as the ETag of the entity's tags, so conditional GETs can be
+--              answered from this table (or the cache) without reading any tag rows, and writes can
+--              be made conditional with If-Match.
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS entity_tag_versions (
+    tenant_id INTEGER NOT NULL REFERENCES organizations(id) ON DELETE CASCADE,
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id VARCHAR(255) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, entity_type, entity_id)
+);
+
+-- Existing entities start at version 1; entities without a row are at version 0.
+INSERT INTO entity_tag_versions (tenant_id, entity_type, entity_id, version)
+SELECT DISTINCT tenant_id, entity_type, entity_id, 1 FROM tags
+ON CONFLICT DO NOTHING;
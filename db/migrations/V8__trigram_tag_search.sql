@@ -0,0 +1,13 @@
+-- =============================================
+-- Migration: V8 Trigram Tag Search
+-- Description: Trigram GIN indexes on tag keys and values for the PARTIAL and WILDCARD search
+--              modes. The service turns both modes into LIKE/ILIKE patterns, which pg_trgm can
+--              answer from these indexes as long as the pattern contains at least one run of
+--              three word characters; patterns without one are rejected by the service.
+-- =============================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_tags_key_trgm ON tags USING gin (key gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_tags_value_trgm ON tags USING gin (value gin_trgm_ops);
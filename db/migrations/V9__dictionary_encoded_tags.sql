@@ -0,0 +1,78 @@
+-- =============================================
+-- Migration: V9 Dictionary-Encoded Tags
+-- Description: Moves the strings repeated on every tag row into per-tenant dictionaries, so that
+--              tags (and its indexes) hold four integers per row instead of up to four strings.
+--              * tag_keys, tag_values: one row per distinct key / value of a tenant
+--              * entities:             one row per tagged entity of a tenant
+--              Dictionary rows are never updated, and only deleted together with their tenant, so
+--              the service caches them in-process without invalidation.
+--              The existing tags table is converted in place: dictionaries are filled from it, the
+--              rows are re-inserted in encoded form and the old table is dropped.
+-- =============================================
+
+-- 1. Dictionaries
+CREATE TABLE IF NOT EXISTS tag_keys (
+    id SERIAL PRIMARY KEY,
+    tenant_id INTEGER NOT NULL REFERENCES organizations(id) ON DELETE CASCADE,
+    key VARCHAR(100) NOT NULL,
+    CONSTRAINT uq_tag_keys_tenant_key UNIQUE (tenant_id, key)
+);
+
+CREATE TABLE IF NOT EXISTS tag_values (
+    id SERIAL PRIMARY KEY,
+    tenant_id INTEGER NOT NULL REFERENCES organizations(id) ON DELETE CASCADE,
+    value TEXT NOT NULL,
+    CONSTRAINT uq_tag_values_tenant_value UNIQUE (tenant_id, value)
+);
+
+CREATE TABLE IF NOT EXISTS entities (
+    id BIGSERIAL PRIMARY KEY,
+    tenant_id INTEGER NOT NULL REFERENCES organizations(id) ON DELETE CASCADE,
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id VARCHAR(255) NOT NULL,
+    CONSTRAINT uq_entities_tenant_entity UNIQUE (tenant_id, entity_type, entity_id)
+);
+
+-- 2. Fill the dictionaries from the current tags
+INSERT INTO tag_keys (tenant_id, key)
+SELECT DISTINCT tenant_id, key FROM tags
+ON CONFLICT DO NOTHING;
+
+INSERT INTO tag_values (tenant_id, value)
+SELECT DISTINCT tenant_id, value FROM tags WHERE value IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+INSERT INTO entities (tenant_id, entity_type, entity_id)
+SELECT DISTINCT tenant_id, entity_type, entity_id FROM tags
+ON CONFLICT DO NOTHING;
+
+-- 3. Encoded tags
+-- The primary key replaces idx_unique_entity_key and idx_tags_entity; tenant_id leads every index
+-- so that tenant-scoped scans stay range scans.
+CREATE TABLE tags_encoded (
+    tenant_id INTEGER NOT NULL REFERENCES organizations(id) ON DELETE CASCADE,
+    entity_ref BIGINT NOT NULL REFERENCES entities(id) ON DELETE CASCADE,
+    key_id INTEGER NOT NULL REFERENCES tag_keys(id),
+    value_id INTEGER REFERENCES tag_values(id),   -- NULL for a tag without value
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    PRIMARY KEY (tenant_id, entity_ref, key_id)
+);
+
+INSERT INTO tags_encoded (tenant_id, entity_ref, key_id, value_id, created_at)
+SELECT t.tenant_id, e.id, k.id, v.id, t.created_at
+FROM tags t
+JOIN entities e ON e.tenant_id = t.tenant_id AND e.entity_type = t.entity_type AND e.entity_id = t.entity_id
+JOIN tag_keys k ON k.tenant_id = t.tenant_id AND k.key = t.key
+LEFT JOIN tag_values v ON v.tenant_id = t.tenant_id AND v.value = t.value;
+
+-- 4. Swap tables; dropping the old table also drops its indexes, including the V8 trigram indexes
+DROP TABLE tags;
+ALTER TABLE tags_encoded RENAME TO tags;
+ALTER INDEX tags_encoded_pkey RENAME TO tags_pkey;
+
+-- Index for searching entities by tag; INCLUDE allows index-only scans for the entity references
+CREATE INDEX IF NOT EXISTS idx_tags_lookup ON tags(tenant_id, key_id, value_id) INCLUDE (entity_ref);
+
+-- 5. Trigram search now runs against the much smaller dictionaries (see V8)
+CREATE INDEX IF NOT EXISTS idx_tag_keys_key_trgm ON tag_keys USING gin (key gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_tag_values_value_trgm ON tag_values USING gin (value gin_trgm_ops);